@@ -7,17 +7,28 @@
 
 package com.brightsparklabs.asanti;
 
+import static com.google.common.base.Preconditions.*;
+
 import com.brightsparklabs.asanti.model.data.AsantiAsnData;
 import com.brightsparklabs.asanti.model.data.AsantiAsnDataImpl;
+import com.brightsparklabs.asanti.model.data.LazyAsantiAsnData;
 import com.brightsparklabs.asanti.model.data.RawAsnData;
 import com.brightsparklabs.asanti.model.schema.AsnSchema;
+import com.brightsparklabs.asanti.model.schema.Decoder;
+import com.brightsparklabs.asanti.model.schema.DecoderTagCache;
 import com.brightsparklabs.asanti.reader.AsnBerDataReader;
-import com.brightsparklabs.asanti.reader.AsnSchemaReader;
+import com.brightsparklabs.asanti.reader.AsnSchemaRegistry;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
 import com.google.common.io.CharSource;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
+import java.util.Map;
 import java.util.stream.Stream;
 
 /**
@@ -26,13 +37,27 @@ import java.util.stream.Stream;
  * @author brightSPARK Labs
  */
 public class Asanti {
+    // -------------------------------------------------------------------------
+    // CLASS VARIABLES
+    // -------------------------------------------------------------------------
+
+    /**
+     * The default decoder caches, per schema and then per top level type. Schemas are weakly
+     * referenced so that their caches are discarded with them.
+     */
+    private static final LoadingCache<AsnSchema, Map<String, DecoderTagCache>> decoderTagCaches =
+            CacheBuilder.newBuilder()
+                    .weakKeys()
+                    .build(CacheLoader.from(() -> Maps.newConcurrentMap()));
+
     // -------------------------------------------------------------------------
     // PUBLIC METHODS
     // -------------------------------------------------------------------------
 
     /**
      * Decodes the supplied ASN.1 binary data against the specified schema as objects of the
-     * specified top level type
+     * specified top level type. The parsed schema is shared with other calls using the same schema
+     * text (see {@link AsnSchemaRegistry}).
      *
      * @param source ASN.1 BER binary data to decode
      * @param schema ASN.1 schema to decode data against
@@ -43,8 +68,7 @@ public class Asanti {
     public static ImmutableList<AsantiAsnData> decodeAsnData(
             final byte[] source, final CharSource schema, final String topLevelType)
             throws IOException {
-        // TODO: ASN-78 - cache schema
-        final AsnSchema asnSchema = AsnSchemaReader.read(schema);
+        final AsnSchema asnSchema = AsnSchemaRegistry.get(schema);
         return decodeAsnData(source, asnSchema, topLevelType);
     }
 
@@ -52,6 +76,15 @@ public class Asanti {
      * Decodes the supplied ASN.1 Data against the specified schema as an object of the specified
      * top level type
      *
+     * <p>The data is read using the {@link AsnBerDataReader#getDefaultParser() default parser}.
+     * With the {@link AsnBerDataReader.Parser#NATIVE native} parser, each PDU is read and decoded
+     * in a single pass over the data (see {@link Decoder#readAndDecode(ByteBuffer, AsnSchema,
+     * String, DecoderTagCache)}). This is faster than decoding PDUs after reading them, but the
+     * decoded tags of each PDU are not looked up in the default cache (see {@link
+     * #getDecoderTagCache(AsnSchema, String)}), which is only used for the contents of aliased
+     * values. With other parsers, each PDU is read and then decoded as per {@link
+     * #decodeAsnData(RawAsnData, AsnSchema, String)}.
+     *
      * @param source ASN.1 BER binary data to decode
      * @param asnSchema schema to decode data against
      * @param topLevelType top level type in the schema to decode object as
@@ -61,15 +94,16 @@ public class Asanti {
     public static ImmutableList<AsantiAsnData> decodeAsnData(
             final byte[] source, final AsnSchema asnSchema, final String topLevelType)
             throws IOException {
-        return readAsnBerData(source)
-                .map(rawAsnData -> decodeAsnData(rawAsnData, asnSchema, topLevelType))
-                .collect(ImmutableList.toImmutableList());
+        return decodeAsnData(source, asnSchema, topLevelType, AsnBerDataReader.getDefaultParser());
     }
 
     /**
      * Decodes the supplied ASN.1 Data against the specified schema as an object of the specified
      * top level type
      *
+     * <p>The decoded tags are cached (see {@link #getDecoderTagCache(AsnSchema, String)}), so PDUs
+     * with the same raw tags as a previously decoded PDU are not decoded again.
+     *
      * @param rawAsnData data from an ASN.1 binary file
      * @param asnSchema schema to decode data against
      * @param topLevelType top level type in the schema to decode object as
@@ -77,15 +111,113 @@ public class Asanti {
      */
     public static AsantiAsnData decodeAsnData(
             final RawAsnData rawAsnData, final AsnSchema asnSchema, final String topLevelType) {
-        return new AsantiAsnDataImpl(rawAsnData, asnSchema, topLevelType);
+        checkNotNull(rawAsnData);
+        return new AsantiAsnDataImpl(
+                Decoder.unpackAndDecode(
+                        rawAsnData,
+                        asnSchema,
+                        topLevelType,
+                        getDecoderTagCache(asnSchema, topLevelType)),
+                asnSchema);
+    }
+
+    /**
+     * Decodes the supplied ASN.1 Data against the specified schema as an object of the specified
+     * top level type, deferring the decoding until the data is accessed.
+     *
+     * <p>Accessing a single tag only decodes the component of the top level type which contains it
+     * (see {@link LazyAsantiAsnData}). This suits callers which only access a few tags of most
+     * PDUs, e.g. to filter them.
+     *
+     * @param rawAsnData data from an ASN.1 binary file
+     * @param asnSchema schema to decode data against
+     * @param topLevelType top level type in the schema to decode object as
+     * @return the (lazily) decoded ASN.1 data as per the schema
+     */
+    public static AsantiAsnData decodeAsnDataLazily(
+            final RawAsnData rawAsnData, final AsnSchema asnSchema, final String topLevelType) {
+        return new LazyAsantiAsnData(rawAsnData, asnSchema, topLevelType);
+    }
+
+    /**
+     * Decodes the supplied ASN.1 BER/DER binary data file against the specified schema as objects
+     * of the specified top level type, returning the PDUs as they are decoded.
+     *
+     * <p>Unlike {@link #decodeAsnData(byte[], AsnSchema, String)}, the decoded data is not
+     * collected, so files of any size can be decoded. PDUs are decoded concurrently and returned in
+     * order. Use {@link StreamingDecoder#builder(AsnSchema, String)} to configure the worker pool,
+     * ordering and read-ahead.
+     *
+     * @param source the path to the file containing the ASN.1 BER/DER binary data
+     * @param asnSchema schema to decode data against
+     * @param topLevelType top level type in the schema to decode objects as
+     * @return the decoded ASN.1 data as per the schema. The stream should be closed when done.
+     * @throws IOException if any errors occur reading the file
+     */
+    public static Stream<AsantiAsnData> decodeAsnDataStream(
+            final Path source, final AsnSchema asnSchema, final String topLevelType)
+            throws IOException {
+        return StreamingDecoder.builder(asnSchema, topLevelType).build().decode(source);
+    }
+
+    /**
+     * Decodes the supplied ASN.1 BER/DER binary data against the specified schema as objects of the
+     * specified top level type, returning the PDUs as they are decoded.
+     *
+     * <p>See {@link #decodeAsnDataStream(Path, AsnSchema, String)}.
+     *
+     * @param source an input stream containing the ASN.1 BER/DER binary data
+     * @param asnSchema schema to decode data against
+     * @param topLevelType top level type in the schema to decode objects as
+     * @return the decoded ASN.1 data as per the schema. The stream should be closed when done.
+     */
+    public static Stream<AsantiAsnData> decodeAsnDataStream(
+            final InputStream source, final AsnSchema asnSchema, final String topLevelType) {
+        return StreamingDecoder.builder(asnSchema, topLevelType).build().decode(source);
+    }
+
+    /**
+     * Decodes the remaining ASN.1 BER/DER binary data in the supplied buffer against the specified
+     * schema as objects of the specified top level type, returning the PDUs as they are decoded.
+     *
+     * <p>See {@link #decodeAsnDataStream(Path, AsnSchema, String)}. The buffer's content must not
+     * be modified while the decoded data is in use.
+     *
+     * @param source buffer containing the ASN.1 BER/DER binary data
+     * @param asnSchema schema to decode data against
+     * @param topLevelType top level type in the schema to decode objects as
+     * @return the decoded ASN.1 data as per the schema. The stream should be closed when done.
+     */
+    public static Stream<AsantiAsnData> decodeAsnDataStream(
+            final ByteBuffer source, final AsnSchema asnSchema, final String topLevelType) {
+        return StreamingDecoder.builder(asnSchema, topLevelType).build().decode(source);
+    }
+
+    /**
+     * Returns the default cache used when decoding data against the specified schema as objects of
+     * the specified top level type. The cache is created using {@link DecoderTagCache#create()} the
+     * first time it is requested, and is discarded once the schema is no longer referenced.
+     *
+     * @param asnSchema schema the data is decoded against
+     * @param topLevelType top level type in the schema the data is decoded as
+     * @return the cache, e.g. to inspect its statistics
+     */
+    public static DecoderTagCache getDecoderTagCache(
+            final AsnSchema asnSchema, final String topLevelType) {
+        checkNotNull(asnSchema);
+        checkNotNull(topLevelType);
+        return decoderTagCaches
+                .getUnchecked(asnSchema)
+                .computeIfAbsent(topLevelType, _ -> DecoderTagCache.create());
     }
 
     /**
      * Reads the supplied ASN.1 BER/DER binary data.
      *
      * <p>For files below {@code 50MB} this will read in all the bytes at once. For files over this
-     * limit, a buffered input stream will be used instead. Use {@link #readAsnBerData(InputStream)}
-     * or {@link #readAsnBerData(byte[])} if you'd prefer different behaviour.
+     * limit, the file will be memory-mapped instead and remains mapped until the returned stream is
+     * closed. Use {@link #readAsnBerData(InputStream)} or {@link #readAsnBerData(byte[])} if you'd
+     * prefer different behaviour.
      *
      * @param source The path to the file containing the ASN.1 BER/DER binary data.
      * @return List of {@link RawAsnData} objects found in the data.
@@ -115,4 +247,45 @@ public class Asanti {
     public static Stream<RawAsnData> readAsnBerData(final InputStream source) {
         return AsnBerDataReader.read(source);
     }
+
+    // -------------------------------------------------------------------------
+    // PACKAGE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Decodes the supplied ASN.1 Data against the specified schema as an object of the specified
+     * top level type, reading the data using the specified parser.
+     *
+     * <p>See {@link #decodeAsnData(byte[], AsnSchema, String)}.
+     *
+     * @param source ASN.1 BER binary data to decode
+     * @param asnSchema schema to decode data against
+     * @param topLevelType top level type in the schema to decode object as
+     * @param parser the parser to read the data with
+     * @return the decoded ASN.1 data as per the schema
+     * @throws IOException if any errors occur reading the data
+     */
+    static ImmutableList<AsantiAsnData> decodeAsnData(
+            final byte[] source,
+            final AsnSchema asnSchema,
+            final String topLevelType,
+            final AsnBerDataReader.Parser parser)
+            throws IOException {
+        if (parser != AsnBerDataReader.Parser.NATIVE) {
+            return AsnBerDataReader.read(source, parser)
+                    .map(rawAsnData -> decodeAsnData(rawAsnData, asnSchema, topLevelType))
+                    .collect(ImmutableList.toImmutableList());
+        }
+
+        final DecoderTagCache cache = getDecoderTagCache(asnSchema, topLevelType);
+        final ByteBuffer buffer = ByteBuffer.wrap(source);
+        final ImmutableList.Builder<AsantiAsnData> result = ImmutableList.builder();
+        while (buffer.hasRemaining()) {
+            result.add(
+                    new AsantiAsnDataImpl(
+                            Decoder.readAndDecode(buffer, asnSchema, topLevelType, cache),
+                            asnSchema));
+        }
+        return result.build();
+    }
 }
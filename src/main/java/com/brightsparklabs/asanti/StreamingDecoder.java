@@ -0,0 +1,396 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti;
+
+import static com.google.common.base.Preconditions.*;
+
+import com.brightsparklabs.asanti.model.data.AsantiAsnData;
+import com.brightsparklabs.asanti.model.data.RawAsnData;
+import com.brightsparklabs.asanti.model.schema.AsnSchema;
+import com.brightsparklabs.asanti.reader.AsnBerDataReader;
+import com.google.common.collect.Queues;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Decodes ASN.1 BER/DER binary data against a schema as a stream, decoding PDUs concurrently.
+ *
+ * <p>PDUs are read as the returned stream is consumed, and each PDU read is decoded (as per {@link
+ * Asanti#decodeAsnData(RawAsnData, AsnSchema, String)}) on the decoder's executor. At most {@link
+ * Builder#maximumInFlight(int)} PDUs are read ahead of the consumer, so only a bounded number of
+ * decoded PDUs are held in memory regardless of the size of the data.
+ *
+ * <p>By default the decoded PDUs are returned in the order they occur in the data. In {@link
+ * Builder#ordered(boolean) unordered} mode they are returned as soon as they have been decoded, so
+ * a slow PDU does not hold up those after it.
+ *
+ * <p>The returned streams must be consumed from a single thread, and should be closed when done.
+ *
+ * @author brightSPARK Labs
+ */
+public final class StreamingDecoder {
+    // -------------------------------------------------------------------------
+    // CONSTANTS
+    // -------------------------------------------------------------------------
+
+    /**
+     * The default maximum number of PDUs being decoded (or waiting to be consumed) at once.
+     * Default: `4` per available processor.
+     */
+    private static final int DEFAULT_MAXIMUM_IN_FLIGHT =
+            Integer.getInteger(
+                    "com.brightsparklabs.asanti.StreamingDecoder.maximumInFlight",
+                    4 * Runtime.getRuntime().availableProcessors());
+
+    // -------------------------------------------------------------------------
+    // INSTANCE VARIABLES
+    // -------------------------------------------------------------------------
+
+    /** Schema to decode data against. */
+    private final AsnSchema asnSchema;
+
+    /** Top level type in the schema to decode PDUs as. */
+    private final String topLevelType;
+
+    /** Executor to decode PDUs on. */
+    private final Executor executor;
+
+    /** Maximum number of PDUs being decoded (or waiting to be consumed) at once. */
+    private final int maximumInFlight;
+
+    /** Whether decoded PDUs are returned in the order they occur in the data. */
+    private final boolean ordered;
+
+    // -------------------------------------------------------------------------
+    // CONSTRUCTION
+    // -------------------------------------------------------------------------
+
+    /**
+     * Creates a decoder with the settings specified by the builder.
+     *
+     * @param builder The builder holding the settings.
+     */
+    private StreamingDecoder(final Builder builder) {
+        asnSchema = builder.asnSchema;
+        topLevelType = builder.topLevelType;
+        executor = builder.executor;
+        maximumInFlight = builder.maximumInFlight;
+        ordered = builder.ordered;
+    }
+
+    /**
+     * Creates a builder for a decoder.
+     *
+     * @param asnSchema Schema to decode data against.
+     * @param topLevelType Top level type in the schema to decode PDUs as.
+     * @return A new builder.
+     * @throws NullPointerException If any of the parameters are {@code null}.
+     */
+    public static Builder builder(final AsnSchema asnSchema, final String topLevelType) {
+        return new Builder(asnSchema, topLevelType);
+    }
+
+    // -------------------------------------------------------------------------
+    // PUBLIC METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Decodes the supplied ASN.1 BER/DER binary data file. The file is read as per {@link
+     * Asanti#readAsnBerData(Path)}.
+     *
+     * @param source The path to the file containing the ASN.1 BER/DER binary data.
+     * @return The decoded PDUs.
+     * @throws IOException If any errors occur reading the file.
+     */
+    public Stream<AsantiAsnData> decode(final Path source) throws IOException {
+        return decode(AsnBerDataReader.read(source));
+    }
+
+    /**
+     * Decodes the supplied ASN.1 BER/DER binary data.
+     *
+     * @param source An input stream containing the ASN.1 BER/DER binary data.
+     * @return The decoded PDUs.
+     */
+    public Stream<AsantiAsnData> decode(final InputStream source) {
+        return decode(AsnBerDataReader.read(source));
+    }
+
+    /**
+     * Decodes the remaining ASN.1 BER/DER binary data in the supplied buffer. The buffer's position
+     * is not changed, and its content must not be modified while the decoded PDUs are in use.
+     *
+     * @param source Buffer containing the ASN.1 BER/DER binary data.
+     * @return The decoded PDUs.
+     */
+    public Stream<AsantiAsnData> decode(final ByteBuffer source) {
+        return decode(AsnBerDataReader.read(source));
+    }
+
+    /**
+     * Decodes the supplied PDUs. The PDUs are consumed from the supplied stream as the returned
+     * stream is consumed, and the supplied stream is closed when the returned stream is closed.
+     *
+     * @param pdus The PDUs to decode.
+     * @return The decoded PDUs.
+     */
+    public Stream<AsantiAsnData> decode(final Stream<RawAsnData> pdus) {
+        checkNotNull(pdus);
+        final DecodingIterator iterator = new DecodingIterator(pdus.iterator());
+        final int characteristics = Spliterator.NONNULL | (ordered ? Spliterator.ORDERED : 0);
+        return StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(iterator, characteristics), false)
+                .onClose(iterator::cancel)
+                .onClose(pdus::close);
+    }
+
+    // -------------------------------------------------------------------------
+    // INTERNAL CLASS: DecodingIterator
+    // -------------------------------------------------------------------------
+
+    /**
+     * Iterator which reads PDUs ahead of the consumer and decodes them on the executor.
+     *
+     * @author brightSPARK Labs
+     */
+    private final class DecodingIterator implements Iterator<AsantiAsnData> {
+        // ---------------------------------------------------------------------
+        // INSTANCE VARIABLES
+        // ---------------------------------------------------------------------
+
+        /** The PDUs to decode. */
+        private final Iterator<RawAsnData> pdus;
+
+        /** The PDUs being decoded, in the order they were read (ordered mode only). */
+        private final Queue<CompletableFuture<AsantiAsnData>> inFlight = new ArrayDeque<>();
+
+        /** The PDUs which have been decoded, in the order they completed (unordered mode only). */
+        private final BlockingQueue<CompletableFuture<AsantiAsnData>> completed =
+                Queues.newLinkedBlockingQueue();
+
+        /** The number of PDUs which have been read but not returned (unordered mode only). */
+        private int unorderedPending = 0;
+
+        /** Whether the stream has been closed, in which case PDUs are no longer decoded. */
+        private volatile boolean cancelled = false;
+
+        // ---------------------------------------------------------------------
+        // CONSTRUCTION
+        // ---------------------------------------------------------------------
+
+        /**
+         * Default constructor.
+         *
+         * @param pdus The PDUs to decode.
+         */
+        private DecodingIterator(final Iterator<RawAsnData> pdus) {
+            this.pdus = pdus;
+        }
+
+        // ---------------------------------------------------------------------
+        // IMPLEMENTATION: Iterator
+        // ---------------------------------------------------------------------
+
+        @Override
+        public boolean hasNext() {
+            fill();
+            return pending() > 0;
+        }
+
+        @Override
+        public AsantiAsnData next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            final CompletableFuture<AsantiAsnData> future;
+            if (ordered) {
+                future = inFlight.remove();
+            } else {
+                try {
+                    future = completed.take();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CompletionException(e);
+                }
+                unorderedPending--;
+            }
+
+            try {
+                return future.join();
+            } catch (final CompletionException e) {
+                // rethrow the exception raised while decoding (e.g. a missing top level type)
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        // ---------------------------------------------------------------------
+        // PRIVATE METHODS
+        // ---------------------------------------------------------------------
+
+        /** {@return the number of PDUs which have been read but not returned} */
+        private int pending() {
+            return ordered ? inFlight.size() : unorderedPending;
+        }
+
+        /** Reads and submits PDUs until the maximum number are in flight or there are no more. */
+        private void fill() {
+            while (pending() < maximumInFlight && pdus.hasNext()) {
+                final RawAsnData pdu = pdus.next();
+                final CompletableFuture<AsantiAsnData> future =
+                        CompletableFuture.supplyAsync(() -> decode(pdu), executor);
+                if (ordered) {
+                    inFlight.add(future);
+                } else {
+                    future.whenComplete((_, _) -> completed.add(future));
+                    unorderedPending++;
+                }
+            }
+        }
+
+        /**
+         * Decodes a PDU, unless the stream has been closed.
+         *
+         * @param pdu The PDU to decode.
+         * @return The decoded PDU.
+         * @throws CancellationException If the stream has been closed.
+         */
+        private AsantiAsnData decode(final RawAsnData pdu) {
+            if (cancelled) {
+                throw new CancellationException();
+            }
+            return Asanti.decodeAsnData(pdu, asnSchema, topLevelType);
+        }
+
+        /** Cancels the PDUs which have not been decoded yet. */
+        private void cancel() {
+            cancelled = true;
+            inFlight.clear();
+            completed.clear();
+            unorderedPending = 0;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // INTERNAL CLASS: Builder
+    // -------------------------------------------------------------------------
+
+    /**
+     * Builder for creating instances of {@link StreamingDecoder}.
+     *
+     * @author brightSPARK Labs
+     */
+    public static final class Builder {
+        // ---------------------------------------------------------------------
+        // INSTANCE VARIABLES
+        // ---------------------------------------------------------------------
+
+        /** Schema to decode data against. */
+        private final AsnSchema asnSchema;
+
+        /** Top level type in the schema to decode PDUs as. */
+        private final String topLevelType;
+
+        /** Executor to decode PDUs on. */
+        private Executor executor = ForkJoinPool.commonPool();
+
+        /** Maximum number of PDUs being decoded (or waiting to be consumed) at once. */
+        private int maximumInFlight = DEFAULT_MAXIMUM_IN_FLIGHT;
+
+        /** Whether decoded PDUs are returned in the order they occur in the data. */
+        private boolean ordered = true;
+
+        // ---------------------------------------------------------------------
+        // CONSTRUCTION
+        // ---------------------------------------------------------------------
+
+        /**
+         * Default constructor. Use {@link StreamingDecoder#builder(AsnSchema, String)} to create
+         * instances.
+         *
+         * @param asnSchema Schema to decode data against.
+         * @param topLevelType Top level type in the schema to decode PDUs as.
+         */
+        private Builder(final AsnSchema asnSchema, final String topLevelType) {
+            this.asnSchema = checkNotNull(asnSchema);
+            this.topLevelType = checkNotNull(topLevelType);
+        }
+
+        // ---------------------------------------------------------------------
+        // PUBLIC METHODS
+        // ---------------------------------------------------------------------
+
+        /**
+         * Sets the executor (worker pool) to decode PDUs on. Default: the common {@link
+         * ForkJoinPool}.
+         *
+         * @param executor The executor.
+         * @return This builder.
+         * @throws NullPointerException If {@code executor} is {@code null}.
+         */
+        public Builder executor(final Executor executor) {
+            this.executor = checkNotNull(executor);
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of PDUs being decoded (or waiting to be consumed) at once. This
+         * bounds how far reading runs ahead of the consumer.
+         *
+         * @param maximumInFlight The maximum number of PDUs. {@code 1} decodes the PDUs one at a
+         *     time.
+         * @return This builder.
+         * @throws IllegalArgumentException If the maximum is less than {@code 1}.
+         */
+        public Builder maximumInFlight(final int maximumInFlight) {
+            checkArgument(maximumInFlight >= 1, "Maximum must be at least 1");
+            this.maximumInFlight = maximumInFlight;
+            return this;
+        }
+
+        /**
+         * Sets whether decoded PDUs are returned in the order they occur in the data. Default:
+         * {@code true}.
+         *
+         * @param ordered {@code false} to return PDUs as soon as they have been decoded.
+         * @return This builder.
+         */
+        public Builder ordered(final boolean ordered) {
+            this.ordered = ordered;
+            return this;
+        }
+
+        /**
+         * Creates the decoder.
+         *
+         * @return A new decoder.
+         */
+        public StreamingDecoder build() {
+            return new StreamingDecoder(this);
+        }
+    }
+}
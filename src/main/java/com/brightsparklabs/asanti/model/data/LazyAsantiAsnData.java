@@ -0,0 +1,203 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.model.data;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.brightsparklabs.asanti.decoder.builtin.BuiltinTypeDecoder;
+import com.brightsparklabs.asanti.exception.DecodeException;
+import com.brightsparklabs.asanti.model.schema.AsnSchema;
+import com.brightsparklabs.asanti.model.schema.ComponentDecoder;
+import com.brightsparklabs.asanti.model.schema.DecodedTag;
+import com.brightsparklabs.asanti.model.schema.type.AsnSchemaType;
+import com.brightsparklabs.asanti.schema.AsnPrimitiveType;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.BaseEncoding;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Implementation of {@link AsantiAsnData} which defers decoding the data against the schema until
+ * it is accessed.
+ *
+ * <p>Methods which access a single tag (e.g. {@link #contains(String)} or {@link
+ * #getBytes(String)}) only decode the component of the top level type which contains the tag (see
+ * {@link ComponentDecoder}). Methods which access many tags (e.g. {@link #getTags()} or {@link
+ * #getBytesMatching(Pattern)}) decode all the data, as {@link AsantiAsnDataImpl} does on
+ * construction. The results are the same as those of {@link AsantiAsnDataImpl}.
+ *
+ * @author brightSPARK Labs
+ */
+public class LazyAsantiAsnData implements AsantiAsnData {
+    // -------------------------------------------------------------------------
+    // INSTANCE VARIABLES
+    // -------------------------------------------------------------------------
+
+    /** The schema used to decode. */
+    private final AsnSchema asnSchema;
+
+    /** Decodes the components of the data which contain the tags accessed. */
+    private final ComponentDecoder componentDecoder;
+
+    /** All the data decoded at once, created the first time many tags are accessed. */
+    private final Supplier<AsantiAsnDataImpl> decoded;
+
+    // -------------------------------------------------------------------------
+    // CONSTRUCTION
+    // -------------------------------------------------------------------------
+
+    /**
+     * Default constructor.
+     *
+     * @param rawAsnData Data to decode.
+     * @param asnSchema Schema to use to decode data.
+     * @param topLevelTypeName The name of the top level type in this module from which to begin
+     *     decoding the raw tag.
+     * @throws NullPointerException If any of the parameters are {@code null}.
+     * @throws IllegalArgumentException If topLevelTypeName is blank.
+     */
+    public LazyAsantiAsnData(
+            final RawAsnData rawAsnData, final AsnSchema asnSchema, final String topLevelTypeName) {
+        checkNotNull(rawAsnData);
+        checkNotNull(asnSchema);
+        checkNotNull(topLevelTypeName);
+        checkArgument(!topLevelTypeName.trim().isEmpty(), "Top level type name must be specified");
+
+        this.asnSchema = asnSchema;
+        componentDecoder = new ComponentDecoder(rawAsnData, asnSchema, topLevelTypeName);
+        decoded =
+                Suppliers.memoize(
+                        () -> new AsantiAsnDataImpl(rawAsnData, asnSchema, topLevelTypeName));
+    }
+
+    // -------------------------------------------------------------------------
+    // IMPLEMENTATION: AsnData
+    // -------------------------------------------------------------------------
+
+    @Override
+    public Optional<AsnPrimitiveType> getPrimitiveType(final String tag) {
+        return getType(tag).map(AsnSchemaType::getPrimitiveType);
+    }
+
+    @Override
+    public ImmutableSet<String> getTags() {
+        return decoded.get().getTags();
+    }
+
+    @Override
+    public ImmutableSet<String> getAllTags() {
+        return decoded.get().getAllTags();
+    }
+
+    @Override
+    public ImmutableSet<String> getTagsMatching(final Pattern regex) {
+        return decoded.get().getTagsMatching(regex);
+    }
+
+    @Override
+    public ImmutableSet<String> getUnmappedTags() {
+        return decoded.get().getUnmappedTags();
+    }
+
+    @Override
+    public boolean contains(final String tag) {
+        return componentDecoder.getDecodedTag(tag).isPresent();
+    }
+
+    @Override
+    public boolean contains(final Pattern regex) {
+        return decoded.get().contains(regex);
+    }
+
+    @Override
+    public Optional<byte[]> getBytes(final String tag) {
+        // if no decoded tag, assume supplied tag is is already raw tag
+        final String rawTag =
+                componentDecoder.getDecodedTag(tag).map(DecodedTag::rawTag).orElse(tag);
+        return componentDecoder.getBytes(rawTag);
+    }
+
+    @Override
+    public ImmutableMap<String, byte[]> getBytesMatching(final Pattern regex) {
+        return decoded.get().getBytesMatching(regex);
+    }
+
+    @Override
+    public Optional<String> getHexString(final String tag) {
+        return getBytes(tag).map(bytes -> BaseEncoding.base16().encode(bytes));
+    }
+
+    @Override
+    public ImmutableMap<String, String> getHexStringsMatching(final Pattern regex) {
+        return decoded.get().getHexStringsMatching(regex);
+    }
+
+    @Override
+    public Optional<String> getPrintableString(final String tag) throws DecodeException {
+        final Optional<BuiltinTypeDecoder<?>> decoder = getDecoder(tag);
+        if (decoder.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(decoder.get().decodeAsString(tag, this));
+    }
+
+    @Override
+    public ImmutableMap<String, String> getPrintableStringsMatching(final Pattern regex)
+            throws DecodeException {
+        return decoded.get().getPrintableStringsMatching(regex);
+    }
+
+    @Override
+    public <T> Optional<T> getDecodedObject(final String tag, final Class<T> classOfT)
+            throws DecodeException, ClassCastException {
+        final Optional<BuiltinTypeDecoder<?>> decoder = getDecoder(tag);
+        if (decoder.isEmpty()) {
+            return Optional.empty();
+        }
+        // this should throw a ClassCastException if it the types don't match.
+        return Optional.of(classOfT.cast(decoder.get().decode(tag, this)));
+    }
+
+    @Override
+    public ImmutableMap<String, Object> getDecodedObjectsMatching(final Pattern regex)
+            throws DecodeException {
+        return decoded.get().getDecodedObjectsMatching(regex);
+    }
+
+    @Override
+    public Optional<AsnSchemaType> getType(final String tag) {
+        return asnSchema.getType(tag);
+    }
+
+    // -------------------------------------------------------------------------
+    // PRIVATE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the decoder for the type of a decoded tag.
+     *
+     * @param tag The decoded tag.
+     * @return The decoder, or {@link Optional#empty()} if the tag could not be decoded.
+     */
+    private Optional<BuiltinTypeDecoder<?>> getDecoder(final String tag) {
+        return componentDecoder
+                .getDecodedTag(tag)
+                .filter(DecodedTag::isFullyDecoded)
+                .map(
+                        decodedTag ->
+                                (BuiltinTypeDecoder<?>)
+                                        decodedTag
+                                                .type()
+                                                .getPrimitiveType()
+                                                .accept(AsantiAsnDataImpl.decoderVisitor));
+    }
+}
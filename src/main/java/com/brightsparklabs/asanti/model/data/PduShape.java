@@ -0,0 +1,120 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.model.data;
+
+import static com.google.common.base.Preconditions.*;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A structural fingerprint of the raw tags of a PDU. PDUs with equal shapes have the same raw tags
+ * (in the same order), regardless of their values, so they decode to the same tags.
+ *
+ * <p>Each shape holds a 128-bit hash of its structure, which is used as the hash code, along with
+ * the structure itself. Equality compares the hashes and then verifies the structures, so a hash
+ * collision cannot cause two different shapes to be equal. The structure of PDUs read by the native
+ * parser is the packed tag tree built while parsing, so neither hashing nor verification requires
+ * the raw tag Strings to be rendered.
+ *
+ * @author brightSPARK Labs
+ */
+public final class PduShape {
+    // -------------------------------------------------------------------------
+    // INSTANCE VARIABLES
+    // -------------------------------------------------------------------------
+
+    /** The upper 64 bits of the hash. */
+    private final long high;
+
+    /** The lower 64 bits of the hash. */
+    private final long low;
+
+    /** The number of tags in the PDU. */
+    private final int size;
+
+    /** The structure which was hashed (arrays are compared by content). */
+    private final Object[] structure;
+
+    // -------------------------------------------------------------------------
+    // CONSTRUCTION
+    // -------------------------------------------------------------------------
+
+    /**
+     * Default constructor.
+     *
+     * @param high The upper 64 bits of the hash.
+     * @param low The lower 64 bits of the hash.
+     * @param size The number of tags in the PDU.
+     * @param structure The structure which was hashed. This is not copied, so must not be modified.
+     */
+    PduShape(final long high, final long low, final int size, final Object... structure) {
+        this.high = high;
+        this.low = low;
+        this.size = size;
+        this.structure = structure;
+    }
+
+    /**
+     * Creates the shape of a PDU from its raw tags.
+     *
+     * @param rawTags The raw tags of the PDU.
+     * @return The shape of the PDU.
+     * @throws NullPointerException If {@code rawTags} is {@code null}.
+     */
+    public static PduShape of(final ImmutableSet<String> rawTags) {
+        checkNotNull(rawTags);
+        final Hasher hasher = Hashing.murmur3_128().newHasher();
+        for (final String rawTag : rawTags) {
+            hasher.putString(rawTag, StandardCharsets.UTF_8).putByte((byte) 0);
+        }
+        final HashCode hash = hasher.hash();
+        final long low = hash.asLong();
+        final long high = HashCode.fromBytes(Arrays.copyOfRange(hash.asBytes(), 8, 16)).asLong();
+        return new PduShape(high, low, rawTags.size(), rawTags.asList());
+    }
+
+    // -------------------------------------------------------------------------
+    // PUBLIC METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the number of tags in the PDU.
+     *
+     * @return The number of tags.
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        return other instanceof PduShape shape
+                && high == shape.high
+                && low == shape.low
+                && size == shape.size
+                && Arrays.deepEquals(structure, shape.structure);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(low);
+    }
+
+    @Override
+    public String toString() {
+        return "%016x%016x (%d tags)".formatted(high, low, size);
+    }
+}
@@ -9,6 +9,7 @@ package com.brightsparklabs.asanti.model.data;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import java.nio.ByteBuffer;
 import java.util.Optional;
 import java.util.regex.Pattern;
 
@@ -51,6 +52,17 @@ public interface RawAsnData {
      */
     ImmutableSet<String> getRawTags();
 
+    /**
+     * Returns a structural fingerprint of the tags in the data. Data with equal shapes has the same
+     * raw tags, so can be used as a cache key for anything derived from the raw tags alone (e.g.
+     * the decoded tags).
+     *
+     * @return the shape of the data
+     */
+    default PduShape getShape() {
+        return PduShape.of(getRawTags());
+    }
+
     /**
      * Returns the data (bytes) associated with the specified tag
      *
@@ -60,6 +72,19 @@ public interface RawAsnData {
      */
     Optional<byte[]> getBytes(String rawTag);
 
+    /**
+     * Returns a read-only view of the data (bytes) associated with the specified tag. Unlike {@link
+     * #getBytes(String)}, implementations backed by the source buffer return the data without
+     * copying it.
+     *
+     * @param rawTag tag associated with the data
+     * @return data associated with the specified tag or {@link Optional#empty()} if the tag does
+     *     not exist
+     */
+    default Optional<ByteBuffer> getByteBuffer(String rawTag) {
+        return getBytes(rawTag).map(bytes -> ByteBuffer.wrap(bytes).asReadOnlyBuffer());
+    }
+
     /**
      * Returns a mapping of all tags to the data (bytes) associated with them
      *
@@ -80,4 +105,20 @@ public interface RawAsnData {
      * @return data associated with the matching tags. Map is of form: {@code tag -> data}
      */
     ImmutableMap<String, byte[]> getBytesMatching(Pattern regex);
+
+    /**
+     * Returns an estimate of the memory (in bytes) retained by the data, excluding any buffer which
+     * the data is a view over (e.g. the buffer the data was read from).
+     *
+     * @return the estimated number of bytes retained by the data
+     */
+    default long getRetainedSize() {
+        long size = 0;
+        for (final String rawTag : getRawTags()) {
+            final int valueSize = getByteBuffer(rawTag).map(ByteBuffer::remaining).orElse(0);
+            // the tag, its value and roughly 64 bytes of object and map entry overhead
+            size += 64 + rawTag.length() + valueSize;
+        }
+        return size;
+    }
 }
@@ -0,0 +1,580 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.model.data;
+
+import static com.google.common.base.Preconditions.*;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Implementation of {@link RawAsnData} whose values are views over a shared backing array (usually
+ * the buffer the PDU was read from) rather than individually copied arrays.
+ *
+ * <p>Bytes are only copied out of the backing array when they are requested via {@link
+ * #getBytes(String)} (or the other {@code byte[]} returning methods). {@link
+ * #getByteBuffer(String)} returns a read-only view without copying.
+ *
+ * <p>Values which cannot be expressed as a range of the backing array (e.g. constructed strings,
+ * whose fragments are reassembled into a single value while reading) are stored as separate arrays.
+ *
+ * <p>Tags are held as a tree of packed (index, tag class, tag number) segments rather than Strings.
+ * The raw tag Strings are only rendered the first time a String based method (e.g. {@link
+ * #getRawTags()}) is called.
+ *
+ * <p><b>Note:</b> Instances retain a reference to the backing array, so it must not be modified
+ * after the instance has been built.
+ *
+ * @author brightSPARK Labs
+ */
+public final class SlicedRawAsnData implements RawAsnData {
+    // -------------------------------------------------------------------------
+    // CONSTANTS
+    // -------------------------------------------------------------------------
+
+    /** Largest tag number which can be packed into a segment. */
+    private static final int MAX_TAG_NUMBER = 0x3FFFFFFF;
+
+    // -------------------------------------------------------------------------
+    // INSTANCE VARIABLES
+    // -------------------------------------------------------------------------
+
+    /** The array the values are views over. */
+    private final byte[] backing;
+
+    /** Packed (index, tag class, tag number) segment of each node in the tag tree. */
+    private final long[] segments;
+
+    /** Parent of each node in the tag tree ({@code -1} for top level nodes). */
+    private final int[] parents;
+
+    /** Node of each entry's tag ({@code -1} for the empty tag). */
+    private final int[] entryNodes;
+
+    /** Offset of each entry's value within {@link #backing}. */
+    private final int[] offsets;
+
+    /** Length of each entry's value. */
+    private final int[] lengths;
+
+    /**
+     * The value of each entry which is not a view over {@link #backing} ({@code null} if it is).
+     */
+    private final byte[][] values;
+
+    /** The structural fingerprint of the tags. */
+    private final PduShape shape;
+
+    /** Map of rendered tags to the index of their entry. Rendered on first use. */
+    private volatile ImmutableMap<String, Integer> tagsToEntries;
+
+    // -------------------------------------------------------------------------
+    // CONSTRUCTION
+    // -------------------------------------------------------------------------
+
+    /**
+     * Default constructor. Use {@link #builder(int)} to create instances.
+     *
+     * @param backing The array the values are views over.
+     * @param segments Packed segment of each node in the tag tree.
+     * @param parents Parent of each node in the tag tree.
+     * @param entryNodes Node of each entry's tag.
+     * @param offsets Offset of each entry's value within the backing array.
+     * @param lengths Length of each entry's value.
+     * @param values The value of each entry which is not a view ({@code null} if it is).
+     * @param shape The structural fingerprint of the tags.
+     */
+    private SlicedRawAsnData(
+            final byte[] backing,
+            final long[] segments,
+            final int[] parents,
+            final int[] entryNodes,
+            final int[] offsets,
+            final int[] lengths,
+            final byte[][] values,
+            final PduShape shape) {
+        this.backing = backing;
+        this.segments = segments;
+        this.parents = parents;
+        this.entryNodes = entryNodes;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.values = values;
+        this.shape = shape;
+    }
+
+    /**
+     * Creates a builder.
+     *
+     * @param expectedSize The expected number of tags, used to pre-size the builder.
+     * @return A new builder.
+     */
+    public static Builder builder(final int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    // -------------------------------------------------------------------------
+    // IMPLEMENTATION: RawAsnData
+    // -------------------------------------------------------------------------
+
+    @Override
+    public boolean contains(final String tag) {
+        return tagsToEntries().containsKey(tag);
+    }
+
+    @Override
+    public boolean contains(final Pattern regex) {
+        if (regex == null) {
+            return false;
+        }
+
+        return tagsToEntries().keySet().stream().anyMatch(tag -> regex.matcher(tag).matches());
+    }
+
+    @Override
+    public PduShape getShape() {
+        return shape;
+    }
+
+    @Override
+    public ImmutableSet<String> getRawTags() {
+        return tagsToEntries().keySet();
+    }
+
+    @Override
+    public Optional<byte[]> getBytes(final String rawTag) {
+        final Integer entry = tagsToEntries().get(rawTag);
+        return entry == null ? Optional.empty() : Optional.of(materialise(entry));
+    }
+
+    @Override
+    public Optional<ByteBuffer> getByteBuffer(final String rawTag) {
+        final Integer entry = tagsToEntries().get(rawTag);
+        if (entry == null) {
+            return Optional.empty();
+        }
+
+        final byte[] value = values[entry];
+        final ByteBuffer buffer =
+                value == null
+                        ? ByteBuffer.wrap(backing, offsets[entry], lengths[entry]).slice()
+                        : ByteBuffer.wrap(value);
+        return Optional.of(buffer.asReadOnlyBuffer());
+    }
+
+    @Override
+    public ImmutableMap<String, byte[]> getBytes() {
+        final ImmutableMap<String, Integer> entries = tagsToEntries();
+        final var result = ImmutableMap.<String, byte[]>builderWithExpectedSize(entries.size());
+        for (final Map.Entry<String, Integer> entry : entries.entrySet()) {
+            result.put(entry.getKey(), materialise(entry.getValue()));
+        }
+        return result.build();
+    }
+
+    @Override
+    public ImmutableMap<String, byte[]> getBytesMatching(final Pattern regex) {
+        if (regex == null) {
+            return ImmutableMap.of();
+        }
+
+        final var result = ImmutableMap.<String, byte[]>builder();
+        for (final Map.Entry<String, Integer> entry : tagsToEntries().entrySet()) {
+            if (regex.matcher(entry.getKey()).matches()) {
+                result.put(entry.getKey(), materialise(entry.getValue()));
+            }
+        }
+        return result.build();
+    }
+
+    @Override
+    public long getRetainedSize() {
+        // values which are views over the backing array retain nothing further
+        long size =
+                8L * segments.length
+                        + 4L
+                                * (parents.length
+                                        + entryNodes.length
+                                        + offsets.length
+                                        + lengths.length)
+                        + 8L * values.length;
+        for (final byte[] value : values) {
+            if (value != null) {
+                size += value.length;
+            }
+        }
+        // the rendered tags (which decoding renders), estimated at 96 bytes per entry
+        return size + 96L * entryNodes.length;
+    }
+
+    // -------------------------------------------------------------------------
+    // PRIVATE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the map of rendered tags to entries, rendering the tags if this is the first call.
+     *
+     * @return Map of tags to the index of their entry.
+     */
+    private ImmutableMap<String, Integer> tagsToEntries() {
+        // Rendering is idempotent, so a racing thread at worst renders the tags twice.
+        ImmutableMap<String, Integer> result = tagsToEntries;
+        if (result == null) {
+            result = renderTags();
+            tagsToEntries = result;
+        }
+        return result;
+    }
+
+    /**
+     * Renders the tag of every entry.
+     *
+     * @return Map of tags to the index of their entry.
+     */
+    private ImmutableMap<String, Integer> renderTags() {
+        final var result = ImmutableMap.<String, Integer>builderWithExpectedSize(entryNodes.length);
+        final var tag = new StringBuilder(64);
+        int[] path = new int[16];
+        for (int entry = 0; entry < entryNodes.length; entry++) {
+            int depth = 0;
+            for (int node = entryNodes[entry]; node >= 0; node = parents[node]) {
+                if (depth == path.length) {
+                    path = Arrays.copyOf(path, depth * 2);
+                }
+                path[depth++] = node;
+            }
+
+            tag.setLength(0);
+            while (depth > 0) {
+                appendSegment(tag, segments[path[--depth]]);
+            }
+            result.put(tag.toString(), entry);
+        }
+        // Duplicate tags resolve to the last value, as per Map.put().
+        return result.buildKeepingLast();
+    }
+
+    /**
+     * Copies the value of an entry into a new array.
+     *
+     * @param entry Index of the entry.
+     * @return The entry's value.
+     */
+    private byte[] materialise(final int entry) {
+        final byte[] value = values[entry];
+        if (value != null) {
+            return value.clone();
+        }
+
+        final int offset = offsets[entry];
+        return Arrays.copyOfRange(backing, offset, offset + lengths[entry]);
+    }
+
+    /**
+     * Packs a tag segment into a long.
+     *
+     * @param index The index of the element within its parent.
+     * @param tagClass The tag class bits of the element's identifier octet.
+     * @param tagNumber The tag number of the element.
+     * @return The packed segment.
+     */
+    private static long packSegment(final int index, final int tagClass, final int tagNumber) {
+        checkArgument(index >= 0, "Index must not be negative");
+        checkArgument(
+                tagNumber >= 0 && tagNumber <= MAX_TAG_NUMBER, "Invalid tag number: %s", tagNumber);
+        return ((long) index << 32) | ((long) (tagClass & 0xC0) << 24) | tagNumber;
+    }
+
+    /**
+     * Appends a packed tag segment to a tag in the form {@code /index[tag]} (e.g. {@code "/0[1]"},
+     * {@code "/2[UNIVERSAL 16]"}, {@code "/1[APPLICATION 5]"}).
+     *
+     * @param tag The tag to append to.
+     * @param segment The packed segment.
+     */
+    private static void appendSegment(final StringBuilder tag, final long segment) {
+        tag.append('/').append((int) (segment >>> 32)).append('[');
+        switch ((int) (segment >>> 24) & 0xC0) {
+            case 0x80 -> {}
+            case 0x40 -> tag.append("APPLICATION ");
+            case 0xC0 -> tag.append("PRIVATE ");
+            default -> tag.append("UNIVERSAL ");
+        }
+        tag.append((int) segment & MAX_TAG_NUMBER).append(']');
+    }
+
+    // -------------------------------------------------------------------------
+    // INTERNAL CLASS: Builder
+    // -------------------------------------------------------------------------
+
+    /**
+     * Builder for creating instances of {@link SlicedRawAsnData}.
+     *
+     * <p>The tag of each value is built up by pushing and popping segments as the PDU is walked,
+     * with values added at the current tag. Slices can be added before the backing array is known,
+     * with offsets expressed relative to an arbitrary origin. The origin's position within the
+     * backing array is supplied to {@link #build(byte[], int)}.
+     *
+     * @author brightSPARK Labs
+     */
+    public static final class Builder {
+        // ---------------------------------------------------------------------
+        // INSTANCE VARIABLES
+        // ---------------------------------------------------------------------
+
+        /** Packed segment of each node in the tag tree. */
+        private long[] segments;
+
+        /** Parent of each node in the tag tree. */
+        private int[] parents;
+
+        /** Number of nodes in the tag tree. */
+        private int nodeCount = 0;
+
+        /** Nodes making up the current tag. */
+        private int[] path = new int[16];
+
+        /** Number of segments in the current tag. */
+        private int depth = 0;
+
+        /** Node of each entry's tag. */
+        private int[] entryNodes;
+
+        /** Offset of each entry's value relative to the origin. */
+        private int[] offsets;
+
+        /** Length of each entry's value. */
+        private int[] lengths;
+
+        /** The value of each entry which is not a view ({@code null} if it is). */
+        private byte[][] values;
+
+        /** Number of entries added. */
+        private int size = 0;
+
+        /** The upper 64 bits of the rolling hash of the tag tree. */
+        private long shapeHigh = 0;
+
+        /** The lower 64 bits of the rolling hash of the tag tree. */
+        private long shapeLow = 0;
+
+        // ---------------------------------------------------------------------
+        // CONSTRUCTION
+        // ---------------------------------------------------------------------
+
+        /**
+         * Default constructor.
+         *
+         * @param expectedSize The expected number of tags.
+         */
+        private Builder(final int expectedSize) {
+            checkArgument(expectedSize >= 0, "Expected size must not be negative");
+            final int capacity = Math.max(expectedSize, 1);
+            segments = new long[capacity];
+            parents = new int[capacity];
+            entryNodes = new int[capacity];
+            offsets = new int[capacity];
+            lengths = new int[capacity];
+            values = new byte[capacity][];
+        }
+
+        // ---------------------------------------------------------------------
+        // PUBLIC METHODS
+        // ---------------------------------------------------------------------
+
+        /**
+         * Appends a segment to the current tag.
+         *
+         * @param index The index of the element within its parent.
+         * @param tagClass The tag class bits of the element's identifier octet (e.g. {@code 0x80}
+         *     for context-specific).
+         * @param tagNumber The tag number of the element.
+         * @return This builder.
+         */
+        public Builder push(final int index, final int tagClass, final int tagNumber) {
+            final long segment = packSegment(index, tagClass, tagNumber);
+            if (nodeCount == segments.length) {
+                segments = Arrays.copyOf(segments, nodeCount * 2);
+                parents = Arrays.copyOf(parents, nodeCount * 2);
+            }
+            segments[nodeCount] = segment;
+            parents[nodeCount] = currentNode();
+            hashShape(segment);
+            hashShape(parents[nodeCount]);
+
+            if (depth == path.length) {
+                path = Arrays.copyOf(path, depth * 2);
+            }
+            path[depth++] = nodeCount++;
+            return this;
+        }
+
+        /**
+         * Removes the last segment from the current tag.
+         *
+         * @return This builder.
+         */
+        public Builder pop() {
+            checkState(depth > 0, "No segment to pop");
+            depth--;
+            return this;
+        }
+
+        /**
+         * Returns the number of segments in the current tag.
+         *
+         * @return The depth of the current tag.
+         */
+        public int depth() {
+            return depth;
+        }
+
+        /**
+         * Removes segments from the current tag until it has the specified depth.
+         *
+         * @param depth The depth to return to (as previously returned by {@link #depth()}).
+         * @return This builder.
+         */
+        public Builder truncate(final int depth) {
+            checkArgument(depth >= 0 && depth <= this.depth, "Invalid depth: %s", depth);
+            this.depth = depth;
+            return this;
+        }
+
+        /**
+         * Adds a value at the current tag which is a range of the backing array.
+         *
+         * @param offset Offset of the value relative to the origin.
+         * @param length Length of the value.
+         * @return This builder.
+         */
+        public Builder addSlice(final int offset, final int length) {
+            checkArgument(length >= 0, "Length must not be negative");
+            final int entry = nextEntry();
+            offsets[entry] = offset;
+            lengths[entry] = length;
+            return this;
+        }
+
+        /**
+         * Adds a value at the current tag which is not a range of the backing array.
+         *
+         * @param value The value. This is not copied.
+         * @return This builder.
+         */
+        public Builder addValue(final byte[] value) {
+            checkNotNull(value);
+            final int entry = nextEntry();
+            values[entry] = value;
+            lengths[entry] = value.length;
+            return this;
+        }
+
+        /**
+         * Builds an instance containing no slices (i.e. only values added via {@link
+         * #addValue(byte[])}).
+         *
+         * @return A new instance.
+         */
+        public SlicedRawAsnData build() {
+            return build(new byte[0], 0);
+        }
+
+        /**
+         * Builds the instance.
+         *
+         * @param backing The array the slices are views over.
+         * @param origin Position of the origin (that slice offsets are relative to) within the
+         *     backing array.
+         * @return A new instance.
+         * @throws IllegalArgumentException If any slice lies outside of the backing array.
+         */
+        public SlicedRawAsnData build(final byte[] backing, final int origin) {
+            checkNotNull(backing);
+            for (int entry = 0; entry < size; entry++) {
+                if (values[entry] == null) {
+                    offsets[entry] += origin;
+                    checkArgument(
+                            offsets[entry] >= 0
+                                    && offsets[entry] + lengths[entry] <= backing.length,
+                            "Value of entry [%s] lies outside of the backing array",
+                            entry);
+                }
+            }
+
+            final long[] builtSegments = Arrays.copyOf(segments, nodeCount);
+            final int[] builtParents = Arrays.copyOf(parents, nodeCount);
+            final int[] builtEntryNodes = Arrays.copyOf(entryNodes, size);
+            return new SlicedRawAsnData(
+                    backing,
+                    builtSegments,
+                    builtParents,
+                    builtEntryNodes,
+                    Arrays.copyOf(offsets, size),
+                    Arrays.copyOf(lengths, size),
+                    Arrays.copyOf(values, size),
+                    new PduShape(
+                            shapeHigh,
+                            shapeLow,
+                            size,
+                            builtSegments,
+                            builtParents,
+                            builtEntryNodes));
+        }
+
+        // ---------------------------------------------------------------------
+        // PRIVATE METHODS
+        // ---------------------------------------------------------------------
+
+        /**
+         * Returns the node of the current tag.
+         *
+         * @return The node, or {@code -1} if the current tag is empty.
+         */
+        private int currentNode() {
+            return depth == 0 ? -1 : path[depth - 1];
+        }
+
+        /**
+         * Allocates the next entry at the current tag, growing the arrays if required.
+         *
+         * @return Index of the entry.
+         */
+        private int nextEntry() {
+            if (size == entryNodes.length) {
+                final int capacity = size * 2;
+                entryNodes = Arrays.copyOf(entryNodes, capacity);
+                offsets = Arrays.copyOf(offsets, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            entryNodes[size] = currentNode();
+            // entries are distinguished from nodes by complementing the value
+            hashShape(~entryNodes[size]);
+            return size++;
+        }
+
+        /**
+         * Folds a value into the rolling hash of the tag tree. Each half of the hash is updated
+         * independently with a different mixing function.
+         *
+         * @param value The value to fold in.
+         */
+        private void hashShape(final long value) {
+            shapeHigh = (shapeHigh ^ value) * 0x9E3779B97F4A7C15L;
+            shapeHigh ^= shapeHigh >>> 32;
+            shapeLow = Long.rotateLeft(shapeLow + value * 0xC2B2AE3D27D4EB4FL, 31);
+            shapeLow *= 0x165667B19E3779F9L;
+        }
+    }
+}
@@ -9,11 +9,12 @@ package com.brightsparklabs.asanti.model.schema;
 
 import static com.google.common.base.Preconditions.*;
 
-import com.brightsparklabs.asanti.model.schema.tag.DecodedTagsHelpers;
-import com.brightsparklabs.asanti.model.schema.type.AsnSchemaComponentType;
 import com.brightsparklabs.asanti.model.schema.type.AsnSchemaType;
-import com.brightsparklabs.asanti.model.schema.typedefinition.AsnSchemaTypeDefinition;
+import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.*;
 import java.util.*;
 
@@ -30,15 +31,38 @@ public class AsnSchemaImpl implements AsnSchema {
     /** Splitter for separating tag strings. */
     private static final Splitter tagSplitter = Splitter.on("/").omitEmptyStrings();
 
+    /** Joiner for creating tag strings. */
+    private static final Joiner tagJoiner = Joiner.on("/");
+
+    /**
+     * The maximum number of (index-normalised) tags whose type is cached per schema. Default:
+     * `10000`.
+     */
+    private static final long MAXIMUM_CACHED_TYPES =
+            Long.getLong(
+                    "com.brightsparklabs.asanti.model.schema.AsnSchemaImpl.maximumCachedTypes",
+                    10_000L);
+
     // -------------------------------------------------------------------------
     // INSTANCE VARIABLES
     // -------------------------------------------------------------------------
 
-    /** The primary module defined in this schema (defaults to the first module). */
-    private final AsnSchemaModule primaryModule;
+    /** The name of the primary module defined in this schema (defaults to the first module). */
+    private final String primaryModule;
 
-    /** A simple cache to avoid recalculating Tag to Type mapping. */
-    private final Map<String, Optional<AsnSchemaType>> tagCache = Maps.newConcurrentMap();
+    /** All modules defined in this schema, keyed by name. */
+    private final ImmutableMap<String, AsnSchemaModule> modules;
+
+    /** The types of the primary module. */
+    private final CompiledAsnSchema compiledSchema;
+
+    /**
+     * A cache to avoid recalculating Tag to Type mapping. Keyed by the tag with the indices of
+     * collection elements removed (e.g. {@code "/Document/footer/authors/firstName"}), as all
+     * elements of a collection have the same type.
+     */
+    private final Cache<String, Optional<AsnSchemaType>> tagCache =
+            CacheBuilder.newBuilder().maximumSize(MAXIMUM_CACHED_TYPES).recordStats().build();
 
     // -------------------------------------------------------------------------
     // CONSTRUCTION
@@ -61,7 +85,9 @@ public class AsnSchemaImpl implements AsnSchema {
                 modules.containsKey(primaryModule),
                 "The primary module must be contained in the schema's modules");
 
-        this.primaryModule = modules.get(primaryModule);
+        this.primaryModule = primaryModule;
+        this.modules = ImmutableMap.copyOf(modules);
+        compiledSchema = CompiledAsnSchema.compile(modules.get(primaryModule));
     }
 
     // -------------------------------------------------------------------------
@@ -70,7 +96,9 @@ public class AsnSchemaImpl implements AsnSchema {
 
     @Override
     public Optional<AsnSchemaType> getType(final String tag) {
-        final Optional<AsnSchemaType> cacheHit = tagCache.get(tag);
+        final List<String> tags = CompiledAsnSchema.normalise(tagSplitter.splitToList(tag));
+        final String key = tagJoiner.join(tags);
+        final Optional<AsnSchemaType> cacheHit = tagCache.getIfPresent(key);
         // ignore the warning about Optional being compared to null.
         // Optional.empty means we've already done the lookup and have an empty result.
         // Null means we haven't already done the lookup.
@@ -78,54 +106,40 @@ public class AsnSchemaImpl implements AsnSchema {
             return cacheHit;
         }
 
-        final List<String> tags = tagSplitter.splitToList(tag);
-        if (tags.isEmpty()) {
-            final Optional<AsnSchemaType> result = Optional.empty();
-            tagCache.put(tag, result);
-            return result;
-        }
-
-        final Iterator<String> it = tags.iterator();
-
-        final AsnSchemaTypeDefinition typeDefinition = primaryModule.getType(it.next());
-
-        AsnSchemaType type = typeDefinition.getType();
-        while (it.hasNext()) {
-            final String nextTag = DecodedTagsHelpers.stripIndex(it.next());
-
-            Optional<AsnSchemaType> next = getNext(type, nextTag);
-            if (next.isEmpty()) {
-                return Optional.empty();
-            }
-            type = next.get();
-        }
-
-        final Optional<AsnSchemaType> result = Optional.of(type);
-        tagCache.put(tag, result);
+        final Optional<AsnSchemaType> result = compiledSchema.getType(tags);
+        tagCache.put(key, result);
         return result;
     }
 
     // -------------------------------------------------------------------------
-    // PRIVATE METHODS
+    // PUBLIC METHODS
     // -------------------------------------------------------------------------
 
     /**
-     * For a given AsnSchemaType get the child component that matches tag. This differs from {@link
-     * AsnSchemaType#getMatchingChild(String, DecodingSession)} in that it does not needs a
-     * DecodingSession, it does not care about ordering of components, and it returns the component
-     * type rather than the component.
+     * Returns the statistics of the cache of types looked up via {@link #getType(String)}.
      *
-     * @param type Type to get the matching child type from.
-     * @param tag Tag of the child to match.
-     * @return The child component that matches the tag, {@link Optional#empty()} if no match.
+     * @return The cache statistics.
      */
-    private Optional<AsnSchemaType> getNext(final AsnSchemaType type, final String tag) {
-        final ImmutableList<AsnSchemaComponentType> allComponents = type.getAllComponents();
-        for (AsnSchemaComponentType component : allComponents) {
-            if (component.getName().equals(tag)) {
-                return Optional.of(component.getType());
-            }
-        }
-        return Optional.empty();
+    public CacheStats getTypeCacheStats() {
+        return tagCache.stats();
+    }
+
+    /** {@return the compiled form of the types of the primary module} */
+    public CompiledAsnSchema getCompiledSchema() {
+        return compiledSchema;
+    }
+
+    // -------------------------------------------------------------------------
+    // PACKAGE METHODS
+    // -------------------------------------------------------------------------
+
+    /** {@return the name of the primary module defined in this schema} */
+    String getPrimaryModule() {
+        return primaryModule;
+    }
+
+    /** {@return all modules defined in this schema, keyed by name} */
+    ImmutableMap<String, AsnSchemaModule> getModules() {
+        return modules;
     }
 }
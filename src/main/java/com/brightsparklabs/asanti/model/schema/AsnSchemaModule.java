@@ -15,6 +15,7 @@ import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.io.Serializable;
 import java.text.ParseException;
 import java.util.Map;
 import org.slf4j.Logger;
@@ -25,7 +26,10 @@ import org.slf4j.LoggerFactory;
  *
  * @author brightSPARK Labs
  */
-public class AsnSchemaModule {
+public class AsnSchemaModule implements Serializable {
+    /** Version of the serialized form. */
+    private static final long serialVersionUID = 1L;
+
     // -------------------------------------------------------------------------
     // CLASS VARIABLES
     // -------------------------------------------------------------------------
@@ -100,6 +104,11 @@ public class AsnSchemaModule {
         return type != null ? type : AsnSchemaTypeDefinition.NULL;
     }
 
+    /** {@return all type definitions defined in this module, keyed by type name} */
+    public ImmutableMap<String, AsnSchemaTypeDefinition> getTypes() {
+        return types;
+    }
+
     /**
      * Returns the name of the imported module which contains the specified type name.
      *
@@ -613,6 +622,9 @@ public class AsnSchemaModule {
      * @author brightSPARK Labs
      */
     public static class Null extends AsnSchemaModule {
+        /** Version of the serialized form. */
+        private static final long serialVersionUID = 1L;
+
         /**
          * Default constructor. Hidden, use {@link AsnSchemaModule#NULL} to obtain a singleton
          * instance.
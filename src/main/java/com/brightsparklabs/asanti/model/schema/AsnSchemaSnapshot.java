@@ -0,0 +1,281 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.model.schema;
+
+import static com.google.common.base.Preconditions.*;
+
+import com.brightsparklabs.asanti.model.schema.constraint.AsnSchemaConstraint;
+import com.brightsparklabs.asanti.model.schema.primitive.AsnPrimitiveTypes;
+import com.brightsparklabs.asanti.model.schema.type.AsnSchemaType;
+import com.brightsparklabs.asanti.model.schema.typedefinition.AsnSchemaTypeDefinition;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Reads and writes binary snapshots of fully resolved schemas, so that a schema can be loaded
+ * without parsing its ASN.1 text (see {@link
+ * com.brightsparklabs.asanti.reader.AsnSchemaReader#read(com.google.common.io.CharSource)}).
+ *
+ * <p>A snapshot consists of a header (a magic number and format version) followed by the modules of
+ * the schema in Java serialization format. A snapshot with a different format version is rejected
+ * with an {@link IOException} (in which case the schema should be parsed from its text instead).
+ * The classes which make up a schema declare a fixed {@code serialVersionUID}, so snapshots remain
+ * readable after recompiling; any change to the serialized fields of those classes must increment
+ * the format version instead. Only the classes which make up a schema are accepted when reading,
+ * and the size of the object graph read is limited.
+ *
+ * @author brightSPARK Labs
+ */
+public final class AsnSchemaSnapshot {
+    // -------------------------------------------------------------------------
+    // CONSTANTS
+    // -------------------------------------------------------------------------
+
+    /** Magic number identifying a snapshot ({@code "ASNS"}). */
+    private static final int MAGIC = 0x41534E53;
+
+    /**
+     * Version of the snapshot format. Must be incremented whenever the serialized fields of the
+     * classes which make up a schema change.
+     */
+    private static final int FORMAT_VERSION = 2;
+
+    /**
+     * Shared instances which are written as a reference to the instance rather than as a copy, as
+     * they are compared by identity. Indexed by the position written, so must only be appended to
+     * (or the format version must change).
+     */
+    private static final ImmutableList<Object> SHARED_INSTANCES =
+            ImmutableList.of(
+                    AsnSchemaType.NULL,
+                    AsnSchemaConstraint.NULL,
+                    AsnSchemaTypeDefinition.NULL,
+                    AsnSchemaModule.NULL,
+                    AsnPrimitiveTypes.INVALID,
+                    AsnPrimitiveTypes.BIT_STRING,
+                    AsnPrimitiveTypes.BMP_STRING,
+                    AsnPrimitiveTypes.BOOLEAN,
+                    AsnPrimitiveTypes.CHARACTER_STRING,
+                    AsnPrimitiveTypes.CHOICE,
+                    AsnPrimitiveTypes.EMBEDDED_PDV,
+                    AsnPrimitiveTypes.ENUMERATED,
+                    AsnPrimitiveTypes.GENERAL_STRING,
+                    AsnPrimitiveTypes.GENERALIZED_TIME,
+                    AsnPrimitiveTypes.GRAPHIC_STRING,
+                    AsnPrimitiveTypes.IA5_STRING,
+                    AsnPrimitiveTypes.INTEGER,
+                    AsnPrimitiveTypes.NULL,
+                    AsnPrimitiveTypes.NUMERIC_STRING,
+                    AsnPrimitiveTypes.OBJECT_DESCRIPTOR,
+                    AsnPrimitiveTypes.OCTET_STRING,
+                    AsnPrimitiveTypes.OID,
+                    AsnPrimitiveTypes.PRINTABLE_STRING,
+                    AsnPrimitiveTypes.REAL,
+                    AsnPrimitiveTypes.RELATIVE_OID,
+                    AsnPrimitiveTypes.SEQUENCE,
+                    AsnPrimitiveTypes.SEQUENCE_OF,
+                    AsnPrimitiveTypes.SET,
+                    AsnPrimitiveTypes.SET_OF,
+                    AsnPrimitiveTypes.TELETEX_STRING,
+                    AsnPrimitiveTypes.VIDEOTEX_STRING,
+                    AsnPrimitiveTypes.UNIVERSAL_STRING,
+                    AsnPrimitiveTypes.UTF8_STRING,
+                    AsnPrimitiveTypes.UTC_TIME,
+                    AsnPrimitiveTypes.VISIBLE_STRING);
+
+    /**
+     * The classes which may be read from a snapshot, and limits on the size of the object graph
+     * read. A snapshot of a schema the size of EIF v2.02e is about 170KB, nests 62 objects deep,
+     * holds about 21,000 references and has no arrays longer than 60 elements.
+     */
+    private static final ObjectInputFilter FILTER =
+            ObjectInputFilter.Config.createFilter(
+                    "maxdepth=500;maxrefs=1000000;maxarray=100000;maxbytes=67108864;"
+                            + "com.brightsparklabs.asanti.model.schema.**;"
+                            + "com.google.common.collect.*;"
+                            + "java.lang.Object;java.lang.Enum;java.lang.Number;"
+                            + "java.lang.Integer;java.lang.Long;java.math.BigInteger;!*");
+
+    // -------------------------------------------------------------------------
+    // CLASS VARIABLES
+    // -------------------------------------------------------------------------
+
+    /** The position of each shared instance in {@link #SHARED_INSTANCES}, by identity. */
+    private static final Map<Object, Integer> sharedInstanceIds = Maps.newIdentityHashMap();
+
+    static {
+        for (int i = 0; i < SHARED_INSTANCES.size(); i++) {
+            sharedInstanceIds.put(SHARED_INSTANCES.get(i), i);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // CONSTRUCTION
+    // -------------------------------------------------------------------------
+
+    /** Private constructor. This class only contains static methods. */
+    private AsnSchemaSnapshot() {}
+
+    // -------------------------------------------------------------------------
+    // PUBLIC METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Writes a snapshot of the supplied schema. The stream is flushed but not closed.
+     *
+     * @param asnSchema Schema to write. Must have been read via {@link
+     *     com.brightsparklabs.asanti.reader.AsnSchemaReader} (or otherwise be an {@link
+     *     AsnSchemaImpl}).
+     * @param output Stream to write the snapshot to.
+     * @throws NullPointerException If any of the parameters are {@code null}.
+     * @throws IllegalArgumentException If the schema is not an {@link AsnSchemaImpl}.
+     * @throws IOException If any errors occur writing the snapshot.
+     */
+    public static void write(final AsnSchema asnSchema, final OutputStream output)
+            throws IOException {
+        checkNotNull(asnSchema);
+        checkNotNull(output);
+        checkArgument(
+                asnSchema instanceof AsnSchemaImpl,
+                "Only schemas read from ASN.1 text can be written to a snapshot");
+        final AsnSchemaImpl schema = (AsnSchemaImpl) asnSchema;
+
+        final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output));
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        final ObjectOutputStream objects = new SnapshotOutputStream(data);
+        objects.writeUTF(schema.getPrimaryModule());
+        objects.writeObject(schema.getModules());
+        objects.flush();
+    }
+
+    /**
+     * Reads a snapshot written by {@link #write(AsnSchema, OutputStream)}. The stream is not
+     * closed, but may have been read past the end of the snapshot.
+     *
+     * @param input Stream to read the snapshot from.
+     * @return The schema.
+     * @throws NullPointerException If {@code input} is {@code null}.
+     * @throws IOException If the data is not a snapshot, was written by a different version of this
+     *     library, or any errors occur reading it.
+     */
+    public static AsnSchema read(final InputStream input) throws IOException {
+        checkNotNull(input);
+        final DataInputStream data = new DataInputStream(new BufferedInputStream(input));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Data is not an ASN.1 schema snapshot");
+        }
+        final int version = data.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException(
+                    "Unsupported ASN.1 schema snapshot format version [%d]".formatted(version));
+        }
+
+        final ObjectInputStream objects = new SnapshotInputStream(data);
+        final String primaryModule = objects.readUTF();
+        try {
+            if (!(objects.readObject() instanceof ImmutableMap<?, ?> modules)) {
+                throw new IOException("ASN.1 schema snapshot does not contain modules");
+            }
+            @SuppressWarnings("unchecked")
+            final Map<String, AsnSchemaModule> typedModules =
+                    (Map<String, AsnSchemaModule>) modules;
+            return new AsnSchemaImpl(primaryModule, typedModules);
+        } catch (final ClassNotFoundException | ClassCastException ex) {
+            throw new IOException("ASN.1 schema snapshot is not valid", ex);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // INTERNAL CLASS: SharedInstance
+    // -------------------------------------------------------------------------
+
+    /**
+     * Reference to one of the {@link #SHARED_INSTANCES}.
+     *
+     * @param id the position of the instance
+     */
+    private record SharedInstance(int id) implements Serializable {}
+
+    // -------------------------------------------------------------------------
+    // INTERNAL CLASS: SnapshotOutputStream
+    // -------------------------------------------------------------------------
+
+    /**
+     * Stream which writes references to shared instances.
+     *
+     * @author brightSPARK Labs
+     */
+    private static final class SnapshotOutputStream extends ObjectOutputStream {
+        /**
+         * Default constructor.
+         *
+         * @param output Stream to write to.
+         * @throws IOException If any errors occur writing the stream header.
+         */
+        private SnapshotOutputStream(final OutputStream output) throws IOException {
+            super(output);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(final Object obj) {
+            final Integer id = sharedInstanceIds.get(obj);
+            return id == null ? obj : new SharedInstance(id);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // INTERNAL CLASS: SnapshotInputStream
+    // -------------------------------------------------------------------------
+
+    /**
+     * Stream which resolves references to shared instances, and only accepts the classes which make
+     * up a schema.
+     *
+     * @author brightSPARK Labs
+     */
+    private static final class SnapshotInputStream extends ObjectInputStream {
+        /**
+         * Default constructor.
+         *
+         * @param input Stream to read from.
+         * @throws IOException If any errors occur reading the stream header.
+         */
+        private SnapshotInputStream(final InputStream input) throws IOException {
+            super(input);
+            enableResolveObject(true);
+            setObjectInputFilter(FILTER);
+        }
+
+        @Override
+        protected Object resolveObject(final Object obj) throws IOException {
+            if (obj instanceof SharedInstance sharedInstance) {
+                final int id = sharedInstance.id();
+                if (id < 0 || id >= SHARED_INSTANCES.size()) {
+                    throw new IOException("ASN.1 schema snapshot is not valid");
+                }
+                return SHARED_INSTANCES.get(id);
+            }
+            return obj;
+        }
+    }
+}
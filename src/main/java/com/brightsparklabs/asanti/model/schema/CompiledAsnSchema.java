@@ -0,0 +1,335 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.model.schema;
+
+import static com.google.common.base.Preconditions.*;
+
+import com.brightsparklabs.asanti.model.schema.tag.DecodedTagsHelpers;
+import com.brightsparklabs.asanti.model.schema.type.AsnSchemaComponentType;
+import com.brightsparklabs.asanti.model.schema.type.AsnSchemaType;
+import com.brightsparklabs.asanti.model.schema.type.AsnSchemaTypeCollection;
+import com.brightsparklabs.asanti.model.schema.type.AsnSchemaTypePlaceholder;
+import com.brightsparklabs.asanti.model.schema.type.AsnSchemaTypePrimitiveAliased;
+import com.brightsparklabs.asanti.model.schema.typedefinition.AsnSchemaTypeDefinition;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A flattened form of the types of a schema's primary module, for looking up the type of decoded
+ * tags without walking the type graph.
+ *
+ * <p>Each type reachable from the module's type definitions is assigned a dense integer id. Types
+ * which own no components themselves (placeholders, aliases and collections) are resolved to the
+ * type which does, and the components of each such type are stored in flat arrays with a hash table
+ * from component name to component. A lookup is therefore one hash lookup per segment of the tag.
+ *
+ * <p>The types returned are the same instances (and hence have the same constraints) as those found
+ * by walking the components of the type definitions in the module.
+ *
+ * @author brightSPARK Labs
+ */
+public final class CompiledAsnSchema implements AsnSchema {
+    // -------------------------------------------------------------------------
+    // CONSTANTS
+    // -------------------------------------------------------------------------
+
+    /** The id of {@link AsnSchemaType#NULL}, the type of names not defined in the module. */
+    public static final int NULL_TYPE_ID = 0;
+
+    // -------------------------------------------------------------------------
+    // CLASS VARIABLES
+    // -------------------------------------------------------------------------
+
+    /** Splitter for separating tag strings. */
+    private static final Splitter tagSplitter = Splitter.on("/").omitEmptyStrings();
+
+    // -------------------------------------------------------------------------
+    // INSTANCE VARIABLES
+    // -------------------------------------------------------------------------
+
+    /** The ids of the types defined in the module, keyed by type definition name. */
+    private final ImmutableMap<String, Integer> definitions;
+
+    /** The types, indexed by type id. */
+    private final AsnSchemaType[] types;
+
+    /**
+     * The id of the type owning the components of each type, indexed by type id. Only these types
+     * have component tables.
+     */
+    private final int[] owners;
+
+    /** The component tables, indexed by the id of the type owning the components. */
+    private final ImmutableMap<String, Integer>[] components;
+
+    /** The type ids of all components in the component tables. */
+    private final int[] componentTypes;
+
+    // -------------------------------------------------------------------------
+    // CONSTRUCTION
+    // -------------------------------------------------------------------------
+
+    /**
+     * Private constructor. Use {@link #compile(AsnSchemaModule)} to create instances.
+     *
+     * @param compiler The compiler holding the compiled types.
+     */
+    @SuppressWarnings("unchecked")
+    private CompiledAsnSchema(final Compiler compiler) {
+        definitions = ImmutableMap.copyOf(compiler.definitions);
+        types = compiler.types.toArray(AsnSchemaType[]::new);
+        owners = compiler.owners.stream().mapToInt(Integer::intValue).toArray();
+        components = compiler.components.toArray(ImmutableMap[]::new);
+        componentTypes = compiler.componentTypes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Compiles the types of a module.
+     *
+     * <p>Placeholders and aliases must have been resolved (i.e. the module has been built by {@link
+     * AsnSchemaModule.Builder#build()} after {@link
+     * AsnSchemaModule.Builder#resolveTypes(Iterable)}).
+     *
+     * @param primaryModule The module whose type definitions are looked up by name.
+     * @return The compiled schema.
+     * @throws NullPointerException If {@code primaryModule} is {@code null}.
+     */
+    public static CompiledAsnSchema compile(final AsnSchemaModule primaryModule) {
+        checkNotNull(primaryModule);
+        final Compiler compiler = new Compiler();
+        for (final Map.Entry<String, AsnSchemaTypeDefinition> definition :
+                primaryModule.getTypes().entrySet()) {
+            compiler.definitions.put(
+                    definition.getKey(), compiler.getId(definition.getValue().getType()));
+        }
+        compiler.compileComponents();
+        return new CompiledAsnSchema(compiler);
+    }
+
+    // -------------------------------------------------------------------------
+    // IMPLEMENTATION: AsnSchema
+    // -------------------------------------------------------------------------
+
+    @Override
+    public Optional<AsnSchemaType> getType(final String tag) {
+        return getType(normalise(tagSplitter.splitToList(tag)));
+    }
+
+    // -------------------------------------------------------------------------
+    // PUBLIC METHODS
+    // -------------------------------------------------------------------------
+
+    /** {@return the number of types in the compiled schema} */
+    public int getTypeCount() {
+        return types.length;
+    }
+
+    /**
+     * Returns the type with the specified id.
+     *
+     * @param typeId The id of the type.
+     * @return The type.
+     * @throws IndexOutOfBoundsException If there is no type with the specified id.
+     */
+    public AsnSchemaType getType(final int typeId) {
+        return types[checkElementIndex(typeId, types.length)];
+    }
+
+    /**
+     * Returns the id of the type defined in the module with the specified name.
+     *
+     * @param typeName Name of the type. E.g. {@code "Document"}.
+     * @return The type id, or {@link #NULL_TYPE_ID} if the module does not define the type.
+     */
+    public int getTypeId(final String typeName) {
+        return definitions.getOrDefault(typeName, NULL_TYPE_ID);
+    }
+
+    /**
+     * Returns the id of the type of the named component of a type.
+     *
+     * @param typeId The id of the type.
+     * @param componentName The name of the component (without any index). E.g. {@code "header"}.
+     * @return The type id of the component, or {@code -1} if the type has no such component.
+     * @throws IndexOutOfBoundsException If there is no type with the specified id.
+     */
+    public int getComponentTypeId(final int typeId, final String componentName) {
+        final Integer component =
+                components[owners[checkElementIndex(typeId, types.length)]].get(componentName);
+        return component == null ? -1 : componentTypes[component];
+    }
+
+    // -------------------------------------------------------------------------
+    // PACKAGE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Removes the indices of collection elements from the segments of a tag. The first segment (the
+     * top level type) is left as is.
+     *
+     * @param tags The segments of the tag (e.g. {@code ["Document", "footer", "authors[0]"]}).
+     * @return The normalised segments (e.g. {@code ["Document", "footer", "authors"]}).
+     */
+    static List<String> normalise(final List<String> tags) {
+        final List<String> result = Lists.newArrayListWithCapacity(tags.size());
+        for (final String tag : tags) {
+            result.add(result.isEmpty() ? tag : DecodedTagsHelpers.stripIndex(tag));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the type of a tag whose indices have already been removed.
+     *
+     * @param tags The segments of the tag (e.g. {@code ["Document", "footer", "authors"]}).
+     * @return the AsnSchemaType of the tag, {@link Optional#empty()} if no match
+     */
+    Optional<AsnSchemaType> getType(final List<String> tags) {
+        if (tags.isEmpty()) {
+            return Optional.empty();
+        }
+
+        int typeId = getTypeId(tags.get(0));
+        for (int i = 1; i < tags.size(); i++) {
+            final Integer component = components[owners[typeId]].get(tags.get(i));
+            if (component == null) {
+                return Optional.empty();
+            }
+            typeId = componentTypes[component];
+        }
+        return Optional.of(types[typeId]);
+    }
+
+    // -------------------------------------------------------------------------
+    // INTERNAL CLASS: Compiler
+    // -------------------------------------------------------------------------
+
+    /**
+     * Assigns ids to types and builds the component tables.
+     *
+     * @author brightSPARK Labs
+     */
+    private static final class Compiler {
+        // ---------------------------------------------------------------------
+        // INSTANCE VARIABLES
+        // ---------------------------------------------------------------------
+
+        /** The ids of the types defined in the module, keyed by type definition name. */
+        private final Map<String, Integer> definitions = Maps.newHashMap();
+
+        /** The ids assigned to types, by identity. */
+        private final Map<AsnSchemaType, Integer> ids = Maps.newIdentityHashMap();
+
+        /** The types, indexed by type id. */
+        private final List<AsnSchemaType> types = Lists.newArrayList();
+
+        /** The id of the type owning the components of each type, indexed by type id. */
+        private final List<Integer> owners = Lists.newArrayList();
+
+        /** The component tables, indexed by type id (empty unless the type owns components). */
+        private final List<ImmutableMap<String, Integer>> components = Lists.newArrayList();
+
+        /** The type ids of all components in the component tables. */
+        private final List<Integer> componentTypes = Lists.newArrayList();
+
+        /** The ids of the types whose components have not been compiled yet. */
+        private final ArrayDeque<Integer> pending = new ArrayDeque<>();
+
+        // ---------------------------------------------------------------------
+        // CONSTRUCTION
+        // ---------------------------------------------------------------------
+
+        /** Default constructor. Assigns {@link #NULL_TYPE_ID} to {@link AsnSchemaType#NULL}. */
+        private Compiler() {
+            getId(AsnSchemaType.NULL);
+        }
+
+        // ---------------------------------------------------------------------
+        // PRIVATE METHODS
+        // ---------------------------------------------------------------------
+
+        /**
+         * Returns the id of a type, assigning one if it does not have one yet.
+         *
+         * @param type The type.
+         * @return The id of the type.
+         */
+        private int getId(final AsnSchemaType type) {
+            final Integer existing = ids.get(type);
+            if (existing != null) {
+                return existing;
+            }
+
+            final int id = types.size();
+            ids.put(type, id);
+            types.add(type);
+            owners.add(id);
+            components.add(ImmutableMap.of());
+            pending.add(id);
+            return id;
+        }
+
+        /** Compiles the components of all types which have been assigned an id. */
+        private void compileComponents() {
+            while (!pending.isEmpty()) {
+                final int id = pending.remove();
+                final AsnSchemaType owner = getOwner(types.get(id));
+                if (owner != types.get(id)) {
+                    owners.set(id, getId(owner));
+                    continue;
+                }
+
+                // as per a linear search of the components, the first component with a name wins
+                final Map<String, Integer> table = Maps.newHashMap();
+                for (final AsnSchemaComponentType component : owner.getAllComponents()) {
+                    if (!table.containsKey(component.getName())) {
+                        table.put(component.getName(), componentTypes.size());
+                        componentTypes.add(getId(component.getType()));
+                    }
+                }
+                components.set(id, ImmutableMap.copyOf(table));
+            }
+        }
+
+        /**
+         * Returns the type which owns the components of a type (i.e. resolves placeholders, aliases
+         * and collections).
+         *
+         * @param type The type.
+         * @return The type owning the components returned by {@link
+         *     AsnSchemaType#getAllComponents()}.
+         */
+        private static AsnSchemaType getOwner(final AsnSchemaType type) {
+            final Set<AsnSchemaType> visited = Sets.newIdentityHashSet();
+            AsnSchemaType current = type;
+            while (visited.add(current)) {
+                final AsnSchemaType next;
+                if (current instanceof AsnSchemaTypePlaceholder placeholder) {
+                    next = placeholder.getIndirectType();
+                } else if (current instanceof AsnSchemaTypePrimitiveAliased aliased) {
+                    next = aliased.getAliasedType();
+                } else if (current instanceof AsnSchemaTypeCollection collection) {
+                    next = collection.getElementType();
+                } else {
+                    return current;
+                }
+                current = next == null ? AsnSchemaType.NULL : next;
+            }
+            // a cycle of indirections has no components
+            return AsnSchemaType.NULL;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.model.schema;
+
+import static com.google.common.base.Preconditions.*;
+
+import com.brightsparklabs.asanti.model.data.RawAsnData;
+import com.brightsparklabs.asanti.model.schema.type.AsnSchemaComponentType;
+import com.brightsparklabs.asanti.model.schema.type.AsnSchemaType;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Decodes the {@link RawAsnData} of a PDU one component of the top level type at a time, the first
+ * time a tag within the component is requested.
+ *
+ * <p>The first segment of each raw tag is matched against the top level type the first time any tag
+ * is requested. The remaining segments of a component's raw tags are only matched once a tag within
+ * that component is requested. The decoded tags are the same as those produced by {@link
+ * Decoder#unpackAndDecode(RawAsnData, AsnSchema, String)}.
+ *
+ * <p>Instances are safe for concurrent use.
+ *
+ * @author brightSPARK Labs
+ */
+public final class ComponentDecoder {
+    // -------------------------------------------------------------------------
+    // INSTANCE VARIABLES
+    // -------------------------------------------------------------------------
+
+    /** Data to decode. */
+    private final RawAsnData rawAsnData;
+
+    /** The top level type. */
+    private final AsnSchemaType rootType;
+
+    /** The decoded tag of the top level type (e.g. {@code "/Document"}). */
+    private final String decodedPrefix;
+
+    /**
+     * The components of the top level type found in the data, keyed by their decoded name (e.g.
+     * {@code "header"}), or {@code null} if the data has not been partitioned yet.
+     */
+    private Map<String, Component> components;
+
+    // -------------------------------------------------------------------------
+    // CONSTRUCTION
+    // -------------------------------------------------------------------------
+
+    /**
+     * Default constructor.
+     *
+     * @param rawAsnData Data to decode.
+     * @param asnSchema Schema to use to decode data.
+     * @param topLevelTypeName The name of the top level type in this module from which to begin
+     *     decoding the raw tags.
+     * @throws NullPointerException If any of the parameters are {@code null}.
+     * @throws RuntimeException If the top level type does not exist in the schema.
+     */
+    public ComponentDecoder(
+            final RawAsnData rawAsnData, final AsnSchema asnSchema, final String topLevelTypeName) {
+        this.rawAsnData = checkNotNull(rawAsnData);
+        checkNotNull(asnSchema);
+        checkNotNull(topLevelTypeName);
+        rootType = Decoder.getRootType(asnSchema, topLevelTypeName);
+        decodedPrefix = "/" + topLevelTypeName;
+    }
+
+    // -------------------------------------------------------------------------
+    // PUBLIC METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the decoded (or unmapped) tag for the supplied decoded tag, decoding the component
+     * which would contain it if necessary.
+     *
+     * @param tag The decoded tag (e.g. {@code "/Document/header/published/date"}).
+     * @return The decoded tag, or {@link Optional#empty()} if the tag does not exist in the data.
+     */
+    public synchronized Optional<DecodedTag> getDecodedTag(final String tag) {
+        if (tag == null || !tag.startsWith(decodedPrefix + "/")) {
+            return Optional.empty();
+        }
+
+        final String path = tag.substring(decodedPrefix.length() + 1);
+        for (final Component component : getComponents().values()) {
+            if (component.contains(path)) {
+                final DecodedTag decodedTag = decode(component).pduSchema().allTags().get(tag);
+                if (decodedTag != null) {
+                    return Optional.of(decodedTag);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the value of the supplied raw tag. This includes the unpacked values of aliased tags,
+     * in which case the component containing the aliased tag is decoded if necessary.
+     *
+     * @param rawTag The raw tag (e.g. {@code "/1[7]/0[0]/0[1]"}).
+     * @return The value, or {@link Optional#empty()} if the raw tag does not exist in the data.
+     */
+    public synchronized Optional<byte[]> getBytes(final String rawTag) {
+        final Optional<byte[]> bytes = rawAsnData.getBytes(rawTag);
+        if (bytes.isPresent() || rawTag == null) {
+            return bytes;
+        }
+
+        for (final Component component : getComponents().values()) {
+            if (component.hasRootSegmentOf(rawTag)) {
+                final Optional<byte[]> unpacked =
+                        decode(component).unpackedAsnData().getBytes(rawTag);
+                if (unpacked.isPresent()) {
+                    return unpacked;
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    // -------------------------------------------------------------------------
+    // PRIVATE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the components of the top level type found in the data, partitioning the raw tags the
+     * first time it is called.
+     *
+     * @return The components, keyed by their decoded name.
+     */
+    private Map<String, Component> getComponents() {
+        if (components != null) {
+            return components;
+        }
+
+        // Match the first segments in the order they occur in the data, as the decoder would.
+        final DecodingSession session = new DecodingSessionImpl();
+        final Map<String, Component> result = Maps.newLinkedHashMap();
+        Component current = null;
+        String previous = null;
+        for (final String rawTag : rawAsnData.getRawTags()) {
+            final String rootSegment = getRootSegment(rawTag);
+            if (!rootSegment.equals(previous)) {
+                session.setContext(DecodingSession.ROOT_CONTEXT);
+                final Optional<AsnSchemaComponentType> match =
+                        rootType.getMatchingChild(rootSegment, session);
+                // unknown segments are copied into the decoded tag
+                final String name =
+                        match.map(c -> c.getName().replace("/[", "[")).orElse(rootSegment);
+                current = result.computeIfAbsent(name, Component::new);
+                current.rootMatches.put(rootSegment, match);
+                previous = rootSegment;
+            }
+            current.rawTags.add(rawTag);
+        }
+        components = result;
+        return components;
+    }
+
+    /**
+     * Decodes a component, if it has not already been decoded.
+     *
+     * @param component The component to decode.
+     * @return The decoded component.
+     */
+    private UnpackedDecodedTags decode(final Component component) {
+        if (component.decoded == null) {
+            component.decoded =
+                    Decoder.decodeComponent(
+                            rawAsnData,
+                            rootType,
+                            decodedPrefix,
+                            component.rawTags,
+                            component.rootMatches);
+        }
+        return component.decoded;
+    }
+
+    /**
+     * Returns the first segment of a raw tag.
+     *
+     * @param rawTag The raw tag (e.g. {@code "/0[1]/0[0]"}).
+     * @return The first segment (e.g. {@code "0[1]"}).
+     */
+    private static String getRootSegment(final String rawTag) {
+        final int start = rawTag.startsWith("/") ? 1 : 0;
+        final int end = rawTag.indexOf('/', start);
+        return end < 0 ? rawTag.substring(start) : rawTag.substring(start, end);
+    }
+
+    // -------------------------------------------------------------------------
+    // INTERNAL CLASS: Component
+    // -------------------------------------------------------------------------
+
+    /**
+     * The raw tags belonging to a component of the top level type.
+     *
+     * @author brightSPARK Labs
+     */
+    private static final class Component {
+        // ---------------------------------------------------------------------
+        // INSTANCE VARIABLES
+        // ---------------------------------------------------------------------
+
+        /** The decoded name of the component (e.g. {@code "header"}). */
+        private final String name;
+
+        /** The first segments of the raw tags, mapped to the component they matched (if any). */
+        private final Map<String, Optional<AsnSchemaComponentType>> rootMatches = Maps.newHashMap();
+
+        /** The raw tags of the component, in the order they occur in the data. */
+        private final List<String> rawTags = Lists.newArrayList();
+
+        /** The decoded component, or {@code null} if it has not been decoded yet. */
+        private UnpackedDecodedTags decoded;
+
+        // ---------------------------------------------------------------------
+        // CONSTRUCTION
+        // ---------------------------------------------------------------------
+
+        /**
+         * Default constructor.
+         *
+         * @param name The decoded name of the component.
+         */
+        private Component(final String name) {
+            this.name = name;
+        }
+
+        // ---------------------------------------------------------------------
+        // PRIVATE METHODS
+        // ---------------------------------------------------------------------
+
+        /**
+         * Determines whether a decoded tag may belong to this component.
+         *
+         * @param path The decoded tag, relative to the top level type.
+         * @return {@code true} if the path is the component or one of its descendants.
+         */
+        private boolean contains(final String path) {
+            if (!path.startsWith(name)) {
+                return false;
+            }
+            if (path.length() == name.length()) {
+                return true;
+            }
+            final char next = path.charAt(name.length());
+            return next == '/' || next == '[';
+        }
+
+        /**
+         * Determines whether a raw tag starts with one of the first segments of this component.
+         *
+         * @param rawTag The raw tag.
+         * @return {@code true} if the raw tag may belong to this component.
+         */
+        private boolean hasRootSegmentOf(final String rawTag) {
+            return rootMatches.containsKey(getRootSegment(rawTag));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.model.schema;
+
+import static com.google.common.base.Preconditions.*;
+
+import com.brightsparklabs.asanti.model.data.RawAsnData;
+import com.brightsparklabs.asanti.reader.AsnBerDataReader;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads the PDUs contained within the bytes of an aliased type, e.g. {@code OCTET STRING
+ * (CONTAINING otherType)}.
+ *
+ * <p>The PDUs read are memoised by the content of the bytes, so the bytes are only parsed once when
+ * they are read while decoding and again while validating the CONTAINING constraint. The memo is
+ * bounded by the total (estimated) size of the bytes it holds and the PDUs read from them.
+ *
+ * @author brightSPARK Labs
+ */
+public final class ContainedPdus {
+    // -------------------------------------------------------------------------
+    // CONSTANTS
+    // -------------------------------------------------------------------------
+
+    /**
+     * The maximum total size (in bytes) of the memoised bytes and PDUs. Default: `16777216` (16
+     * MiB).
+     */
+    private static final long MAXIMUM_BYTES =
+            Long.getLong(
+                    "com.brightsparklabs.asanti.model.schema.ContainedPdus.maximumBytes",
+                    16L * 1024 * 1024);
+
+    // -------------------------------------------------------------------------
+    // CLASS VARIABLES
+    // -------------------------------------------------------------------------
+
+    /** The PDUs read, keyed by (a view over) the bytes they were read from. */
+    private static final Cache<ByteBuffer, ImmutableList<RawAsnData>> memo =
+            CacheBuilder.newBuilder()
+                    .maximumWeight(MAXIMUM_BYTES)
+                    .<ByteBuffer, ImmutableList<RawAsnData>>weigher(ContainedPdus::weigh)
+                    .recordStats()
+                    .build();
+
+    // -------------------------------------------------------------------------
+    // CONSTRUCTION
+    // -------------------------------------------------------------------------
+
+    /** Private constructor. Use the static methods. */
+    private ContainedPdus() {}
+
+    // -------------------------------------------------------------------------
+    // PUBLIC METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Reads the PDUs contained within the supplied bytes, returning the memoised PDUs if bytes with
+     * the same content have already been read.
+     *
+     * <p>The returned data may be views over the supplied bytes (or over earlier bytes with the
+     * same content), so the bytes must not be modified after they have been read.
+     *
+     * @param bytes The bytes of the aliased type.
+     * @return The PDUs contained within the bytes.
+     * @throws IOException If the bytes are not valid BER.
+     * @throws NullPointerException If {@code bytes} is {@code null}.
+     */
+    public static ImmutableList<RawAsnData> read(final byte[] bytes) throws IOException {
+        checkNotNull(bytes);
+        // ByteBuffer equality and hash codes are based on the content
+        final ByteBuffer key = ByteBuffer.wrap(bytes);
+        final ImmutableList<RawAsnData> cached = memo.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        final ImmutableList<RawAsnData> pdus;
+        try {
+            pdus = AsnBerDataReader.read(bytes).collect(ImmutableList.toImmutableList());
+        } catch (final UncheckedIOException e) {
+            // PDUs are read lazily so parsing errors surface while collecting
+            throw e.getCause();
+        }
+        memo.put(key, pdus);
+        return pdus;
+    }
+
+    /** {@return the statistics of PDUs found in (hits) and added to (misses) the memo} */
+    public static CacheStats getStats() {
+        return memo.stats();
+    }
+
+    /** Removes all PDUs from the memo. */
+    public static void clear() {
+        memo.invalidateAll();
+    }
+
+    // -------------------------------------------------------------------------
+    // PRIVATE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the weight of a memo entry: the size of the bytes plus the estimated size retained by
+     * the PDUs read from them.
+     *
+     * @param bytes The bytes the PDUs were read from.
+     * @param pdus The PDUs read.
+     * @return The weight of the entry (in bytes).
+     */
+    private static int weigh(final ByteBuffer bytes, final ImmutableList<RawAsnData> pdus) {
+        long weight = bytes.capacity();
+        for (final RawAsnData pdu : pdus) {
+            weight += pdu.getRetainedSize();
+        }
+        return Ints.saturatedCast(weight);
+    }
+}
@@ -10,10 +10,12 @@ package com.brightsparklabs.asanti.model.schema;
 import com.brightsparklabs.asanti.common.OperationResult;
 import com.brightsparklabs.asanti.exception.DecodeException;
 import com.brightsparklabs.asanti.model.data.RawAsnData;
+import com.brightsparklabs.asanti.model.data.SlicedRawAsnData;
 import com.brightsparklabs.asanti.model.schema.type.AsnSchemaComponentType;
 import com.brightsparklabs.asanti.model.schema.type.AsnSchemaType;
 import com.brightsparklabs.asanti.model.schema.type.AsnSchemaTypePrimitiveAliased;
 import com.brightsparklabs.asanti.reader.AsnBerDataReader;
+import com.brightsparklabs.asanti.reader.AsnBerTlvScanner;
 import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
 import com.google.common.base.Supplier;
@@ -22,7 +24,12 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,6 +53,33 @@ public class Decoder {
     /** Joiner for creating tag strings. */
     private static final Joiner tagJoiner = Joiner.on("/");
 
+    /** The expected number of tags per PDU used to pre-size the raw tags map. Default: `48`. */
+    private static final int TAG_MAP_PREALLOCATION_SIZE =
+            Integer.getInteger(
+                    "com.brightsparklabs.asanti.reader.AsnBerDataReader.tagMapPreAllocationSize",
+                    48);
+
+    /**
+     * The minimum number of aliased tags decoded together for their contents to be read
+     * concurrently. Default: `4`.
+     */
+    private static final int CONCURRENT_ALIASED_MINIMUM =
+            Integer.getInteger(
+                    "com.brightsparklabs.asanti.model.schema.Decoder.concurrentAliasedMinimum", 4);
+
+    /**
+     * The minimum total size (in bytes) of the contents of the aliased tags decoded together for
+     * them to be read concurrently. Smaller contents are read faster than they can be handed to
+     * other threads. Default: `65536` (64 KiB).
+     */
+    private static final long CONCURRENT_ALIASED_MINIMUM_BYTES =
+            Long.getLong(
+                    "com.brightsparklabs.asanti.model.schema.Decoder.concurrentAliasedMinimumBytes",
+                    64L * 1024);
+
+    /** Value recorded for constructed elements which contain no children. */
+    private static final byte[] EMPTY_BYTE_ARRAY = new byte[0];
+
     // -------------------------------------------------------------------------
     // PUBLIC METHODS
     // -------------------------------------------------------------------------
@@ -93,6 +127,61 @@ public class Decoder {
         return decodedTags(rawAsnData, asnSchema, topLevelTypeName, Optional.of(cache));
     }
 
+    /**
+     * Reads the PDU which starts at the buffer's position and decodes it against the schema in a
+     * single pass.
+     *
+     * <p>Rather than reading the PDU into {@link RawAsnData} and then decoding each raw tag from
+     * the root of the schema (see {@link #unpackAndDecode(RawAsnData, AsnSchema, String)}), the BER
+     * elements and the schema types are walked together. Each element is matched against the type
+     * of its parent once, as it is entered, so raw tags are never split and walked back down the
+     * schema. The result is the same as reading the PDU using the {@link
+     * AsnBerDataReader.Parser#NATIVE native} parser and then calling {@link
+     * #unpackAndDecode(RawAsnData, AsnSchema, String)}.
+     *
+     * <p>Values are views over the buffer's backing array (if it has one), so the array must not be
+     * modified while the returned data is in use.
+     *
+     * @param source Buffer containing the BER data. Its position is advanced past the PDU read.
+     * @param asnSchema Schema to use to decode tags.
+     * @param topLevelTypeName The name of the top level type in this module from which to begin
+     *     decoding the raw tag.
+     * @return The unpacked (if necessary) {@link RawAsnData} and {@link PduSchema} for the tag
+     *     mappings.
+     * @throws IOException If the data is not valid BER.
+     */
+    public static UnpackedDecodedTags readAndDecode(
+            final ByteBuffer source, final AsnSchema asnSchema, final String topLevelTypeName)
+            throws IOException {
+        return readAndDecode(source, asnSchema, topLevelTypeName, Optional.empty());
+    }
+
+    /**
+     * Alternative to {@link #readAndDecode(ByteBuffer, AsnSchema, String)}, which allows passing in
+     * a {@link DecoderTagCache} used when decoding the contents of aliased values.
+     *
+     * <p>The PDU itself is always decoded while it is read: its PDU schema cannot be looked up in
+     * the cache, as its {@link com.brightsparklabs.asanti.model.data.PduShape shape} is only known
+     * once it has been read, by which time it has been decoded.
+     *
+     * @param source Buffer containing the BER data. Its position is advanced past the PDU read.
+     * @param asnSchema Schema to use to decode tags.
+     * @param topLevelTypeName The name of the top level type in this module from which to begin
+     *     decoding the raw tag.
+     * @param cache A cache to lookup and add the decoded tags of aliased values.
+     * @return The unpacked (if necessary) {@link RawAsnData} and {@link PduSchema} for the tag
+     *     mappings.
+     * @throws IOException If the data is not valid BER.
+     */
+    public static UnpackedDecodedTags readAndDecode(
+            final ByteBuffer source,
+            final AsnSchema asnSchema,
+            final String topLevelTypeName,
+            final DecoderTagCache cache)
+            throws IOException {
+        return readAndDecode(source, asnSchema, topLevelTypeName, Optional.of(cache));
+    }
+
     /**
      * Returns the decoded tags for the supplied raw tags. E.g. {@code
      * getDecodedTag("/0[1]/0[0]/0[1]", "Document")} =&gt; {@code "/Document/header/published/date"}
@@ -129,13 +218,20 @@ public class Decoder {
      */
     public static ImmutableSet<OperationResult<DecodedTag, String>> getDecodedTags(
             final Iterable<String> rawTags, final AsnSchemaType rootType) {
-        DecodingSession session = new DecodingSessionImpl();
+        // Consecutive raw tags usually share a prefix, which only needs to be resolved once.
+        final PathResolver resolver = new PathResolver(rootType);
 
         // use LinkedHashSet to preserve insertion order
         final Set<OperationResult<DecodedTag, String>> results = Sets.newLinkedHashSet();
         for (String rawTag : rawTags) {
+            resolver.resolve(rawTag);
+            final DecodedTag decodedTag = resolver.toDecodedTag("", rawTag);
             final OperationResult<DecodedTag, String> decodeResult =
-                    getDecodedTag(rawTag, rootType, session);
+                    decodedTag.isFullyDecoded()
+                            ? OperationResult.createSuccessfulInstance(decodedTag)
+                            : OperationResult.createUnsuccessfulInstance(
+                                    decodedTag,
+                                    "The supplied raw tag does not map to a type in this schema");
 
             results.add(decodeResult);
         }
@@ -190,10 +286,115 @@ public class Decoder {
                         decodedTag, "The supplied raw tag does not map to a type in this schema");
     }
 
+    // -------------------------------------------------------------------------
+    // PACKAGE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Decodes the raw tags belonging to a single component of the top level type, and unpacks the
+     * values of the aliased tags within it.
+     *
+     * <p>The first segment of each raw tag has already been matched against the top level type (in
+     * the order the segments occur in the data), so only the remaining segments are matched. As the
+     * state of the decoding session for the component does not depend on the other components, the
+     * result is the same as the component's tags in the result of {@link
+     * #unpackAndDecode(RawAsnData, AsnSchema, String)}.
+     *
+     * @param rawAsnData The data containing the component.
+     * @param rootType The top level type.
+     * @param decodedPrefix The decoded tag of the top level type (e.g. {@code "/Document"}).
+     * @param rawTags The raw tags of the component, in the order they occur in the data.
+     * @param rootMatches The first segment of each raw tag, mapped to the component of the top
+     *     level type it matched (or {@link Optional#empty()} if it did not match).
+     * @return The {@link PduSchema} for the component's tags, along with {@link RawAsnData}
+     *     containing only the unpacked values of its aliased tags.
+     */
+    static UnpackedDecodedTags decodeComponent(
+            final RawAsnData rawAsnData,
+            final AsnSchemaType rootType,
+            final String decodedPrefix,
+            final List<String> rawTags,
+            final Map<String, Optional<AsnSchemaComponentType>> rootMatches) {
+        final var resolver = new PathResolver(rootType);
+        final var builder = PduSchema.builder();
+        for (final String rawTag : rawTags) {
+            final String rootSegment = tagSplitter.split(rawTag).iterator().next();
+            if (resolver.depth == 0 || !rootSegment.equals(resolver.segments[1])) {
+                while (resolver.depth > 0) {
+                    resolver.exit();
+                }
+                resolver.push(rootSegment, rootMatches.get(rootSegment));
+            }
+            resolver.resolve(rawTag);
+            builder.add(resolver.toDecodedTag(decodedPrefix + "/", rawTag));
+        }
+        final PduSchema pduSchema = builder.build();
+
+        final var unpackedBuilder = UnpackedDecodedTags.builder().add(pduSchema);
+        recursivelyDecodeAliasedTags(
+                pduSchema.aliasedTags(), rawAsnData, unpackedBuilder, Optional.empty());
+        return unpackedBuilder.build();
+    }
+
+    /**
+     * Returns the type of the top level type in the schema.
+     *
+     * @param asnSchema Schema containing the type.
+     * @param topLevelTypeName The name of the top level type.
+     * @return The type.
+     * @throws RuntimeException If the type does not exist in the schema.
+     */
+    static AsnSchemaType getRootType(final AsnSchema asnSchema, final String topLevelTypeName) {
+        return asnSchema
+                .getType(topLevelTypeName)
+                .orElseThrow(
+                        () ->
+                                new RuntimeException(
+                                        "type [%s] does not exist in schema"
+                                                .formatted(topLevelTypeName)));
+    }
+
     // -------------------------------------------------------------------------
     // PRIVATE METHODS
     // -------------------------------------------------------------------------
 
+    /**
+     * Reads the PDU which starts at the buffer's position and decodes it against the schema in a
+     * single pass.
+     *
+     * @param source Buffer containing the BER data. Its position is advanced past the PDU read.
+     * @param asnSchema Schema to use to decode tags.
+     * @param topLevelTypeName The name of the top level type in this module from which to begin
+     *     decoding the raw tag.
+     * @param cache An optional cache to lookup and add the decoded tags of aliased values.
+     * @return The unpacked (if necessary) {@link RawAsnData} and {@link PduSchema} for the tag
+     *     mappings.
+     * @throws IOException If the data is not valid BER.
+     */
+    private static UnpackedDecodedTags readAndDecode(
+            final ByteBuffer source,
+            final AsnSchema asnSchema,
+            final String topLevelTypeName,
+            final Optional<DecoderTagCache> cache)
+            throws IOException {
+        final AsnSchemaType rootType = getRootType(asnSchema, topLevelTypeName);
+
+        final int start = source.position();
+        final var walker = new SchemaWalker(source, rootType, "/" + topLevelTypeName);
+        final int end = AsnBerTlvScanner.scan(source, start, walker);
+        source.position(end);
+
+        final SlicedRawAsnData rawAsnData;
+        if (source.hasArray()) {
+            rawAsnData = walker.data.build(source.array(), source.arrayOffset());
+        } else {
+            final byte[] pdu = new byte[end - start];
+            source.get(start, pdu);
+            rawAsnData = walker.data.build(pdu, -start);
+        }
+        return unpack(rawAsnData, walker.schema.build(), cache);
+    }
+
     /**
      * Decodes raw tags into their schema-defined names using the containing type and session state.
      *
@@ -214,14 +415,14 @@ public class Decoder {
         AsnSchemaType type = containingType;
         // It is possible to decode "/", which means return the containingType
         result.type = type;
+        int context = DecodingSession.ROOT_CONTEXT;
 
         while (rawTags.hasNext()) {
             // Get the tag that we are decoding
             final String tag = rawTags.next();
 
-            final String decodedTagPath = tagJoiner.join(result.decodedTags).replace("/[", "[");
             // By definition the new tag is the child of its container.
-            decodingSession.setContext(decodedTagPath);
+            decodingSession.setContext(context);
 
             Optional<AsnSchemaComponentType> child = type.getMatchingChild(tag, decodingSession);
             if (child.isEmpty()) {
@@ -233,6 +434,9 @@ public class Decoder {
             result.type = child.get().getType();
             result.decodedTags.add(decodedTag);
             type = result.type;
+            if (rawTags.hasNext()) {
+                context = decodingSession.getChildContext(context, decodedTag.replace("/[", "["));
+            }
         }
 
         return result;
@@ -259,14 +463,7 @@ public class Decoder {
             final AsnSchema asnSchema,
             final String topLevelTypeName,
             final Optional<DecoderTagCache> cache) {
-        final AsnSchemaType rootType =
-                asnSchema
-                        .getType(topLevelTypeName)
-                        .orElseThrow(
-                                () ->
-                                        new RuntimeException(
-                                                "type [%s] does not exist in schema"
-                                                        .formatted(topLevelTypeName)));
+        final AsnSchemaType rootType = getRootType(asnSchema, topLevelTypeName);
 
         final Supplier<PduSchema> createSchema =
                 () ->
@@ -277,14 +474,24 @@ public class Decoder {
                                 "",
                                 cache);
         final PduSchema tagsResult =
-                cache.map(
-                                c ->
-                                        c.decodeCache()
-                                                .computeIfAbsent(
-                                                        rawAsnData.getRawTags(),
-                                                        (_) -> createSchema.get()))
+                cache.map(c -> c.getPduSchema(rawAsnData.getShape(), createSchema))
                         .orElseGet(createSchema);
+        return unpack(rawAsnData, tagsResult, cache);
+    }
 
+    /**
+     * Unpacks the values of the aliased tags (if any) in decoded data.
+     *
+     * @param rawAsnData The data which was decoded.
+     * @param tagsResult The decoded tags for the data.
+     * @param cache An optional cache to lookup and add decoded raw tags.
+     * @return The unpacked (if necessary) {@link RawAsnData} and {@link PduSchema} for the tag
+     *     mappings.
+     */
+    private static UnpackedDecodedTags unpack(
+            final RawAsnData rawAsnData,
+            final PduSchema tagsResult,
+            final Optional<DecoderTagCache> cache) {
         if (tagsResult.aliasedTags().isEmpty()) {
             return new UnpackedDecodedTags(rawAsnData, tagsResult);
         }
@@ -321,7 +528,7 @@ public class Decoder {
             final String decodedPrefix,
             final String rawPrefix,
             final Optional<DecoderTagCache> cache) {
-        final var session = new DecodingSessionImpl();
+        final var resolver = new PathResolver(rootType);
         final var builder = PduSchema.builder();
 
         for (final var rawTag : rawTags) {
@@ -331,16 +538,13 @@ public class Decoder {
 
             final Supplier<DecodedTag> createTag =
                     () -> {
-                        final var decodedTag =
-                                Decoder.getDecodedTag(rawTag, rootType, session).getOutput();
-                        return new DecodedTag(
-                                decodedPrefix + "/" + decodedTag.tag(),
-                                rawPrefix + decodedTag.rawTag(),
-                                decodedTag.type(),
-                                decodedTag.isFullyDecoded());
+                        resolver.resolve(rawTag);
+                        return resolver.toDecodedTag(decodedPrefix + "/", rawPrefix + rawTag);
                     };
+            // The raw prefix is part of the key, as the same raw tag can occur both at the root
+            // and within aliased data.
             final var fullyQualifiedTag =
-                    cache.map(c -> c.tagCache().computeIfAbsent(rawTag, (_) -> createTag.get()))
+                    cache.map(c -> c.getDecodedTag(rawPrefix + rawTag, createTag))
                             .orElseGet(createTag);
 
             builder.add(fullyQualifiedTag);
@@ -362,32 +566,20 @@ public class Decoder {
             final RawAsnData rawAsnData,
             final UnpackedDecodedTags.Builder builder,
             final Optional<DecoderTagCache> cache) {
+        final var tags = Lists.<DecodedTag>newArrayListWithCapacity(aliased.size());
+        final var contents = Lists.<byte[]>newArrayListWithCapacity(aliased.size());
         for (final var tag : aliased) {
             final var bytes = rawAsnData.getBytes(tag.rawTag());
-            if (bytes.isEmpty()) {
-                continue;
-            }
-
-            var aliasedAsnData = ImmutableList.<RawAsnData>of();
-            try {
-                aliasedAsnData =
-                        AsnBerDataReader.read(bytes.get()).collect(ImmutableList.toImmutableList());
-                // TODO INS-434: should we ever expect anything other than 1 PDU from this???
-                // what if the CONTAINS is a collection?
-                if (aliasedAsnData.isEmpty()) {
-                    throw new DecodeException(
-                            "No pdus found when parsing aliased bytes from " + tag.tag());
-                }
-            } catch (Exception e) {
-                // If we had issues processing the bytes and aligning it to the aliased type
-                // then we should attempt to deal with that as a validation issue as opposed
-                // to just throwing
-                // The AsnSchemaContainsConstraint will also attempt to parse the bytes, so should
-                // create a validation failure for issues with that.
-                logger.error("Exception while processing aliased type at {}", tag.tag(), e);
+            if (bytes.isPresent()) {
+                tags.add(tag);
+                contents.add(bytes.get());
             }
+        }
 
-            for (final var data : aliasedAsnData) {
+        final List<ImmutableList<RawAsnData>> contained = readAliasedTags(tags, contents);
+        for (int i = 0; i < tags.size(); i++) {
+            final var tag = tags.get(i);
+            for (final var data : contained.get(i)) {
                 final ImmutableMap<String, byte[]> bytesMatching = data.getBytes();
                 for (final Map.Entry<String, byte[]> e : bytesMatching.entrySet()) {
                     final String fullQualifiedTag = tag.rawTag() + e.getKey();
@@ -404,6 +596,378 @@ public class Decoder {
         }
     }
 
+    /**
+     * Reads the PDUs contained within the bytes of aliased tags. If there are enough tags and
+     * bytes, the bytes are read concurrently in the common {@link ForkJoinPool}.
+     *
+     * @param tags The aliased tags.
+     * @param contents The bytes of each aliased tag.
+     * @return The PDUs read from the bytes of each aliased tag (in the same order as the tags).
+     */
+    private static List<ImmutableList<RawAsnData>> readAliasedTags(
+            final List<DecodedTag> tags, final List<byte[]> contents) {
+        final var results = Lists.<ImmutableList<RawAsnData>>newArrayListWithCapacity(tags.size());
+        long totalBytes = 0;
+        for (final byte[] bytes : contents) {
+            totalBytes += bytes.length;
+        }
+        if (tags.size() < CONCURRENT_ALIASED_MINIMUM
+                || totalBytes < CONCURRENT_ALIASED_MINIMUM_BYTES) {
+            for (int i = 0; i < tags.size(); i++) {
+                results.add(readAliasedTag(tags.get(i), contents.get(i)));
+            }
+            return results;
+        }
+
+        final var reads =
+                Lists.<Callable<ImmutableList<RawAsnData>>>newArrayListWithCapacity(tags.size());
+        for (int i = 0; i < tags.size(); i++) {
+            final DecodedTag tag = tags.get(i);
+            final byte[] bytes = contents.get(i);
+            reads.add(() -> readAliasedTag(tag, bytes));
+        }
+        // reading is CPU bound, so share the pool sized to the available processors
+        for (final var future : ForkJoinPool.commonPool().invokeAll(reads)) {
+            // reads only fail if they were interrupted, in which case we cannot unpack the tag
+            results.add(
+                    future.state() == Future.State.SUCCESS
+                            ? future.resultNow()
+                            : ImmutableList.of());
+        }
+        return results;
+    }
+
+    /**
+     * Reads the PDUs contained within the bytes of an aliased tag.
+     *
+     * @param tag The aliased tag.
+     * @param bytes The bytes of the aliased tag.
+     * @return The PDUs read, or an empty list if the bytes could not be read.
+     */
+    private static ImmutableList<RawAsnData> readAliasedTag(
+            final DecodedTag tag, final byte[] bytes) {
+        try {
+            final var aliasedAsnData = ContainedPdus.read(bytes);
+            // TODO INS-434: should we ever expect anything other than 1 PDU from this???
+            // what if the CONTAINS is a collection?
+            if (aliasedAsnData.isEmpty()) {
+                throw new DecodeException(
+                        "No pdus found when parsing aliased bytes from " + tag.tag());
+            }
+            return aliasedAsnData;
+        } catch (Exception e) {
+            // If we had issues processing the bytes and aligning it to the aliased type
+            // then we should attempt to deal with that as a validation issue as opposed
+            // to just throwing
+            // The AsnSchemaContainsConstraint will also attempt to parse the bytes, so should
+            // create a validation failure for issues with that.
+            logger.error("Exception while processing aliased type at {}", tag.tag(), e);
+            return ImmutableList.of();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // INTERNAL CLASS: PathResolver
+    // -------------------------------------------------------------------------
+
+    /**
+     * Resolves a path of raw tag segments against the schema one segment at a time, retaining the
+     * resolved type and decoded tag of each prefix of the path.
+     *
+     * <p>Resolving raw tags in turn only resolves the segments which differ from the previous raw
+     * tag, rather than walking each raw tag down from the root type. This gives the same results as
+     * {@link #getDecodedTag(String, AsnSchemaType, DecodingSession)}, as re-matching the shared
+     * prefix would not change the state of the decoding session (each context's last match is the
+     * shared segment, so it is matched again at the same index).
+     *
+     * @author brightSPARK Labs
+     */
+    private static final class PathResolver {
+        // ---------------------------------------------------------------------
+        // INSTANCE VARIABLES
+        // ---------------------------------------------------------------------
+
+        /** Tracks the ordering of components while matching. */
+        private final DecodingSession session = new DecodingSessionImpl();
+
+        /**
+         * The decoded tag of the current path, relative to the root type and without a leading '/'.
+         */
+        private final StringBuilder decodedTag = new StringBuilder(64);
+
+        /** The raw tag segment at each depth (from 1). */
+        private String[] segments = new String[16];
+
+        /** The decoded name of the segment at each depth (from 1). */
+        private String[] names = new String[16];
+
+        /**
+         * The session context for the components of the type at each depth (the root context at
+         * depth 0), or {@code -1} if it has not been needed yet.
+         */
+        private int[] contexts = new int[16];
+
+        /** Length of {@link #decodedTag} before the segment at each depth (from 1) was added. */
+        private int[] decodedLengths = new int[16];
+
+        /**
+         * The type matched at each depth (the root type at depth 0), or {@code null} if the segment
+         * at that depth (or one of its ancestors) did not match the schema.
+         */
+        private AsnSchemaType[] types = new AsnSchemaType[16];
+
+        /** The last type matched at or above each depth. */
+        private AsnSchemaType[] lastTypes = new AsnSchemaType[16];
+
+        /** The number of segments in the current path. */
+        private int depth = 0;
+
+        // ---------------------------------------------------------------------
+        // CONSTRUCTION
+        // ---------------------------------------------------------------------
+
+        /**
+         * Default constructor.
+         *
+         * @param rootType The type the paths start from.
+         */
+        private PathResolver(final AsnSchemaType rootType) {
+            types[0] = rootType;
+            lastTypes[0] = rootType;
+            contexts[0] = DecodingSession.ROOT_CONTEXT;
+        }
+
+        // ---------------------------------------------------------------------
+        // PRIVATE METHODS
+        // ---------------------------------------------------------------------
+
+        /**
+         * Appends a segment to the current path, matching it against the type of the current path.
+         *
+         * @param segment The raw tag segment (e.g. {@code "0[1]"}).
+         */
+        private void enter(final String segment) {
+            final AsnSchemaType parent = types[depth];
+            Optional<AsnSchemaComponentType> child = Optional.empty();
+            if (parent != null) {
+                // By definition the new tag is the child of its container.
+                if (contexts[depth] < 0) {
+                    contexts[depth] = session.getChildContext(contexts[depth - 1], names[depth]);
+                }
+                session.setContext(contexts[depth]);
+                child = parent.getMatchingChild(segment, session);
+            }
+            push(segment, child);
+        }
+
+        /**
+         * Appends a segment which has already been matched against the type of the current path.
+         *
+         * @param segment The raw tag segment (e.g. {@code "0[1]"}).
+         * @param child The component the segment matched, or {@link Optional#empty()} if it did not
+         *     match.
+         */
+        private void push(final String segment, final Optional<AsnSchemaComponentType> child) {
+            if (depth + 1 == types.length) {
+                final int length = types.length * 2;
+                segments = Arrays.copyOf(segments, length);
+                names = Arrays.copyOf(names, length);
+                contexts = Arrays.copyOf(contexts, length);
+                decodedLengths = Arrays.copyOf(decodedLengths, length);
+                types = Arrays.copyOf(types, length);
+                lastTypes = Arrays.copyOf(lastTypes, length);
+            }
+
+            depth++;
+            segments[depth] = segment;
+            decodedLengths[depth] = decodedTag.length();
+            contexts[depth] = -1;
+            if (child.isPresent()) {
+                names[depth] = child.get().getName().replace("/[", "[");
+                appendDecoded(names[depth]);
+                types[depth] = child.get().getType();
+                lastTypes[depth] = types[depth];
+            } else {
+                // copy unknown tags into result
+                appendDecoded(segment);
+                types[depth] = null;
+                lastTypes[depth] = lastTypes[depth - 1];
+            }
+        }
+
+        /** Removes the last segment from the current path. */
+        private void exit() {
+            decodedTag.setLength(decodedLengths[depth]);
+            depth--;
+        }
+
+        /**
+         * Makes the supplied raw tag the current path, only resolving the segments which differ
+         * from the current path.
+         *
+         * @param rawTag The raw tag (e.g. {@code "/0[1]/0[0]/0[1]"}).
+         */
+        private void resolve(final String rawTag) {
+            final List<String> tags = tagSplitter.splitToList(rawTag);
+            int shared = 0;
+            while (shared < depth
+                    && shared < tags.size()
+                    && tags.get(shared).equals(segments[shared + 1])) {
+                shared++;
+            }
+            while (depth > shared) {
+                exit();
+            }
+            for (int i = shared; i < tags.size(); i++) {
+                enter(tags.get(i));
+            }
+        }
+
+        /**
+         * Creates the decoded tag for the current path.
+         *
+         * @param decodedPrefix Prefix applied to the decoded tag to "fully qualify" it.
+         * @param rawTag The (fully qualified) raw tag of the current path.
+         * @return The decoded tag.
+         */
+        private DecodedTag toDecodedTag(final String decodedPrefix, final String rawTag) {
+            final boolean decodeSuccessful = types[depth] != null;
+            if (!decodeSuccessful) {
+                logger.debug("Unable to parse {}", rawTag);
+            }
+            return new DecodedTag(
+                    decodedPrefix + decodedTag, rawTag, lastTypes[depth], decodeSuccessful);
+        }
+
+        /**
+         * Appends a name to the decoded tag. The raw tags create a new '/' for collection elements
+         * (eg .../foo/[0]) and we would rather have .../foo[0]
+         *
+         * @param name The name to append.
+         */
+        private void appendDecoded(final String name) {
+            if (!decodedTag.isEmpty() && !name.startsWith("[")) {
+                decodedTag.append('/');
+            }
+            decodedTag.append(name);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // INTERNAL CLASS: SchemaWalker
+    // -------------------------------------------------------------------------
+
+    /**
+     * Builds the {@link RawAsnData} and {@link PduSchema} for a single PDU from the events raised
+     * by the native parser, matching each element against the schema as it is entered.
+     *
+     * @author brightSPARK Labs
+     */
+    private static final class SchemaWalker implements AsnBerTlvScanner.Visitor {
+        // ---------------------------------------------------------------------
+        // INSTANCE VARIABLES
+        // ---------------------------------------------------------------------
+
+        /** Buffer containing the PDU. Values within it are recorded as slices. */
+        private final ByteBuffer source;
+
+        /** Tag paths mapped to their byte data. */
+        private final SlicedRawAsnData.Builder data =
+                SlicedRawAsnData.builder(TAG_MAP_PREALLOCATION_SIZE);
+
+        /** The decoded tags of the values found. */
+        private final PduSchema.Builder schema = PduSchema.builder();
+
+        /** Prefix applied to decoded tags to "fully qualify" them. */
+        private final String decodedPrefix;
+
+        /** Resolves the path of the current element against the schema. */
+        private final PathResolver resolver;
+
+        /** The raw tag of the current element. */
+        private final StringBuilder rawTag = new StringBuilder(64);
+
+        /** Length of {@link #rawTag} before each entered element was appended. */
+        private int[] rawLengths = new int[16];
+
+        // ---------------------------------------------------------------------
+        // CONSTRUCTION
+        // ---------------------------------------------------------------------
+
+        /**
+         * Default constructor.
+         *
+         * @param source Buffer containing the PDU.
+         * @param rootType The type the PDU should align to.
+         * @param decodedPrefix Prefix applied to decoded tags to "fully qualify" them.
+         */
+        private SchemaWalker(
+                final ByteBuffer source, final AsnSchemaType rootType, final String decodedPrefix) {
+            this.source = source;
+            this.decodedPrefix = decodedPrefix + "/";
+            resolver = new PathResolver(rootType);
+        }
+
+        // ---------------------------------------------------------------------
+        // IMPLEMENTATION: AsnBerTlvScanner.Visitor
+        // ---------------------------------------------------------------------
+
+        @Override
+        public boolean enter(final int index, final int tagClass, final int tagNumber) {
+            final int depth = resolver.depth;
+            if (depth == rawLengths.length) {
+                rawLengths = Arrays.copyOf(rawLengths, depth * 2);
+            }
+            rawLengths[depth] = rawTag.length();
+
+            rawTag.append('/');
+            final int segmentStart = rawTag.length();
+            rawTag.append(index).append('[');
+            switch (tagClass) {
+                case AsnBerTlvScanner.TAG_CLASS_CONTEXT_SPECIFIC -> {}
+                case AsnBerTlvScanner.TAG_CLASS_APPLICATION -> rawTag.append("APPLICATION ");
+                case AsnBerTlvScanner.TAG_CLASS_PRIVATE -> rawTag.append("PRIVATE ");
+                default -> rawTag.append("UNIVERSAL ");
+            }
+            rawTag.append(tagNumber).append(']');
+            resolver.enter(rawTag.substring(segmentStart));
+
+            data.push(index, tagClass, tagNumber);
+            return true;
+        }
+
+        @Override
+        public void exit() {
+            resolver.exit();
+            rawTag.setLength(rawLengths[resolver.depth]);
+            data.pop();
+        }
+
+        @Override
+        public void value(
+                final int tagClass,
+                final int tagNumber,
+                final ByteBuffer buffer,
+                final int offset,
+                final int length) {
+            // Reassembled fragments are in a separate buffer so cannot be sliced.
+            if (buffer == source) {
+                data.addSlice(offset, length);
+            } else {
+                final byte[] value = new byte[length];
+                buffer.get(offset, value);
+                data.addValue(value);
+            }
+            schema.add(resolver.toDecodedTag(decodedPrefix, rawTag.toString()));
+        }
+
+        @Override
+        public void empty() {
+            data.addValue(EMPTY_BYTE_ARRAY);
+            schema.add(resolver.toDecodedTag(decodedPrefix, rawTag.toString()));
+        }
+    }
+
     // -------------------------------------------------------------------------
     // INTERNAL CLASS: DecodedTagAndType
     // -------------------------------------------------------------------------
@@ -7,15 +7,318 @@
 
 package com.brightsparklabs.asanti.model.schema;
 
-import com.google.common.collect.ImmutableSet;
+import static com.google.common.base.Preconditions.*;
+
+import com.brightsparklabs.asanti.model.data.PduShape;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 /**
  * A cache for decoding tags from the raw ASN data.
  *
- * @param decodeCache A cache of raw ASN tags to the decoded PDU schema for those tags.
- * @param tagCache A cache of individual raw ASN tags to their decoded tag.
+ * <p>Instances created via {@link #create()} or {@link #builder()} are bounded, safe for concurrent
+ * use and evict the least recently used entries once full. Instances created via {@link
+ * #DecoderTagCache(Map, Map)} use the supplied maps as is.
+ *
+ * <p>A cache must only be used with a single schema and top level type, as the keys do not identify
+ * either.
+ *
+ * <p>Lookups are counted in the {@link Stats statistics} of each cache, unless the cache is
+ * disabled (in which case nothing is looked up).
+ *
  * @author brightSPARK Labs
  */
-public record DecoderTagCache(
-        Map<ImmutableSet<String>, PduSchema> decodeCache, Map<String, DecodedTag> tagCache) {}
+public final class DecoderTagCache {
+    // -------------------------------------------------------------------------
+    // CONSTANTS
+    // -------------------------------------------------------------------------
+
+    /**
+     * The default maximum number of decoded tags held across all cached PDU schemas. Default:
+     * `1000000`.
+     */
+    private static final long DEFAULT_MAXIMUM_PDU_SCHEMA_TAGS =
+            Long.getLong(
+                    "com.brightsparklabs.asanti.model.schema.DecoderTagCache.maximumPduSchemaTags",
+                    1_000_000L);
+
+    /** The default maximum number of cached individual tags. Default: `0` (disabled). */
+    private static final long DEFAULT_MAXIMUM_TAGS =
+            Long.getLong("com.brightsparklabs.asanti.model.schema.DecoderTagCache.maximumTags", 0L);
+
+    // -------------------------------------------------------------------------
+    // INSTANCE VARIABLES
+    // -------------------------------------------------------------------------
+
+    /** A cache of the shapes of PDUs to the decoded PDU schema for their tags. */
+    private final Map<PduShape, PduSchema> decodeCache;
+
+    /** A cache of individual (fully qualified) raw ASN tags to their decoded tag. */
+    private final Map<String, DecodedTag> tagCache;
+
+    /** Whether PDU schemas are cached. */
+    private final boolean decodeCacheEnabled;
+
+    /** Whether individual tags are cached. */
+    private final boolean tagCacheEnabled;
+
+    /** Number of PDU schemas found in the cache. */
+    private final LongAdder decodeHits = new LongAdder();
+
+    /** Number of PDU schemas not found in the cache. */
+    private final LongAdder decodeMisses = new LongAdder();
+
+    /** Number of PDU schemas evicted from the cache. */
+    private final LongAdder decodeEvictions = new LongAdder();
+
+    /** Number of tags found in the cache. */
+    private final LongAdder tagHits = new LongAdder();
+
+    /** Number of tags not found in the cache. */
+    private final LongAdder tagMisses = new LongAdder();
+
+    /** Number of tags evicted from the cache. */
+    private final LongAdder tagEvictions = new LongAdder();
+
+    // -------------------------------------------------------------------------
+    // CONSTRUCTION
+    // -------------------------------------------------------------------------
+
+    /**
+     * Creates a cache which uses the supplied maps. The maps are not bounded by this class, and
+     * must be thread-safe if the cache is used concurrently.
+     *
+     * @param decodeCache A cache of the shapes of PDUs to the decoded PDU schema for their tags.
+     * @param tagCache A cache of individual raw ASN tags to their decoded tag.
+     * @throws NullPointerException If any of the parameters are {@code null}.
+     */
+    public DecoderTagCache(
+            final Map<PduShape, PduSchema> decodeCache, final Map<String, DecodedTag> tagCache) {
+        this.decodeCache = checkNotNull(decodeCache);
+        this.tagCache = checkNotNull(tagCache);
+        decodeCacheEnabled = true;
+        tagCacheEnabled = true;
+    }
+
+    /**
+     * Creates a bounded cache with the bounds specified by the builder.
+     *
+     * @param builder The builder holding the bounds.
+     */
+    private DecoderTagCache(final Builder builder) {
+        decodeCache =
+                CacheBuilder.newBuilder()
+                        .maximumWeight(builder.maximumPduSchemaTags)
+                        .<PduShape, PduSchema>weigher(
+                                (shape, pduSchema) -> shape.size() + pduSchema.allTags().size())
+                        .removalListener(evictionCounter(decodeEvictions))
+                        .<PduShape, PduSchema>build()
+                        .asMap();
+        tagCache =
+                CacheBuilder.newBuilder()
+                        .maximumSize(builder.maximumTags)
+                        .removalListener(evictionCounter(tagEvictions))
+                        .<String, DecodedTag>build()
+                        .asMap();
+        decodeCacheEnabled = builder.maximumPduSchemaTags > 0;
+        tagCacheEnabled = builder.maximumTags > 0;
+    }
+
+    /**
+     * Creates a bounded cache using the default bounds.
+     *
+     * @return A new cache.
+     */
+    public static DecoderTagCache create() {
+        return builder().build();
+    }
+
+    /**
+     * Creates a builder for a bounded cache.
+     *
+     * @return A new builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // -------------------------------------------------------------------------
+    // PUBLIC METHODS
+    // -------------------------------------------------------------------------
+
+    /** {@return a cache of the shapes of PDUs to the decoded PDU schema for their tags} */
+    public Map<PduShape, PduSchema> decodeCache() {
+        return decodeCache;
+    }
+
+    /** {@return a cache of individual raw ASN tags to their decoded tag} */
+    public Map<String, DecodedTag> tagCache() {
+        return tagCache;
+    }
+
+    /** {@return the statistics for the cache of PDU schemas} */
+    public Stats decodeCacheStats() {
+        return new Stats(decodeHits.sum(), decodeMisses.sum(), decodeEvictions.sum());
+    }
+
+    /** {@return the statistics for the cache of individual tags} */
+    public Stats tagCacheStats() {
+        return new Stats(tagHits.sum(), tagMisses.sum(), tagEvictions.sum());
+    }
+
+    // -------------------------------------------------------------------------
+    // PACKAGE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the decoded PDU schema for the supplied PDU shape, creating and caching it if it is
+     * not in the cache.
+     *
+     * @param shape The shape of the PDU.
+     * @param loader Creates the PDU schema.
+     * @return The PDU schema.
+     */
+    PduSchema getPduSchema(final PduShape shape, final Supplier<PduSchema> loader) {
+        if (!decodeCacheEnabled) {
+            return loader.get();
+        }
+        final PduSchema cached = decodeCache.get(shape);
+        if (cached != null) {
+            decodeHits.increment();
+            return cached;
+        }
+        decodeMisses.increment();
+        return decodeCache.computeIfAbsent(shape, _ -> loader.get());
+    }
+
+    /**
+     * Returns the decoded tag for the supplied raw tag, creating and caching it if it is not in the
+     * cache.
+     *
+     * @param rawTag The fully qualified raw tag.
+     * @param loader Creates the decoded tag.
+     * @return The decoded tag.
+     */
+    DecodedTag getDecodedTag(final String rawTag, final Supplier<DecodedTag> loader) {
+        if (!tagCacheEnabled) {
+            return loader.get();
+        }
+        final DecodedTag cached = tagCache.get(rawTag);
+        if (cached != null) {
+            tagHits.increment();
+            return cached;
+        }
+        tagMisses.increment();
+        return tagCache.computeIfAbsent(rawTag, _ -> loader.get());
+    }
+
+    // -------------------------------------------------------------------------
+    // PRIVATE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Creates a listener which counts evictions (but not other removals).
+     *
+     * @param evictions The counter to increment.
+     * @return The listener.
+     */
+    private static <K, V> RemovalListener<K, V> evictionCounter(final LongAdder evictions) {
+        return notification -> {
+            if (notification.wasEvicted()) {
+                evictions.increment();
+            }
+        };
+    }
+
+    // -------------------------------------------------------------------------
+    // INTERNAL CLASS: Stats
+    // -------------------------------------------------------------------------
+
+    /**
+     * Statistics of the lookups in one of the caches.
+     *
+     * @param hitCount Number of lookups which found an entry in the cache.
+     * @param missCount Number of lookups which did not find an entry in the cache (and so created
+     *     one).
+     * @param evictionCount Number of entries evicted from the cache to keep it within its bounds.
+     *     Always {@code 0} for caches created from maps.
+     * @author brightSPARK Labs
+     */
+    public record Stats(long hitCount, long missCount, long evictionCount) {}
+
+    // -------------------------------------------------------------------------
+    // INTERNAL CLASS: Builder
+    // -------------------------------------------------------------------------
+
+    /**
+     * Builder for creating bounded instances of {@link DecoderTagCache}.
+     *
+     * @author brightSPARK Labs
+     */
+    public static final class Builder {
+        // ---------------------------------------------------------------------
+        // INSTANCE VARIABLES
+        // ---------------------------------------------------------------------
+
+        /** Maximum number of decoded tags held across all cached PDU schemas. */
+        private long maximumPduSchemaTags = DEFAULT_MAXIMUM_PDU_SCHEMA_TAGS;
+
+        /** Maximum number of cached individual tags. */
+        private long maximumTags = DEFAULT_MAXIMUM_TAGS;
+
+        // ---------------------------------------------------------------------
+        // CONSTRUCTION
+        // ---------------------------------------------------------------------
+
+        /** Default constructor. Use {@link DecoderTagCache#builder()} to create instances. */
+        private Builder() {}
+
+        // ---------------------------------------------------------------------
+        // PUBLIC METHODS
+        // ---------------------------------------------------------------------
+
+        /**
+         * Sets the memory bound of the PDU schema cache, expressed as the maximum number of tags
+         * (raw and decoded) held across all cached PDU schemas.
+         *
+         * @param maximumPduSchemaTags The maximum number of tags. {@code 0} disables the cache.
+         * @return This builder.
+         * @throws IllegalArgumentException If the maximum is negative.
+         */
+        public Builder maximumPduSchemaTags(final long maximumPduSchemaTags) {
+            checkArgument(maximumPduSchemaTags >= 0, "Maximum must not be negative");
+            this.maximumPduSchemaTags = maximumPduSchemaTags;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of cached individual tags.
+         *
+         * <p>The individual tag cache is disabled by default. A cached tag is returned without
+         * updating the {@link DecodingSession}, so later tags of the same PDU may be decoded
+         * incorrectly if their match depends on the components matched before them (e.g. a SEQUENCE
+         * with OPTIONAL components sharing a tag with later components).
+         *
+         * @param maximumTags The maximum number of tags. {@code 0} disables the cache.
+         * @return This builder.
+         * @throws IllegalArgumentException If the maximum is negative.
+         */
+        public Builder maximumTags(final long maximumTags) {
+            checkArgument(maximumTags >= 0, "Maximum must not be negative");
+            this.maximumTags = maximumTags;
+            return this;
+        }
+
+        /**
+         * Creates the cache.
+         *
+         * @return A new cache.
+         */
+        public DecoderTagCache build() {
+            return new DecoderTagCache(this);
+        }
+    }
+}
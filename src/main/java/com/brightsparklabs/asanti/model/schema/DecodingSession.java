@@ -13,12 +13,30 @@ import com.brightsparklabs.asanti.model.schema.tag.AsnSchemaTag;
  * An object to store state during the decoding of all the tags in an AsantiAsnData object. This is
  * needed because the ability to map the "raw" tags received from the BER data is dependent on what
  * other data has been received (notably OPTIONAL components of a SEQUENCE)
+ *
+ * <p>State is held per context, where each level of the hierarchy of a set of tags is a context.
+ * Contexts are identified by small integer ids, starting from {@link #ROOT_CONTEXT} for the
+ * components of the top level type.
  */
 public interface DecodingSession {
+    /** The id of the context for the components of the top level type. */
+    int ROOT_CONTEXT = 0;
+
+    /**
+     * Returns the id of the context for the components of a child within a context. The same id is
+     * returned each time the same child is requested.
+     *
+     * @param context the id of the context containing the child
+     * @param name the decoded name of the child (e.g. {@code "header"} or {@code "[0]"})
+     * @return the id of the context for the components of the child
+     */
+    int getChildContext(int context, String name);
+
     /**
-     * @param context a unique string for each level of the hierarchy of a set of tags
+     * @param context the id of the context that subsequent calls to {@code getIndex} and {@code
+     *     setIndex} apply to
      */
-    void setContext(String context);
+    void setContext(int context);
 
     /**
      * @param tag the AsnSchemaTag that we want the offset for
@@ -7,13 +7,19 @@
 
 package com.brightsparklabs.asanti.model.schema;
 
+import static com.google.common.base.Preconditions.*;
+
 import com.brightsparklabs.asanti.model.schema.tag.AsnSchemaTag;
 import com.google.common.collect.Maps;
+import java.util.Arrays;
 import java.util.Map;
 
 /**
  * Implementation of DecodingSession.
  *
+ * <p>The state of each context is held in arrays indexed by the context id, so only creating a
+ * context requires a lookup.
+ *
  * @author brightSPARK Labs
  */
 public class DecodingSessionImpl implements DecodingSession {
@@ -22,67 +28,107 @@ public class DecodingSessionImpl implements DecodingSession {
     // INSTANCE VARIABLES
     // -------------------------------------------------------------------------
 
-    /** Storage of the index for each \"context\". */
-    private final Map<String, TagToIndex> offsetMap = Maps.newHashMap();
+    /** The ids of the contexts created, keyed by their parent context and name. */
+    private final Map<ChildContext, Integer> contextIds = Maps.newHashMap();
+
+    /** The last tag used in each context, or {@code null} if the context has not been used. */
+    private AsnSchemaTag[] tags = new AsnSchemaTag[16];
+
+    /** The index associated with the last tag used in each context. */
+    private int[] indices = new int[16];
+
+    /** The number of contexts created. */
+    private int contextCount = ROOT_CONTEXT + 1;
 
     /** The context is how we provide unique offsets for each level of the hierarchy of data. */
-    private String context;
+    private int context = ROOT_CONTEXT;
 
     // -------------------------------------------------------------------------
     // IMPLEMENTATION: DecodingSession
     // -------------------------------------------------------------------------
 
     @Override
-    public void setContext(final String context) {
-        this.context = context;
+    public int getChildContext(final int context, final String name) {
+        checkElementIndex(context, contextCount);
+        return contextIds.computeIfAbsent(new ChildContext(context, name), _ -> createContext());
+    }
 
-        offsetMap.computeIfAbsent(context, key -> new TagToIndex());
+    @Override
+    public void setContext(final int context) {
+        checkElementIndex(context, contextCount);
+        this.context = context;
     }
 
     @Override
     public int getIndex(final AsnSchemaTag tag) {
-
-        final TagToIndex tagToIndex = offsetMap.get(context);
+        final AsnSchemaTag lastTag = tags[context];
 
         // If this is the first time this context has been used then by default we are at 0
-        if (tagToIndex.tag == null) {
-            tagToIndex.tag = tag;
-            return tagToIndex.index;
+        if (lastTag == null) {
+            tags[context] = tag;
+            return indices[context];
         }
 
         // If this the last tag that we used then the last index
-        if (tagToIndex.tag.getRawTag().equals(tag.getRawTag())) {
-            return tagToIndex.index;
+        if (isSameRawTag(lastTag, tag)) {
+            return indices[context];
         }
 
         // this must be a new tag, so capture it and increment the index.
-        tagToIndex.tag = tag;
-        tagToIndex.index = tagToIndex.index + 1;
-
-        return tagToIndex.index;
+        tags[context] = tag;
+        return ++indices[context];
     }
 
     @Override
     public void setIndex(final AsnSchemaTag tag, final int index) {
-        final TagToIndex tagToIndex = offsetMap.get(context);
-        tagToIndex.tag = tag;
-        tagToIndex.index = index;
+        tags[context] = tag;
+        indices[context] = index;
     }
 
     // -------------------------------------------------------------------------
-    // INTERNAL CLASS:
+    // PRIVATE METHODS
     // -------------------------------------------------------------------------
 
     /**
-     * Transfer object to support tracking a tuple of tag and index.
+     * Allocates the state for a new context.
      *
-     * @author brightSPARK Labs
+     * @return the id of the new context
      */
-    private static class TagToIndex {
-        /** The tag to keep track of. */
-        AsnSchemaTag tag = null;
+    private int createContext() {
+        if (contextCount == tags.length) {
+            tags = Arrays.copyOf(tags, contextCount * 2);
+            indices = Arrays.copyOf(indices, contextCount * 2);
+        }
+        return contextCount++;
+    }
 
-        /** The index associated with the tag. */
-        Integer index = 0;
+    /**
+     * Determines whether two tags have the same raw tag, without creating the raw tags.
+     *
+     * @param first the first tag
+     * @param second the second tag
+     * @return {@code true} if {@link AsnSchemaTag#getRawTag()} is equal for both tags
+     */
+    private static boolean isSameRawTag(final AsnSchemaTag first, final AsnSchemaTag second) {
+        if (first == second) {
+            return true;
+        }
+        // tags without an index have a blank raw tag
+        return first.getTagIndex().equals(second.getTagIndex())
+                && (first.getTagIndex().isEmpty()
+                        || first.getTagPortion().equals(second.getTagPortion()));
     }
+
+    // -------------------------------------------------------------------------
+    // INTERNAL CLASS: ChildContext
+    // -------------------------------------------------------------------------
+
+    /**
+     * Key identifying a context by its parent context and name.
+     *
+     * @param parent the id of the parent context
+     * @param name the decoded name of the child
+     * @author brightSPARK Labs
+     */
+    private record ChildContext(int parent, String name) {}
 }
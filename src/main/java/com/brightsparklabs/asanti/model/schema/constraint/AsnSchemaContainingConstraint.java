@@ -8,7 +8,7 @@
 package com.brightsparklabs.asanti.model.schema.constraint;
 
 import com.brightsparklabs.asanti.model.data.RawAsnData;
-import com.brightsparklabs.asanti.reader.AsnBerDataReader;
+import com.brightsparklabs.asanti.model.schema.ContainedPdus;
 import com.brightsparklabs.asanti.schema.AsnPrimitiveType;
 import com.brightsparklabs.asanti.validator.FailureType;
 import com.brightsparklabs.asanti.validator.failure.SchemaConstraintValidationFailure;
@@ -20,6 +20,9 @@ import java.io.IOException;
  * @author brightSPARK Labs
  */
 public class AsnSchemaContainingConstraint extends AbstractAsnSchemaConstraint {
+    /** Version of the serialized form. */
+    private static final long serialVersionUID = 1L;
+
     // -------------------------------------------------------------------------
     // INSTANCE VARIABLES
     // -------------------------------------------------------------------------
@@ -53,13 +56,12 @@ public class AsnSchemaContainingConstraint extends AbstractAsnSchemaConstraint {
         // as valid ber/der.  The decode will try to do that.  The decode part will deal
         // with alignment to schema, but this constraint should verify that the bytes are
         // valid ber/der.
-        // It does mean we'll be doing that during decode, and verify, but oh well...
+        // The PDUs read while decoding are memoised, so the bytes are not parsed again here.
 
         ImmutableSet.Builder<SchemaConstraintValidationFailure> builder = ImmutableSet.builder();
 
         try {
-            final ImmutableList<RawAsnData> read =
-                    AsnBerDataReader.read(bytes).collect(ImmutableList.toImmutableList());
+            final ImmutableList<RawAsnData> read = ContainedPdus.read(bytes);
             if (read.isEmpty()) {
                 builder.add(
                         new SchemaConstraintValidationFailure(
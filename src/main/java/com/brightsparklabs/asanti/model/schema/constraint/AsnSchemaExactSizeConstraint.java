@@ -23,6 +23,17 @@ import com.google.common.collect.ImmutableSet;
  * @author brightSPARK Labs
  */
 public class AsnSchemaExactSizeConstraint extends AbstractAsnSchemaConstraint {
+    /** Version of the serialized form. */
+    private static final long serialVersionUID = 1L;
+
+    // -------------------------------------------------------------------------
+    // CLASS VARIABLES
+    // -------------------------------------------------------------------------
+
+    /** Visitor for determining size based on ASN.1 type (stateless, so shared). */
+    private static final SizeDeterminingVisitor sizeDeterminingVisitor =
+            new SizeDeterminingVisitor();
+
     // -------------------------------------------------------------------------
     // INSTANCE VARIABLES
     // -------------------------------------------------------------------------
@@ -30,9 +41,6 @@ public class AsnSchemaExactSizeConstraint extends AbstractAsnSchemaConstraint {
     /** The length the data must be. */
     private final int exactLength;
 
-    /** Visitor for determining size based on ASN.1 type. */
-    private final SizeDeterminingVisitor sizeDeterminingVisitor = new SizeDeterminingVisitor();
-
     // -------------------------------------------------------------------------
     // CONSTRUCTION
     // -------------------------------------------------------------------------
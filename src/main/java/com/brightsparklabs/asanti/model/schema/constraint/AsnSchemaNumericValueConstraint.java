@@ -24,6 +24,9 @@ import java.math.BigInteger;
  * @author brightSPARK Labs
  */
 public class AsnSchemaNumericValueConstraint extends AbstractAsnSchemaConstraint {
+    /** Version of the serialized form. */
+    private static final long serialVersionUID = 1L;
+
     // -------------------------------------------------------------------------
     // INSTANCE VARIABLES
     // -------------------------------------------------------------------------
@@ -22,6 +22,17 @@ import com.google.common.collect.ImmutableSet;
  * @author brightSPARK Labs
  */
 public class AsnSchemaSizeConstraint extends AbstractAsnSchemaConstraint {
+    /** Version of the serialized form. */
+    private static final long serialVersionUID = 1L;
+
+    // -------------------------------------------------------------------------
+    // CLASS VARIABLES
+    // -------------------------------------------------------------------------
+
+    /** Visitor for determining size based on ASN.1 type (stateless, so shared). */
+    private static final SizeDeterminingVisitor sizeDeterminingVisitor =
+            new SizeDeterminingVisitor();
+
     // -------------------------------------------------------------------------
     // INSTANCE VARIABLES
     // -------------------------------------------------------------------------
@@ -32,9 +43,6 @@ public class AsnSchemaSizeConstraint extends AbstractAsnSchemaConstraint {
     /** The maximum length the data can be. */
     private final int maximumLength;
 
-    /** Visitor for determining size based on ASN.1 type. */
-    private final SizeDeterminingVisitor sizeDeterminingVisitor = new SizeDeterminingVisitor();
-
     // -------------------------------------------------------------------------
     // CONSTRUCTION
     // -------------------------------------------------------------------------
@@ -13,6 +13,7 @@ import com.brightsparklabs.asanti.model.schema.constraint.AsnSchemaConstraint;
 import com.brightsparklabs.asanti.schema.AsnBuiltinType;
 import com.brightsparklabs.asanti.schema.AsnPrimitiveType;
 import com.google.common.collect.ImmutableSet;
+import java.io.Serializable;
 
 /**
  * A concrete implementation of class that can model the types for objects within ASN.1 schema.
@@ -21,7 +22,9 @@ import com.google.common.collect.ImmutableSet;
  *
  * @author brightSPARK Labs
  */
-public abstract class AbstractAsnSchemaType implements AsnSchemaType {
+public abstract class AbstractAsnSchemaType implements AsnSchemaType, Serializable {
+    /** Version of the serialized form. */
+    private static final long serialVersionUID = 1L;
 
     // -------------------------------------------------------------------------
     // INSTANCE VARIABLES
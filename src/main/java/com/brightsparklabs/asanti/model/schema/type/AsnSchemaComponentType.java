@@ -9,12 +9,17 @@ package com.brightsparklabs.asanti.model.schema.type;
 
 import static com.google.common.base.Preconditions.*;
 
+import java.io.Serializable;
+
 /**
  * An item within a 'constructed' (SET, SEQUENCE, CHOICE) type definition.
  *
  * @author brightSPARK Labs
  */
-public class AsnSchemaComponentType {
+public class AsnSchemaComponentType implements Serializable {
+    /** Version of the serialized form. */
+    private static final long serialVersionUID = 1L;
+
     // -------------------------------------------------------------------------
     // INSTANCE VARIABLES
     // -------------------------------------------------------------------------
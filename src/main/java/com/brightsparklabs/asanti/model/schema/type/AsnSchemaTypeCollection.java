@@ -29,6 +29,9 @@ import java.util.Optional;
  * @author brightSPARK Labs
  */
 public class AsnSchemaTypeCollection extends AbstractAsnSchemaType {
+    /** Version of the serialized form. */
+    private static final long serialVersionUID = 1L;
+
     // -------------------------------------------------------------------------
     // CLASS VARIABLES
     // -------------------------------------------------------------------------
@@ -18,8 +18,10 @@ import com.brightsparklabs.asanti.schema.AsnBuiltinType;
 import com.brightsparklabs.asanti.schema.AsnPrimitiveType;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
+import java.io.Serializable;
 import java.text.ParseException;
 import java.util.List;
 import java.util.Map;
@@ -35,6 +37,9 @@ import org.slf4j.LoggerFactory;
  * @author brightSPARK Labs
  */
 public class AsnSchemaTypeConstructed extends AbstractAsnSchemaType {
+    /** Version of the serialized form. */
+    private static final long serialVersionUID = 1L;
+
     // -------------------------------------------------------------------------
     // CLASS VARIABLES
     // -------------------------------------------------------------------------
@@ -54,6 +59,13 @@ public class AsnSchemaTypeConstructed extends AbstractAsnSchemaType {
     /** The mechanism to be used for creation of Tags, during schema creation. */
     private final TagCreator tagCreator;
 
+    /**
+     * Lookup from tag to the matching components, compiled on first use once all the components
+     * have their final tags ({@code null} until then). Not serialised, as it is recompiled on first
+     * use.
+     */
+    private transient volatile TagCreator.ComponentLookup componentLookup;
+
     // -------------------------------------------------------------------------
     // CONSTRUCTION
     // -------------------------------------------------------------------------
@@ -113,6 +125,8 @@ public class AsnSchemaTypeConstructed extends AbstractAsnSchemaType {
      */
     public void performTagging() {
         tagCreator.setTagsForComponents(componentTypes);
+        // tags may have changed, so recompile the lookup when next required
+        componentLookup = null;
     }
 
     // -------------------------------------------------------------------------
@@ -128,7 +142,7 @@ public class AsnSchemaTypeConstructed extends AbstractAsnSchemaType {
     public Optional<AsnSchemaComponentType> getMatchingChild(
             String rawTag, DecodingSession decodingSession) {
         AsnSchemaTag tag = AsnSchemaTag.create(rawTag);
-        return tagCreator.getComponentType(tag, componentTypes, decodingSession);
+        return tagCreator.getComponentType(tag, getComponentLookup(), decodingSession);
     }
 
     @Override
@@ -136,13 +150,37 @@ public class AsnSchemaTypeConstructed extends AbstractAsnSchemaType {
         return visitor.visit(this);
     }
 
+    // -------------------------------------------------------------------------
+    // PRIVATE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the lookup from tag to the matching components, compiling it if required. This
+     * requires that all the components (including the alternatives of any tagless CHOICE
+     * components) have their final tags, i.e. that {@link #performTagging()} has been called on all
+     * the types in the schema.
+     *
+     * @return the compiled lookup
+     */
+    private TagCreator.ComponentLookup getComponentLookup() {
+        TagCreator.ComponentLookup lookup = componentLookup;
+        if (lookup == null) {
+            // compiling is idempotent, so a race just results in duplicated work
+            lookup = TagCreator.ComponentLookup.create(componentTypes);
+            componentLookup = lookup;
+        }
+        return lookup;
+    }
+
     /**
      * Creates Tag values for Constructed types (Sequence, Set Choice), and also subsequently
      * matches them back up during decoding.
      *
      * @author brightSPARK Labs
      */
-    public static class TagCreator {
+    public static class TagCreator implements Serializable {
+        /** Version of the serialized form. */
+        private static final long serialVersionUID = 1L;
 
         // -------------------------------------------------------------------------
         // CLASS VARIABLES
@@ -342,16 +380,16 @@ public class AsnSchemaTypeConstructed extends AbstractAsnSchemaType {
          * time.
          *
          * @param tag The tag to match.
-         * @param components The components to match from.
+         * @param lookup The compiled lookup of the components to match from.
          * @param decodingSession The {@link DecodingSession} used to maintain state while decoding
          *     a PDU of tags.
          * @return The matching component or {@link Optional#empty()} if no match.
          */
         public Optional<AsnSchemaComponentType> getComponentType(
                 final AsnSchemaTag tag,
-                final ImmutableList<AsnSchemaComponentType> components,
+                final ComponentLookup lookup,
                 final DecodingSession decodingSession) {
-            return tagMatchingCreator.getComponent(tag, components, decodingSession);
+            return tagMatchingCreator.getComponent(tag, lookup, decodingSession);
         }
 
         // -------------------------------------------------------------------------
@@ -452,58 +490,36 @@ public class AsnSchemaTypeConstructed extends AbstractAsnSchemaType {
         }
 
         /**
-         * Determines if the passed in component is a match for the passed in tag. This takes into
-         * account the behaviour of Choice items (ie a choice component can transparently appear in
-         * place of the parent component)
+         * Determines the tags which the passed in component matches. This takes into account the
+         * behaviour of Choice items (ie a choice component can transparently appear in place of the
+         * parent component)
          *
-         * @param component the AsnSchemaComponentType to match
-         * @param tag the AsnSchemaTag to match
-         * @param decodingSession the DecodingSession to use for context
-         * @return the matching AsnSchemaComponentType if there is a match, {@link Optional#empty()}
-         *     otherwise. Noting that the returned component may be a sub-component if the passed in
-         *     component was a CHOICE, and in this case the Name will be fully qualified to provide
-         *     a full path
+         * @param component the AsnSchemaComponentType to determine the matching tags of
+         * @param matches map to add the matches to (tag portion to matching component). Tags which
+         *     already have a match are not replaced. Noting that the matching component may be a
+         *     sub-component if the passed in component was a CHOICE, and in this case the Name will
+         *     be fully qualified to provide a full path
          */
-        private static Optional<AsnSchemaComponentType> isMatch(
-                AsnSchemaComponentType component,
-                AsnSchemaTag tag,
-                DecodingSession decodingSession) {
+        private static void addMatches(
+                AsnSchemaComponentType component, Map<String, AsnSchemaComponentType> matches) {
             if (isTaglessChoice(component)) {
-
-                // TODO ASN-152
-                // We currently do not pre-calculate the Choice aspect upfront.  It is easy enough
-                // to do
-                // and probably has some merit, but we can't just store the Choice components in a
-                // "flat" list with all the other components because of OPTIONAL (ie the Choice may
-                // have
-                // been optional or not)
-                // In order for our decoded tag to include the Choice that was followed we need to
-                // create a "fully qualified" tag name  (unless we change that loop in the
-                // SchemaImpl)
-                // That fully qualified tag name is relative and it "owned" by the Constructed type
-                // that
-                // had the component that was a choice, not the Choice type itself.
-
-                // delegate through to the choice
-                final Optional<AsnSchemaComponentType> choiceChild =
-                        component.getType().getMatchingChild(tag.getRawTag(), decodingSession);
-
-                if (choiceChild.isPresent()) {
-                    final AsnSchemaComponentType result = choiceChild.get();
-                    // TODO ASN-152 - making a new element here is adding a dependency that
-                    // makes this module harder to test
-                    return Optional.of(
-                            buildFullyQualifiedComponentType(result, component.getName()));
+                // The choice's alternatives appear in place of the component. The fully qualified
+                // tag name is relative and is "owned" by the Constructed type that had the
+                // component that was a choice, not the Choice type itself.
+                final Map<String, AsnSchemaComponentType> alternatives = Maps.newLinkedHashMap();
+                for (AsnSchemaComponentType alternative : component.getType().getAllComponents()) {
+                    addMatches(alternative, alternatives);
                 }
+                alternatives.forEach(
+                        (tag, alternative) ->
+                                matches.putIfAbsent(
+                                        tag,
+                                        buildFullyQualifiedComponentType(
+                                                alternative, component.getName())));
             }
 
             // Is it a direct match
-            if (component.getTag().equals(tag.getTagPortion())) {
-                return Optional.of(component);
-            }
-
-            // No match
-            return Optional.empty();
+            matches.putIfAbsent(component.getTag(), component);
         }
 
         // -------------------------------------------------------------------------
@@ -511,7 +527,7 @@ public class AsnSchemaTypeConstructed extends AbstractAsnSchemaType {
         // -------------------------------------------------------------------------
 
         /** Interface for creating the tag that we will store for later matching */
-        private interface TagDecorator {
+        private interface TagDecorator extends Serializable {
             /**
              * From the supplied index and Tag create a new string Tag in the expected format
              *
@@ -527,6 +543,9 @@ public class AsnSchemaTypeConstructed extends AbstractAsnSchemaType {
          * duplication and for later tag matching
          */
         private static class SequenceTagDecorator implements TagDecorator {
+            /** Version of the serialized form. */
+            private static final long serialVersionUID = 1L;
+
             // -------------------------------------------------------------------------
             // IMPLEMENTATION: TagDecorator
             // -------------------------------------------------------------------------
@@ -541,6 +560,9 @@ public class AsnSchemaTypeConstructed extends AbstractAsnSchemaType {
          * either determination of duplicates or for later tag matching
          */
         private static class UnorderedTagDecorator implements TagDecorator {
+            /** Version of the serialized form. */
+            private static final long serialVersionUID = 1L;
+
             // -------------------------------------------------------------------------
             // IMPLEMENTATION: TagDecorator
             // -------------------------------------------------------------------------
@@ -551,7 +573,7 @@ public class AsnSchemaTypeConstructed extends AbstractAsnSchemaType {
         }
 
         /** Interface used to determine whether or not Automatic tags should be generated */
-        private interface TagAutomator {
+        private interface TagAutomator extends Serializable {
             /**
              * Given the input components, determine whether it is appropriate to create Automatic
              * tags
@@ -567,6 +589,9 @@ public class AsnSchemaTypeConstructed extends AbstractAsnSchemaType {
          * perform the appropriate calculations
          */
         private static class TagAutomatorCheck implements TagAutomator {
+            /** Version of the serialized form. */
+            private static final long serialVersionUID = 1L;
+
             // -------------------------------------------------------------------------
             // IMPLEMENTATION: TagAutomator
             // -------------------------------------------------------------------------
@@ -590,6 +615,9 @@ public class AsnSchemaTypeConstructed extends AbstractAsnSchemaType {
          * simply returns false - ie don't create an automatic tag
          */
         private static class TagAutomatorFalse implements TagAutomator {
+            /** Version of the serialized form. */
+            private static final long serialVersionUID = 1L;
+
             // -------------------------------------------------------------------------
             // IMPLEMENTATION: TagAutomator
             // -------------------------------------------------------------------------
@@ -599,71 +627,63 @@ public class AsnSchemaTypeConstructed extends AbstractAsnSchemaType {
             }
         }
 
-        private interface TagMatchingCreator {
+        private interface TagMatchingCreator extends Serializable {
             /**
-             * Returns a AsnSchemaComponentType from the supplied map that matches the supplied tag.
-             * "Matches" is not a direct lookup as there may be some tag manipulation required
+             * Returns a AsnSchemaComponentType from the supplied lookup that matches the supplied
+             * tag. "Matches" is not a direct lookup as there may be some tag manipulation required
              *
              * @param tag tag to match
-             * @param components the input components to match from
+             * @param lookup the compiled lookup of the input components to match from
              * @param decodingSession the DecodingSession that holds the state needed to manipulate
              *     the tag indexes
              * @return appropriate AsnSchemaComponentType if match found, otherwise {@link
              *     Optional#empty()}
              */
             Optional<AsnSchemaComponentType> getComponent(
-                    AsnSchemaTag tag,
-                    List<AsnSchemaComponentType> components,
-                    DecodingSession decodingSession);
+                    AsnSchemaTag tag, ComponentLookup lookup, DecodingSession decodingSession);
         }
 
         /** Implementation of TagMatchingCreator for Sequence types. */
         private static class TagMatchingCreatorSequence implements TagMatchingCreator {
+            /** Version of the serialized form. */
+            private static final long serialVersionUID = 1L;
+
             @Override
             public Optional<AsnSchemaComponentType> getComponent(
-                    AsnSchemaTag tag,
-                    List<AsnSchemaComponentType> components,
-                    DecodingSession decodingSession) {
+                    AsnSchemaTag tag, ComponentLookup lookup, DecodingSession decodingSession) {
                 // For Sequences, where order matters, we keep track of where we are up to in the
                 // Sequence during decoding (via the DecodingSession).
 
                 // Get the next expected component.
-                int index = decodingSession.getIndex(tag);
+                final int index = decodingSession.getIndex(tag);
 
-                AsnSchemaComponentType component;
-                do {
-                    // Protect against more data than the schema knows about
-                    if (index >= components.size()) {
-                        return Optional.empty();
-                    }
+                // Protect against more data than the schema knows about
+                if (index >= lookup.size()) {
+                    return Optional.empty();
+                }
 
-                    component = components.get(index);
-                    final Optional<AsnSchemaComponentType> result =
-                            isMatch(component, tag, decodingSession);
-                    if (result.isPresent()) {
-                        decodingSession.setIndex(tag, index);
-                        return result;
+                // The first matching component at or after the expected one.
+                // If a component was skipped and it was optional then the validation will not
+                // have any issues if it was not then validation will pick up the missing tag.
+                // This mechanism will cause "cascading" failures if there are out of order tags
+                // in that every time we match a tag we expect the next tag to be the one after
+                // the one we matched (in the schema).
+                // As an example if the schema defines fields A, B and C, and we receive A, C, B
+                // then A and C will both be matched but B will not.  If we receive C, A, B then
+                // C will be matched but A and B will not.  That is the compromise we are
+                // prepared to take in order to allow the "missing" tags to be skipped, as we
+                // figure that a missing tag is a more likely condition than out of order, ie
+                // in getting B and C (missing A), or A and C (missing B)
+                for (final ComponentMatch match : lookup.getMatches(tag.getTagPortion())) {
+                    if (match.index() >= index) {
+                        decodingSession.setIndex(tag, match.index());
+                        return match.component();
                     }
-
-                    // If it was not a match, then try the next one.
-                    // if the component was optional then the validation will not have any issues
-                    // if it was not then validation will pick up the missing tag.
-                    // This mechanism will cause "cascading" failures if there are out of order tags
-                    // in that every time we match a tag we expect the next tag to be the one after
-                    // the one we matched (in the schema).
-                    // As an example if the schema defines fields A, B and C, and we receive A, C, B
-                    // then A and C will both be matched but B will not.  If we receive C, A, B then
-                    // C will be matched but A and B will not.  That is the compromise we are
-                    // prepared to take in order to allow the "missing" tags to be skipped, as we
-                    // figure that a missing tag is a more likely condition than out of order, ie
-                    // in getting B and C (missing A), or A and C (missing B)
-                    index++;
-                } while (index < components.size());
+                }
 
                 // if we failed a match then ensure all the subsequent components within this
-                // context
-                // also fail (avoid an 'accidental' match)
-                decodingSession.setIndex(tag, components.size());
+                // context also fail (avoid an 'accidental' match)
+                decodingSession.setIndex(tag, lookup.size());
 
                 //  No match found.
                 return Optional.empty();
@@ -672,32 +692,110 @@ public class AsnSchemaTypeConstructed extends AbstractAsnSchemaType {
 
         /** Implementation of TagMatchingCreator for Set and Choice types. */
         private static class TagMatchingCreatorUnordered implements TagMatchingCreator {
+            /** Version of the serialized form. */
+            private static final long serialVersionUID = 1L;
+
             @Override
             public Optional<AsnSchemaComponentType> getComponent(
-                    AsnSchemaTag tag,
-                    List<AsnSchemaComponentType> components,
-                    DecodingSession decodingSession) {
-                // TODO ASN-152 .  As part of figuring out ASN-152 consider if it would be more
-                // efficient to store the components as a map (Tag->Component) when we are
-                // Unordered.
-                // Currently the Constructed type "owns" the components and has a TagCreator which
-                // is one
-                // of the statically created versions.
-                // If we moved the "ownership" of the components to the TagCreator then it could
-                // store
-                // as appropriate for its version, but we would need to create a new one for each
-                // Constructed type (not an issue)
-
+                    AsnSchemaTag tag, ComponentLookup lookup, DecodingSession decodingSession) {
                 // Unordered (Set and Choice) don't use the index, so don't need to re-align to
                 // account for offsets for OPTIONALS.
-                for (AsnSchemaComponentType component : components) {
-                    final Optional<AsnSchemaComponentType> result =
-                            isMatch(component, tag, decodingSession);
-                    if (result.isPresent()) {
-                        return result;
+                final ImmutableList<ComponentMatch> matches =
+                        lookup.getMatches(tag.getTagPortion());
+                return matches.isEmpty() ? Optional.empty() : matches.get(0).component();
+            }
+        }
+
+        /**
+         * A component which matches a tag.
+         *
+         * @param index the index of the component within the Constructed type
+         * @param component the matching component (which is a fully qualified sub-component if the
+         *     component at the index is a tagless CHOICE)
+         */
+        private record ComponentMatch(int index, Optional<AsnSchemaComponentType> component) {}
+
+        /**
+         * The components of a Constructed type compiled into a lookup from tag portion to the
+         * matching components, so that matching a tag does not require scanning the components. The
+         * alternatives of tagless CHOICE components are flattened into the lookup ahead of time.
+         *
+         * @author brightSPARK Labs
+         */
+        public static final class ComponentLookup {
+            // ---------------------------------------------------------------------
+            // INSTANCE VARIABLES
+            // ---------------------------------------------------------------------
+
+            /** Tag portion mapped to the matching components, in component order. */
+            private final ImmutableListMultimap<String, ComponentMatch> matches;
+
+            /** The number of components in the Constructed type. */
+            private final int size;
+
+            // ---------------------------------------------------------------------
+            // CONSTRUCTION
+            // ---------------------------------------------------------------------
+
+            /**
+             * Default constructor. This is private, Use {@code create} instead.
+             *
+             * @param matches tag portion mapped to the matching components, in component order
+             * @param size the number of components in the Constructed type
+             */
+            private ComponentLookup(
+                    final ImmutableListMultimap<String, ComponentMatch> matches, final int size) {
+                this.matches = matches;
+                this.size = size;
+            }
+
+            /**
+             * Compiles a lookup for the supplied components. This requires that all the components
+             * have their final tags.
+             *
+             * @param componentTypes the components of the Constructed type
+             * @return the compiled lookup
+             */
+            public static ComponentLookup create(
+                    final List<AsnSchemaComponentType> componentTypes) {
+                final ImmutableListMultimap.Builder<String, ComponentMatch> builder =
+                        ImmutableListMultimap.builder();
+                for (int index = 0; index < componentTypes.size(); index++) {
+                    final Map<String, AsnSchemaComponentType> componentMatches =
+                            Maps.newLinkedHashMap();
+                    addMatches(componentTypes.get(index), componentMatches);
+                    for (final Map.Entry<String, AsnSchemaComponentType> entry :
+                            componentMatches.entrySet()) {
+                        builder.put(
+                                entry.getKey(),
+                                new ComponentMatch(index, Optional.of(entry.getValue())));
                     }
                 }
-                return Optional.empty();
+                return new ComponentLookup(builder.build(), componentTypes.size());
+            }
+
+            // ---------------------------------------------------------------------
+            // PRIVATE METHODS
+            // ---------------------------------------------------------------------
+
+            /**
+             * Returns the components which match the supplied tag portion.
+             *
+             * @param tagPortion the tag portion to match (e.g. {@code "1"} or {@code "UNIVERSAL
+             *     16"})
+             * @return the matching components, in component order
+             */
+            private ImmutableList<ComponentMatch> getMatches(final String tagPortion) {
+                return matches.get(tagPortion);
+            }
+
+            /**
+             * Returns the number of components in the Constructed type.
+             *
+             * @return the number of components
+             */
+            private int size() {
+                return size;
             }
         }
     }
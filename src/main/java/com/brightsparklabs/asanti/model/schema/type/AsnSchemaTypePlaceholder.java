@@ -28,6 +28,9 @@ import java.util.Optional;
  * @author brightSPARK Labs
  */
 public class AsnSchemaTypePlaceholder extends AbstractAsnSchemaType {
+    /** Version of the serialized form. */
+    private static final long serialVersionUID = 1L;
+
     // -------------------------------------------------------------------------
     // INSTANCE VARIABLES
     // -------------------------------------------------------------------------
@@ -20,6 +20,8 @@ import java.util.Optional;
  * @author brightSPARK Labs
  */
 public class AsnSchemaTypePrimitive extends AbstractAsnSchemaType {
+    /** Version of the serialized form. */
+    private static final long serialVersionUID = 1L;
 
     // -------------------------------------------------------------------------
     // CONSTRUCTION
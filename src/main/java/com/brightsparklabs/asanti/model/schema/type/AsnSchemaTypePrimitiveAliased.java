@@ -22,6 +22,8 @@ import java.util.Optional;
  * @author brightSPARK Labs
  */
 public class AsnSchemaTypePrimitiveAliased extends AbstractAsnSchemaType {
+    /** Version of the serialized form. */
+    private static final long serialVersionUID = 1L;
 
     // -------------------------------------------------------------------------
     // INSTANCE VARIABLES
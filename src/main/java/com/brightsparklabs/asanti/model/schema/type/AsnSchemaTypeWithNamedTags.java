@@ -27,6 +27,9 @@ import java.util.Optional;
  * @author brightSPARK Labs
  */
 public class AsnSchemaTypeWithNamedTags extends AbstractAsnSchemaType {
+    /** Version of the serialized form. */
+    private static final long serialVersionUID = 1L;
+
     // -------------------------------------------------------------------------
     // INSTANCE VARIABLES
     // -------------------------------------------------------------------------
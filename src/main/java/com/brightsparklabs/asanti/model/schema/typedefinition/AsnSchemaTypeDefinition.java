@@ -46,6 +46,9 @@ public interface AsnSchemaTypeDefinition {
      * to model an actual ASN.1 {@code NULL} Type Definition.
      */
     public static class Null extends AsnSchemaTypeDefinitionImpl {
+        /** Version of the serialized form. */
+        private static final long serialVersionUID = 1L;
+
         // ---------------------------------------------------------------------
         // CONSTRUCTION
         // ---------------------------------------------------------------------
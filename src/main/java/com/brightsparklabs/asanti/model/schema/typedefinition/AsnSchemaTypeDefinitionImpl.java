@@ -10,13 +10,17 @@ package com.brightsparklabs.asanti.model.schema.typedefinition;
 import static com.google.common.base.Preconditions.*;
 
 import com.brightsparklabs.asanti.model.schema.type.AsnSchemaType;
+import java.io.Serializable;
 
 /**
  * A concrete {@code AsnSchemaTypeDefinition}.
  *
  * @author brightSPARK Labs
  */
-public class AsnSchemaTypeDefinitionImpl implements AsnSchemaTypeDefinition {
+public class AsnSchemaTypeDefinitionImpl implements AsnSchemaTypeDefinition, Serializable {
+    /** Version of the serialized form. */
+    private static final long serialVersionUID = 1L;
+
     // -------------------------------------------------------------------------
     // INSTANCE VARIABLES
     // -------------------------------------------------------------------------
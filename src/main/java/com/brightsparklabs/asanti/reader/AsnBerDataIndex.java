@@ -0,0 +1,320 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.reader;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * An index of the top level PDUs within a file of ASN.1 BER/DER data, allowing any PDU to be read
+ * without parsing the PDUs which precede it.
+ *
+ * <p>Indexes are persisted as sidecar files (see {@link #sidecarPath(Path)}) so that they only need
+ * to be built once per file. A sidecar consists of a fixed size header followed by one fixed width
+ * entry per PDU:
+ *
+ * <pre>
+ * header: magic (int) | version (int) | source size (long) | source modified (long) | count (long)
+ * entry:  offset (long) | length (int)
+ * </pre>
+ *
+ * <p>All values are big-endian. The sidecar is memory-mapped while the index is open, so the index
+ * does not need to fit on the heap.
+ *
+ * @author brightSPARK Labs
+ */
+public final class AsnBerDataIndex implements Closeable {
+    // -------------------------------------------------------------------------
+    // CONSTANTS
+    // -------------------------------------------------------------------------
+
+    /** Extension appended to the data file's name to form the sidecar file's name. */
+    public static final String SIDECAR_EXTENSION = ".idx";
+
+    /** Magic number identifying sidecar files ("ASBI"). */
+    private static final int MAGIC = 0x41534249;
+
+    /** Version of the sidecar format. */
+    private static final int VERSION = 1;
+
+    /** Size of the header in bytes. */
+    private static final int HEADER_SIZE = 32;
+
+    /** Offset of the PDU count within the header. */
+    private static final int COUNT_OFFSET = 24;
+
+    /** Size of each entry in bytes. */
+    private static final int ENTRY_SIZE = 12;
+
+    /** Layout used to read ints from the sidecar. */
+    private static final ValueLayout.OfInt INT =
+            ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    /** Layout used to read longs from the sidecar. */
+    private static final ValueLayout.OfLong LONG =
+            ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    // -------------------------------------------------------------------------
+    // INSTANCE VARIABLES
+    // -------------------------------------------------------------------------
+
+    /** Arena the sidecar is mapped into. */
+    private final Arena arena;
+
+    /** The mapped sidecar. */
+    private final MemorySegment sidecar;
+
+    /** Size of the indexed data file (in bytes) when the index was built. */
+    private final long sourceSize;
+
+    /** Last modified time (in milliseconds) of the indexed data file when the index was built. */
+    private final long sourceLastModified;
+
+    /** Number of PDUs in the index. */
+    private final long size;
+
+    // -------------------------------------------------------------------------
+    // CONSTRUCTION
+    // -------------------------------------------------------------------------
+
+    /**
+     * Default constructor.
+     *
+     * @param arena Arena the sidecar is mapped into.
+     * @param sidecar The mapped sidecar.
+     * @param indexFile Path of the sidecar (used for error messages).
+     * @throws IOException If the sidecar is not a valid index.
+     */
+    private AsnBerDataIndex(final Arena arena, final MemorySegment sidecar, final Path indexFile)
+            throws IOException {
+        this.arena = arena;
+        this.sidecar = sidecar;
+        if (sidecar.byteSize() < HEADER_SIZE
+                || sidecar.get(INT, 0) != MAGIC
+                || sidecar.get(INT, 4) != VERSION) {
+            throw new IOException(indexFile + " is not a valid BER index file");
+        }
+
+        sourceSize = sidecar.get(LONG, 8);
+        sourceLastModified = sidecar.get(LONG, 16);
+        size = sidecar.get(LONG, COUNT_OFFSET);
+        if (size < 0 || sidecar.byteSize() != HEADER_SIZE + (size * ENTRY_SIZE)) {
+            throw new IOException(indexFile + " is truncated");
+        }
+    }
+
+    /**
+     * Builds an index of the supplied data file and writes it to the specified sidecar file.
+     *
+     * <p>The data file is memory-mapped and only the identifier and length octets of each PDU are
+     * read. The sidecar is written to a temporary file which is then moved into place, so a
+     * partially written sidecar is never observed.
+     *
+     * @param source The path to the file containing the ASN.1 BER/DER binary data.
+     * @param indexFile The path to write the sidecar to.
+     * @return The opened index.
+     * @throws IOException If any errors occur reading the data or writing the sidecar.
+     */
+    public static AsnBerDataIndex build(final Path source, final Path indexFile)
+            throws IOException {
+        checkNotNull(source);
+        checkNotNull(indexFile);
+
+        final Path tempFile =
+                Files.createTempFile(
+                        indexFile.toAbsolutePath().getParent(),
+                        indexFile.getFileName().toString(),
+                        ".tmp");
+        try {
+            final long count;
+            try (final Arena mappingArena = Arena.ofConfined();
+                    final var channel = FileChannel.open(source, StandardOpenOption.READ);
+                    final var output =
+                            new DataOutputStream(
+                                    new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                final long sourceSize = channel.size();
+                final MemorySegment data =
+                        channel.map(MapMode.READ_ONLY, 0, sourceSize, mappingArena);
+
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeLong(sourceSize);
+                output.writeLong(Files.getLastModifiedTime(source).toMillis());
+                // Updated once all entries have been written.
+                output.writeLong(0);
+
+                long position = 0;
+                long entries = 0;
+                while (position < sourceSize) {
+                    final ByteBuffer window =
+                            data.asSlice(
+                                            position,
+                                            Math.min(sourceSize - position, Integer.MAX_VALUE))
+                                    .asByteBuffer();
+                    final int length = AsnBerTlvScanner.skip(window, 0);
+                    output.writeLong(position);
+                    output.writeInt(length);
+                    position += length;
+                    entries++;
+                }
+                count = entries;
+            }
+
+            try (final var channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, count), COUNT_OFFSET);
+            }
+            Files.move(
+                    tempFile,
+                    indexFile,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+
+        return open(indexFile);
+    }
+
+    /**
+     * Opens an existing sidecar file.
+     *
+     * @param indexFile The path of the sidecar.
+     * @return The opened index.
+     * @throws IOException If the sidecar cannot be read or is not a valid index.
+     */
+    public static AsnBerDataIndex open(final Path indexFile) throws IOException {
+        checkNotNull(indexFile);
+
+        final Arena arena = Arena.ofShared();
+        try (final var channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            final MemorySegment sidecar = channel.map(MapMode.READ_ONLY, 0, channel.size(), arena);
+            return new AsnBerDataIndex(arena, sidecar, indexFile);
+        } catch (final IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens the sidecar of the supplied data file, (re)building it first if it does not exist, is
+     * invalid or is out of date with respect to the data file.
+     *
+     * @param source The path to the file containing the ASN.1 BER/DER binary data.
+     * @return The opened index.
+     * @throws IOException If any errors occur reading the data or reading/writing the sidecar.
+     */
+    public static AsnBerDataIndex openOrBuild(final Path source) throws IOException {
+        final Path indexFile = sidecarPath(source);
+        if (Files.exists(indexFile)) {
+            try {
+                final AsnBerDataIndex index = open(indexFile);
+                if (index.isCurrent(source)) {
+                    return index;
+                }
+                index.close();
+            } catch (final IOException _) {
+                // Rebuild invalid sidecars.
+            }
+        }
+        return build(source, indexFile);
+    }
+
+    /**
+     * Returns the path of the sidecar for the supplied data file.
+     *
+     * @param source The path to the file containing the ASN.1 BER/DER binary data.
+     * @return The path of the sidecar (the data file's path with {@link #SIDECAR_EXTENSION}
+     *     appended).
+     */
+    public static Path sidecarPath(final Path source) {
+        checkNotNull(source);
+        return source.resolveSibling(source.getFileName() + SIDECAR_EXTENSION);
+    }
+
+    // -------------------------------------------------------------------------
+    // PUBLIC METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the number of PDUs in the index.
+     *
+     * @return The number of PDUs.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the offset of the specified PDU within the data file.
+     *
+     * @param pdu Index of the PDU (0-based).
+     * @return Offset of the PDU's first identifier octet.
+     */
+    public long offset(final long pdu) {
+        return sidecar.get(LONG, entryOffset(pdu));
+    }
+
+    /**
+     * Returns the length of the specified PDU.
+     *
+     * @param pdu Index of the PDU (0-based).
+     * @return Length of the PDU (including its identifier and length octets) in bytes.
+     */
+    public int length(final long pdu) {
+        return sidecar.get(INT, entryOffset(pdu) + Long.BYTES);
+    }
+
+    /**
+     * Determines whether the index still matches the supplied data file. This compares the file's
+     * size and last modified time with those recorded when the index was built.
+     *
+     * @param source The path to the file containing the ASN.1 BER/DER binary data.
+     * @return {@code true} if the index matches the file.
+     * @throws IOException If the file's attributes cannot be read.
+     */
+    public boolean isCurrent(final Path source) throws IOException {
+        return Files.size(source) == sourceSize
+                && Files.getLastModifiedTime(source).toMillis() == sourceLastModified;
+    }
+
+    /** Unmaps the sidecar. The index must not be used once closed. */
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    // -------------------------------------------------------------------------
+    // PRIVATE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the offset of the specified PDU's entry within the sidecar.
+     *
+     * @param pdu Index of the PDU (0-based).
+     * @return Offset of the entry.
+     */
+    private long entryOffset(final long pdu) {
+        return HEADER_SIZE + (Objects.checkIndex(pdu, size) * ENTRY_SIZE);
+    }
+}
@@ -8,39 +8,41 @@
 package com.brightsparklabs.asanti.reader;
 
 import static com.brightsparklabs.asanti.model.schema.tag.AsnSchemaTag.getUniversalTagNumber;
+import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.brightsparklabs.asanti.model.data.RawAsnData;
-import com.brightsparklabs.asanti.model.data.RawAsnDataImpl;
-import com.brightsparklabs.asanti.model.schema.tag.AsnSchemaTag;
+import com.brightsparklabs.asanti.model.data.SlicedRawAsnData;
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
-import java.nio.charset.StandardCharsets;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.LinkedHashMap;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
 import java.util.Objects;
-import java.util.SequencedMap;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
-import org.bouncycastle.asn1.ASN1BitString;
-import org.bouncycastle.asn1.ASN1Boolean;
+import java.util.stream.StreamSupport;
 import org.bouncycastle.asn1.ASN1Encodable;
 import org.bouncycastle.asn1.ASN1Encoding;
-import org.bouncycastle.asn1.ASN1Enumerated;
-import org.bouncycastle.asn1.ASN1GeneralizedTime;
 import org.bouncycastle.asn1.ASN1InputStream;
-import org.bouncycastle.asn1.ASN1Integer;
 import org.bouncycastle.asn1.ASN1Null;
-import org.bouncycastle.asn1.ASN1ObjectIdentifier;
 import org.bouncycastle.asn1.ASN1OctetString;
 import org.bouncycastle.asn1.ASN1Primitive;
 import org.bouncycastle.asn1.ASN1Sequence;
 import org.bouncycastle.asn1.ASN1Set;
-import org.bouncycastle.asn1.ASN1String;
 import org.bouncycastle.asn1.ASN1TaggedObject;
-import org.bouncycastle.asn1.ASN1UTCTime;
 import org.bouncycastle.asn1.BERTags;
 
 /**
@@ -61,8 +63,37 @@ import org.bouncycastle.asn1.BERTags;
  *       primitives.
  *   <li><b>UNIVERSAL Tag Injection:</b> Adds UNIVERSAL tags for untagged elements in
  *       sequences/sets.
+ *   <li><b>Parallel Processing:</b> In-memory and memory-mapped data is split on PDU boundaries so
+ *       that parallel streams parse PDUs concurrently.
+ *   <li><b>Corrupt Data Recovery:</b> Optionally, corrupt PDUs are skipped and reported rather than
+ *       ending the stream (see {@link #read(Path, Consumer)}).
+ *   <li><b>Projection:</b> Optionally, only selected tags are read and all other elements are
+ *       skipped using their lengths (see {@link #read(Path, AsnBerTagSelector)}).
  * </ul>
  *
+ * <h2>Parsers</h2>
+ *
+ * <p>Two interchangeable parsers are available (see {@link Parser}):
+ *
+ * <ul>
+ *   <li>{@link Parser#NATIVE} (default) walks the TLV structure directly over the underlying bytes
+ *       using {@link AsnBerTlvScanner} and never materialises ASN.1 objects.
+ *   <li>{@link Parser#BOUNCY_CASTLE} builds a BouncyCastle {@link ASN1Primitive} tree for each PDU
+ *       and walks that instead.
+ * </ul>
+ *
+ * <p>Both produce identical tag paths and values for valid data. The default can be changed via the
+ * {@code com.brightsparklabs.asanti.reader.AsnBerDataReader.parser} system property so that outputs
+ * can be compared.
+ *
+ * <h2>Values</h2>
+ *
+ * <p>The value of each leaf is its contents octets exactly as encoded, for UNIVERSAL types as well
+ * as tagged types. Interpreting them (e.g. as a number, string, OID or time) is left to the type
+ * decoders, so no intermediate objects are created while reading. The exceptions are constructed
+ * (fragmented) strings, whose fragments are concatenated into the equivalent primitive contents,
+ * and empty constructed elements, whose value is empty.
+ *
  * <h2>Tag Path Format</h2>
  *
  * <p>Tag paths follow the format: {@code /index[tagNumber]} where:
@@ -87,7 +118,8 @@ public class AsnBerDataReader {
     private static final byte[] EMPTY_BYTE_ARRAY = new byte[0];
 
     /**
-     * The minimum size of a file before switching to buffered reading in bytes. Default: `50MB`.
+     * The minimum size of a file before switching from reading all bytes to memory-mapped reading
+     * (or buffered reading for {@link Parser#BOUNCY_CASTLE}) in bytes. Default: `50MB`.
      */
     private static final int BUFFERED_STREAM_FALLBACK_SIZE =
             Integer.getInteger(
@@ -100,46 +132,250 @@ public class AsnBerDataReader {
                     "com.brightsparklabs.asanti.reader.AsnBerDataReader.tagMapPreAllocationSize",
                     48);
 
-    /** The average length of a PDU tag to pre-size the tag string builder. Default: `64`. */
-    private static final int TAG_PATH_PREALLOCATION_SIZE =
+    /**
+     * The minimum number of bytes of BER data a parallel stream will split off for a worker.
+     * Default: `64KB`.
+     */
+    private static final int SPLIT_MINIMUM_SIZE =
             Integer.getInteger(
-                    "com.brightsparklabs.asanti.reader.AsnBerDataReader.tagPathPreAllocationSize",
-                    64);
+                    "com.brightsparklabs.asanti.reader.AsnBerDataReader.splitMinimumSize",
+                    64 * 1024);
+
+    /** The parser used when none is specified. Default: `NATIVE`. */
+    private static final Parser DEFAULT_PARSER =
+            Parser.valueOf(
+                    System.getProperty(
+                                    "com.brightsparklabs.asanti.reader.AsnBerDataReader.parser",
+                                    Parser.NATIVE.name())
+                            .toUpperCase(Locale.ROOT));
 
     // -------------------------------------------------------------------------
     // PUBLIC METHODS
     // -------------------------------------------------------------------------
 
+    /**
+     * Returns the parser used when none is specified. This is set via the {@code
+     * com.brightsparklabs.asanti.reader.AsnBerDataReader.parser} system property.
+     *
+     * @return The default parser.
+     */
+    public static Parser getDefaultParser() {
+        return DEFAULT_PARSER;
+    }
+
     /**
      * Reads the supplied ASN.1 BER/DER binary data.
      *
      * <p>For files below {@link #BUFFERED_STREAM_FALLBACK_SIZE 50MB} this will read in all the
-     * bytes at once. For files over this limit, a buffered input stream will be used instead. Use
-     * {@link #read(InputStream)} or {@link #read(byte[])} if you'd prefer different behaviour.
+     * bytes at once. For files over this limit, the file is memory-mapped instead so that files far
+     * larger than the heap can be read without copying them into a {@code byte[]}. Use {@link
+     * #read(InputStream)} or {@link #read(byte[])} if you'd prefer different behaviour.
+     *
+     * <p><b>Note:</b> When the file is memory-mapped, it remains mapped until the returned stream
+     * is closed. Callers should use a try-with-resources block. In both cases the returned stream
+     * can be processed in parallel (see {@link #read(byte[])}).
      *
      * @param source The path to the file containing the ASN.1 BER/DER binary data.
      * @return List of {@link RawAsnData} objects found in the data.
      * @throws IOException If any errors occur reading the data.
      */
     public static Stream<RawAsnData> read(final Path source) throws IOException {
+        return read(source, DEFAULT_PARSER);
+    }
+
+    /**
+     * Reads the supplied ASN.1 BER/DER binary data using the specified parser.
+     *
+     * <p>See {@link #read(Path)} for details. Memory-mapping is only supported by {@link
+     * Parser#NATIVE}; large files are read via a buffered input stream for other parsers.
+     *
+     * @param source The path to the file containing the ASN.1 BER/DER binary data.
+     * @param parser The parser to use.
+     * @return List of {@link RawAsnData} objects found in the data.
+     * @throws IOException If any errors occur reading the data.
+     */
+    public static Stream<RawAsnData> read(final Path source, final Parser parser)
+            throws IOException {
         if (Files.size(source) < BUFFERED_STREAM_FALLBACK_SIZE) {
-            return read(Files.readAllBytes(source));
+            return read(Files.readAllBytes(source), parser);
         }
 
-        try (final var bufferedStream = new BufferedInputStream(Files.newInputStream(source))) {
-            return read(bufferedStream);
+        return switch (parser) {
+            case NATIVE -> readMapped(source);
+            // Closed via the returned stream's close handler.
+            case BOUNCY_CASTLE ->
+                    read(new BufferedInputStream(Files.newInputStream(source)), parser);
+        };
+    }
+
+    /**
+     * Reads a range of PDUs from the supplied ASN.1 BER/DER binary data file, using an index to
+     * seek directly to the first PDU.
+     *
+     * <p>Only the region of the file spanned by the requested PDUs is memory-mapped. It remains
+     * mapped until the returned stream is closed.
+     *
+     * @param source The path to the file containing the ASN.1 BER/DER binary data.
+     * @param index Index of the file (see {@link AsnBerDataIndex#openOrBuild(Path)}).
+     * @param fromPdu Index of the first PDU to read (inclusive, 0-based).
+     * @param toPdu Index of the last PDU to read (exclusive, 0-based).
+     * @return The {@link RawAsnData} objects for the requested PDUs.
+     * @throws IOException If any errors occur mapping the file.
+     * @throws IndexOutOfBoundsException If the range is not within the index.
+     */
+    public static Stream<RawAsnData> read(
+            final Path source, final AsnBerDataIndex index, final long fromPdu, final long toPdu)
+            throws IOException {
+        checkNotNull(source);
+        checkNotNull(index);
+        Objects.checkFromToIndex(fromPdu, toPdu, index.size());
+        if (fromPdu == toPdu) {
+            return Stream.empty();
         }
+
+        final long start = index.offset(fromPdu);
+        final long end = index.offset(toPdu - 1) + index.length(toPdu - 1);
+        return readMapped(source, start, end - start, null, null);
+    }
+
+    /**
+     * Reads the supplied ASN.1 BER/DER binary data file using the {@link Parser#NATIVE native}
+     * parser, skipping corrupt data rather than failing.
+     *
+     * <p>When a PDU cannot be parsed, the reader looks for the next offset which plausibly starts a
+     * PDU: its identifier octet must match that of the last successfully read PDU (or be
+     * constructed if no PDU has been read yet), and the data from it must parse as a complete PDU.
+     * If the identifier and length octets of the corrupt PDU are intact and frame such an offset
+     * (or the end of the data), the whole PDU is skipped. Otherwise (e.g. the PDU was truncated),
+     * the reader searches forward from the PDU's first byte. Reading resumes from the offset found,
+     * and the bytes in between are reported to the listener. If no such offset exists, the
+     * remainder of the data is reported.
+     *
+     * <p>Files are read as per {@link #read(Path)}. When the returned stream is processed in
+     * parallel, the listener may be called concurrently and out of order.
+     *
+     * @param source The path to the file containing the ASN.1 BER/DER binary data.
+     * @param onSkipped Called with each range of data which is skipped.
+     * @return List of {@link RawAsnData} objects found in the data.
+     * @throws IOException If any errors occur reading the data.
+     */
+    public static Stream<RawAsnData> read(
+            final Path source, final Consumer<? super SkippedRange> onSkipped) throws IOException {
+        checkNotNull(onSkipped);
+        final long size = Files.size(source);
+        if (size < BUFFERED_STREAM_FALLBACK_SIZE) {
+            return read(Files.readAllBytes(source), onSkipped);
+        }
+        return readMapped(source, 0, size, null, onSkipped);
+    }
+
+    /**
+     * Reads the supplied ASN.1 BER/DER binary data using the {@link Parser#NATIVE native} parser,
+     * skipping corrupt data rather than failing.
+     *
+     * <p>See {@link #read(Path, Consumer)} for details of how corrupt data is skipped.
+     *
+     * @param source The ASN.1 BER/DER binary data to decode.
+     * @param onSkipped Called with each range of data which is skipped.
+     * @return List of {@link RawAsnData} objects found in the data.
+     */
+    public static Stream<RawAsnData> read(
+            final byte[] source, final Consumer<? super SkippedRange> onSkipped) {
+        checkNotNull(onSkipped);
+        return read(MemorySegment.ofArray(source), null, onSkipped);
+    }
+
+    /**
+     * Reads only the selected raw tags from the supplied ASN.1 BER/DER binary data file using the
+     * {@link Parser#NATIVE native} parser.
+     *
+     * <p>Elements which cannot contain a selected tag are skipped using their length octets, so
+     * their values are never extracted (see {@link AsnBerTagSelector}). This makes reading a few
+     * fields from large PDUs far cheaper than reading every field and discarding most of them.
+     * Every PDU is still returned (in order), even if it contains no selected tags. The data must
+     * still be valid BER, including within skipped elements whose length is indefinite.
+     *
+     * <p>Files are read as per {@link #read(Path)}.
+     *
+     * @param source The path to the file containing the ASN.1 BER/DER binary data.
+     * @param selector Selects the raw tags to read.
+     * @return List of {@link RawAsnData} objects found in the data, containing only the selected
+     *     tags.
+     * @throws IOException If any errors occur reading the data.
+     */
+    public static Stream<RawAsnData> read(final Path source, final AsnBerTagSelector selector)
+            throws IOException {
+        checkNotNull(selector);
+        final long size = Files.size(source);
+        if (size < BUFFERED_STREAM_FALLBACK_SIZE) {
+            return read(Files.readAllBytes(source), selector);
+        }
+        return readMapped(source, 0, size, selector, null);
+    }
+
+    /**
+     * Reads only the selected raw tags from the supplied ASN.1 BER/DER binary data using the {@link
+     * Parser#NATIVE native} parser.
+     *
+     * <p>See {@link #read(Path, AsnBerTagSelector)} for details.
+     *
+     * @param source The ASN.1 BER/DER binary data to decode.
+     * @param selector Selects the raw tags to read.
+     * @return List of {@link RawAsnData} objects found in the data, containing only the selected
+     *     tags.
+     */
+    public static Stream<RawAsnData> read(final byte[] source, final AsnBerTagSelector selector) {
+        checkNotNull(selector);
+        return read(MemorySegment.ofArray(source), selector, null);
     }
 
     /**
      * Reads the supplied ASN.1 BER/DER binary data.
      *
+     * <p>The returned stream splits on PDU boundaries, so calling {@link Stream#parallel()} on it
+     * allows PDUs to be parsed concurrently.
+     *
+     * <p>With the {@link Parser#NATIVE native} parser, values are views over the supplied array
+     * rather than copies of it. The array must therefore not be modified while the returned {@link
+     * RawAsnData} are in use, and remains reachable for as long as any of them are.
+     *
      * @param source The ASN.1 BER/DER binary data to decode.
      * @return List of {@link RawAsnData} objects found in the data.
      * @throws IOException If any errors occur reading the data.
      */
     public static Stream<RawAsnData> read(final byte[] source) throws IOException {
-        return read(new ByteArrayInputStream(source));
+        return read(source, DEFAULT_PARSER);
+    }
+
+    /**
+     * Reads the supplied ASN.1 BER/DER binary data using the specified parser.
+     *
+     * @param source The ASN.1 BER/DER binary data to decode.
+     * @param parser The parser to use.
+     * @return List of {@link RawAsnData} objects found in the data.
+     * @throws IOException If any errors occur reading the data.
+     */
+    public static Stream<RawAsnData> read(final byte[] source, final Parser parser)
+            throws IOException {
+        return switch (parser) {
+            case NATIVE -> read(MemorySegment.ofArray(source), null, null);
+            case BOUNCY_CASTLE -> read(new ByteArrayInputStream(source), parser);
+        };
+    }
+
+    /**
+     * Reads the remaining ASN.1 BER/DER binary data in the supplied buffer using the {@link
+     * Parser#NATIVE native} parser.
+     *
+     * <p>The buffer's position is not changed. Values are views over the buffer rather than copies
+     * of it, so its content must not be modified while the returned {@link RawAsnData} are in use.
+     *
+     * @param source Buffer containing the ASN.1 BER/DER binary data to decode.
+     * @return List of {@link RawAsnData} objects found in the data.
+     */
+    public static Stream<RawAsnData> read(final ByteBuffer source) {
+        checkNotNull(source);
+        return read(MemorySegment.ofBuffer(source), null, null);
     }
 
     /**
@@ -158,9 +394,31 @@ public class AsnBerDataReader {
      * @throws UncheckedIOException If an I/O error occurs during stream processing.
      */
     public static Stream<RawAsnData> read(final InputStream inputStream) {
-        final var asnInputStream = new ASN1InputStream(inputStream);
-        return Stream.<RawAsnData>generate(() -> read(asnInputStream))
-                // read(ASN1InputStream) terminates on a null value.
+        return read(inputStream, DEFAULT_PARSER);
+    }
+
+    /**
+     * Parses a BER-encoded input stream lazily using the specified parser.
+     *
+     * <p>See {@link #read(InputStream)} for details.
+     *
+     * @param inputStream The BER-encoded data stream to parse.
+     * @param parser The parser to use.
+     * @return A Stream where each element is a RawAsnData containing tag-to-bytes mappings for one
+     *     PDU.
+     * @throws UncheckedIOException If an I/O error occurs during stream processing.
+     */
+    public static Stream<RawAsnData> read(final InputStream inputStream, final Parser parser) {
+        final Stream<RawAsnData> pdus =
+                switch (parser) {
+                    case NATIVE -> Stream.generate(() -> readNative(inputStream));
+                    case BOUNCY_CASTLE -> {
+                        final var asnInputStream = new ASN1InputStream(inputStream);
+                        yield Stream.generate(() -> read(asnInputStream));
+                    }
+                };
+        return pdus
+                // read(...) terminates on a null value.
                 .takeWhile(Objects::nonNull)
                 .onClose(
                         () -> {
@@ -172,10 +430,172 @@ public class AsnBerDataReader {
                         });
     }
 
+    // -------------------------------------------------------------------------
+    // PACKAGE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Reads the supplied ASN.1 BER/DER binary data by memory-mapping the file, regardless of its
+     * size.
+     *
+     * <p>The file is mapped into a shared {@link Arena} which is closed (unmapping the file) when
+     * the returned stream is closed. Each PDU in the returned stream is copied onto the heap (with
+     * a single bulk copy) so its values remain valid once the stream has been closed.
+     *
+     * @param source The path to the file containing the ASN.1 BER/DER binary data.
+     * @return List of {@link RawAsnData} objects found in the data.
+     * @throws IOException If any errors occur mapping the file.
+     */
+    static Stream<RawAsnData> readMapped(final Path source) throws IOException {
+        return readMapped(source, 0, Files.size(source), null, null);
+    }
+
+    /**
+     * Reads the PDU which starts at the buffer's position using the native parser.
+     *
+     * <p>Values in the returned {@link RawAsnData} are views over the buffer's backing array where
+     * possible. Buffers without an accessible array (e.g. mapped files) have the PDU copied onto
+     * the heap with a single bulk copy, so values remain valid once the buffer is released.
+     *
+     * @param source Buffer containing the BER data. Its position is advanced past the PDU read.
+     * @return {@link RawAsnData} containing tag-to-bytes mappings for the PDU.
+     * @throws IOException If the data is not valid BER.
+     */
+    static SlicedRawAsnData readPdu(final ByteBuffer source) throws IOException {
+        return readPdu(source, null);
+    }
+
+    /**
+     * Reads the selected raw tags of the PDU which starts at the buffer's position using the native
+     * parser.
+     *
+     * <p>See {@link #readPdu(ByteBuffer)} for details.
+     *
+     * @param source Buffer containing the BER data. Its position is advanced past the PDU read.
+     * @param selector Selects the raw tags to read, or {@code null} to read all tags.
+     * @return {@link RawAsnData} containing tag-to-bytes mappings for the PDU.
+     * @throws IOException If the data is not valid BER.
+     */
+    static SlicedRawAsnData readPdu(final ByteBuffer source, final AsnBerTagSelector selector)
+            throws IOException {
+        final int start = source.position();
+        final var pathMapBuilder = new PathMapBuilder(source, selector);
+        final int end = AsnBerTlvScanner.scan(source, start, pathMapBuilder);
+        source.position(end);
+
+        if (source.hasArray()) {
+            return pathMapBuilder.data.build(source.array(), source.arrayOffset());
+        }
+        final byte[] pdu = new byte[end - start];
+        source.get(start, pdu);
+        return pathMapBuilder.data.build(pdu, -start);
+    }
+
     // -------------------------------------------------------------------------
     // PRIVATE METHODS
     // -------------------------------------------------------------------------
 
+    /**
+     * Reads the PDUs in a region of the supplied file by memory-mapping the region.
+     *
+     * @param source The path to the file containing the ASN.1 BER/DER binary data.
+     * @param offset Offset of the first PDU in the region.
+     * @param length Length of the region in bytes.
+     * @param selector Selects the raw tags to read, or {@code null} to read all tags.
+     * @param onSkipped Called with each range of corrupt data which is skipped, or {@code null} to
+     *     fail on corrupt data.
+     * @return List of {@link RawAsnData} objects found in the region. The region is unmapped when
+     *     the stream is closed.
+     * @throws IOException If any errors occur mapping the file.
+     */
+    private static Stream<RawAsnData> readMapped(
+            final Path source,
+            final long offset,
+            final long length,
+            final AsnBerTagSelector selector,
+            final Consumer<? super SkippedRange> onSkipped)
+            throws IOException {
+        final Arena arena = Arena.ofShared();
+        final MemorySegment segment;
+        // The mapping remains valid after the channel is closed.
+        try (final var channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            segment = channel.map(MapMode.READ_ONLY, offset, length, arena);
+        } catch (final IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+
+        return read(segment, selector, onSkipped).onClose(arena::close);
+    }
+
+    /**
+     * Reads the PDUs in the supplied segment using the native parser.
+     *
+     * <p>The returned stream is splittable on PDU boundaries so can be processed in parallel.
+     *
+     * @param segment Segment containing the BER data.
+     * @param selector Selects the raw tags to read, or {@code null} to read all tags.
+     * @param onSkipped Called with each range of corrupt data which is skipped, or {@code null} to
+     *     fail on corrupt data.
+     * @return A Stream where each element is a RawAsnData containing tag-to-bytes mappings for one
+     *     PDU.
+     */
+    private static Stream<RawAsnData> read(
+            final MemorySegment segment,
+            final AsnBerTagSelector selector,
+            final Consumer<? super SkippedRange> onSkipped) {
+        final var spliterator =
+                new PduSpliterator(
+                        segment,
+                        0,
+                        segment.byteSize(),
+                        selector,
+                        onSkipped,
+                        onSkipped == null ? null : new AtomicLong());
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    /**
+     * Reads the next PDU from the supplied buffer using the native parser.
+     *
+     * @param source Buffer containing the BER data. Its position is advanced past the PDU read.
+     * @param selector Selects the raw tags to read, or {@code null} to read all tags.
+     * @return {@link RawAsnData} containing tag-to-bytes mappings for one PDU. This will return
+     *     {@code null} once all BER data has been read.
+     * @throws UncheckedIOException If the data is not valid BER.
+     */
+    private static SlicedRawAsnData read(
+            final ByteBuffer source, final AsnBerTagSelector selector) {
+        if (!source.hasRemaining()) {
+            return null;
+        }
+
+        try {
+            return readPdu(source, selector);
+        } catch (final IOException e) {
+            // Map checked IOExceptions to Unchecked equivalents to play nice
+            // with Java Streams.
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the next PDU from the supplied stream using the native parser.
+     *
+     * @param inputStream The BER-encoded data stream to parse.
+     * @return {@link RawAsnData} containing tag-to-bytes mappings for one PDU. This will return
+     *     {@code null} once all BER data has been read.
+     * @throws UncheckedIOException If an I/O error occurs or the data is not valid BER.
+     */
+    private static SlicedRawAsnData readNative(final InputStream inputStream) {
+        try {
+            final byte[] tlv = AsnBerTlvScanner.readTlv(inputStream);
+            return tlv == null ? null : read(ByteBuffer.wrap(tlv), null);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * Parses a BER-encoded input stream lazily, returning the next found RawAsnData.
      *
@@ -184,7 +604,7 @@ public class AsnBerDataReader {
      *     {@code null} once all BER data has been read.
      * @throws UncheckedIOException If an I/O error occurs during stream processing.
      */
-    private static RawAsnDataImpl read(final ASN1InputStream asnInputStream) {
+    private static SlicedRawAsnData read(final ASN1InputStream asnInputStream) {
         try {
             final ASN1Primitive primitive = asnInputStream.readObject();
             if (primitive == null) {
@@ -196,17 +616,15 @@ public class AsnBerDataReader {
             // and appropriate memory management is key here. Constantly building
             // new Map objects and Strings adds significant overhead.
 
-            // Pre-sized to reduce overhead from rehashing etc.
-            final var pathMap =
-                    LinkedHashMap.<String, byte[]>newLinkedHashMap(TAG_MAP_PREALLOCATION_SIZE);
-            final var pathBuilder = new StringBuilder(TAG_PATH_PREALLOCATION_SIZE);
+            // Pre-sized to reduce overhead from resizing etc.
+            final var data = SlicedRawAsnData.builder(TAG_MAP_PREALLOCATION_SIZE);
 
             // Extract the current root node - don't add index prefix for root
             // level. The root is treated as if already inside a tag to prevent
             // adding UNIVERSAL prefix.
-            extractElements(primitive, 0, true, pathBuilder, pathMap);
+            extractElements(primitive, 0, true, data);
 
-            return new RawAsnDataImpl(pathMap);
+            return data.build();
         } catch (final IOException e) {
             // Map checked IOExceptions to Unchecked equivalents to play nice
             // with Java Streams.
@@ -232,24 +650,21 @@ public class AsnBerDataReader {
      *     children)
      * @param insideTag {@code true} if we're already inside a tag context (prevents adding
      *     duplicate UNIVERSAL tags).
-     * @param pathBuilder Mutable StringBuilder for building the current tag path (restored after
-     *     recursion).
-     * @param pathMap The output map where tag paths are mapped to their byte data.
+     * @param data Builder holding the current tag path (restored after recursion) and the tag paths
+     *     mapped to their byte data.
      * @throws IOException If encoding/decoding errors occur.
      */
     private static void extractElements(
             final ASN1Primitive derObject,
             final int index,
             final boolean insideTag,
-            final StringBuilder pathBuilder,
-            final SequencedMap<String, byte[]> pathMap)
+            final SlicedRawAsnData.Builder data)
             throws IOException {
-        final int baseLength = pathBuilder.length();
+        final int baseDepth = data.depth();
         switch (derObject) {
             case ASN1TaggedObject taggedObject -> {
                 // Append the tag segment (e.g., "/0[1]" for context tag 1 at index 0)
-                appendTagSegment(
-                        pathBuilder, index, taggedObject.getTagClass(), taggedObject.getTagNo());
+                data.push(index, taggedObject.getTagClass(), taggedObject.getTagNo());
                 final ASN1Primitive baseObject = taggedObject.getBaseObject().toASN1Primitive();
 
                 // For EXPLICIT tagging with UNIVERSAL base types, inject a UNIVERSAL tag
@@ -262,7 +677,7 @@ public class AsnBerDataReader {
                         int tagNo = getUniversalTagNumber(baseObject);
                         if (tagNo > 0 && tagNo < 0x1F) {
                             // Valid tag, not high-tag-number form.
-                            appendUntaggedPrimitive(pathBuilder, 0, baseObject);
+                            appendUntaggedPrimitive(data, 0, baseObject);
                         }
                     }
                 }
@@ -270,22 +685,21 @@ public class AsnBerDataReader {
                 if (baseObject != null) {
                     // Recurse into the base object with insideTag=true to prevent duplicate tags.
                     // Index is always 0 for children of tagged objects (only one child).
-                    extractElements(baseObject, 0, true, pathBuilder, pathMap);
+                    extractElements(baseObject, 0, true, data);
                 }
             }
-            case ASN1Sequence sequence ->
-                    processConstructedElements(sequence, pathBuilder, pathMap, baseLength);
-            case ASN1Set set -> processConstructedElements(set, pathBuilder, pathMap, baseLength);
+            case ASN1Sequence sequence -> processConstructedElements(sequence, data, baseDepth);
+            case ASN1Set set -> processConstructedElements(set, data, baseDepth);
             case ASN1OctetString octetString -> {
                 if (!insideTag) {
-                    appendUntaggedPrimitive(pathBuilder, index, octetString);
+                    appendUntaggedPrimitive(data, index, octetString);
                 }
-                pathMap.put(pathBuilder.toString(), octetString.getOctets());
+                data.addValue(octetString.getOctets());
             }
-            default -> handlePrimitive(derObject, index, insideTag, pathBuilder, pathMap);
+            default -> handlePrimitive(derObject, index, insideTag, data);
         }
 
-        pathBuilder.setLength(baseLength);
+        data.truncate(baseDepth);
     }
 
     /**
@@ -299,34 +713,31 @@ public class AsnBerDataReader {
      *   <li>Stores the data in the map with the current path as the key.
      * </ul>
      *
-     * <p>Special handling is provided for common types (INTEGER, STRING, OID, NULL) to extract
-     * their values efficiently. All other primitives are encoded as BER bytes.
+     * <p>The value stored is the primitive's contents octets (see {@link
+     * #extractPrimitiveValue(ASN1Primitive)}).
      *
      * @param primitive The primitive ASN.1 object to process.
      * @param index The index of this element within its parent container.
      * @param insideTag {@code true} if already inside a tag context (skips adding UNIVERSAL tag).
-     * @param pathBuilder Mutable StringBuilder for building the current tag path.
-     * @param pathMap The output map where tag paths are mapped to their byte data.
+     * @param data Builder holding the current tag path and the tag paths mapped to their byte data.
      */
     private static void handlePrimitive(
             final ASN1Primitive primitive,
             final int index,
             final boolean insideTag,
-            final StringBuilder pathBuilder,
-            final SequencedMap<String, byte[]> pathMap) {
-        final int baseLength = pathBuilder.length();
+            final SlicedRawAsnData.Builder data) {
+        final int baseDepth = data.depth();
 
         // Only add UNIVERSAL tag if we're not already inside a tag context.
         // This prevents duplicate tags like "/0[UNIVERSAL 2]/0[UNIVERSAL 2]"
         if (!insideTag) {
-            appendUntaggedPrimitive(pathBuilder, index, primitive);
+            appendUntaggedPrimitive(data, index, primitive);
         }
 
-        final String pathKey = pathBuilder.toString();
-        pathMap.put(pathKey, extractPrimitiveValue(primitive));
+        data.addValue(extractPrimitiveValue(primitive));
 
         // Restore path for next sibling (if any).
-        pathBuilder.setLength(baseLength);
+        data.truncate(baseDepth);
     }
 
     /**
@@ -336,16 +747,14 @@ public class AsnBerDataReader {
      * recursively processing each child.
      *
      * @param elements The iterable collection of child elements (from SEQUENCE or SET).
-     * @param pathBuilder The path builder to append to.
-     * @param pathMap The map to store tag-to-data mappings.
-     * @param baseLength The base length to restore the path builder to after processing each child.
+     * @param data Builder holding the current tag path and the tag-to-data mappings.
+     * @param baseDepth The depth to restore the current tag path to after processing each child.
      * @throws IOException If an error occurs while processing elements.
      */
     private static void processConstructedElements(
             final Iterable<ASN1Encodable> elements,
-            final StringBuilder pathBuilder,
-            final SequencedMap<String, byte[]> pathMap,
-            final int baseLength)
+            final SlicedRawAsnData.Builder data,
+            final int baseDepth)
             throws IOException {
         int childIndex = 0;
         for (ASN1Encodable child : elements) {
@@ -356,56 +765,25 @@ public class AsnBerDataReader {
             // This is required for proper schema mapping - e.g., an INTEGER in a SEQUENCE
             // should have path "/0[UNIVERSAL 2]" not just "/0".
             if (!isTagged) {
-                appendUntaggedPrimitive(pathBuilder, childIndex, childPrimitive);
+                appendUntaggedPrimitive(data, childIndex, childPrimitive);
             }
 
             // Recurse with insideTag=true if we just added a UNIVERSAL tag.
             // This prevents the child from adding another UNIVERSAL tag (avoiding duplicates).
-            extractElements(childPrimitive, childIndex, !isTagged, pathBuilder, pathMap);
+            extractElements(childPrimitive, childIndex, !isTagged, data);
             childIndex++;
 
-            // Restore path to base length for next sibling.
-            pathBuilder.setLength(baseLength);
+            // Restore path to base depth for next sibling.
+            data.truncate(baseDepth);
         }
 
         // Empty constructed types are represented as an entry with empty byte array.
         // This is important for validation - it indicates the SEQUENCE/SET was present but empty.
         if (childIndex == 0) {
-            pathMap.put(pathBuilder.toString(), new byte[0]);
+            data.addValue(EMPTY_BYTE_ARRAY);
         }
     }
 
-    /**
-     * Appends a tag segment to the path builder.
-     *
-     * <p>Creates a path segment in the format: {@code /index[tagClass tagNumber]} or {@code
-     * /index[tagNumber]} for CONTEXT tags.
-     *
-     * <p>Examples:
-     *
-     * <ul>
-     *   <li>CONTEXT tag 1 at index 0: "/0[1]".
-     *   <li>UNIVERSAL tag 16 at index 2: "/2[UNIVERSAL 16]".
-     *   <li>APPLICATION tag 5 at index 1: "/1[APPLICATION 5]".
-     * </ul>
-     *
-     * @param pathBuilder The StringBuilder to append to.
-     * @param index The element index within its parent container.
-     * @param tagClass The ASN.1 tag class (UNIVERSAL, APPLICATION, CONTEXT, or PRIVATE).
-     * @param tagNo The tag number.
-     */
-    private static void appendTagSegment(
-            final StringBuilder pathBuilder, final int index, final int tagClass, final int tagNo) {
-        final String tagPrefix =
-                switch (tagClass) {
-                    case BERTags.CONTEXT_SPECIFIC -> "";
-                    case BERTags.APPLICATION -> "APPLICATION ";
-                    case BERTags.PRIVATE -> "PRIVATE ";
-                    default -> "UNIVERSAL ";
-                };
-        pathBuilder.append('/').append(AsnSchemaTag.createRawTag(index, tagPrefix + tagNo));
-    }
-
     /**
      * Appends a UNIVERSAL tag segment for an untagged primitive.
      *
@@ -415,64 +793,457 @@ public class AsnBerDataReader {
      * <p>Tag number extraction uses the first byte of the BER encoding (bits 4-0), with fallback
      * logic for common types if encoding fails.
      *
-     * @param pathBuilder The StringBuilder to append to.
+     * @param data Builder holding the current tag path to append to.
      * @param index The element index within its parent container.
      * @param primitive The primitive to extract the UNIVERSAL tag number from.
      */
     private static void appendUntaggedPrimitive(
-            final StringBuilder pathBuilder, final int index, final ASN1Primitive primitive) {
-        final int tagNo = getUniversalTagNumber(primitive);
-        pathBuilder.append('/').append(AsnSchemaTag.createRawTagUniversal(index, tagNo));
+            final SlicedRawAsnData.Builder data, final int index, final ASN1Primitive primitive) {
+        data.push(index, BERTags.UNIVERSAL, getUniversalTagNumber(primitive));
     }
 
     /**
-     * Extracts the byte value from a primitive.
+     * Extracts the contents octets of a primitive.
      *
-     * <p>Uses direct accessors for common types to avoid encoding overhead, falling back to
-     * getEncoded() for less common types.
+     * <p>The contents octets are returned exactly as they were encoded (e.g. INTEGER values are not
+     * normalised and strings are not transcoded) so that the type decoders interpret the same bytes
+     * as for tagged primitives. Constructed BIT STRINGs are returned as the equivalent primitive
+     * contents, i.e. the unused bits octet followed by the concatenated fragments.
      *
      * @param primitive The primitive to extract value from.
-     * @return The byte representation of the primitive's value.
+     * @return The contents octets of the primitive.
      */
     private static byte[] extractPrimitiveValue(final ASN1Primitive primitive) {
-        return switch (primitive) {
-            case ASN1Integer integer -> integer.getValue().toByteArray();
-            case ASN1BitString bitString -> bitString.getOctets();
-            case ASN1String str -> str.getString().getBytes(StandardCharsets.UTF_8);
-            case ASN1Null _ -> EMPTY_BYTE_ARRAY;
-            case ASN1Enumerated enumerated -> enumerated.getValue().toByteArray();
-            case ASN1Boolean bool -> new byte[] {bool.isTrue() ? (byte) 0xFF : 0x00};
-            case ASN1ObjectIdentifier oid -> {
+        if (primitive instanceof ASN1Null) {
+            return EMPTY_BYTE_ARRAY;
+        }
+
+        final byte[] encoded;
+        try {
+            // The definite length form encodes every primitive with its original contents.
+            encoded = primitive.getEncoded(ASN1Encoding.DL);
+        } catch (final IOException _) {
+            // TODO: INS-703 - logging implications.
+            return EMPTY_BYTE_ARRAY;
+        }
+
+        // Skip the identifier and length octets.
+        int position = 1;
+        if ((encoded[0] & 0x1F) == 0x1F) {
+            while ((encoded[position++] & 0x80) != 0) {
+                // skip high tag number octets
+            }
+        }
+        final int lengthOctet = encoded[position++] & 0xFF;
+        if (lengthOctet > 0x80) {
+            position += lengthOctet & 0x7F;
+        }
+        return Arrays.copyOfRange(encoded, position, encoded.length);
+    }
+
+    /**
+     * Copies a range of bytes out of a buffer.
+     *
+     * @param source Buffer to copy from.
+     * @param offset Offset of the first byte to copy.
+     * @param length Number of bytes to copy.
+     * @return The copied bytes.
+     */
+    private static byte[] copyOf(final ByteBuffer source, final int offset, final int length) {
+        if (source.hasArray()) {
+            final int start = source.arrayOffset() + offset;
+            return Arrays.copyOfRange(source.array(), start, start + length);
+        }
+        final byte[] result = new byte[length];
+        source.get(offset, result);
+        return result;
+    }
+
+    // -------------------------------------------------------------------------
+    // INTERNAL CLASS: Parser
+    // -------------------------------------------------------------------------
+
+    /**
+     * The parsers which can be used to read BER data.
+     *
+     * @author brightSPARK Labs
+     */
+    public enum Parser {
+        /** Walks the TLV structure directly over the underlying bytes. */
+        NATIVE,
+
+        /** Builds and walks a BouncyCastle object tree for each PDU. */
+        BOUNCY_CASTLE
+    }
+
+    // -------------------------------------------------------------------------
+    // INTERNAL CLASS: SkippedRange
+    // -------------------------------------------------------------------------
+
+    /**
+     * A range of corrupt data which was skipped while reading (see {@link #read(Path, Consumer)}).
+     *
+     * <p>The end of a range is a heuristic when the corrupt PDU cannot be skipped using its
+     * identifier and length octets (e.g. they are corrupt, or the PDU was truncated so its length
+     * overruns the PDUs which follow it). An element within the corrupt PDU (e.g. a nested {@code
+     * SEQUENCE} with the same identifier octet as the PDUs) which parses on its own is then read as
+     * a PDU, in which case the range ends too early and the PDUs which follow it are not genuine.
+     *
+     * @param offset Offset of the first skipped byte within the data.
+     * @param length Number of bytes skipped.
+     * @param count Number of ranges skipped so far while reading the data (including this one).
+     * @param cause The error raised when parsing the data at {@code offset}.
+     * @author brightSPARK Labs
+     */
+    public record SkippedRange(long offset, long length, long count, IOException cause) {}
+
+    // -------------------------------------------------------------------------
+    // INTERNAL CLASS: PduSpliterator
+    // -------------------------------------------------------------------------
+
+    /**
+     * Reads successive PDUs from a range of a memory segment using the native parser.
+     *
+     * <p>Splitting only reads the identifier and length octets of the top level PDUs in order to
+     * find the PDU boundary closest to the middle of the range. Each half is then parsed
+     * independently.
+     *
+     * <p>Segments may be larger than {@link Integer#MAX_VALUE} bytes, however each individual PDU
+     * must be smaller than this.
+     *
+     * <p>If a listener for skipped ranges is supplied, corrupt data is skipped (see {@link
+     * #read(Path, Consumer)}) rather than causing the stream to fail.
+     *
+     * @author brightSPARK Labs
+     */
+    private static final class PduSpliterator implements Spliterator<RawAsnData> {
+        // ---------------------------------------------------------------------
+        // INSTANCE VARIABLES
+        // ---------------------------------------------------------------------
+
+        /** Segment containing the BER data. */
+        private final MemorySegment segment;
+
+        /** Offset of the next PDU within the segment. */
+        private long position;
+
+        /** Offset immediately after the last PDU in this spliterator's range. */
+        private final long end;
+
+        /** Selects the raw tags to read ({@code null} to read all tags). */
+        private final AsnBerTagSelector selector;
+
+        /** Called with each range of corrupt data skipped ({@code null} if not skipping). */
+        private final Consumer<? super SkippedRange> onSkipped;
+
+        /** Number of ranges skipped, shared with all spliterators split from the same data. */
+        private final AtomicLong skippedCount;
+
+        /** Identifier octet of the last PDU successfully read ({@code -1} if none). */
+        private int lastIdentifier = -1;
+
+        // ---------------------------------------------------------------------
+        // CONSTRUCTION
+        // ---------------------------------------------------------------------
+
+        /**
+         * Default constructor.
+         *
+         * @param segment Segment containing the BER data.
+         * @param position Offset of the first PDU in the range.
+         * @param end Offset immediately after the last PDU in the range.
+         * @param selector Selects the raw tags to read, or {@code null} to read all tags.
+         * @param onSkipped Called with each range of corrupt data skipped, or {@code null} to fail
+         *     on corrupt data.
+         * @param skippedCount Number of ranges skipped so far ({@code null} if not skipping).
+         */
+        private PduSpliterator(
+                final MemorySegment segment,
+                final long position,
+                final long end,
+                final AsnBerTagSelector selector,
+                final Consumer<? super SkippedRange> onSkipped,
+                final AtomicLong skippedCount) {
+            this.segment = segment;
+            this.position = position;
+            this.end = end;
+            this.selector = selector;
+            this.onSkipped = onSkipped;
+            this.skippedCount = skippedCount;
+        }
+
+        // ---------------------------------------------------------------------
+        // IMPLEMENTATION: Spliterator
+        // ---------------------------------------------------------------------
+
+        /**
+         * {@inheritDoc}
+         *
+         * @throws UncheckedIOException If the data is not valid BER and corrupt data is not being
+         *     skipped.
+         */
+        @Override
+        public boolean tryAdvance(final Consumer<? super RawAsnData> action) {
+            if (position >= end) {
+                return false;
+            }
+
+            if (onSkipped == null) {
+                final ByteBuffer window = window(position);
+                final RawAsnData pdu = read(window, selector);
+                position += window.position();
+                action.accept(pdu);
+                return true;
+            }
+
+            while (position < end) {
+                final ByteBuffer window = window(position);
                 try {
-                    yield oid.getEncoded(ASN1Encoding.BER);
-                } catch (IOException _) {
-                    yield EMPTY_BYTE_ARRAY;
+                    final RawAsnData pdu = readPdu(window, selector);
+                    lastIdentifier = window.get(0) & 0xFF;
+                    position += window.position();
+                    action.accept(pdu);
+                    return true;
+                } catch (final IOException e) {
+                    resynchronise(e);
                 }
             }
-            // Time types need BER encoding to preserve format.
-            case ASN1UTCTime utc -> {
-                try {
-                    yield utc.getEncoded(ASN1Encoding.BER);
-                } catch (IOException _) {
-                    yield EMPTY_BYTE_ARRAY;
+            return false;
+        }
+
+        @Override
+        public Spliterator<RawAsnData> trySplit() {
+            if (end - position < SPLIT_MINIMUM_SIZE) {
+                return null;
+            }
+
+            final long middle = position + ((end - position) / 2);
+            long boundary = position;
+            try {
+                while (boundary < middle) {
+                    boundary += AsnBerTlvScanner.skip(window(boundary), 0);
                 }
+            } catch (final IOException _) {
+                // Leave invalid data to be reported (in order) when it is parsed.
+                return null;
             }
-            case ASN1GeneralizedTime genTime -> {
-                try {
-                    yield genTime.getEncoded(ASN1Encoding.BER);
-                } catch (IOException _) {
-                    yield EMPTY_BYTE_ARRAY;
+
+            if (boundary >= end) {
+                return null;
+            }
+            final var prefix =
+                    new PduSpliterator(
+                            segment, position, boundary, selector, onSkipped, skippedCount);
+            position = boundary;
+            return prefix;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @return the number of bytes remaining, which is always larger than the number of PDUs
+         *     remaining.
+         */
+        @Override
+        public long estimateSize() {
+            return end - position;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | IMMUTABLE;
+        }
+
+        // ---------------------------------------------------------------------
+        // PRIVATE METHODS
+        // ---------------------------------------------------------------------
+
+        /**
+         * Skips the corrupt data at the current position, moving to the next offset which plausibly
+         * starts a PDU (or the end of the range), and reports the skipped range.
+         *
+         * @param cause The error raised when parsing the data at the current position.
+         */
+        private void resynchronise(final IOException cause) {
+            final long start = position;
+            position = findNextPdu(start);
+            reportSkipped(start, position - start, cause);
+        }
+
+        /**
+         * Finds the next offset after a corrupt PDU which plausibly starts a PDU: its identifier
+         * octet matches that of the last PDU read (or is constructed if no PDU has been read yet),
+         * and a complete PDU parses from it.
+         *
+         * <p>If the identifier and length octets of the corrupt PDU are intact and the offset they
+         * frame is either the end of the range or plausibly starts a PDU, the whole PDU is skipped,
+         * so nothing within its contents is mistaken for a PDU. Otherwise (e.g. the PDU was
+         * truncated, so its length overruns the PDUs which follow it), the data is searched for the
+         * first plausible offset after the start of the corrupt PDU.
+         *
+         * @param start Offset of the corrupt PDU.
+         * @return The offset of the next plausible PDU, or {@link #end} if there is none.
+         */
+        private long findNextPdu(final long start) {
+            try {
+                final long framedEnd = start + AsnBerTlvScanner.skip(window(start), 0);
+                if (framedEnd == end || (framedEnd > start && startsPdu(framedEnd))) {
+                    return framedEnd;
                 }
+            } catch (final IOException _) {
+                // The framing is corrupt too, so search for the next PDU.
             }
-            // Extremely rare types fall back to encoding.
-            default -> {
-                try {
-                    yield primitive.getEncoded(ASN1Encoding.BER);
-                } catch (IOException _) {
-                    // TODO: INS-703 - logging implications.
-                    yield EMPTY_BYTE_ARRAY;
+
+            for (long candidate = start + 1; candidate < end; candidate++) {
+                if (startsPdu(candidate)) {
+                    return candidate;
                 }
             }
-        };
+            return end;
+        }
+
+        /**
+         * Determines whether the data at the specified offset plausibly starts a PDU (see {@link
+         * #findNextPdu(long)}).
+         *
+         * @param offset Offset within the range.
+         * @return {@code true} if the data plausibly starts a PDU.
+         */
+        private boolean startsPdu(final long offset) {
+            final int identifier = segment.get(ValueLayout.JAVA_BYTE, offset) & 0xFF;
+            final boolean plausible =
+                    lastIdentifier < 0 ? (identifier & 0x20) != 0 : identifier == lastIdentifier;
+            if (!plausible) {
+                return false;
+            }
+
+            try {
+                readPdu(window(offset), selector);
+                return true;
+            } catch (final IOException _) {
+                return false;
+            }
+        }
+
+        /**
+         * Reports a skipped range to the listener.
+         *
+         * @param offset Offset of the first skipped byte.
+         * @param length Number of bytes skipped.
+         * @param cause The error raised when parsing the data at {@code offset}.
+         */
+        private void reportSkipped(final long offset, final long length, final IOException cause) {
+            onSkipped.accept(
+                    new SkippedRange(offset, length, skippedCount.incrementAndGet(), cause));
+        }
+
+        /**
+         * Creates a buffer over the range starting at the specified offset. Only the window is
+         * addressable by the scanner, not the whole segment.
+         *
+         * @param offset Offset of the start of the window.
+         * @return A buffer over (at most {@link Integer#MAX_VALUE} bytes of) the range.
+         */
+        private ByteBuffer window(final long offset) {
+            return segment.asSlice(offset, Math.min(end - offset, Integer.MAX_VALUE))
+                    .asByteBuffer();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // INTERNAL CLASS: PathMapBuilder
+    // -------------------------------------------------------------------------
+
+    /**
+     * Builds the {@link SlicedRawAsnData} for a single PDU from the events raised by the native
+     * parser.
+     *
+     * @author brightSPARK Labs
+     */
+    private static final class PathMapBuilder implements AsnBerTlvScanner.Visitor {
+        // ---------------------------------------------------------------------
+        // INSTANCE VARIABLES
+        // ---------------------------------------------------------------------
+
+        /** Buffer containing the PDU. Values within it are recorded as slices. */
+        private final ByteBuffer source;
+
+        /** Tag paths mapped to their byte data. Pre-sized to reduce resizing. */
+        private final SlicedRawAsnData.Builder data =
+                SlicedRawAsnData.builder(TAG_MAP_PREALLOCATION_SIZE);
+
+        /** Tracks which tags are selected ({@code null} if all tags are read). */
+        private final AsnBerTagSelector.Cursor cursor;
+
+        /** Whether the most recently entered element is being skipped. */
+        private boolean skipping = false;
+
+        // ---------------------------------------------------------------------
+        // CONSTRUCTION
+        // ---------------------------------------------------------------------
+
+        /**
+         * Default constructor.
+         *
+         * @param source Buffer containing the PDU.
+         * @param selector Selects the raw tags to read, or {@code null} to read all tags.
+         */
+        private PathMapBuilder(final ByteBuffer source, final AsnBerTagSelector selector) {
+            this.source = source;
+            cursor = selector == null ? null : selector.cursor();
+        }
+
+        // ---------------------------------------------------------------------
+        // IMPLEMENTATION: AsnBerTlvScanner.Visitor
+        // ---------------------------------------------------------------------
+
+        @Override
+        public boolean enter(final int index, final int tagClass, final int tagNumber) {
+            if (cursor != null && !cursor.enter(index, tagClass, tagNumber)) {
+                // The scanner skips the element's contents, so exit is called next.
+                skipping = true;
+                return false;
+            }
+            data.push(index, tagClass, tagNumber);
+            return true;
+        }
+
+        @Override
+        public void exit() {
+            if (cursor != null) {
+                cursor.exit();
+            }
+            if (skipping) {
+                skipping = false;
+            } else {
+                data.pop();
+            }
+        }
+
+        @Override
+        public void value(
+                final int tagClass,
+                final int tagNumber,
+                final ByteBuffer buffer,
+                final int offset,
+                final int length) {
+            if (cursor != null && !cursor.isSelected()) {
+                return;
+            }
+            // Reassembled fragments are in a separate buffer so cannot be sliced.
+            if (buffer == source) {
+                data.addSlice(offset, length);
+            } else {
+                data.addValue(copyOf(buffer, offset, length));
+            }
+        }
+
+        @Override
+        public void empty() {
+            if (cursor != null && !cursor.isSelected()) {
+                return;
+            }
+            data.addValue(EMPTY_BYTE_ARRAY);
+        }
     }
 }
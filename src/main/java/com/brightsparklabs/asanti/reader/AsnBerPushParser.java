@@ -0,0 +1,330 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.reader;
+
+import static com.google.common.base.Preconditions.*;
+
+import com.brightsparklabs.asanti.model.data.RawAsnData;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Incremental (push based) parser for ASN.1 BER/DER data which arrives in arbitrary chunks, such as
+ * reads from a non-blocking {@link java.nio.channels.SocketChannel}.
+ *
+ * <p>Unlike {@link AsnBerDataReader#read(java.io.InputStream)}, no thread is blocked waiting for
+ * data. Bytes are supplied via {@link #feed(ByteBuffer)} or {@link #read(ReadableByteChannel)} as
+ * they become available; the framing state of a partially received PDU is retained between calls
+ * and each PDU is parsed (using the {@link AsnBerDataReader.Parser#NATIVE native} parser) and
+ * passed to the consumer as soon as its final byte arrives. This allows many low-rate feeds to be
+ * serviced by a small number of threads, e.g. from a {@link java.nio.channels.Selector} loop:
+ *
+ * <pre>
+ * final AsnBerPushParser parser = new AsnBerPushParser(pdu -&gt; ...);
+ * // on OP_READ
+ * if (parser.read(channel) &lt; 0) {
+ *     channel.close();
+ * }
+ * </pre>
+ *
+ * <p>Only the identifier and length octets are interpreted while framing; definite length contents
+ * are not examined until the PDU is complete, so the cost of framing does not depend on how the
+ * data is chunked.
+ *
+ * <p>Instances are not thread-safe. Use one instance per feed. Once an exception has been thrown
+ * the parser must be discarded.
+ *
+ * @author brightSPARK Labs
+ */
+public final class AsnBerPushParser {
+    // -------------------------------------------------------------------------
+    // CONSTANTS
+    // -------------------------------------------------------------------------
+
+    /** The initial size of the buffer holding partially received PDUs. Default: `8KB`. */
+    private static final int INITIAL_BUFFER_SIZE =
+            Integer.getInteger(
+                    "com.brightsparklabs.asanti.reader.AsnBerPushParser.initialBufferSize",
+                    8 * 1024);
+
+    /** Value returned by {@link #readHeader} when the header has not been fully received. */
+    private static final long INCOMPLETE = -1;
+
+    /** Length value used to denote the indefinite length form. */
+    private static final int INDEFINITE_LENGTH = -1;
+
+    // -------------------------------------------------------------------------
+    // INSTANCE VARIABLES
+    // -------------------------------------------------------------------------
+
+    /** Receives each PDU once it has been completely received. */
+    private final Consumer<? super RawAsnData> consumer;
+
+    /**
+     * Received bytes which have not yet been passed to the consumer (in write mode, so the bytes
+     * are those before the buffer's position). The current PDU always starts at offset 0.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Offset of the next identifier octet to frame. This may lie beyond the received bytes while
+     * waiting for the contents of a definite length element.
+     */
+    private int position = 0;
+
+    /** Number of indefinite length elements entered but not yet ended in the current PDU. */
+    private int depth = 0;
+
+    /** Whether an exception has been thrown. */
+    private boolean failed = false;
+
+    // -------------------------------------------------------------------------
+    // CONSTRUCTION
+    // -------------------------------------------------------------------------
+
+    /**
+     * Default constructor.
+     *
+     * @param consumer Receives each PDU (on the thread which supplied its final byte) once it has
+     *     been completely received.
+     */
+    public AsnBerPushParser(final Consumer<? super RawAsnData> consumer) {
+        this.consumer = checkNotNull(consumer);
+        buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    }
+
+    // -------------------------------------------------------------------------
+    // PUBLIC METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Supplies the next chunk of data. Every PDU completed by the chunk is passed to the consumer
+     * before this method returns.
+     *
+     * @param chunk The data. All remaining bytes are consumed (i.e. its position is advanced to its
+     *     limit). The bytes are copied, so the buffer may be reused once this method returns.
+     * @throws IOException If the data is not valid BER.
+     */
+    public void feed(final ByteBuffer chunk) throws IOException {
+        checkNotNull(chunk);
+        checkState(!failed, "Parser has already failed");
+
+        ensureCapacity(chunk.remaining());
+        buffer.put(chunk);
+        process();
+    }
+
+    /**
+     * Performs a single read from the supplied channel and processes the data read. Every PDU
+     * completed by the read is passed to the consumer before this method returns.
+     *
+     * <p>For non-blocking channels this never blocks, and may read no bytes.
+     *
+     * @param channel The channel to read from.
+     * @return The number of bytes read, or {@code -1} if the channel has reached end-of-stream.
+     * @throws EOFException If the channel reached end-of-stream part way through a PDU.
+     * @throws IOException If an error occurs reading the channel or the data is not valid BER.
+     */
+    public int read(final ReadableByteChannel channel) throws IOException {
+        checkNotNull(channel);
+        checkState(!failed, "Parser has already failed");
+
+        ensureCapacity(1);
+        final int read;
+        try {
+            read = channel.read(buffer);
+        } catch (final IOException e) {
+            failed = true;
+            throw e;
+        }
+
+        if (read < 0) {
+            finish();
+        } else if (read > 0) {
+            process();
+        }
+        return read;
+    }
+
+    /**
+     * Indicates that no further data will be supplied.
+     *
+     * @throws EOFException If a PDU has been partially received.
+     */
+    public void finish() throws EOFException {
+        checkState(!failed, "Parser has already failed");
+        if (hasPartialPdu()) {
+            failed = true;
+            throw new EOFException(
+                    "End of data found part way through a PDU (" + buffer.position() + " bytes)");
+        }
+    }
+
+    /**
+     * Determines whether part of a PDU has been received (i.e. whether the data received so far
+     * ends part way through a PDU).
+     *
+     * @return {@code true} if a PDU has been partially received.
+     */
+    public boolean hasPartialPdu() {
+        return buffer.position() > 0;
+    }
+
+    // -------------------------------------------------------------------------
+    // PRIVATE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Frames the received bytes, passes every completed PDU to the consumer and then discards the
+     * bytes of those PDUs from the buffer.
+     *
+     * @throws IOException If the data is not valid BER.
+     */
+    private void process() throws IOException {
+        final byte[] data = buffer.array();
+        final int received = buffer.position();
+        int start = 0;
+        try {
+            while (position <= received) {
+                if (depth == 0 && position > start) {
+                    // The top level element has ended, so the PDU is complete.
+                    final byte[] pdu = Arrays.copyOfRange(data, start, position);
+                    start = position;
+                    consumer.accept(AsnBerDataReader.readPdu(ByteBuffer.wrap(pdu)));
+                    continue;
+                }
+
+                if (depth > 0 && position < received && data[position] == 0) {
+                    if (position + 1 == received) {
+                        break;
+                    }
+                    if (data[position + 1] != 0) {
+                        throw new IOException("malformed end-of-contents marker");
+                    }
+                    depth--;
+                    position += 2;
+                    continue;
+                }
+                if (depth == 0 && position < received && data[position] == 0) {
+                    throw new IOException("unexpected end-of-contents marker");
+                }
+
+                final long header = readHeader(data, position, received);
+                if (header == INCOMPLETE) {
+                    break;
+                }
+                final int contentsOffset = position + (int) (header >>> 32);
+                final int length = (int) header;
+                if (length == INDEFINITE_LENGTH) {
+                    depth++;
+                    position = contentsOffset;
+                } else if (length > Integer.MAX_VALUE - contentsOffset) {
+                    throw new IOException("PDU too large: " + length + " byte element found");
+                } else {
+                    position = contentsOffset + length;
+                }
+            }
+        } catch (final IOException | RuntimeException e) {
+            failed = true;
+            throw e;
+        }
+
+        // Move the partial PDU (if any) to the start of the buffer.
+        buffer.flip().position(start);
+        buffer.compact();
+        position -= start;
+    }
+
+    /**
+     * Ensures the buffer has space for at least the specified number of bytes, growing it if
+     * required.
+     *
+     * @param required The number of bytes required.
+     */
+    private void ensureCapacity(final int required) {
+        if (buffer.remaining() >= required) {
+            return;
+        }
+
+        final long minimum = (long) buffer.position() + required;
+        checkArgument(minimum <= Integer.MAX_VALUE, "PDU too large to buffer");
+        final int capacity =
+                (int) Math.min(Math.max(minimum, buffer.capacity() * 2L), Integer.MAX_VALUE);
+        buffer = ByteBuffer.allocate(capacity).put(buffer.flip());
+    }
+
+    /**
+     * Decodes the identifier and length octets at the specified offset.
+     *
+     * @param data The received bytes.
+     * @param offset Offset of the identifier octets.
+     * @param limit Offset immediately after the last received byte.
+     * @return The length of the identifier and length octets (upper 32 bits) and the length of the
+     *     contents or {@link #INDEFINITE_LENGTH} (lower 32 bits), or {@link #INCOMPLETE} if the
+     *     header has not been fully received.
+     * @throws IOException If the header is malformed.
+     */
+    private static long readHeader(final byte[] data, final int offset, final int limit)
+            throws IOException {
+        int position = offset;
+        if (position >= limit) {
+            return INCOMPLETE;
+        }
+
+        final int identifier = data[position++] & 0xFF;
+        if ((identifier & 0x1F) == 0x1F) {
+            int b;
+            int count = 0;
+            do {
+                if (position >= limit) {
+                    return INCOMPLETE;
+                }
+                if (++count > 4) {
+                    throw new IOException("tag number too large");
+                }
+                b = data[position++] & 0xFF;
+            } while ((b & 0x80) != 0);
+        }
+
+        if (position >= limit) {
+            return INCOMPLETE;
+        }
+        final int lengthOctet = data[position++] & 0xFF;
+        final long length;
+        if (lengthOctet < 0x80) {
+            length = lengthOctet;
+        } else if (lengthOctet == 0x80) {
+            if ((identifier & 0x20) == 0) {
+                throw new IOException("indefinite-length primitive encoding encountered");
+            }
+            length = INDEFINITE_LENGTH;
+        } else {
+            final int octets = lengthOctet & 0x7F;
+            if (octets > 4) {
+                throw new IOException("DER length more than 4 bytes: " + octets);
+            }
+            if (position + octets > limit) {
+                return INCOMPLETE;
+            }
+            long value = 0;
+            for (int i = 0; i < octets; i++) {
+                value = (value << 8) | (data[position++] & 0xFF);
+            }
+            if (value > Integer.MAX_VALUE) {
+                throw new IOException("corrupted stream - negative length found");
+            }
+            length = value;
+        }
+
+        return ((long) (position - offset) << 32) | (length & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,459 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.reader;
+
+import static com.google.common.base.Preconditions.*;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Selects the raw tags to extract when reading BER data (see {@link
+ * AsnBerDataReader#read(java.nio.file.Path, AsnBerTagSelector)}).
+ *
+ * <p>A raw tag is selected if:
+ *
+ * <ul>
+ *   <li>it starts with one of the selector's prefixes on a segment boundary (e.g. the prefix {@code
+ *       "/0[1]/2[3]"} selects {@code "/0[1]/2[3]"} and {@code "/0[1]/2[3]/0[UNIVERSAL 2]"} but not
+ *       {@code "/0[1]/2[30]"}); or
+ *   <li>it matches the whole of one of the selector's patterns.
+ * </ul>
+ *
+ * <p>Selection is applied while the TLV structure is walked. Elements which cannot contain a
+ * selected tag are skipped using their length octets, so their contents are never examined or
+ * extracted. Prefixes are compared segment by segment without rendering any tags. Patterns are
+ * evaluated against the tag of each element entered, and an element's contents are only skipped if
+ * no longer tag could match (see {@link Matcher#hitEnd()}). Patterns with leading wildcards (e.g.
+ * {@code ".*\\[5\\]"}) can therefore match any path and will skip nothing, so prefer prefixes where
+ * possible.
+ *
+ * <p>Instances are immutable and can be shared between threads.
+ *
+ * @author brightSPARK Labs
+ */
+public final class AsnBerTagSelector {
+    // -------------------------------------------------------------------------
+    // CONSTANTS
+    // -------------------------------------------------------------------------
+
+    /** Pattern matching a single segment of a raw tag. */
+    private static final Pattern SEGMENT =
+            Pattern.compile("/(\\d+)\\[(?:(UNIVERSAL|APPLICATION|PRIVATE) )?(\\d+)\\]");
+
+    /** Value of {@link Cursor#selectedDepth} when no entered element is selected. */
+    private static final int NOT_SELECTED = Integer.MAX_VALUE;
+
+    // -------------------------------------------------------------------------
+    // INSTANCE VARIABLES
+    // -------------------------------------------------------------------------
+
+    /** The raw tag prefixes to select. */
+    private final ImmutableList<String> prefixes;
+
+    /** The packed segments of each prefix. */
+    private final long[][] prefixSegments;
+
+    /** The raw tag patterns to select. */
+    private final ImmutableList<Pattern> patterns;
+
+    // -------------------------------------------------------------------------
+    // CONSTRUCTION
+    // -------------------------------------------------------------------------
+
+    /**
+     * Default constructor.
+     *
+     * @param prefixes The raw tag prefixes to select.
+     * @param patterns The raw tag patterns to select.
+     */
+    private AsnBerTagSelector(
+            final ImmutableList<String> prefixes, final ImmutableList<Pattern> patterns) {
+        this.prefixes = prefixes;
+        this.patterns = patterns;
+        prefixSegments = new long[prefixes.size()][];
+        for (int i = 0; i < prefixSegments.length; i++) {
+            prefixSegments[i] = parse(prefixes.get(i));
+        }
+    }
+
+    /**
+     * Creates a selector which selects the raw tags starting with any of the supplied prefixes.
+     *
+     * @param rawTagPrefixes The raw tag prefixes to select (e.g. {@code "/0[1]/2[UNIVERSAL 16]"}).
+     * @return The selector.
+     * @throws IllegalArgumentException If a prefix is not a valid raw tag.
+     */
+    public static AsnBerTagSelector ofPrefixes(final String... rawTagPrefixes) {
+        final Builder builder = builder();
+        for (final String rawTagPrefix : rawTagPrefixes) {
+            builder.addPrefix(rawTagPrefix);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns a builder for creating instances of {@link AsnBerTagSelector}.
+     *
+     * @return A builder for creating instances of {@link AsnBerTagSelector}.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // -------------------------------------------------------------------------
+    // PUBLIC METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Determines whether the specified raw tag is selected.
+     *
+     * @param rawTag The raw tag to check (e.g. {@code "/0[1]/2[UNIVERSAL 16]/0[0]"}).
+     * @return {@code true} if the tag is selected.
+     */
+    public boolean matches(final String rawTag) {
+        for (final String prefix : prefixes) {
+            if (rawTag.startsWith(prefix)
+                    && (rawTag.length() == prefix.length()
+                            || rawTag.charAt(prefix.length()) == '/')) {
+                return true;
+            }
+        }
+        for (final Pattern pattern : patterns) {
+            if (pattern.matcher(rawTag).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "AsnBerTagSelector{prefixes=" + prefixes + ", patterns=" + patterns + "}";
+    }
+
+    // -------------------------------------------------------------------------
+    // PACKAGE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Creates a cursor for tracking the selection state while a single PDU is walked.
+     *
+     * @return A new cursor positioned at the root of a PDU.
+     */
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    // -------------------------------------------------------------------------
+    // PRIVATE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Parses a raw tag into its packed segments.
+     *
+     * @param rawTag The raw tag to parse.
+     * @return The packed segments of the tag.
+     * @throws IllegalArgumentException If the tag is not a valid raw tag.
+     */
+    private static long[] parse(final String rawTag) {
+        final Matcher matcher = SEGMENT.matcher(rawTag);
+        long[] segments = new long[8];
+        int count = 0;
+        int position = 0;
+        while (position < rawTag.length()) {
+            matcher.region(position, rawTag.length());
+            checkArgument(matcher.lookingAt(), "Invalid raw tag: %s", rawTag);
+            final int tagClass =
+                    switch (matcher.group(2)) {
+                        case null -> AsnBerTlvScanner.TAG_CLASS_CONTEXT_SPECIFIC;
+                        case "UNIVERSAL" -> AsnBerTlvScanner.TAG_CLASS_UNIVERSAL;
+                        case "APPLICATION" -> AsnBerTlvScanner.TAG_CLASS_APPLICATION;
+                        default -> AsnBerTlvScanner.TAG_CLASS_PRIVATE;
+                    };
+            if (count == segments.length) {
+                segments = Arrays.copyOf(segments, count * 2);
+            }
+            segments[count++] =
+                    pack(
+                            Integer.parseInt(matcher.group(1)),
+                            tagClass,
+                            Integer.parseInt(matcher.group(3)));
+            position = matcher.end();
+        }
+        return Arrays.copyOf(segments, count);
+    }
+
+    /**
+     * Packs a tag segment into a long.
+     *
+     * @param index The index of the element within its parent.
+     * @param tagClass The tag class bits of the element.
+     * @param tagNumber The tag number of the element.
+     * @return The packed segment.
+     */
+    private static long pack(final int index, final int tagClass, final int tagNumber) {
+        return ((long) index << 32) | ((long) tagClass << 24) | tagNumber;
+    }
+
+    // -------------------------------------------------------------------------
+    // INTERNAL CLASS: Cursor
+    // -------------------------------------------------------------------------
+
+    /**
+     * Tracks which of the selector's prefixes and patterns the current path through a PDU can still
+     * match. Mirrors the enter/exit events of an {@link AsnBerTlvScanner.Visitor}.
+     *
+     * @author brightSPARK Labs
+     */
+    final class Cursor {
+        // ---------------------------------------------------------------------
+        // INSTANCE VARIABLES
+        // ---------------------------------------------------------------------
+
+        /** Number of leading segments of each prefix matched by the current path. */
+        private final int[] matchedSegments = new int[prefixSegments.length];
+
+        /** Matcher for each pattern. */
+        private final Matcher[] matchers = new Matcher[patterns.size()];
+
+        /** The current path (only maintained if there are patterns). */
+        private final StringBuilder path = new StringBuilder();
+
+        /** Length of {@link #path} before each of the current path's segments was appended. */
+        private int[] pathLengths = new int[16];
+
+        /** Number of segments in the current path. */
+        private int depth = 0;
+
+        /** Depth of the shallowest entered element selected by a prefix. */
+        private int selectedDepth = NOT_SELECTED;
+
+        /** Whether the current path matches one of the patterns. */
+        private boolean patternMatched;
+
+        // ---------------------------------------------------------------------
+        // CONSTRUCTION
+        // ---------------------------------------------------------------------
+
+        /** Default constructor. */
+        private Cursor() {
+            for (int i = 0; i < matchers.length; i++) {
+                matchers[i] = patterns.get(i).matcher(path);
+            }
+            for (final long[] segments : prefixSegments) {
+                if (segments.length == 0) {
+                    selectedDepth = 0;
+                }
+            }
+            patternMatched = matchesPattern();
+        }
+
+        // ---------------------------------------------------------------------
+        // PACKAGE METHODS
+        // ---------------------------------------------------------------------
+
+        /**
+         * Appends a segment to the current path.
+         *
+         * @param index Index of the element within its parent.
+         * @param tagClass Tag class bits of the element.
+         * @param tagNumber Tag number of the element.
+         * @return {@code true} if the element is selected or may contain a selected element; {@code
+         *     false} if its contents can be skipped.
+         */
+        boolean enter(final int index, final int tagClass, final int tagNumber) {
+            depth++;
+            if (depth > selectedDepth) {
+                // within a selected element
+                return true;
+            }
+
+            boolean descend = false;
+            final long segment = pack(index, tagClass, tagNumber);
+            for (int i = 0; i < prefixSegments.length; i++) {
+                final long[] segments = prefixSegments[i];
+                if (matchedSegments[i] == depth - 1
+                        && segments.length >= depth
+                        && segments[depth - 1] == segment) {
+                    matchedSegments[i] = depth;
+                    descend = true;
+                    if (segments.length == depth) {
+                        selectedDepth = depth;
+                    }
+                }
+            }
+
+            if (matchers.length > 0) {
+                if (depth > pathLengths.length) {
+                    pathLengths = Arrays.copyOf(pathLengths, depth * 2);
+                }
+                pathLengths[depth - 1] = path.length();
+                appendSegment(index, tagClass, tagNumber);
+                if (selectedDepth != depth) {
+                    descend |= matchesPattern() || mayMatchPattern();
+                }
+            }
+            return descend;
+        }
+
+        /** Removes the last segment from the current path. */
+        void exit() {
+            if (depth > selectedDepth) {
+                depth--;
+                return;
+            }
+
+            if (depth == selectedDepth) {
+                selectedDepth = NOT_SELECTED;
+            }
+            for (int i = 0; i < matchedSegments.length; i++) {
+                if (matchedSegments[i] == depth) {
+                    matchedSegments[i] = depth - 1;
+                }
+            }
+            if (matchers.length > 0) {
+                path.setLength(pathLengths[depth - 1]);
+            }
+            patternMatched = false;
+            depth--;
+        }
+
+        /**
+         * Determines whether values at the current path are selected.
+         *
+         * @return {@code true} if values at the current path are selected.
+         */
+        boolean isSelected() {
+            return depth >= selectedDepth || patternMatched;
+        }
+
+        // ---------------------------------------------------------------------
+        // PRIVATE METHODS
+        // ---------------------------------------------------------------------
+
+        /**
+         * Determines whether the current path matches any of the patterns, and records the result
+         * in {@link #patternMatched}.
+         *
+         * @return {@code true} if the current path matches any of the patterns.
+         */
+        private boolean matchesPattern() {
+            patternMatched = false;
+            for (final Matcher matcher : matchers) {
+                if (matcher.reset().matches()) {
+                    patternMatched = true;
+                }
+            }
+            return patternMatched;
+        }
+
+        /**
+         * Determines whether a path starting with the current path could match any of the patterns.
+         * Must be called immediately after {@link #matchesPattern()}.
+         *
+         * @return {@code true} if a longer path could match any of the patterns.
+         */
+        private boolean mayMatchPattern() {
+            for (final Matcher matcher : matchers) {
+                if (matcher.hitEnd()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Appends a segment to {@link #path} in the same form as the raw tags of {@link
+         * com.brightsparklabs.asanti.model.data.RawAsnData}.
+         *
+         * @param index Index of the element within its parent.
+         * @param tagClass Tag class bits of the element.
+         * @param tagNumber Tag number of the element.
+         */
+        private void appendSegment(final int index, final int tagClass, final int tagNumber) {
+            path.append('/').append(index).append('[');
+            switch (tagClass) {
+                case AsnBerTlvScanner.TAG_CLASS_CONTEXT_SPECIFIC -> {}
+                case AsnBerTlvScanner.TAG_CLASS_APPLICATION -> path.append("APPLICATION ");
+                case AsnBerTlvScanner.TAG_CLASS_PRIVATE -> path.append("PRIVATE ");
+                default -> path.append("UNIVERSAL ");
+            }
+            path.append(tagNumber).append(']');
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // INTERNAL CLASS: Builder
+    // -------------------------------------------------------------------------
+
+    /**
+     * Builder for creating instances of {@link AsnBerTagSelector}.
+     *
+     * @author brightSPARK Labs
+     */
+    public static final class Builder {
+        // ---------------------------------------------------------------------
+        // INSTANCE VARIABLES
+        // ---------------------------------------------------------------------
+
+        /** The raw tag prefixes to select. */
+        private final ImmutableList.Builder<String> prefixes = ImmutableList.builder();
+
+        /** The raw tag patterns to select. */
+        private final ImmutableList.Builder<Pattern> patterns = ImmutableList.builder();
+
+        // ---------------------------------------------------------------------
+        // CONSTRUCTION
+        // ---------------------------------------------------------------------
+
+        /** Default constructor. */
+        private Builder() {}
+
+        // ---------------------------------------------------------------------
+        // PUBLIC METHODS
+        // ---------------------------------------------------------------------
+
+        /**
+         * Selects the raw tags starting with the supplied prefix.
+         *
+         * @param rawTagPrefix The raw tag prefix (e.g. {@code "/0[1]/2[UNIVERSAL 16]"}). The empty
+         *     prefix selects every tag.
+         * @return This builder.
+         * @throws IllegalArgumentException If the prefix is not a valid raw tag.
+         */
+        public Builder addPrefix(final String rawTagPrefix) {
+            checkNotNull(rawTagPrefix);
+            parse(rawTagPrefix);
+            prefixes.add(rawTagPrefix);
+            return this;
+        }
+
+        /**
+         * Selects the raw tags which match the whole of the supplied pattern.
+         *
+         * @param rawTagPattern The raw tag pattern (e.g. {@code "/0\\[1\\]/[0-9]+\\[2\\]"}).
+         * @return This builder.
+         */
+        public Builder addPattern(final Pattern rawTagPattern) {
+            patterns.add(checkNotNull(rawTagPattern));
+            return this;
+        }
+
+        /**
+         * Creates an instance from the values in this builder.
+         *
+         * @return The selector.
+         */
+        public AsnBerTagSelector build() {
+            return new AsnBerTagSelector(prefixes.build(), patterns.build());
+        }
+    }
+}
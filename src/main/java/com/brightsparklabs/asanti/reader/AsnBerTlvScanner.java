@@ -0,0 +1,674 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.reader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Walks BER (Basic Encoding Rules) TLV (tag-length-value) structures directly over a {@link
+ * ByteBuffer} without materialising any intermediate ASN.1 objects.
+ *
+ * <p>The scanner reads identifier and length octets in place and reports the structure of a PDU to
+ * a {@link Visitor} as a series of enter/exit events (one per tag path segment) and value events
+ * (one per leaf). It does not allocate per element; the only allocation performed is when a
+ * constructed (fragmented) string has to be reassembled into contiguous bytes. A visitor can
+ * decline to enter an element, in which case the element is skipped using its length octets without
+ * its contents being examined.
+ *
+ * <p>Path segment semantics match those historically produced by {@link AsnBerDataReader}:
+ *
+ * <ul>
+ *   <li>A tagged (APPLICATION, CONTEXT or PRIVATE) element always produces a segment.
+ *   <li>Every child of a constructed element produces a segment, UNIVERSAL children included.
+ *   <li>An untagged root element does not produce a segment.
+ *   <li>The contents of a tagged or UNIVERSAL SEQUENCE/SET element are walked as children. All
+ *       other constructed UNIVERSAL elements are treated as fragmented strings and reassembled
+ *       before being reported as a single value.
+ * </ul>
+ *
+ * @author brightSPARK Labs
+ */
+public final class AsnBerTlvScanner {
+    // -------------------------------------------------------------------------
+    // CONSTANTS
+    // -------------------------------------------------------------------------
+
+    /** Tag class bits for UNIVERSAL tags. */
+    public static final int TAG_CLASS_UNIVERSAL = 0x00;
+
+    /** Tag class bits for APPLICATION tags. */
+    public static final int TAG_CLASS_APPLICATION = 0x40;
+
+    /** Tag class bits for CONTEXT-SPECIFIC tags. */
+    public static final int TAG_CLASS_CONTEXT_SPECIFIC = 0x80;
+
+    /** Tag class bits for PRIVATE tags. */
+    public static final int TAG_CLASS_PRIVATE = 0xC0;
+
+    /** Bit set in the identifier octet of constructed elements. */
+    private static final int CONSTRUCTED_FLAG = 0x20;
+
+    /** Low bits of the identifier octet indicating the high-tag-number form. */
+    private static final int HIGH_TAG_NUMBER_FORM = 0x1F;
+
+    /** Length value used internally to denote the indefinite length form. */
+    private static final int INDEFINITE_LENGTH = -1;
+
+    /** UNIVERSAL tag number of BIT STRING. */
+    private static final int UNIVERSAL_BIT_STRING = 3;
+
+    /** UNIVERSAL tag number of SEQUENCE/SEQUENCE OF. */
+    private static final int UNIVERSAL_SEQUENCE = 16;
+
+    /** UNIVERSAL tag number of SET/SET OF. */
+    private static final int UNIVERSAL_SET = 17;
+
+    // -------------------------------------------------------------------------
+    // CONSTRUCTION
+    // -------------------------------------------------------------------------
+
+    /**
+     * Default constructor.
+     *
+     * <p>This should never be called as this is a utility class.
+     */
+    private AsnBerTlvScanner() {
+        assert false;
+    }
+
+    // -------------------------------------------------------------------------
+    // PUBLIC METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Walks the PDU which starts at the specified offset, reporting its structure to the visitor.
+     *
+     * @param source Buffer containing the BER data. Only absolute reads are performed, so its
+     *     position and limit are left untouched; the limit bounds the data which can be read.
+     * @param offset Offset of the PDU's first identifier octet within the buffer.
+     * @param visitor Visitor to report the PDU structure to.
+     * @return The offset immediately after the end of the PDU.
+     * @throws IOException If the data is not valid BER.
+     */
+    public static int scan(final ByteBuffer source, final int offset, final Visitor visitor)
+            throws IOException {
+        return new Walker(source, visitor).walkRoot(offset);
+    }
+
+    /**
+     * Determines where the element which starts at the specified offset ends, by reading only
+     * identifier and length octets.
+     *
+     * <p>Definite length elements are skipped in constant time; indefinite length elements require
+     * the headers of their descendants to be read in order to find the end-of-contents marker.
+     *
+     * @param source Buffer containing the BER data. Only absolute reads are performed.
+     * @param offset Offset of the element's first identifier octet within the buffer.
+     * @return The offset immediately after the end of the element.
+     * @throws IOException If the data is not valid BER.
+     */
+    public static int skip(final ByteBuffer source, final int offset) throws IOException {
+        if (offset < source.limit() && source.get(offset) == 0) {
+            throw new IOException("unexpected end-of-contents marker");
+        }
+        return new Walker(source, null).skipElement(offset, source.limit());
+    }
+
+    /**
+     * Reads the next complete top level TLV from the supplied stream.
+     *
+     * <p>Only the identifier and length octets are interpreted; the contents of definite length
+     * elements are copied in bulk.
+     *
+     * @param inputStream Stream to read from.
+     * @return The bytes of the next TLV (identifier, length and contents octets), or {@code null}
+     *     if the stream is exhausted.
+     * @throws IOException If an error occurs reading the stream or the data is not valid BER.
+     */
+    public static byte[] readTlv(final InputStream inputStream) throws IOException {
+        final int first = inputStream.read();
+        if (first < 0) {
+            return null;
+        }
+        if (first == 0) {
+            throw new IOException("unexpected end-of-contents marker");
+        }
+
+        final ByteArrayOutputStream header = new ByteArrayOutputStream(16);
+        final int length = copyHeader(first, inputStream, header);
+        if (length == INDEFINITE_LENGTH) {
+            copyIndefiniteContents(inputStream, header);
+            return header.toByteArray();
+        }
+
+        final byte[] tlv = new byte[header.size() + length];
+        final int headerLength = header.size();
+        System.arraycopy(header.toByteArray(), 0, tlv, 0, headerLength);
+        if (inputStream.readNBytes(tlv, headerLength, length) != length) {
+            throw new EOFException("DEF length " + length + " object truncated");
+        }
+        return tlv;
+    }
+
+    // -------------------------------------------------------------------------
+    // PRIVATE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Copies the identifier and length octets of a TLV from the stream to the output.
+     *
+     * @param first The first identifier octet (already read from the stream).
+     * @param inputStream Stream to read the remaining octets from.
+     * @param output Output to copy the octets to.
+     * @return The length of the contents, or {@link #INDEFINITE_LENGTH}.
+     * @throws IOException If an error occurs reading the stream or the header is malformed.
+     */
+    private static int copyHeader(
+            final int first, final InputStream inputStream, final ByteArrayOutputStream output)
+            throws IOException {
+        output.write(first);
+        if ((first & HIGH_TAG_NUMBER_FORM) == HIGH_TAG_NUMBER_FORM) {
+            int b;
+            int count = 0;
+            do {
+                b = readOrThrow(inputStream);
+                output.write(b);
+                if (++count > 4) {
+                    throw new IOException("tag number too large");
+                }
+            } while ((b & 0x80) != 0);
+        }
+
+        final int lengthOctet = readOrThrow(inputStream);
+        output.write(lengthOctet);
+        if (lengthOctet < 0x80) {
+            return lengthOctet;
+        }
+        if (lengthOctet == 0x80) {
+            if ((first & CONSTRUCTED_FLAG) == 0) {
+                throw new IOException("indefinite-length primitive encoding encountered");
+            }
+            return INDEFINITE_LENGTH;
+        }
+
+        final int octets = lengthOctet & 0x7F;
+        if (octets > 4) {
+            throw new IOException("DER length more than 4 bytes: " + octets);
+        }
+        long length = 0;
+        for (int i = 0; i < octets; i++) {
+            final int b = readOrThrow(inputStream);
+            output.write(b);
+            length = (length << 8) | b;
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("corrupted stream - negative length found");
+        }
+        return (int) length;
+    }
+
+    /**
+     * Copies the contents of an indefinite length element, up to and including its end-of-contents
+     * marker, from the stream to the output.
+     *
+     * @param inputStream Stream to read from.
+     * @param output Output to copy the octets to.
+     * @throws IOException If an error occurs reading the stream or the data is malformed.
+     */
+    private static void copyIndefiniteContents(
+            final InputStream inputStream, final ByteArrayOutputStream output) throws IOException {
+        while (true) {
+            final int first = readOrThrow(inputStream);
+            if (first == 0) {
+                final int second = readOrThrow(inputStream);
+                output.write(0);
+                output.write(second);
+                if (second != 0) {
+                    throw new IOException("malformed end-of-contents marker");
+                }
+                return;
+            }
+
+            final int length = copyHeader(first, inputStream, output);
+            if (length == INDEFINITE_LENGTH) {
+                copyIndefiniteContents(inputStream, output);
+            } else {
+                final byte[] contents = inputStream.readNBytes(length);
+                if (contents.length != length) {
+                    throw new EOFException("DEF length " + length + " object truncated");
+                }
+                output.write(contents);
+            }
+        }
+    }
+
+    /**
+     * Reads a single byte from the stream, failing if the stream has been exhausted.
+     *
+     * @param inputStream Stream to read from.
+     * @return The byte read.
+     * @throws IOException If an error occurs reading the stream or it has been exhausted.
+     */
+    private static int readOrThrow(final InputStream inputStream) throws IOException {
+        final int b = inputStream.read();
+        if (b < 0) {
+            throw new EOFException("EOF found inside tag value.");
+        }
+        return b;
+    }
+
+    // -------------------------------------------------------------------------
+    // INTERNAL CLASS: Visitor
+    // -------------------------------------------------------------------------
+
+    /**
+     * Receives the structure of a PDU as it is scanned.
+     *
+     * <p>Calls to {@link #enter} and {@link #exit} are always balanced. Values and empty markers
+     * belong to the path formed by all currently entered segments.
+     *
+     * @author brightSPARK Labs
+     */
+    public interface Visitor {
+        /**
+         * Called when a tag path segment is entered.
+         *
+         * @param index Index of the element within its parent (0 for the root element).
+         * @param tagClass Tag class bits of the element (e.g. {@link #TAG_CLASS_UNIVERSAL}).
+         * @param tagNumber Tag number of the element.
+         * @return {@code true} to walk the element's contents, or {@code false} to skip them using
+         *     only their length (nothing within the element is reported, but {@link #exit} is still
+         *     called).
+         */
+        boolean enter(int index, int tagClass, int tagNumber);
+
+        /** Called when the most recently entered tag path segment is exited. */
+        void exit();
+
+        /**
+         * Called when a leaf value is found.
+         *
+         * @param tagClass Tag class bits of the element holding the value.
+         * @param tagNumber Tag number of the element holding the value.
+         * @param source Buffer containing the contents octets. Only valid for the duration of the
+         *     call.
+         * @param offset Offset of the contents octets within the buffer.
+         * @param length Number of contents octets.
+         */
+        void value(int tagClass, int tagNumber, ByteBuffer source, int offset, int length);
+
+        /** Called when a constructed element which contains no children is found. */
+        void empty();
+    }
+
+    // -------------------------------------------------------------------------
+    // INTERNAL CLASS: Walker
+    // -------------------------------------------------------------------------
+
+    /**
+     * Performs a single walk over a PDU.
+     *
+     * <p>Header fields are decoded into instance variables to avoid allocating per element. Callers
+     * must copy them into locals before recursing.
+     *
+     * @author brightSPARK Labs
+     */
+    private static final class Walker {
+        // ---------------------------------------------------------------------
+        // INSTANCE VARIABLES
+        // ---------------------------------------------------------------------
+
+        /** Buffer being walked. */
+        private final ByteBuffer source;
+
+        /** Visitor to report to ({@code null} when only skipping). */
+        private final Visitor visitor;
+
+        /** Tag class bits of the last decoded header. */
+        private int tagClass;
+
+        /** Whether the last decoded header was for a constructed element. */
+        private boolean constructed;
+
+        /** Tag number of the last decoded header. */
+        private int tagNumber;
+
+        /** Contents length of the last decoded header (or {@link #INDEFINITE_LENGTH}). */
+        private int length;
+
+        /** Offset of the contents octets of the last decoded header. */
+        private int contentsOffset;
+
+        /** Unused bits octet of the last BIT STRING fragment collected. */
+        private byte unusedBits;
+
+        // ---------------------------------------------------------------------
+        // CONSTRUCTION
+        // ---------------------------------------------------------------------
+
+        /**
+         * Default constructor.
+         *
+         * @param source Buffer to walk.
+         * @param visitor Visitor to report to.
+         */
+        private Walker(final ByteBuffer source, final Visitor visitor) {
+            this.source = source;
+            this.visitor = visitor;
+        }
+
+        // ---------------------------------------------------------------------
+        // PRIVATE METHODS
+        // ---------------------------------------------------------------------
+
+        /**
+         * Walks a root element.
+         *
+         * @param offset Offset of the root element.
+         * @return The offset immediately after the root element.
+         * @throws IOException If the data is not valid BER.
+         */
+        private int walkRoot(final int offset) throws IOException {
+            final int limit = source.limit();
+            if (offset < limit && source.get(offset) == 0) {
+                throw new IOException("unexpected end-of-contents marker");
+            }
+
+            readHeader(offset, limit);
+            if (tagClass == TAG_CLASS_UNIVERSAL) {
+                return walkContents(
+                        tagClass, constructed, tagNumber, contentsOffset, length, limit);
+            }
+
+            final int end =
+                    visitor.enter(0, tagClass, tagNumber)
+                            ? walkContents(
+                                    tagClass, constructed, tagNumber, contentsOffset, length, limit)
+                            : skipContents(contentsOffset, length, limit);
+            visitor.exit();
+            return end;
+        }
+
+        /**
+         * Skips an element without reporting anything to the visitor.
+         *
+         * @param offset Offset of the element.
+         * @param limit Offset which the element must not extend beyond.
+         * @return The offset immediately after the element.
+         * @throws IOException If the data is not valid BER.
+         */
+        private int skipElement(final int offset, final int limit) throws IOException {
+            readHeader(offset, limit);
+            return skipContents(contentsOffset, length, limit);
+        }
+
+        /**
+         * Skips the contents of an element without reporting anything to the visitor.
+         *
+         * @param offset Offset of the contents octets.
+         * @param elementLength Length of the contents octets, or {@link #INDEFINITE_LENGTH}.
+         * @param limit Offset which the element must not extend beyond.
+         * @return The offset immediately after the element.
+         * @throws IOException If the data is not valid BER.
+         */
+        private int skipContents(final int offset, final int elementLength, final int limit)
+                throws IOException {
+            if (elementLength != INDEFINITE_LENGTH) {
+                return offset + elementLength;
+            }
+
+            int position = offset;
+            while (!isEndOfContents(position, limit)) {
+                position = skipElement(position, limit);
+            }
+            return position + 2;
+        }
+
+        /**
+         * Walks the contents of an element whose segment (if any) has already been entered.
+         *
+         * @param elementClass Tag class bits of the element.
+         * @param elementConstructed Whether the element is constructed.
+         * @param elementTag Tag number of the element.
+         * @param offset Offset of the contents octets.
+         * @param elementLength Length of the contents octets, or {@link #INDEFINITE_LENGTH}.
+         * @param limit Offset which the element must not extend beyond.
+         * @return The offset immediately after the element.
+         * @throws IOException If the data is not valid BER.
+         */
+        private int walkContents(
+                final int elementClass,
+                final boolean elementConstructed,
+                final int elementTag,
+                final int offset,
+                final int elementLength,
+                final int limit)
+                throws IOException {
+            if (!elementConstructed) {
+                visitor.value(elementClass, elementTag, source, offset, elementLength);
+                return offset + elementLength;
+            }
+
+            if (elementClass != TAG_CLASS_UNIVERSAL
+                    || elementTag == UNIVERSAL_SEQUENCE
+                    || elementTag == UNIVERSAL_SET) {
+                return walkChildren(offset, elementLength, limit);
+            }
+
+            // Constructed UNIVERSAL string: reassemble the fragments.
+            final boolean bitString = elementTag == UNIVERSAL_BIT_STRING;
+            final ByteArrayOutputStream fragments = new ByteArrayOutputStream();
+            unusedBits = 0;
+            if (bitString) {
+                // placeholder for the unused bits octet
+                fragments.write(0);
+            }
+            final int end = collectFragments(bitString, offset, elementLength, limit, fragments);
+            final byte[] value = fragments.toByteArray();
+            if (bitString) {
+                value[0] = unusedBits;
+            }
+            visitor.value(elementClass, elementTag, ByteBuffer.wrap(value), 0, value.length);
+            return end;
+        }
+
+        /**
+         * Walks the children of a constructed element.
+         *
+         * @param offset Offset of the first child.
+         * @param elementLength Length of the parent's contents octets, or {@link
+         *     #INDEFINITE_LENGTH}.
+         * @param limit Offset which the children must not extend beyond.
+         * @return The offset immediately after the parent element.
+         * @throws IOException If the data is not valid BER.
+         */
+        private int walkChildren(final int offset, final int elementLength, final int limit)
+                throws IOException {
+            final boolean indefinite = elementLength == INDEFINITE_LENGTH;
+            final int end = indefinite ? limit : offset + elementLength;
+            int position = offset;
+            int index = 0;
+            while (true) {
+                if (indefinite) {
+                    if (isEndOfContents(position, end)) {
+                        position += 2;
+                        break;
+                    }
+                } else if (position >= end) {
+                    break;
+                }
+
+                readHeader(position, end);
+                position =
+                        visitor.enter(index, tagClass, tagNumber)
+                                ? walkContents(
+                                        tagClass,
+                                        constructed,
+                                        tagNumber,
+                                        contentsOffset,
+                                        length,
+                                        end)
+                                : skipContents(contentsOffset, length, end);
+                visitor.exit();
+                index++;
+            }
+
+            if (index == 0) {
+                visitor.empty();
+            }
+            return position;
+        }
+
+        /**
+         * Concatenates the fragments of a constructed string.
+         *
+         * @param bitString Whether the fragments are BIT STRING fragments (in which case the unused
+         *     bits octets are stripped and the final one recorded in {@link #unusedBits}).
+         * @param offset Offset of the first fragment.
+         * @param elementLength Length of the constructed string's contents octets, or {@link
+         *     #INDEFINITE_LENGTH}.
+         * @param limit Offset which the fragments must not extend beyond.
+         * @param output Output to write the reassembled contents to.
+         * @return The offset immediately after the constructed string.
+         * @throws IOException If the data is not valid BER.
+         */
+        private int collectFragments(
+                final boolean bitString,
+                final int offset,
+                final int elementLength,
+                final int limit,
+                final ByteArrayOutputStream output)
+                throws IOException {
+            final boolean indefinite = elementLength == INDEFINITE_LENGTH;
+            final int end = indefinite ? limit : offset + elementLength;
+            int position = offset;
+            while (true) {
+                if (indefinite) {
+                    if (isEndOfContents(position, end)) {
+                        position += 2;
+                        break;
+                    }
+                } else if (position >= end) {
+                    break;
+                }
+
+                readHeader(position, end);
+                if (constructed) {
+                    position = collectFragments(bitString, contentsOffset, length, end, output);
+                    continue;
+                }
+
+                int from = contentsOffset;
+                int count = length;
+                if (bitString && count > 0) {
+                    // only the final fragment's unused bits are meaningful
+                    unusedBits = source.get(from);
+                    from++;
+                    count--;
+                }
+                if (source.hasArray()) {
+                    output.write(source.array(), source.arrayOffset() + from, count);
+                } else {
+                    final byte[] fragment = new byte[count];
+                    source.get(from, fragment);
+                    output.write(fragment, 0, count);
+                }
+                position = contentsOffset + length;
+            }
+            return position;
+        }
+
+        /**
+         * Determines whether an end-of-contents marker is present at the specified offset.
+         *
+         * @param offset Offset to check.
+         * @param limit Offset which the marker must not extend beyond.
+         * @return {@code true} if an end-of-contents marker is present.
+         * @throws IOException If the data ends before an end-of-contents marker is found.
+         */
+        private boolean isEndOfContents(final int offset, final int limit) throws IOException {
+            if (offset + 2 > limit) {
+                throw new EOFException("EOF found when end-of-contents marker expected");
+            }
+            return source.get(offset) == 0 && source.get(offset + 1) == 0;
+        }
+
+        /**
+         * Decodes the identifier and length octets at the specified offset into the header instance
+         * variables.
+         *
+         * @param offset Offset of the identifier octets.
+         * @param limit Offset which the element must not extend beyond.
+         * @throws IOException If the header is malformed or the element extends beyond the limit.
+         */
+        private void readHeader(final int offset, final int limit) throws IOException {
+            int position = offset;
+            if (position >= limit) {
+                throw new EOFException("EOF found inside tag value.");
+            }
+
+            final int identifier = source.get(position++) & 0xFF;
+            tagClass = identifier & 0xC0;
+            constructed = (identifier & CONSTRUCTED_FLAG) != 0;
+            tagNumber = identifier & HIGH_TAG_NUMBER_FORM;
+            if (tagNumber == HIGH_TAG_NUMBER_FORM) {
+                tagNumber = 0;
+                int b;
+                int count = 0;
+                do {
+                    if (position >= limit) {
+                        throw new EOFException("EOF found inside tag value.");
+                    }
+                    if (++count > 4) {
+                        throw new IOException("tag number too large");
+                    }
+                    b = source.get(position++) & 0xFF;
+                    tagNumber = (tagNumber << 7) | (b & 0x7F);
+                } while ((b & 0x80) != 0);
+            }
+
+            if (position >= limit) {
+                throw new EOFException("EOF found when length expected");
+            }
+            final int lengthOctet = source.get(position++) & 0xFF;
+            if (lengthOctet < 0x80) {
+                length = lengthOctet;
+            } else if (lengthOctet == 0x80) {
+                if (!constructed) {
+                    throw new IOException("indefinite-length primitive encoding encountered");
+                }
+                length = INDEFINITE_LENGTH;
+            } else {
+                final int octets = lengthOctet & 0x7F;
+                if (octets > 4) {
+                    throw new IOException("DER length more than 4 bytes: " + octets);
+                }
+                long value = 0;
+                for (int i = 0; i < octets; i++) {
+                    if (position >= limit) {
+                        throw new EOFException("EOF found reading length");
+                    }
+                    value = (value << 8) | (source.get(position++) & 0xFF);
+                }
+                if (value > Integer.MAX_VALUE) {
+                    throw new IOException("corrupted stream - negative length found");
+                }
+                length = (int) value;
+            }
+
+            contentsOffset = position;
+            if (length != INDEFINITE_LENGTH && length > limit - position) {
+                throw new IOException("corrupted stream - out of bounds length found: " + length);
+            }
+        }
+    }
+}
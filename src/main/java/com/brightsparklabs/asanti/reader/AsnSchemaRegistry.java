@@ -0,0 +1,102 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.reader;
+
+import static com.google.common.base.Preconditions.*;
+
+import com.brightsparklabs.asanti.model.schema.AsnSchema;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.io.CharSource;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Process-wide registry of parsed ASN.1 schemas, keyed by the SHA-256 hash of the schema text.
+ *
+ * <p>Schemas with the same text share a single {@link AsnSchema} instance (and therefore the caches
+ * it holds, e.g. its type cache), regardless of where the text was read from. The text is still
+ * read (and hashed) on each call, but is only parsed the first time it is seen, or after its schema
+ * has been evicted. Only the most recently used schemas are kept.
+ *
+ * @author brightSPARK Labs
+ */
+public final class AsnSchemaRegistry {
+    // -------------------------------------------------------------------------
+    // CONSTANTS
+    // -------------------------------------------------------------------------
+
+    /** The maximum number of schemas held in the registry. Default: `16`. */
+    private static final long MAXIMUM_SCHEMAS =
+            Long.getLong("com.brightsparklabs.asanti.reader.AsnSchemaRegistry.maximumSchemas", 16L);
+
+    // -------------------------------------------------------------------------
+    // CLASS VARIABLES
+    // -------------------------------------------------------------------------
+
+    /** The parsed schemas, keyed by the SHA-256 hash of their text. */
+    private static final Cache<HashCode, AsnSchema> schemas =
+            CacheBuilder.newBuilder().maximumSize(MAXIMUM_SCHEMAS).recordStats().build();
+
+    // -------------------------------------------------------------------------
+    // CONSTRUCTION
+    // -------------------------------------------------------------------------
+
+    /** Private constructor. This class only contains static methods. */
+    private AsnSchemaRegistry() {}
+
+    // -------------------------------------------------------------------------
+    // PUBLIC METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the schema for the supplied ASN.1 schema source, reading it as per {@link
+     * AsnSchemaReader#read(CharSource)} if the registry does not hold a schema with the same text.
+     * Concurrent calls for the same text parse it once.
+     *
+     * @param source Source of characters from an ASN.1 schema.
+     * @return The schema.
+     * @throws NullPointerException If {@code source} is {@code null}.
+     * @throws IOException if any errors occur while reading or parsing the schema. Schemas which
+     *     fail to parse are not held in the registry.
+     */
+    public static AsnSchema get(final CharSource source) throws IOException {
+        checkNotNull(source);
+        final String contents = source.read();
+        final HashCode hash = Hashing.sha256().hashString(contents, StandardCharsets.UTF_8);
+        try {
+            return schemas.get(hash, () -> AsnSchemaReader.read(CharSource.wrap(contents)));
+        } catch (final ExecutionException ex) {
+            if (ex.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IOException(ex.getCause());
+        } catch (final UncheckedExecutionException ex) {
+            // rethrow the exception raised while parsing
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /** {@return the statistics of schemas found in (hits) and added to (misses) the registry} */
+    public static CacheStats getStats() {
+        return schemas.stats();
+    }
+
+    /** Removes all schemas from the registry. */
+    public static void clear() {
+        schemas.invalidateAll();
+    }
+}
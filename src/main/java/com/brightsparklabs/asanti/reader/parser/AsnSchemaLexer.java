@@ -0,0 +1,370 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.reader.parser;
+
+import static com.google.common.base.Preconditions.*;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Splits ASN.1 schema text into lines in a single pass, as described in {@link
+ * AsnSchemaParser#parse(String)}: comments and redundant whitespace are removed, and the schema
+ * keywords (DEFINITIONS, BEGIN, EXPORTS, IMPORTS and END) and semicolons are placed on their own
+ * lines. Lines are produced as they are iterated over.
+ *
+ * <p>The lines are the same as those produced by applying the following rules in turn to the whole
+ * text:
+ *
+ * <ol>
+ *   <li>carriage returns are removed
+ *   <li>comments starting with {@code --} are removed up to the end of the line, even within block
+ *       comments (so a {@code --} comment may hide the end of a block comment)
+ *   <li>comments enclosed by {@code --} are removed (only when a {@code --} comment is ended by a
+ *       line terminator other than a newline, e.g. {@code U+2028})
+ *   <li>block comments ({@code /* ... *}{@code /}) are removed
+ *   <li>lines ending in a comma are joined to the following line
+ *   <li>runs of tabs and spaces are collapsed to a single space
+ *   <li>the keywords and semicolons are placed on their own lines
+ *   <li>lines are trimmed, and empty lines are dropped
+ * </ol>
+ *
+ * @author brightSPARK Labs
+ */
+final class AsnSchemaLexer extends AbstractIterator<String> {
+    // -------------------------------------------------------------------------
+    // CLASS VARIABLES
+    // -------------------------------------------------------------------------
+
+    /** The schema keywords which are placed on their own lines. */
+    private static final ImmutableSet<String> KEYWORDS =
+            ImmutableSet.of("DEFINITIONS", "BEGIN", "EXPORTS", "IMPORTS", "END");
+
+    // -------------------------------------------------------------------------
+    // INSTANCE VARIABLES
+    // -------------------------------------------------------------------------
+
+    /** The schema text. */
+    private final CharSequence text;
+
+    /** Position of the next character of the text to scan. */
+    private int position = 0;
+
+    /** Whether block comments are recognised (unset once an unterminated one is found). */
+    private boolean blockComments = true;
+
+    /** Tabs and spaces which have been scanned but not passed on, as they may precede a comment. */
+    private final StringBuilder pendingWhitespace = new StringBuilder();
+
+    /** The previous character passed on after removing comments. */
+    private char previous = 0;
+
+    /** The line being built. */
+    private final StringBuilder line = new StringBuilder();
+
+    /** The word (run of {@code [A-Za-z0-9_]}) at the end of the line being built. */
+    private int wordStart = -1;
+
+    /** Whether the line being built ends in a run of tabs and spaces. */
+    private boolean inWhitespace = false;
+
+    /** Lines which have been completed but not returned. */
+    private final Queue<String> lines = new ArrayDeque<>();
+
+    // -------------------------------------------------------------------------
+    // CONSTRUCTION
+    // -------------------------------------------------------------------------
+
+    /**
+     * Default constructor.
+     *
+     * @param text The schema text.
+     * @throws NullPointerException If {@code text} is {@code null}.
+     */
+    AsnSchemaLexer(final CharSequence text) {
+        this.text = checkNotNull(text);
+    }
+
+    // -------------------------------------------------------------------------
+    // IMPLEMENTATION: AbstractIterator
+    // -------------------------------------------------------------------------
+
+    @Override
+    protected String computeNext() {
+        while (lines.isEmpty()) {
+            if (!scan()) {
+                return endOfData();
+            }
+        }
+        return lines.remove();
+    }
+
+    // -------------------------------------------------------------------------
+    // PRIVATE METHODS: Comments
+    // -------------------------------------------------------------------------
+
+    /**
+     * Scans the next character (or comment) of the text.
+     *
+     * @return {@code false} if the end of the text had already been reached.
+     */
+    private boolean scan() {
+        if (position >= text.length()) {
+            if (position == text.length()) {
+                flushWhitespace();
+                endLine();
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        final int start = position;
+        final char c = text.charAt(start);
+        if (c == '\r') {
+            position = next(start);
+        } else if (c == ' ' || c == '\t') {
+            pendingWhitespace.append(c);
+            position = next(start);
+        } else if (isPair(start, '-', '-')) {
+            scanDashes(start);
+        } else if (blockComments && isPair(start, '/', '*')) {
+            flushWhitespace();
+            scanBlockComment(start);
+        } else {
+            flushWhitespace();
+            accept(c);
+            position = next(start);
+        }
+        return true;
+    }
+
+    /**
+     * Scans a comment starting with {@code --} (outside a block comment).
+     *
+     * @param start Position of the first {@code -}.
+     */
+    private void scanDashes(final int start) {
+        final int lineCommentEnd = skipLineComment(start);
+        if (lineCommentEnd >= 0) {
+            // comments to the end of the line are replaced with a new line
+            pendingWhitespace.setLength(0);
+            accept('\n');
+            position = lineCommentEnd;
+            return;
+        }
+
+        final int inlineCommentEnd = skipInlineComment(start);
+        if (inlineCommentEnd >= 0) {
+            pendingWhitespace.setLength(0);
+            position = inlineCommentEnd;
+            return;
+        }
+
+        // not a comment, so the first dash is just text
+        flushWhitespace();
+        accept('-');
+        position = next(start);
+    }
+
+    /**
+     * Scans a block comment. If the block comment is not terminated, block comments are no longer
+     * recognised and the text is scanned again from the start of the block comment.
+     *
+     * @param start Position of the {@code /}.
+     */
+    private void scanBlockComment(final int start) {
+        int i = next(next(start));
+        while (i < text.length()) {
+            if (isPair(i, '-', '-')) {
+                // comments starting with dashes are removed first, so may hide the end
+                final int lineCommentEnd = skipLineComment(i);
+                final int end = lineCommentEnd >= 0 ? lineCommentEnd : skipInlineComment(i);
+                i = end >= 0 ? end : next(i);
+            } else if (isPair(i, '*', '/')) {
+                position = next(next(i));
+                return;
+            } else {
+                i = next(i);
+            }
+        }
+        blockComments = false;
+        position = start;
+    }
+
+    /**
+     * Returns the position after a comment which starts with {@code --} and continues to the end of
+     * the line.
+     *
+     * @param start Position of the first {@code -}.
+     * @return The position after the comment (including the new line ending it), or {@code -1} if
+     *     the line is ended by a line terminator other than a new line.
+     */
+    private int skipLineComment(final int start) {
+        int i = next(next(start));
+        while (i < text.length() && !isLineTerminator(text.charAt(i))) {
+            i = next(i);
+        }
+        if (i >= text.length()) {
+            return i;
+        }
+        return text.charAt(i) == '\n' ? next(i) : -1;
+    }
+
+    /**
+     * Returns the position after a comment which starts and ends with {@code --} on the same line.
+     *
+     * @param start Position of the first {@code -}.
+     * @return The position after the comment, or {@code -1} if the comment is not closed.
+     */
+    private int skipInlineComment(final int start) {
+        int i = next(next(start));
+        while (i < text.length() && !isLineTerminator(text.charAt(i))) {
+            if (isPair(i, '-', '-')) {
+                return next(next(i));
+            }
+            i = next(i);
+        }
+        return -1;
+    }
+
+    /** Passes on any tabs and spaces which were not followed by a comment. */
+    private void flushWhitespace() {
+        for (int i = 0; i < pendingWhitespace.length(); i++) {
+            accept(pendingWhitespace.charAt(i));
+        }
+        pendingWhitespace.setLength(0);
+    }
+
+    // -------------------------------------------------------------------------
+    // PRIVATE METHODS: Lines
+    // -------------------------------------------------------------------------
+
+    /**
+     * Adds a character (with comments removed) to the lines being built.
+     *
+     * @param c The character.
+     */
+    private void accept(final char c) {
+        // lines ending in a comma are joined to the following line
+        final char current = c == '\n' && previous == ',' ? ' ' : c;
+        previous = c;
+
+        if (isWordCharacter(current)) {
+            if (wordStart < 0) {
+                wordStart = line.length();
+            }
+            line.append(current);
+            inWhitespace = false;
+            return;
+        }
+
+        endWord();
+        if (current == '\n') {
+            endLine();
+        } else if (current == ';') {
+            endLine();
+            lines.add(";");
+        } else if (current == ' ' || current == '\t') {
+            if (!inWhitespace) {
+                line.append(' ');
+                inWhitespace = true;
+            }
+        } else {
+            line.append(current);
+            inWhitespace = false;
+        }
+    }
+
+    /** Places the word at the end of the line on its own line if it is a keyword. */
+    private void endWord() {
+        if (wordStart < 0) {
+            return;
+        }
+        final String word = line.substring(wordStart);
+        final int start = wordStart;
+        wordStart = -1;
+        if (KEYWORDS.contains(word)) {
+            line.setLength(start);
+            endLine();
+            lines.add(word);
+        }
+    }
+
+    /** Completes the line being built, dropping it if it is blank. */
+    private void endLine() {
+        endWord();
+        final String trimmed = CharMatcher.whitespace().trimFrom(line);
+        if (!trimmed.isEmpty()) {
+            lines.add(trimmed);
+        }
+        line.setLength(0);
+        inWhitespace = false;
+    }
+
+    // -------------------------------------------------------------------------
+    // PRIVATE METHODS: Characters
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the position of the character after the supplied position, ignoring carriage returns.
+     *
+     * @param i The position.
+     * @return The next position.
+     */
+    private int next(final int i) {
+        int result = i + 1;
+        while (result < text.length() && text.charAt(result) == '\r') {
+            result++;
+        }
+        return result;
+    }
+
+    /**
+     * Determines whether a pair of characters (ignoring carriage returns) is at a position.
+     *
+     * @param i The position.
+     * @param first The first character of the pair.
+     * @param second The second character of the pair.
+     * @return {@code true} if the pair is at the position.
+     */
+    private boolean isPair(final int i, final char first, final char second) {
+        if (text.charAt(i) != first) {
+            return false;
+        }
+        final int j = next(i);
+        return j < text.length() && text.charAt(j) == second;
+    }
+
+    /**
+     * Determines whether a character ends a line (i.e. is not matched by {@code .} in a regular
+     * expression). Carriage returns are ignored.
+     *
+     * @param c The character.
+     * @return {@code true} if the character ends a line.
+     */
+    private static boolean isLineTerminator(final char c) {
+        return c == '\n' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    /**
+     * Determines whether a character is part of a word (as per {@code \w} in a regular expression).
+     *
+     * @param c The character.
+     * @return {@code true} if the character is part of a word.
+     */
+    private static boolean isWordCharacter(final char c) {
+        return (c >= 'a' && c <= 'z')
+                || (c >= 'A' && c <= 'Z')
+                || (c >= '0' && c <= '9')
+                || c == '_';
+    }
+}
@@ -10,15 +10,18 @@ package com.brightsparklabs.asanti.reader.parser;
 import com.brightsparklabs.asanti.model.schema.AsnSchema;
 import com.brightsparklabs.asanti.model.schema.AsnSchemaImpl;
 import com.brightsparklabs.asanti.model.schema.AsnSchemaModule;
-import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.MoreExecutors;
 import java.text.ParseException;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Logic for parsing an ASN.1 schema.
@@ -30,46 +33,28 @@ public class AsnSchemaParser {
     // CONSTANTS
     // -------------------------------------------------------------------------
 
-    /** Pattern to match carriage returns. */
-    private static final Pattern PATTERN_CARRIAGE_RETURN = Pattern.compile("\\r");
-
-    /** Pattern to match comments that are started with -- and end with newline. */
-    private static final Pattern PATTERN_ENDLINE_COMMENTS =
-            Pattern.compile("[\\t ]*--.*?(\\n|\\z)");
-
-    /** Pattern to match comments that are started and ended with --. */
-    private static final Pattern PATTERN_INLINE_COMMENTS = Pattern.compile("[\\t ]*--.*?--");
-
-    /** Pattern to match block comments. */
-    private static final Pattern PATTERN_BLOCK_COMMENTS = Pattern.compile("(?s)/\\*.*?\\*/");
-
-    /** Pattern to match new lines. */
-    private static final Pattern PATTERN_NEW_LINE = Pattern.compile("\\n+");
-
-    /** Pattern to match tabs/spaces. */
-    private static final Pattern PATTERN_TABS_SPACES = Pattern.compile("[\\t ]+");
-
-    /** Pattern to match module header keywords. */
-    private static final Pattern PATTERN_SCHEMA_KEYWORDS =
-            /* NOTE:
-             *
-             * `\\b` inserts a word boundary to prevent matches within larger words.
-             * I.e. we do not want to match `BENDER` as that would turn it into `B\nEND\ner`.
-             */
-            Pattern.compile("\\b(DEFINITIONS|BEGIN|EXPORTS|IMPORTS|END)\\b");
-
-    /** Pattern to match semicolons. */
-    private static final Pattern PATTERN_SEMICOLONS = Pattern.compile(";");
-
-    /** Pattern to join lines that end in a comma. */
-    private static final Pattern PATTERN_COMMA_TERMINATED = Pattern.compile(",\\n");
-
     /** Error message if schema is missing 'END' keyword. */
     private static final String ERROR_MISSING_END_KEYWORD = "Schema is missing an 'END' keyword";
 
     /** Error message if an empty file is encountered. */
     private static final String ERROR_EMPTY_FILE = "Schema is empty";
 
+    /**
+     * Whether the modules of a schema are parsed one after the other on the calling thread, rather
+     * than concurrently. Default: `false`.
+     */
+    private static final boolean SEQUENTIAL =
+            Boolean.getBoolean(
+                    "com.brightsparklabs.asanti.reader.parser.AsnSchemaParser.sequential");
+
+    // -------------------------------------------------------------------------
+    // CLASS VARIABLES
+    // -------------------------------------------------------------------------
+
+    /** Executor to parse modules on. */
+    private static final Executor executor =
+            SEQUENTIAL ? MoreExecutors.directExecutor() : ForkJoinPool.commonPool();
+
     // -------------------------------------------------------------------------
     // PUBLIC METHODS
     // -------------------------------------------------------------------------
@@ -87,23 +72,36 @@ public class AsnSchemaParser {
         }
 
         final Map<String, AsnSchemaModule> modules = Maps.newHashMap();
-        final List<AsnSchemaModule.Builder> moduleBuilders = Lists.newArrayList();
+        final List<CompletableFuture<AsnSchemaModule.Builder>> parsedModules = Lists.newArrayList();
         final Iterator<String> lineIterator = getLines(asnSchema);
 
         String primaryModule = null;
 
-        // parse each module in the schema
-        final List<String> moduleLines = Lists.newArrayList();
+        // parse each module in the schema. Each module is parsed concurrently once the next
+        // module has been found, and the last module is parsed on this thread.
+        List<String> moduleLines = Lists.newArrayList();
+        List<String> previousModuleLines = null;
         while (lineIterator.hasNext()) {
             final String line = lineIterator.next();
             moduleLines.add(line);
             if ("END".equals(line)) {
-                // keep track of all the ModuleBuilders so that we can resolve all the
-                // imports and placeholders at the end.
-                moduleBuilders.add(AsnSchemaModuleParser.parse(moduleLines));
-                moduleLines.clear();
+                if (previousModuleLines != null) {
+                    parsedModules.add(parseModule(previousModuleLines, executor));
+                }
+                previousModuleLines = moduleLines;
+                moduleLines = Lists.newArrayList();
             }
         }
+        if (previousModuleLines != null) {
+            parsedModules.add(parseModule(previousModuleLines, MoreExecutors.directExecutor()));
+        }
+
+        // keep track of all the ModuleBuilders so that we can resolve all the imports and
+        // placeholders at the end.
+        final List<AsnSchemaModule.Builder> moduleBuilders = Lists.newArrayList();
+        for (final CompletableFuture<AsnSchemaModule.Builder> parsedModule : parsedModules) {
+            moduleBuilders.add(getParsedModule(parsedModule));
+        }
 
         if (!moduleLines.isEmpty()) {
             throw new ParseException(ERROR_MISSING_END_KEYWORD, -1);
@@ -138,11 +136,55 @@ public class AsnSchemaParser {
     // PRIVATE METHODS
     // -------------------------------------------------------------------------
 
+    /**
+     * Parses the lines of a module on the supplied executor.
+     *
+     * @param moduleLines The lines of the module.
+     * @param executor Executor to parse the module on.
+     * @return The parsed module.
+     */
+    private static CompletableFuture<AsnSchemaModule.Builder> parseModule(
+            final List<String> moduleLines, final Executor executor) {
+        return CompletableFuture.supplyAsync(
+                () -> {
+                    try {
+                        return AsnSchemaModuleParser.parse(moduleLines);
+                    } catch (final ParseException ex) {
+                        throw new CompletionException(ex);
+                    }
+                },
+                executor);
+    }
+
+    /**
+     * Waits for a module to be parsed.
+     *
+     * @param parsedModule The module being parsed.
+     * @return The parsed module.
+     * @throws ParseException if any errors occurred while parsing the module.
+     */
+    private static AsnSchemaModule.Builder getParsedModule(
+            final CompletableFuture<AsnSchemaModule.Builder> parsedModule) throws ParseException {
+        try {
+            return parsedModule.join();
+        } catch (final CompletionException ex) {
+            // rethrow the exception raised while parsing
+            if (ex.getCause() instanceof ParseException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
     /**
      * Strips out comments and redundant whitespace from the supplied ASN.1 schema and returns the
      * resulting lines. The schema keywords (DEFINITIONS, BEGIN, EXPORTS, IMPORTS and END) will all
      * be presented on their own line. Semicolons which mark the end of IMPORTS/EXPORTS will also be
-     * on their own line. Lines generally appear in the following order:
+     * on their own line. The lines are produced lazily (see {@link AsnSchemaLexer}). Lines
+     * generally appear in the following order:
      *
      * <ul>
      *   <li>module name and identification
@@ -171,21 +213,7 @@ public class AsnSchemaParser {
      * @param asnSchema Schema to parse.
      * @return The lines from the schema.
      */
-    private static Iterator<String> getLines(String asnSchema) {
-        // cull comments and collapse whitespace
-        asnSchema = PATTERN_CARRIAGE_RETURN.matcher(asnSchema).replaceAll("");
-        asnSchema = PATTERN_ENDLINE_COMMENTS.matcher(asnSchema).replaceAll("\n");
-        asnSchema = PATTERN_INLINE_COMMENTS.matcher(asnSchema).replaceAll("");
-        asnSchema = PATTERN_BLOCK_COMMENTS.matcher(asnSchema).replaceAll("");
-        asnSchema = PATTERN_COMMA_TERMINATED.matcher(asnSchema).replaceAll(", ");
-        asnSchema = PATTERN_NEW_LINE.matcher(asnSchema).replaceAll("\n");
-        asnSchema = PATTERN_TABS_SPACES.matcher(asnSchema).replaceAll(" ");
-        // ensure module header keywords appear on separate lines
-        asnSchema = PATTERN_SCHEMA_KEYWORDS.matcher(asnSchema).replaceAll("\n$1\n");
-        asnSchema = PATTERN_SEMICOLONS.matcher(asnSchema).replaceAll("\n;\n");
-
-        final Iterable<String> lines =
-                Splitter.on("\n").trimResults().omitEmptyStrings().split(asnSchema);
-        return lines.iterator();
+    private static Iterator<String> getLines(final String asnSchema) {
+        return new AsnSchemaLexer(asnSchema);
     }
 }
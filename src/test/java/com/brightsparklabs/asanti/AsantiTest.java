@@ -0,0 +1,60 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti;
+
+import static org.junit.Assert.*;
+
+import com.brightsparklabs.asanti.mocks.MockAsnBerFile;
+import com.brightsparklabs.asanti.mocks.model.schema.TestAsnSchema;
+import com.brightsparklabs.asanti.model.data.AsantiAsnData;
+import com.brightsparklabs.asanti.model.schema.AsnSchema;
+import com.brightsparklabs.asanti.model.schema.DecoderTagCache;
+import com.brightsparklabs.asanti.reader.AsnBerDataReader;
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link Asanti}
+ *
+ * @author brightSPARK Labs
+ */
+public class AsantiTest {
+    // -------------------------------------------------------------------------
+    // TESTS
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void testDecodeAsnData_Parsers() throws Exception {
+        final AsnSchema schema = TestAsnSchema.getInstance();
+        final byte[] berData = MockAsnBerFile.createAsnBerDataContainingDocumentPdus(20);
+        final DecoderTagCache cache = Asanti.getDecoderTagCache(schema, "Document");
+
+        // the single pass does not look up PDU schemas in the default cache
+        final long hits = cache.decodeCacheStats().hitCount();
+        final ImmutableList<AsantiAsnData> nativeResult =
+                Asanti.decodeAsnData(berData, schema, "Document", AsnBerDataReader.Parser.NATIVE);
+        assertEquals(hits, cache.decodeCacheStats().hitCount());
+
+        // other parsers read then decode each PDU via the default cache
+        final ImmutableList<AsantiAsnData> bouncyCastleResult =
+                Asanti.decodeAsnData(
+                        berData, schema, "Document", AsnBerDataReader.Parser.BOUNCY_CASTLE);
+        assertTrue(cache.decodeCacheStats().hitCount() >= hits + 19);
+
+        assertEquals(20, nativeResult.size());
+        assertEquals(nativeResult.size(), bouncyCastleResult.size());
+        for (int i = 0; i < nativeResult.size(); i++) {
+            assertEquals(nativeResult.get(i).getAllTags(), bouncyCastleResult.get(i).getAllTags());
+            for (final String tag : nativeResult.get(i).getAllTags()) {
+                assertArrayEquals(
+                        nativeResult.get(i).getBytes(tag).get(),
+                        bouncyCastleResult.get(i).getBytes(tag).get());
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import com.brightsparklabs.asanti.mocks.MockAsnBerFile;
+import com.brightsparklabs.asanti.mocks.model.schema.TestAsnSchema;
+import com.brightsparklabs.asanti.model.data.AsantiAsnData;
+import com.brightsparklabs.asanti.model.data.RawAsnData;
+import com.brightsparklabs.asanti.model.schema.AsnSchema;
+import com.brightsparklabs.asanti.reader.AsnBerDataReader;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link StreamingDecoder}
+ *
+ * @author brightSPARK Labs
+ */
+public class StreamingDecoderTest {
+    // -------------------------------------------------------------------------
+    // TESTS
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void testDecode() throws Exception {
+        final AsnSchema schema = TestAsnSchema.getInstance();
+        final byte[] berData = MockAsnBerFile.createAsnBerDataContainingDocumentPdus(20);
+        final ImmutableList<AsantiAsnData> expected =
+                Asanti.decodeAsnData(berData, schema, "Document");
+
+        try (Stream<AsantiAsnData> pdus =
+                Asanti.decodeAsnDataStream(ByteBuffer.wrap(berData), schema, "Document")) {
+            assertDecoded(expected, pdus.collect(ImmutableList.toImmutableList()));
+        }
+        try (Stream<AsantiAsnData> pdus =
+                Asanti.decodeAsnDataStream(new ByteArrayInputStream(berData), schema, "Document")) {
+            assertDecoded(expected, pdus.collect(ImmutableList.toImmutableList()));
+        }
+
+        final Path file = Files.createTempFile("asanti", ".ber");
+        try {
+            Files.write(file, berData);
+            try (Stream<AsantiAsnData> pdus =
+                    Asanti.decodeAsnDataStream(file, schema, "Document")) {
+                assertDecoded(expected, pdus.collect(ImmutableList.toImmutableList()));
+            }
+        } finally {
+            Files.delete(file);
+        }
+
+        // one at a time on a supplied pool
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final StreamingDecoder instance =
+                    StreamingDecoder.builder(schema, "Document")
+                            .executor(executor)
+                            .maximumInFlight(1)
+                            .build();
+            try (Stream<AsantiAsnData> pdus = instance.decode(ByteBuffer.wrap(berData))) {
+                assertDecoded(expected, pdus.collect(ImmutableList.toImmutableList()));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testDecode_Unordered() throws Exception {
+        final AsnSchema schema = TestAsnSchema.getInstance();
+        final byte[] berData = MockAsnBerFile.createAsnBerDataContainingDocumentPdus(20);
+        final StreamingDecoder instance =
+                StreamingDecoder.builder(schema, "Document").ordered(false).build();
+        try (Stream<AsantiAsnData> pdus = instance.decode(ByteBuffer.wrap(berData))) {
+            final ImmutableList<AsantiAsnData> result =
+                    pdus.collect(ImmutableList.toImmutableList());
+            assertEquals(20, result.size());
+            for (final AsantiAsnData pdu : result) {
+                assertTrue(pdu.contains("/Document/header/published/date"));
+            }
+        }
+    }
+
+    @Test
+    public void testDecode_Bounded() throws Exception {
+        final AsnSchema schema = TestAsnSchema.getInstance();
+        final byte[] berData = MockAsnBerFile.createAsnBerDataContainingDocumentPdus(20);
+        final AtomicInteger read = new AtomicInteger();
+        final Stream<RawAsnData> source =
+                AsnBerDataReader.read(berData).peek(_ -> read.incrementAndGet());
+        final AtomicInteger closed = new AtomicInteger();
+
+        final StreamingDecoder instance =
+                StreamingDecoder.builder(schema, "Document").maximumInFlight(3).build();
+        try (Stream<AsantiAsnData> pdus =
+                instance.decode(source.onClose(closed::incrementAndGet))) {
+            final Iterator<AsantiAsnData> iterator = pdus.iterator();
+            iterator.next();
+            // only the in flight PDUs have been read ahead
+            assertEquals(3, read.get());
+            iterator.next();
+            assertEquals(4, read.get());
+        }
+        assertEquals(1, closed.get());
+    }
+
+    @Test
+    public void testDecode_Closed() throws Exception {
+        final AsnSchema schema = TestAsnSchema.getInstance();
+        final RawAsnData first =
+                AsnBerDataReader.read(MockAsnBerFile.createAsnBerDataContainingDocumentPdus(1))
+                        .findFirst()
+                        .get();
+        final AtomicInteger decoded = new AtomicInteger();
+        final RawAsnData pdu =
+                mock(
+                        RawAsnData.class,
+                        _ -> {
+                            decoded.incrementAndGet();
+                            throw new IllegalStateException("decoded");
+                        });
+
+        // decodes the first PDU straight away, and holds the others until the stream is closed
+        final List<Runnable> tasks = Lists.newArrayList();
+        for (final boolean ordered : new boolean[] {true, false}) {
+            final AtomicInteger submitted = new AtomicInteger();
+            final StreamingDecoder instance =
+                    StreamingDecoder.builder(schema, "Document")
+                            .executor(
+                                    task -> {
+                                        if (submitted.getAndIncrement() == 0) {
+                                            task.run();
+                                        } else {
+                                            tasks.add(task);
+                                        }
+                                    })
+                            .maximumInFlight(3)
+                            .ordered(ordered)
+                            .build();
+            try (Stream<AsantiAsnData> pdus = instance.decode(Stream.of(first, pdu, pdu, pdu))) {
+                assertTrue(pdus.iterator().next().contains("/Document/header/published/date"));
+            }
+        }
+
+        // PDUs which had not started decoding when the stream was closed are not decoded
+        assertEquals(4, tasks.size());
+        tasks.forEach(Runnable::run);
+        assertEquals(0, decoded.get());
+    }
+
+    @Test
+    public void testDecode_Errors() throws Exception {
+        final AsnSchema schema = TestAsnSchema.getInstance();
+        final byte[] berData = MockAsnBerFile.createAsnBerDataContainingDocumentPdus(2);
+
+        // the exception raised while decoding is rethrown to the consumer
+        final RawAsnData invalid =
+                mock(
+                        RawAsnData.class,
+                        _ -> {
+                            throw new IllegalStateException("invalid PDU");
+                        });
+        final StreamingDecoder instance = StreamingDecoder.builder(schema, "Document").build();
+        try (Stream<AsantiAsnData> pdus =
+                instance.decode(
+                        Stream.concat(AsnBerDataReader.read(berData), Stream.of(invalid)))) {
+            pdus.count();
+            fail("IllegalStateException not thrown");
+        } catch (final IllegalStateException ex) {
+            assertEquals("invalid PDU", ex.getMessage());
+        }
+
+        try {
+            StreamingDecoder.builder(schema, "Document").maximumInFlight(0);
+            fail("IllegalArgumentException not thrown");
+        } catch (final IllegalArgumentException ex) {
+        }
+        try {
+            StreamingDecoder.builder(null, "Document");
+            fail("NullPointerException not thrown");
+        } catch (final NullPointerException ex) {
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // PRIVATE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Asserts that PDUs were decoded the same way, in the same order.
+     *
+     * @param expected the expected PDUs
+     * @param actual the PDUs decoded
+     */
+    private static void assertDecoded(
+            final ImmutableList<AsantiAsnData> expected,
+            final ImmutableList<AsantiAsnData> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getAllTags(), actual.get(i).getAllTags());
+            for (final String tag : expected.get(i).getAllTags()) {
+                assertArrayEquals(
+                        expected.get(i).getBytes(tag).get(), actual.get(i).getBytes(tag).get());
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.model.data;
+
+import static org.junit.Assert.*;
+
+import com.brightsparklabs.asanti.mocks.MockAsnBerFile;
+import com.brightsparklabs.asanti.mocks.model.schema.TestAsnSchema;
+import com.brightsparklabs.asanti.model.schema.AsnSchema;
+import com.brightsparklabs.asanti.reader.AsnBerDataReader;
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.BaseEncoding;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+/**
+ * Unit tests for public class {@link LazyAsantiAsnData}
+ *
+ * @author brightSPARK Labs
+ */
+public class LazyAsantiAsnDataTest {
+    // -------------------------------------------------------------------------
+    // FIXTURES
+    // -------------------------------------------------------------------------
+
+    /**
+     * a 'Document' PDU with an aliased header and an unknown tag: { header { published { date
+     * "201501020000Z" } }, aliasHeader (CONTAINING the header), [100] 5 }
+     */
+    private static final byte[] aliasedData =
+            BaseEncoding.base16()
+                    .lowerCase()
+                    .decode(
+                            "302ca111a00f810d3230313530313032303030305a"
+                                    + "87133011a00f810d3230313530313032303030305a"
+                                    + "9f640105");
+
+    // -------------------------------------------------------------------------
+    // TESTS
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void testLazyAsantiAsnData() throws Exception {
+        final AsnSchema schema = TestAsnSchema.getInstance();
+
+        try {
+            new LazyAsantiAsnData(new RawAsnDataImpl(ImmutableMap.of()), schema, " ");
+            fail("IllegalArgumentException not thrown");
+        } catch (final IllegalArgumentException ex) {
+        }
+        try {
+            new LazyAsantiAsnData(null, schema, "Document");
+            fail("NullPointerException not thrown");
+        } catch (final NullPointerException ex) {
+        }
+    }
+
+    @Test
+    public void testMatchesEager() throws Exception {
+        final AsnSchema schema = TestAsnSchema.getInstance();
+        final ImmutableList.Builder<RawAsnData> pdus = ImmutableList.builder();
+        AsnBerDataReader.read(MockAsnBerFile.createAsnBerDataContainingDocumentPdus(2))
+                .forEach(pdus::add);
+        AsnBerDataReader.read(aliasedData).forEach(pdus::add);
+
+        // raw tags without a leading '/', including unknown and aliased tags
+        final byte[] aliasedBytes =
+                BaseEncoding.base16().decode("A00F810D3230323130313031303030305A810101");
+        pdus.add(
+                new RawAsnDataImpl(
+                        ImmutableMap.<String, byte[]>builder()
+                                .put(
+                                        "0[1]/0[0]/1[1]",
+                                        "20150101000000.00Z".getBytes(Charsets.UTF_8))
+                                .put(
+                                        "1[2]/0[0]/0[0]",
+                                        "20150102000000.00Z".getBytes(Charsets.UTF_8))
+                                .put("1[2]/0[0]/0[99]", "/2/0/99".getBytes(Charsets.UTF_8))
+                                .put("1[2]/1[1]/0[1]", "prefix text".getBytes(Charsets.UTF_8))
+                                .put("6[7]", aliasedBytes)
+                                .put("0[99]/0[1]/0[1]", "/99/1/1".getBytes(Charsets.UTF_8))
+                                .build()));
+
+        for (final RawAsnData pdu : pdus.build()) {
+            final AsantiAsnData expected = new AsantiAsnDataImpl(pdu, schema, "Document");
+
+            // access each tag on a new instance, so only the tag's component is decoded
+            for (final String tag : expected.getAllTags()) {
+                assertTrue(tag, new LazyAsantiAsnData(pdu, schema, "Document").contains(tag));
+                assertMatches(expected, new LazyAsantiAsnData(pdu, schema, "Document"), tag);
+            }
+
+            final AsantiAsnData instance = new LazyAsantiAsnData(pdu, schema, "Document");
+            for (final String tag : expected.getAllTags()) {
+                assertMatches(expected, instance, tag);
+                final String rawTag = pdu.getRawTags().contains(tag) ? tag : null;
+                if (rawTag != null) {
+                    assertArrayEquals(
+                            expected.getBytes(rawTag).get(), instance.getBytes(rawTag).get());
+                }
+            }
+            assertFalse(instance.contains("/Document/header/missing"));
+            assertFalse(instance.contains("/Other/header"));
+            assertFalse(instance.getBytes("/Document/header/missing").isPresent());
+            assertFalse(instance.getPrintableString("/Document/header/missing").isPresent());
+
+            // accessing many tags decodes everything
+            assertEquals(expected.getAllTags(), instance.getAllTags());
+            assertEquals(expected.getTags(), instance.getTags());
+            assertEquals(expected.getUnmappedTags(), instance.getUnmappedTags());
+            final Pattern all = Pattern.compile(".*");
+            assertEquals(
+                    outcome(() -> expected.getPrintableStringsMatching(all)),
+                    outcome(() -> instance.getPrintableStringsMatching(all)));
+            assertEquals(expected.getHexStringsMatching(all), instance.getHexStringsMatching(all));
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // PRIVATE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Asserts that a tag is accessed the same way in both instances.
+     *
+     * @param expected the eagerly decoded data
+     * @param instance the lazily decoded data
+     * @param tag the tag to access
+     */
+    private static void assertMatches(
+            final AsantiAsnData expected, final AsantiAsnData instance, final String tag) {
+        assertEquals(tag, expected.getHexString(tag), instance.getHexString(tag));
+        assertEquals(
+                tag,
+                outcome(() -> expected.getPrintableString(tag)),
+                outcome(() -> instance.getPrintableString(tag)));
+        assertEquals(
+                tag,
+                outcome(() -> expected.getDecodedObject(tag, Object.class)),
+                outcome(() -> instance.getDecodedObject(tag, Object.class)));
+    }
+
+    /**
+     * Returns the result of accessing a tag, or a description of the exception thrown.
+     *
+     * @param access accesses the tag
+     * @return the result (with bytes as hex) or exception description
+     */
+    private static Object outcome(final Callable<?> access) {
+        try {
+            final Object result = access.call();
+            // arrays are not equal by content
+            return result instanceof Optional<?> optional
+                            && optional.orElse(null) instanceof byte[] b
+                    ? BaseEncoding.base16().encode(b)
+                    : result;
+        } catch (final Exception ex) {
+            return ex.getClass() + ": " + ex.getMessage();
+        }
+    }
+}
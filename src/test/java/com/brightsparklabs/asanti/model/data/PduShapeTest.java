@@ -0,0 +1,96 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.model.data;
+
+import static org.junit.Assert.*;
+
+import com.brightsparklabs.asanti.mocks.MockAsnBerFile;
+import com.brightsparklabs.asanti.reader.AsnBerDataReader;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link PduShape}
+ *
+ * @author brightSPARK Labs
+ */
+public class PduShapeTest {
+    // -------------------------------------------------------------------------
+    // TESTS
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void testSlicedShape() throws Exception {
+        final ImmutableList<RawAsnData> pdus =
+                AsnBerDataReader.read(MockAsnBerFile.createAsnBerDataContainingDocumentPdus(2))
+                        .collect(ImmutableList.toImmutableList());
+        final PduShape shape = pdus.get(0).getShape();
+        assertEquals(shape, pdus.get(1).getShape());
+        assertEquals(shape.hashCode(), pdus.get(1).getShape().hashCode());
+        assertEquals(pdus.get(0).getRawTags().size(), shape.size());
+
+        // values do not affect the shape
+        final PduShape first = build(new byte[] {1}, 1).getShape();
+        assertEquals(first, build(new byte[] {2, 3}, 1).getShape());
+
+        // tags do
+        assertNotEquals(first, build(new byte[] {1}, 2).getShape());
+        assertNotEquals(first, pdus.get(0).getShape());
+    }
+
+    @Test
+    public void testOf() throws Exception {
+        final ImmutableSet<String> rawTags = ImmutableSet.of("/0[1]/0[0]", "/0[1]/1[1]");
+        final PduShape shape = PduShape.of(rawTags);
+        assertEquals(shape, PduShape.of(ImmutableSet.copyOf(rawTags.asList())));
+        assertEquals(
+                shape,
+                new RawAsnDataImpl(
+                                ImmutableMap.of(
+                                        "/0[1]/0[0]", new byte[0], "/0[1]/1[1]", new byte[] {1}))
+                        .getShape());
+        assertEquals(2, shape.size());
+
+        // order and content matter
+        assertNotEquals(shape, PduShape.of(ImmutableSet.of("/0[1]/1[1]", "/0[1]/0[0]")));
+        assertNotEquals(shape, PduShape.of(ImmutableSet.of("/0[1]/0[0]", "/0[1]/1[2]")));
+        assertNotEquals(shape, PduShape.of(ImmutableSet.of("/0[1]/0[0]")));
+    }
+
+    @Test
+    public void testEquals_Collision() throws Exception {
+        // shapes with the same hash but different structures are not equal
+        final PduShape shape = new PduShape(1, 2, 1, new long[] {1}, new int[] {-1});
+        assertEquals(shape, new PduShape(1, 2, 1, new long[] {1}, new int[] {-1}));
+        assertNotEquals(shape, new PduShape(1, 2, 1, new long[] {2}, new int[] {-1}));
+        assertNotEquals(shape, new PduShape(1, 3, 1, new long[] {1}, new int[] {-1}));
+    }
+
+    // -------------------------------------------------------------------------
+    // PRIVATE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Builds data containing a single value.
+     *
+     * @param value the value
+     * @param tagNumber the context-specific tag number of the value
+     * @return the data
+     */
+    private static SlicedRawAsnData build(final byte[] value, final int tagNumber) {
+        return SlicedRawAsnData.builder(1)
+                .push(0, 0x20, 16)
+                .push(0, 0x80, tagNumber)
+                .addValue(value)
+                .pop()
+                .pop()
+                .build();
+    }
+}
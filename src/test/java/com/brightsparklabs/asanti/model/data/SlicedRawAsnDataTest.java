@@ -0,0 +1,219 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.model.data;
+
+import static org.junit.Assert.*;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link SlicedRawAsnData}
+ *
+ * @author brightSPARK Labs
+ */
+public class SlicedRawAsnDataTest {
+    // -------------------------------------------------------------------------
+    // FIXTURES
+    // -------------------------------------------------------------------------
+
+    /** array the test instance's slices are views over */
+    private final byte[] backing = "xx/0/0/0/0/1/0/1/0/1".getBytes(Charsets.UTF_8);
+
+    /** instance built with slices relative to an origin of 2 and one materialised value */
+    private final SlicedRawAsnData instance =
+            SlicedRawAsnData.builder(2)
+                    .push(0, 0x80, 1)
+                    .push(0, 0x00, 16)
+                    .push(0, 0x80, 0)
+                    .addSlice(0, 6)
+                    .pop()
+                    .push(1, 0x40, 5)
+                    .addSlice(6, 6)
+                    .pop()
+                    .pop()
+                    .push(1, 0xC0, 99)
+                    .addValue("/99/0".getBytes(Charsets.UTF_8))
+                    .pop()
+                    .push(2, 0x00, 4)
+                    .addSlice(12, 6)
+                    .truncate(0)
+                    .push(1, 0x80, 2)
+                    .addSlice(18, 0)
+                    .build(backing, 2);
+
+    // -------------------------------------------------------------------------
+    // TESTS
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void testBuild() throws Exception {
+        try {
+            SlicedRawAsnData.builder(1).addSlice(0, 4).build(new byte[3], 0);
+            fail("IllegalArgumentException not thrown");
+        } catch (final IllegalArgumentException ex) {
+        }
+
+        try {
+            SlicedRawAsnData.builder(1).addSlice(-1, 1).build(new byte[3], 0);
+            fail("IllegalArgumentException not thrown");
+        } catch (final IllegalArgumentException ex) {
+        }
+
+        try {
+            SlicedRawAsnData.builder(1).addValue(null);
+            fail("NullPointerException not thrown");
+        } catch (final NullPointerException ex) {
+        }
+
+        try {
+            SlicedRawAsnData.builder(1).pop();
+            fail("IllegalStateException not thrown");
+        } catch (final IllegalStateException ex) {
+        }
+
+        try {
+            SlicedRawAsnData.builder(1).push(0, 0x80, 1).truncate(2);
+            fail("IllegalArgumentException not thrown");
+        } catch (final IllegalArgumentException ex) {
+        }
+
+        // duplicate tags keep their last value
+        final SlicedRawAsnData duplicates =
+                SlicedRawAsnData.builder(1)
+                        .push(0, 0x80, 0)
+                        .addSlice(0, 1)
+                        .pop()
+                        .push(1, 0x80, 1)
+                        .addSlice(1, 1)
+                        .pop()
+                        .push(0, 0x80, 0)
+                        .addSlice(2, 1)
+                        .build(new byte[] {1, 2, 3}, 0);
+        assertEquals(ImmutableList.of("/0[0]", "/1[1]"), duplicates.getRawTags().asList());
+        assertArrayEquals(new byte[] {3}, duplicates.getBytes("/0[0]").get());
+
+        // values at the root have an empty tag
+        final SlicedRawAsnData root = SlicedRawAsnData.builder(1).addValue(new byte[] {1}).build();
+        assertEquals(ImmutableList.of(""), root.getRawTags().asList());
+    }
+
+    @Test
+    public void testGetRawTags() throws Exception {
+        assertEquals(
+                ImmutableList.of(
+                        "/0[1]/0[UNIVERSAL 16]/0[0]",
+                        "/0[1]/0[UNIVERSAL 16]/1[APPLICATION 5]",
+                        "/0[1]/1[PRIVATE 99]",
+                        "/0[1]/2[UNIVERSAL 4]",
+                        "/1[2]"),
+                instance.getRawTags().asList());
+        assertTrue(instance.contains("/0[1]/1[PRIVATE 99]"));
+        assertFalse(instance.contains("/0[1]"));
+        assertTrue(instance.contains(Pattern.compile("/0\\[1\\]/0.*")));
+        assertFalse(instance.contains(Pattern.compile("/2.*")));
+        assertFalse(instance.contains((Pattern) null));
+
+        final RawAsnData empty = SlicedRawAsnData.builder(0).build();
+        assertEquals(0, empty.getRawTags().size());
+    }
+
+    @Test
+    public void testGetBytesString() throws Exception {
+        assertArrayEquals(
+                "/0/0/0".getBytes(Charsets.UTF_8),
+                instance.getBytes("/0[1]/0[UNIVERSAL 16]/0[0]").get());
+        assertArrayEquals(
+                "/0/1/0".getBytes(Charsets.UTF_8),
+                instance.getBytes("/0[1]/0[UNIVERSAL 16]/1[APPLICATION 5]").get());
+        assertArrayEquals(
+                "/1/0/1".getBytes(Charsets.UTF_8), instance.getBytes("/0[1]/2[UNIVERSAL 4]").get());
+        assertArrayEquals(
+                "/99/0".getBytes(Charsets.UTF_8), instance.getBytes("/0[1]/1[PRIVATE 99]").get());
+        assertArrayEquals(new byte[0], instance.getBytes("/1[2]").get());
+        assertFalse(instance.getBytes("/fake/0").isPresent());
+
+        // returned arrays are copies
+        instance.getBytes("/0[1]/2[UNIVERSAL 4]").get()[0] = 0;
+        instance.getBytes("/0[1]/1[PRIVATE 99]").get()[0] = 0;
+        assertArrayEquals(
+                "/1/0/1".getBytes(Charsets.UTF_8), instance.getBytes("/0[1]/2[UNIVERSAL 4]").get());
+        assertArrayEquals(
+                "/99/0".getBytes(Charsets.UTF_8), instance.getBytes("/0[1]/1[PRIVATE 99]").get());
+    }
+
+    @Test
+    public void testGetByteBuffer() throws Exception {
+        final ByteBuffer buffer =
+                instance.getByteBuffer("/0[1]/0[UNIVERSAL 16]/1[APPLICATION 5]").get();
+        assertEquals(ByteBuffer.wrap("/0/1/0".getBytes(Charsets.UTF_8)), buffer);
+        assertEquals(0, buffer.position());
+        assertTrue(buffer.isReadOnly());
+        try {
+            buffer.put(0, (byte) 0);
+            fail("ReadOnlyBufferException not thrown");
+        } catch (final ReadOnlyBufferException ex) {
+        }
+
+        // views reflect the backing array
+        backing[11] = '9';
+        assertEquals(ByteBuffer.wrap("/0/9/0".getBytes(Charsets.UTF_8)), buffer);
+
+        assertEquals(
+                ByteBuffer.wrap("/99/0".getBytes(Charsets.UTF_8)),
+                instance.getByteBuffer("/0[1]/1[PRIVATE 99]").get());
+        assertFalse(instance.getByteBuffer("/fake/0").isPresent());
+    }
+
+    @Test
+    public void testGetBytes() throws Exception {
+        final ImmutableMap<String, byte[]> data = instance.getBytes();
+        assertEquals(5, data.size());
+        assertArrayEquals(
+                "/0/0/0".getBytes(Charsets.UTF_8), data.get("/0[1]/0[UNIVERSAL 16]/0[0]"));
+        assertArrayEquals("/99/0".getBytes(Charsets.UTF_8), data.get("/0[1]/1[PRIVATE 99]"));
+        assertArrayEquals(new byte[0], data.get("/1[2]"));
+
+        final ImmutableMap<String, byte[]> matching =
+                instance.getBytesMatching(Pattern.compile(".*UNIVERSAL.*"));
+        assertEquals(
+                ImmutableList.of(
+                        "/0[1]/0[UNIVERSAL 16]/0[0]",
+                        "/0[1]/0[UNIVERSAL 16]/1[APPLICATION 5]",
+                        "/0[1]/2[UNIVERSAL 4]"),
+                matching.keySet().asList());
+        assertArrayEquals("/1/0/1".getBytes(Charsets.UTF_8), matching.get("/0[1]/2[UNIVERSAL 4]"));
+        assertEquals(0, instance.getBytesMatching(null).size());
+    }
+
+    @Test
+    public void testGetRetainedSize() throws Exception {
+        // slices are views over the backing array so do not add to the retained size
+        final long size = instance.getRetainedSize();
+        assertTrue(size > 0 && size < 1024);
+        final SlicedRawAsnData large =
+                SlicedRawAsnData.builder(1)
+                        .push(0, 0x80, 1)
+                        .addSlice(0, 1 << 20)
+                        .build(new byte[1 << 20], 0);
+        assertTrue(large.getRetainedSize() < 1024);
+
+        // materialised values do
+        final SlicedRawAsnData materialised =
+                SlicedRawAsnData.builder(1)
+                        .push(0, 0x80, 1)
+                        .addValue(new byte[1 << 20])
+                        .build(backing, 0);
+        assertTrue(materialised.getRetainedSize() > 1 << 20);
+    }
+}
@@ -10,8 +10,13 @@ package com.brightsparklabs.asanti.model.schema;
 import static org.junit.Assert.*;
 
 import com.brightsparklabs.asanti.mocks.model.schema.MockAsnSchemaModule;
+import com.brightsparklabs.asanti.mocks.model.schema.TestAsnSchema;
+import com.brightsparklabs.asanti.model.schema.type.AsnSchemaType;
+import com.brightsparklabs.asanti.reader.AsnSchemaReader;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.io.CharSource;
 import java.text.ParseException;
+import java.util.Optional;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
@@ -74,4 +79,27 @@ public class AsnSchemaImplTest {
         } catch (final IllegalArgumentException ex) {
         }
     }
+
+    @Test
+    public void testGetType_Cache() throws Exception {
+        final AsnSchemaImpl instance =
+                (AsnSchemaImpl)
+                        AsnSchemaReader.read(CharSource.wrap(TestAsnSchema.TEST_SCHEMA_TEXT));
+
+        // elements of a collection share a cache entry
+        final Optional<AsnSchemaType> type =
+                instance.getType("/Document/footer/authors[0]/firstName");
+        assertTrue(type.isPresent());
+        for (int i = 1; i < 100; i++) {
+            assertEquals(type, instance.getType("/Document/footer/authors[" + i + "]/firstName"));
+        }
+        assertEquals(1, instance.getTypeCacheStats().missCount());
+        assertEquals(99, instance.getTypeCacheStats().hitCount());
+
+        // as do misses
+        assertFalse(instance.getType("/Document/footer/authors[0]/unknown").isPresent());
+        assertFalse(instance.getType("/Document/footer/authors[1]/unknown").isPresent());
+        assertEquals(2, instance.getTypeCacheStats().missCount());
+        assertFalse(instance.getType("").isPresent());
+    }
 }
@@ -0,0 +1,180 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.model.schema;
+
+import static org.junit.Assert.*;
+
+import com.brightsparklabs.asanti.Asanti;
+import com.brightsparklabs.asanti.mocks.MockAsnBerFile;
+import com.brightsparklabs.asanti.mocks.model.schema.TestAsnSchema;
+import com.brightsparklabs.asanti.model.data.AsantiAsnData;
+import com.brightsparklabs.asanti.model.schema.primitive.AsnPrimitiveTypes;
+import com.brightsparklabs.asanti.model.schema.type.AsnSchemaType;
+import com.brightsparklabs.asanti.reader.AsnSchemaReader;
+import com.brightsparklabs.asanti.validator.Validators;
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.CharSource;
+import com.google.common.io.Resources;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link AsnSchemaSnapshot}
+ *
+ * @author brightSPARK Labs
+ */
+public class AsnSchemaSnapshotTest {
+    // -------------------------------------------------------------------------
+    // TESTS
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void testReadWrite() throws Exception {
+        final AsnSchema schema =
+                AsnSchemaReader.read(CharSource.wrap(TestAsnSchema.TEST_SCHEMA_TEXT));
+        final AsnSchema instance = roundTrip(schema);
+
+        // shared instances are preserved
+        final AsnSchemaType date = instance.getType("/Document/header/published/date").get();
+        assertSame(AsnPrimitiveTypes.GENERALIZED_TIME, date.getPrimitiveType());
+        assertSame(AsnSchemaType.NULL, instance.getType("/Unknown").get());
+
+        // the schema decodes and validates the same as the parsed schema
+        final byte[] berData = MockAsnBerFile.createAsnBerDataContainingDocumentPdus(2);
+        final ImmutableList<AsantiAsnData> expected =
+                Asanti.decodeAsnData(berData, schema, "Document");
+        final ImmutableList<AsantiAsnData> actual =
+                Asanti.decodeAsnData(berData, instance, "Document");
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getTags(), actual.get(i).getTags());
+            assertEquals(expected.get(i).getUnmappedTags(), actual.get(i).getUnmappedTags());
+            for (final String tag : expected.get(i).getTags()) {
+                assertEquals(expected.get(i).getHexString(tag), actual.get(i).getHexString(tag));
+                assertEquals(
+                        expected.get(i).getType(tag).get().getBuiltinType(),
+                        actual.get(i).getType(tag).get().getBuiltinType());
+            }
+            assertEquals(
+                    Validators.getDefault().validate(expected.get(i)).getFailures().size(),
+                    Validators.getDefault().validate(actual.get(i)).getFailures().size());
+        }
+    }
+
+    @Test
+    public void testReadWrite_LargeSchema() throws Exception {
+        final AsnSchema schema =
+                AsnSchemaReader.read(
+                        Resources.asCharSource(
+                                getClass().getResource("/EIFv202e.asn"), Charsets.UTF_8));
+        final AsnSchemaImpl instance = (AsnSchemaImpl) roundTrip(schema);
+        final CompiledAsnSchema expected = ((AsnSchemaImpl) schema).getCompiledSchema();
+        final CompiledAsnSchema actual = instance.getCompiledSchema();
+        assertEquals(expected.getTypeCount(), actual.getTypeCount());
+        for (int id = 0; id < expected.getTypeCount(); id++) {
+            assertEquals(
+                    expected.getType(id).getBuiltinType(), actual.getType(id).getBuiltinType());
+            assertEquals(
+                    expected.getType(id).getAllComponents().size(),
+                    actual.getType(id).getAllComponents().size());
+        }
+    }
+
+    @Test
+    public void testRead_Invalid() throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        AsnSchemaSnapshot.write(
+                AsnSchemaReader.read(CharSource.wrap(TestAsnSchema.TEST_SCHEMA_TEXT)), output);
+        final byte[] snapshot = output.toByteArray();
+
+        // not a snapshot
+        assertReadFails("Data is not an ASN.1 schema snapshot", "ASN.1".getBytes(Charsets.UTF_8));
+
+        // different format version
+        final byte[] version = snapshot.clone();
+        version[7] = 99;
+        assertReadFails("Unsupported ASN.1 schema snapshot format version [99]", version);
+
+        // truncated
+        assertReadFails(null, Arrays.copyOf(snapshot, snapshot.length / 2));
+
+        // classes which are not part of a schema are rejected
+        final ByteArrayOutputStream unexpected = new ByteArrayOutputStream();
+        unexpected.write(Arrays.copyOf(snapshot, 8));
+        try (ObjectOutputStream objects = new ObjectOutputStream(unexpected)) {
+            objects.writeUTF("Document-PDU");
+            objects.writeObject(new java.net.URI("http://example.com"));
+        }
+        assertReadFails("filter status: REJECTED", unexpected.toByteArray());
+
+        // object graphs which exceed the limits are rejected
+        Object nested = new Object[0];
+        for (int i = 0; i < 600; i++) {
+            nested = new Object[] {nested};
+        }
+        for (final Object object : new Object[] {new Object[100_001], nested}) {
+            final ByteArrayOutputStream large = new ByteArrayOutputStream();
+            large.write(Arrays.copyOf(snapshot, 8));
+            try (ObjectOutputStream objects = new ObjectOutputStream(large)) {
+                objects.writeUTF("Document-PDU");
+                objects.writeObject(object);
+            }
+            assertReadFails("filter status: REJECTED", large.toByteArray());
+        }
+
+        try {
+            AsnSchemaSnapshot.write(tag -> java.util.Optional.empty(), output);
+            fail("IllegalArgumentException not thrown");
+        } catch (final IllegalArgumentException ex) {
+        }
+        try {
+            AsnSchemaSnapshot.read(null);
+            fail("NullPointerException not thrown");
+        } catch (final NullPointerException ex) {
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // PRIVATE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Writes a snapshot of a schema and reads it back.
+     *
+     * @param schema the schema
+     * @return the schema read from the snapshot
+     * @throws IOException if the snapshot cannot be written or read
+     */
+    private static AsnSchema roundTrip(final AsnSchema schema) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        AsnSchemaSnapshot.write(schema, output);
+        return AsnSchemaSnapshot.read(new ByteArrayInputStream(output.toByteArray()));
+    }
+
+    /**
+     * Asserts that reading a snapshot fails.
+     *
+     * @param message the expected message, or {@code null} to not check the message
+     * @param snapshot the snapshot
+     */
+    private static void assertReadFails(final String message, final byte[] snapshot) {
+        try {
+            AsnSchemaSnapshot.read(new ByteArrayInputStream(snapshot));
+            fail("IOException not thrown");
+        } catch (final IOException ex) {
+            if (message != null) {
+                assertEquals(message, ex.getMessage());
+            }
+        }
+    }
+}
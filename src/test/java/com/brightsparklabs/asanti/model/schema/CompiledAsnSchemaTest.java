@@ -0,0 +1,118 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.model.schema;
+
+import static org.junit.Assert.*;
+
+import com.brightsparklabs.asanti.mocks.model.schema.TestAsnSchema;
+import com.brightsparklabs.asanti.model.schema.type.AsnSchemaComponentType;
+import com.brightsparklabs.asanti.model.schema.type.AsnSchemaType;
+import com.brightsparklabs.asanti.reader.AsnSchemaReader;
+import com.google.common.base.Charsets;
+import com.google.common.io.CharSource;
+import com.google.common.io.Resources;
+import java.util.Optional;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link CompiledAsnSchema}
+ *
+ * @author brightSPARK Labs
+ */
+public class CompiledAsnSchemaTest {
+    // -------------------------------------------------------------------------
+    // TESTS
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void testGetType() throws Exception {
+        final AsnSchemaImpl schema =
+                (AsnSchemaImpl)
+                        AsnSchemaReader.read(CharSource.wrap(TestAsnSchema.TEST_SCHEMA_TEXT));
+        final CompiledAsnSchema instance = schema.getCompiledSchema();
+
+        final AsnSchemaType firstName =
+                instance.getType("/Document/footer/authors[0]/firstName").get();
+        assertSame(firstName, instance.getType("/Document/footer/authors/firstName").get());
+        assertSame(firstName, instance.getType("Document//footer/authors[1][2]/firstName").get());
+        assertSame(firstName, schema.getType("/Document/footer/authors[0]/firstName").get());
+
+        final int documentId = instance.getTypeId("Document");
+        assertSame(instance.getType("/Document").get(), instance.getType(documentId));
+        final int footerId = instance.getComponentTypeId(documentId, "footer");
+        assertSame(instance.getType("/Document/footer").get(), instance.getType(footerId));
+        assertEquals(-1, instance.getComponentTypeId(footerId, "unknown"));
+
+        // unknown tags
+        assertFalse(instance.getType("").isPresent());
+        assertFalse(instance.getType("/Document/unknown").isPresent());
+        assertFalse(instance.getType("/Document/footer/authors[0]/unknown").isPresent());
+        assertEquals(CompiledAsnSchema.NULL_TYPE_ID, instance.getTypeId("Unknown"));
+        assertSame(AsnSchemaType.NULL, instance.getType("/Unknown").get());
+        assertFalse(instance.getType("/Unknown/header").isPresent());
+
+        try {
+            instance.getType(instance.getTypeCount());
+            fail("IndexOutOfBoundsException not thrown");
+        } catch (final IndexOutOfBoundsException ex) {
+        }
+        try {
+            CompiledAsnSchema.compile(null);
+            fail("NullPointerException not thrown");
+        } catch (final NullPointerException ex) {
+        }
+    }
+
+    @Test
+    public void testGetType_MatchesComponents() throws Exception {
+        // every path through the types resolves to the type found by walking the components
+        for (final String resource : new String[] {"/AsantiSample.asn", "/EIFv122.asn"}) {
+            final AsnSchemaImpl schema =
+                    (AsnSchemaImpl)
+                            AsnSchemaReader.read(
+                                    Resources.asCharSource(
+                                            getClass().getResource(resource), Charsets.UTF_8));
+            final CompiledAsnSchema instance = schema.getCompiledSchema();
+            for (int id = 1; id < instance.getTypeCount(); id++) {
+                assertComponents(instance, id, instance.getType(id), 3);
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // PRIVATE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Asserts that the component type ids of a type match its components, recursively.
+     *
+     * @param instance the compiled schema
+     * @param typeId the id of the type
+     * @param type the type
+     * @param depth the number of levels of components to check
+     */
+    private static void assertComponents(
+            final CompiledAsnSchema instance,
+            final int typeId,
+            final AsnSchemaType type,
+            final int depth) {
+        if (depth == 0) {
+            return;
+        }
+        for (final AsnSchemaComponentType component : type.getAllComponents()) {
+            final Optional<AsnSchemaType> expected =
+                    type.getAllComponents().stream()
+                            .filter(c -> c.getName().equals(component.getName()))
+                            .map(AsnSchemaComponentType::getType)
+                            .findFirst();
+            final int componentTypeId = instance.getComponentTypeId(typeId, component.getName());
+            assertSame(expected.get(), instance.getType(componentTypeId));
+            assertComponents(instance, componentTypeId, expected.get(), depth - 1);
+        }
+    }
+}
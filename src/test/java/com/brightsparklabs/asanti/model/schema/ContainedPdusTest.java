@@ -0,0 +1,70 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.model.schema;
+
+import static org.junit.Assert.*;
+
+import com.brightsparklabs.asanti.model.data.RawAsnData;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.BaseEncoding;
+import java.io.IOException;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link ContainedPdus}
+ *
+ * @author brightSPARK Labs
+ */
+public class ContainedPdusTest {
+    // -------------------------------------------------------------------------
+    // TESTS
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void testRead() throws Exception {
+        final byte[] header =
+                BaseEncoding.base16().lowerCase().decode("3011a00f810d3230313530313032303030305a");
+        final ImmutableList<RawAsnData> pdus = ContainedPdus.read(header);
+        assertEquals(1, pdus.size());
+        assertEquals("201501020000Z", new String(pdus.get(0).getBytes("/0[0]/0[1]").get()));
+
+        // bytes with the same content are only read once
+        assertSame(pdus, ContainedPdus.read(header.clone()));
+        assertTrue(ContainedPdus.read(new byte[0]).isEmpty());
+
+        try {
+            ContainedPdus.read(new byte[] {0x30, 0x05, 0x01});
+            fail("IOException not thrown");
+        } catch (final IOException ex) {
+        }
+        try {
+            ContainedPdus.read(null);
+            fail("NullPointerException not thrown");
+        } catch (final NullPointerException ex) {
+        }
+    }
+
+    @Test
+    public void testGetStats() throws Exception {
+        final byte[] header =
+                BaseEncoding.base16().lowerCase().decode("3011a00f810d3230313530313032303030305a");
+        ContainedPdus.clear();
+        final CacheStats before = ContainedPdus.getStats();
+        final ImmutableList<RawAsnData> pdus = ContainedPdus.read(header);
+        ContainedPdus.read(header);
+        final CacheStats stats = ContainedPdus.getStats().minus(before);
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+
+        // cleared PDUs are read again
+        ContainedPdus.clear();
+        assertNotSame(pdus, ContainedPdus.read(header));
+        assertEquals(2, ContainedPdus.getStats().minus(before).missCount());
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.model.schema;
+
+import static org.junit.Assert.*;
+
+import com.brightsparklabs.asanti.mocks.MockAsnBerFile;
+import com.brightsparklabs.asanti.mocks.model.schema.TestAsnSchema;
+import com.brightsparklabs.asanti.model.data.RawAsnData;
+import com.brightsparklabs.asanti.reader.AsnBerDataReader;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.io.BaseEncoding;
+import java.util.Map;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link DecoderTagCache}
+ *
+ * @author brightSPARK Labs
+ */
+public class DecoderTagCacheTest {
+    // -------------------------------------------------------------------------
+    // FIXTURES
+    // -------------------------------------------------------------------------
+
+    /** encoding for converting to/from hex */
+    private static final BaseEncoding hexEncoding = BaseEncoding.base16().lowerCase();
+
+    /** 'Document' PDUs: { header { published { date } } } and { header, aliasHeader } */
+    private static final byte[] berData =
+            hexEncoding.decode(
+                    "3013a111a00f810d3230313530313032303030305a"
+                            + "3028a111a00f810d3230313530313032303030305a"
+                            + "87133011a00f810d3230313530313032303030305a");
+
+    // -------------------------------------------------------------------------
+    // TESTS
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void testGetPduSchema() throws Exception {
+        final AsnSchema schema = TestAsnSchema.getInstance();
+        final DecoderTagCache instance = DecoderTagCache.create();
+        final ImmutableList<RawAsnData> pdus =
+                AsnBerDataReader.read(MockAsnBerFile.createAsnBerDataContainingDocumentPdus(3))
+                        .collect(ImmutableList.toImmutableList());
+
+        final PduSchema first =
+                Decoder.unpackAndDecode(pdus.get(0), schema, "Document", instance).pduSchema();
+        for (final RawAsnData pdu : pdus) {
+            assertSame(
+                    first, Decoder.unpackAndDecode(pdu, schema, "Document", instance).pduSchema());
+        }
+        assertEquals(first, Decoder.unpackAndDecode(pdus.get(0), schema, "Document").pduSchema());
+
+        final DecoderTagCache.Stats stats = instance.decodeCacheStats();
+        assertEquals(1, stats.missCount());
+        assertEquals(3, stats.hitCount());
+        assertEquals(0, stats.evictionCount());
+        assertEquals(1, instance.decodeCache().size());
+
+        // the individual tag cache is disabled by default, so is not looked up
+        assertEquals(new DecoderTagCache.Stats(0, 0, 0), instance.tagCacheStats());
+        assertTrue(instance.tagCache().isEmpty());
+    }
+
+    @Test
+    public void testBounds() throws Exception {
+        final AsnSchema schema = TestAsnSchema.getInstance();
+        final ImmutableList<RawAsnData> pdus =
+                AsnBerDataReader.read(berData).collect(ImmutableList.toImmutableList());
+
+        // room for the smaller PDU schema only
+        final DecoderTagCache instance =
+                DecoderTagCache.builder().maximumPduSchemaTags(3).maximumTags(1).build();
+        Decoder.unpackAndDecode(pdus.get(0), schema, "Document", instance);
+        Decoder.unpackAndDecode(pdus.get(1), schema, "Document", instance);
+        assertEquals(1, instance.decodeCacheStats().evictionCount());
+        assertTrue(instance.tagCacheStats().evictionCount() > 0);
+        assertTrue(instance.tagCache().size() <= 1);
+
+        final DecoderTagCache disabled = DecoderTagCache.builder().maximumPduSchemaTags(0).build();
+        Decoder.unpackAndDecode(pdus.get(0), schema, "Document", disabled);
+        Decoder.unpackAndDecode(pdus.get(0), schema, "Document", disabled);
+        assertEquals(new DecoderTagCache.Stats(0, 0, 0), disabled.decodeCacheStats());
+        assertTrue(disabled.decodeCache().isEmpty());
+
+        try {
+            DecoderTagCache.builder().maximumTags(-1);
+            fail("IllegalArgumentException not thrown");
+        } catch (final IllegalArgumentException ex) {
+        }
+    }
+
+    @Test
+    public void testGetDecodedTag() throws Exception {
+        final AsnSchema schema = TestAsnSchema.getInstance();
+        final ImmutableList<RawAsnData> pdus =
+                AsnBerDataReader.read(berData).collect(ImmutableList.toImmutableList());
+        final Map<String, DecodedTag> tagCache = Maps.newHashMap();
+        final DecoderTagCache instance = new DecoderTagCache(Maps.newHashMap(), tagCache);
+
+        Decoder.unpackAndDecode(pdus.get(0), schema, "Document", instance);
+        assertEquals("/Document/header/published/date", tagCache.get("/0[1]/0[0]/0[1]").tag());
+
+        // the aliased data's tags are keyed by their fully qualified raw tag
+        final PduSchema result =
+                Decoder.unpackAndDecode(pdus.get(1), schema, "Document", instance).pduSchema();
+        assertEquals(
+                "/1[7]/0[0]/0[1]",
+                result.decodedTags().get("/Document/aliasHeader/published/date").rawTag());
+        assertEquals("/Document/aliasHeader/published/date", tagCache.get("/1[7]/0[0]/0[1]").tag());
+        assertEquals(1, instance.tagCacheStats().hitCount());
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.model.schema;
+
+import static org.junit.Assert.*;
+
+import com.brightsparklabs.asanti.common.OperationResult;
+import com.brightsparklabs.asanti.mocks.MockAsnBerFile;
+import com.brightsparklabs.asanti.mocks.model.schema.TestAsnSchema;
+import com.brightsparklabs.asanti.model.data.RawAsnData;
+import com.brightsparklabs.asanti.model.schema.type.AsnSchemaType;
+import com.brightsparklabs.asanti.reader.AsnBerDataReader;
+import com.brightsparklabs.asanti.reader.AsnSchemaReader;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.BaseEncoding;
+import com.google.common.io.CharSource;
+import java.nio.ByteBuffer;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link Decoder}
+ *
+ * @author brightSPARK Labs
+ */
+public class DecoderTest {
+    // -------------------------------------------------------------------------
+    // FIXTURES
+    // -------------------------------------------------------------------------
+
+    /** encoding for converting to/from hex */
+    private static final BaseEncoding hexEncoding = BaseEncoding.base16().lowerCase();
+
+    /**
+     * a 'Document' PDU with an aliased header and an unknown tag: { header { published { date
+     * "201501020000Z" } }, aliasHeader (CONTAINING the header), [100] 5 }
+     */
+    private static final byte[] aliasedData =
+            hexEncoding.decode(
+                    "302ca111a00f810d3230313530313032303030305a"
+                            + "87133011a00f810d3230313530313032303030305a"
+                            + "9f640105");
+
+    // -------------------------------------------------------------------------
+    // TESTS
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void testReadAndDecode() throws Exception {
+        final AsnSchema schema = TestAsnSchema.getInstance();
+        assertReadAndDecodeMatches(
+                MockAsnBerFile.createAsnBerDataContainingDocumentPdus(3), schema, "Document");
+        assertReadAndDecodeMatches(aliasedData, schema, "Document");
+
+        final UnpackedDecodedTags result =
+                Decoder.readAndDecode(ByteBuffer.wrap(aliasedData), schema, "Document");
+        final PduSchema pduSchema = result.pduSchema();
+        assertEquals(
+                "/1[7]/0[0]/0[1]",
+                pduSchema.decodedTags().get("/Document/aliasHeader/published/date").rawTag());
+        assertEquals(1, pduSchema.aliasedTags().size());
+        assertTrue(pduSchema.unmappedTags().containsKey("/Document/2[100]"));
+        assertFalse(pduSchema.unmappedTags().get("/Document/2[100]").isFullyDecoded());
+        assertArrayEquals(
+                hexEncoding.decode("3230313530313032303030305a"),
+                result.unpackedAsnData().getBytes("/1[7]/0[0]/0[1]").get());
+
+        // a buffer without a backing array
+        final ByteBuffer direct =
+                ByteBuffer.allocateDirect(aliasedData.length).put(aliasedData).flip();
+        assertEquals(pduSchema, Decoder.readAndDecode(direct, schema, "Document").pduSchema());
+        assertFalse(direct.hasRemaining());
+    }
+
+    @Test
+    public void testReadAndDecode_ManyAliased() throws Exception {
+        final AsnSchema schema =
+                AsnSchemaReader.read(
+                        CharSource.wrap(
+                                """
+                                Contained DEFINITIONS AUTOMATIC TAGS ::= BEGIN
+                                    Envelope ::= SEQUENCE
+                                    {
+                                        items [0] SEQUENCE OF OCTET STRING (CONTAINING Item)
+                                    }
+                                    Item ::= SEQUENCE
+                                    {
+                                        value [0] INTEGER
+                                    }
+                                END
+                                """));
+        // enough aliased items for their contents to be read concurrently
+        final StringBuilder items = new StringBuilder();
+        for (int i = 0; i < 8; i++) {
+            items.append("0405300380010").append(i);
+        }
+        final byte[] berData = hexEncoding.decode("303aa038" + items);
+        assertReadAndDecodeMatches(berData, schema, "Envelope");
+
+        final UnpackedDecodedTags result =
+                Decoder.readAndDecode(ByteBuffer.wrap(berData), schema, "Envelope");
+        assertEquals(8, result.pduSchema().aliasedTags().size());
+        for (int i = 0; i < 8; i++) {
+            final DecodedTag tag =
+                    result.pduSchema().decodedTags().get("/Envelope/items[" + i + "]/value");
+            assertEquals("/0[0]/" + i + "[UNIVERSAL 4]/0[0]", tag.rawTag());
+            assertArrayEquals(
+                    new byte[] {(byte) i}, result.unpackedAsnData().getBytes(tag.rawTag()).get());
+        }
+    }
+
+    @Test
+    public void testGetDecodedTags() throws Exception {
+        final AsnSchema schema = TestAsnSchema.getInstance();
+        final AsnSchemaType rootType = schema.getType("Document").get();
+        final ImmutableList<RawAsnData> pdus =
+                AsnBerDataReader.read(aliasedData).collect(ImmutableList.toImmutableList());
+        final ImmutableList<String> rawTags =
+                ImmutableList.<String>builder()
+                        .addAll(pdus.get(0).getRawTags())
+                        // a sibling of an unknown tag, and a return to a shared prefix
+                        .add("/2[100]/0[1]", "/0[1]/0[0]/0[1]", "/0[1]")
+                        .build();
+
+        // resolving shared prefixes once gives the same results as resolving each tag in full
+        final DecodingSession session = new DecodingSessionImpl();
+        final ImmutableList<OperationResult<DecodedTag, String>> actual =
+                Decoder.getDecodedTags(rawTags, rootType).asList();
+        assertEquals(rawTags.size(), actual.size());
+        for (int i = 0; i < actual.size(); i++) {
+            final OperationResult<DecodedTag, String> expected =
+                    Decoder.getDecodedTag(rawTags.get(i), rootType, session);
+            assertEquals(expected.wasSuccessful(), actual.get(i).wasSuccessful());
+            assertEquals(expected.getOutput(), actual.get(i).getOutput());
+        }
+        assertEquals("2[100]/0[1]", actual.get(3).getOutput().tag());
+        // the sequence has already moved past the header
+        assertFalse(actual.get(5).wasSuccessful());
+    }
+
+    // -------------------------------------------------------------------------
+    // PRIVATE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Asserts that reading and decoding in a single pass produces the same result as reading the
+     * data and then decoding the raw tags.
+     *
+     * @param berData data to decode
+     * @param schema schema to decode against
+     * @param topLevelTypeName the top level type of the PDUs
+     */
+    private static void assertReadAndDecodeMatches(
+            final byte[] berData, final AsnSchema schema, final String topLevelTypeName)
+            throws Exception {
+        final ImmutableList<RawAsnData> pdus =
+                AsnBerDataReader.read(berData).collect(ImmutableList.toImmutableList());
+        final ByteBuffer buffer = ByteBuffer.wrap(berData);
+        for (final RawAsnData pdu : pdus) {
+            final UnpackedDecodedTags expected =
+                    Decoder.unpackAndDecode(pdu, schema, topLevelTypeName);
+            final UnpackedDecodedTags actual =
+                    Decoder.readAndDecode(buffer, schema, topLevelTypeName);
+
+            assertEquals(expected.pduSchema(), actual.pduSchema());
+            assertEquals(
+                    expected.pduSchema().allTags().keySet().asList(),
+                    actual.pduSchema().allTags().keySet().asList());
+
+            final RawAsnData expectedData = expected.unpackedAsnData();
+            final RawAsnData actualData = actual.unpackedAsnData();
+            assertEquals(expectedData.getRawTags().asList(), actualData.getRawTags().asList());
+            for (final String rawTag : expectedData.getRawTags()) {
+                assertArrayEquals(
+                        expectedData.getBytes(rawTag).get(), actualData.getBytes(rawTag).get());
+            }
+        }
+        assertFalse(buffer.hasRemaining());
+    }
+}
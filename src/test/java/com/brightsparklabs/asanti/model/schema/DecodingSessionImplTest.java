@@ -0,0 +1,74 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.model.schema;
+
+import static org.junit.Assert.*;
+
+import com.brightsparklabs.asanti.model.schema.tag.AsnSchemaTag;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link DecodingSessionImpl}
+ *
+ * @author brightSPARK Labs
+ */
+public class DecodingSessionImplTest {
+    // -------------------------------------------------------------------------
+    // TESTS
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void testGetChildContext() throws Exception {
+        final DecodingSession instance = new DecodingSessionImpl();
+        final int header = instance.getChildContext(DecodingSession.ROOT_CONTEXT, "header");
+        assertNotEquals(DecodingSession.ROOT_CONTEXT, header);
+        assertEquals(header, instance.getChildContext(DecodingSession.ROOT_CONTEXT, "header"));
+
+        // contexts are identified by both their parent and name
+        final int body = instance.getChildContext(DecodingSession.ROOT_CONTEXT, "body");
+        final int nested = instance.getChildContext(header, "header");
+        assertNotEquals(header, body);
+        assertNotEquals(header, nested);
+        assertNotEquals(body, nested);
+
+        // enough contexts to grow the storage
+        int context = nested;
+        for (int i = 0; i < 100; i++) {
+            context = instance.getChildContext(context, "[" + i + "]");
+        }
+        instance.setContext(context);
+        assertEquals(0, instance.getIndex(AsnSchemaTag.create("0[1]")));
+
+        try {
+            instance.setContext(context + 1);
+            fail("IndexOutOfBoundsException not thrown");
+        } catch (final IndexOutOfBoundsException ex) {
+        }
+    }
+
+    @Test
+    public void testGetIndex() throws Exception {
+        final DecodingSession instance = new DecodingSessionImpl();
+        final int header = instance.getChildContext(DecodingSession.ROOT_CONTEXT, "header");
+
+        instance.setContext(DecodingSession.ROOT_CONTEXT);
+        assertEquals(0, instance.getIndex(AsnSchemaTag.create("0[1]")));
+        // the same raw tag (as a different instance) stays at the same index
+        assertEquals(0, instance.getIndex(AsnSchemaTag.create("0[1]")));
+        assertEquals(1, instance.getIndex(AsnSchemaTag.create("1[1]")));
+        assertEquals(2, instance.getIndex(AsnSchemaTag.create("1[2]")));
+        instance.setIndex(AsnSchemaTag.create("2[3]"), 5);
+        assertEquals(5, instance.getIndex(AsnSchemaTag.create("2[3]")));
+
+        // each context has its own index
+        instance.setContext(header);
+        assertEquals(0, instance.getIndex(AsnSchemaTag.create("2[3]")));
+        instance.setContext(DecodingSession.ROOT_CONTEXT);
+        assertEquals(6, instance.getIndex(AsnSchemaTag.create("3[4]")));
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.model.schema.constraint;
+
+import static org.junit.Assert.*;
+
+import com.brightsparklabs.asanti.model.schema.primitive.AsnPrimitiveTypeOctetString;
+import com.brightsparklabs.asanti.validator.FailureType;
+import com.brightsparklabs.asanti.validator.failure.SchemaConstraintValidationFailure;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.BaseEncoding;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link AsnSchemaContainingConstraint}
+ *
+ * @author brightSPARK Labs
+ */
+public class AsnSchemaContainingConstraintTest {
+    // -------------------------------------------------------------------------
+    // TESTS
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void testApply() throws Exception {
+        final AsnSchemaContainingConstraint instance =
+                new AsnSchemaContainingConstraint("Document-PDU", "Header");
+
+        final byte[] header =
+                BaseEncoding.base16().lowerCase().decode("3011a00f810d3230313530313032303030305a");
+        assertTrue(instance.apply(header, new AsnPrimitiveTypeOctetString()).isEmpty());
+        // memoised bytes are checked the same way
+        assertTrue(instance.apply(header.clone(), new AsnPrimitiveTypeOctetString()).isEmpty());
+
+        checkFailure(instance, new byte[0], "Got no PDUs from aliased type, got 0");
+        // length exceeds the data
+        checkFailure(
+                instance, new byte[] {0x30, 0x05, 0x01}, "Failed to parse bytes of aliased type");
+    }
+
+    // -------------------------------------------------------------------------
+    // PRIVATE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Checks that the constraint fails with the expected reason.
+     *
+     * @param instance the constraint to apply
+     * @param bytes the bytes to apply the constraint to
+     * @param expectedFailureReason the expected failure reason
+     */
+    private static void checkFailure(
+            final AsnSchemaContainingConstraint instance,
+            final byte[] bytes,
+            final String expectedFailureReason) {
+        final ImmutableSet<SchemaConstraintValidationFailure> failures =
+                instance.apply(bytes, new AsnPrimitiveTypeOctetString());
+        assertEquals(1, failures.size());
+        final SchemaConstraintValidationFailure failure = failures.iterator().next();
+        assertEquals(FailureType.DataIncorrectlyFormatted, failure.getFailureType());
+        assertEquals(expectedFailureReason, failure.getFailureReason());
+    }
+}
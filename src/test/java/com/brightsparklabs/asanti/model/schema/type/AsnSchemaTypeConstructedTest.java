@@ -466,12 +466,6 @@ public class AsnSchemaTypeConstructedTest {
 
         DecodingSession decodingSession = mock(DecodingSession.class);
 
-        // account for the recursive call that would decorate the tag further.
-        AsnSchemaComponentType recursive =
-                mockedComponent("z/n", "4", false, AsnPrimitiveTypes.INTEGER);
-        when(choice.getMatchingChild(eq("2[4]"), any(DecodingSession.class)))
-                .thenReturn(Optional.of(recursive));
-
         // go straight to the choice
         when(decodingSession.getIndex(any(AsnSchemaTag.class))).thenReturn(2);
 
@@ -487,8 +481,23 @@ public class AsnSchemaTypeConstructedTest {
         final Optional<AsnSchemaComponentType> result =
                 instance.getMatchingChild("2[4]", decodingSession);
         assertTrue(result.isPresent());
+        // the nested choice is flattened and decorated with the fully qualified name
         assertEquals("c/z/n", result.get().getName());
-        assertEquals(recursive.getType(), result.get().getType());
+        assertEquals(choicechoiceComponents.get(1).getType(), result.get().getType());
+        assertEquals(
+                result.get(), instance.getMatchingChild("2[4]", decodingSession).orElseThrow());
+
+        // same tag as a component and a choice alternative, the first from the index is matched
+        final Optional<AsnSchemaComponentType> resultChoice =
+                instance.getMatchingChild("2[2]", decodingSession);
+        assertEquals("c/y", resultChoice.get().getName());
+        verify(decodingSession, times(3)).setIndex(any(AsnSchemaTag.class), eq(2));
+
+        when(decodingSession.getIndex(any(AsnSchemaTag.class))).thenReturn(0);
+        final Optional<AsnSchemaComponentType> resultComponent =
+                instance.getMatchingChild("2[2]", decodingSession);
+        assertEquals("b", resultComponent.get().getName());
+        verify(decodingSession).setIndex(any(AsnSchemaTag.class), eq(1));
     }
 
     @Test
@@ -0,0 +1,193 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.reader;
+
+import static org.junit.Assert.*;
+
+import com.brightsparklabs.asanti.mocks.MockAsnBerFile;
+import com.brightsparklabs.asanti.model.data.RawAsnData;
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link AsnBerDataIndex}
+ *
+ * @author brightSPARK Labs
+ */
+public class AsnBerDataIndexTest {
+    // -------------------------------------------------------------------------
+    // FIXTURES
+    // -------------------------------------------------------------------------
+
+    /** directory containing the files used in each test */
+    private Path directory;
+
+    /** file containing 10 document PDUs */
+    private Path berFile;
+
+    /** the PDUs in {@link #berFile} */
+    private ImmutableList<RawAsnData> pdus;
+
+    // -------------------------------------------------------------------------
+    // SETUP/TEARDOWN
+    // -------------------------------------------------------------------------
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("asanti");
+        berFile = directory.resolve("documents.ber");
+        final byte[] berData = MockAsnBerFile.createAsnBerDataContainingDocumentPdus(10);
+        Files.write(berFile, berData);
+        pdus = AsnBerDataReader.read(berData).collect(ImmutableList.toImmutableList());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (final Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    // -------------------------------------------------------------------------
+    // TESTS
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void testBuild() throws Exception {
+        final Path indexFile = directory.resolve("documents.index");
+        try (final AsnBerDataIndex index = AsnBerDataIndex.build(berFile, indexFile)) {
+            assertEquals(10, index.size());
+            assertEquals(0, index.offset(0));
+            long expectedOffset = 0;
+            for (int i = 0; i < index.size(); i++) {
+                assertEquals(expectedOffset, index.offset(i));
+                expectedOffset += index.length(i);
+            }
+            assertEquals(Files.size(berFile), expectedOffset);
+            assertTrue(index.isCurrent(berFile));
+
+            try {
+                index.offset(10);
+                fail("Out of range PDU was accessed");
+            } catch (final IndexOutOfBoundsException _) {
+                // expected
+            }
+        }
+
+        // re-open the persisted index
+        try (final AsnBerDataIndex index = AsnBerDataIndex.open(indexFile)) {
+            assertEquals(10, index.size());
+            assertEquals(Files.size(berFile), index.offset(9) + index.length(9));
+        }
+    }
+
+    @Test
+    public void testBuild_Empty() throws Exception {
+        final Path emptyFile = directory.resolve("empty.ber");
+        Files.write(emptyFile, new byte[0]);
+        try (final AsnBerDataIndex index =
+                AsnBerDataIndex.build(emptyFile, AsnBerDataIndex.sidecarPath(emptyFile))) {
+            assertEquals(0, index.size());
+        }
+    }
+
+    @Test
+    public void testOpen_Invalid() throws Exception {
+        final Path indexFile = directory.resolve("invalid.idx");
+        Files.write(indexFile, new byte[] {1, 2, 3, 4});
+        try {
+            AsnBerDataIndex.open(indexFile);
+            fail("Invalid index was opened");
+        } catch (final IOException _) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testOpenOrBuild() throws Exception {
+        final Path indexFile = AsnBerDataIndex.sidecarPath(berFile);
+        assertEquals(directory.resolve("documents.ber.idx"), indexFile);
+        assertFalse(Files.exists(indexFile));
+
+        try (final AsnBerDataIndex index = AsnBerDataIndex.openOrBuild(berFile)) {
+            assertEquals(10, index.size());
+        }
+        assertTrue(Files.exists(indexFile));
+
+        // out of date indexes are rebuilt
+        Files.write(berFile, MockAsnBerFile.createAsnBerDataContainingDocumentPdus(3));
+        Files.setLastModifiedTime(
+                berFile, FileTime.fromMillis(Files.getLastModifiedTime(berFile).toMillis() + 1000));
+        try (final AsnBerDataIndex index = AsnBerDataIndex.openOrBuild(berFile)) {
+            assertEquals(3, index.size());
+            assertTrue(index.isCurrent(berFile));
+        }
+
+        // invalid indexes are rebuilt
+        Files.write(indexFile, new byte[] {1, 2, 3, 4});
+        try (final AsnBerDataIndex index = AsnBerDataIndex.openOrBuild(berFile)) {
+            assertEquals(3, index.size());
+        }
+    }
+
+    @Test
+    public void testRead() throws Exception {
+        try (final AsnBerDataIndex index = AsnBerDataIndex.openOrBuild(berFile)) {
+            assertRange(index, 0, 10);
+            assertRange(index, 4, 5);
+            assertRange(index, 7, 10);
+            assertRange(index, 3, 3);
+
+            try {
+                AsnBerDataReader.read(berFile, index, 5, 11);
+                fail("Out of range PDUs were read");
+            } catch (final IndexOutOfBoundsException _) {
+                // expected
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // PRIVATE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Asserts that reading a range of PDUs via the index returns the expected PDUs.
+     *
+     * @param index index of {@link #berFile}
+     * @param fromPdu first PDU to read (inclusive)
+     * @param toPdu last PDU to read (exclusive)
+     */
+    private void assertRange(final AsnBerDataIndex index, final int fromPdu, final int toPdu)
+            throws Exception {
+        final ImmutableList<RawAsnData> actual;
+        try (Stream<RawAsnData> stream = AsnBerDataReader.read(berFile, index, fromPdu, toPdu)) {
+            actual = stream.collect(ImmutableList.toImmutableList());
+        }
+
+        final ImmutableList<RawAsnData> expected = pdus.subList(fromPdu, toPdu);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getRawTags(), actual.get(i).getRawTags());
+            for (final String tag : expected.get(i).getRawTags()) {
+                assertArrayEquals(
+                        expected.get(i).getBytes(tag).get(), actual.get(i).getBytes(tag).get());
+            }
+        }
+    }
+}
@@ -11,9 +11,49 @@ import static org.junit.Assert.*;
 
 import com.brightsparklabs.asanti.mocks.MockAsnBerFile;
 import com.brightsparklabs.asanti.model.data.RawAsnData;
+import com.brightsparklabs.asanti.reader.AsnBerDataReader.Parser;
 import com.google.common.base.Charsets;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import com.google.common.io.BaseEncoding;
+import com.google.common.primitives.Bytes;
+import java.io.ByteArrayInputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.bouncycastle.asn1.ASN1Boolean;
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.ASN1Enumerated;
+import org.bouncycastle.asn1.ASN1GeneralizedTime;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.ASN1UTCTime;
+import org.bouncycastle.asn1.BEROctetString;
+import org.bouncycastle.asn1.BERSequence;
+import org.bouncycastle.asn1.BERTaggedObject;
+import org.bouncycastle.asn1.BERTags;
+import org.bouncycastle.asn1.DERBMPString;
+import org.bouncycastle.asn1.DERBitString;
+import org.bouncycastle.asn1.DERGeneralString;
+import org.bouncycastle.asn1.DERIA5String;
+import org.bouncycastle.asn1.DERNull;
+import org.bouncycastle.asn1.DERNumericString;
+import org.bouncycastle.asn1.DEROctetString;
+import org.bouncycastle.asn1.DERPrintableString;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.asn1.DERSet;
+import org.bouncycastle.asn1.DERT61String;
+import org.bouncycastle.asn1.DERTaggedObject;
+import org.bouncycastle.asn1.DERUTF8String;
+import org.bouncycastle.asn1.DERUniversalString;
+import org.bouncycastle.asn1.DERVisibleString;
 import org.junit.Test;
 
 /**
@@ -163,4 +203,471 @@ public class AsnBerDataReaderTest {
                 "First name is 1000 octets long".getBytes(Charsets.UTF_8),
                 pdu.getBytes("/0[UNIVERSAL 16]/1[2]").get());
     }
+
+    @Test
+    public void testReadNative_MatchesBouncyCastle() throws Exception {
+        assertParsersMatch(MockAsnBerFile.createAsnBerDataContainingPeoplePdus(5));
+        assertParsersMatch(MockAsnBerFile.createAsnBerDataContainingDocumentPdus(5));
+        assertParsersMatch(
+                MockAsnBerFile.createAsnBerData(
+                        5, EXAMPLE_SCHEMA_PEOPLE_PDU_LARGE_OCTET_STRING_BER));
+    }
+
+    @Test
+    public void testReadNative_MatchesBouncyCastleForResources() throws Exception {
+        final Path resources =
+                Path.of(getClass().getResource("/Root_MyInt.ber").toURI()).getParent();
+        final ImmutableList<Path> berFiles;
+        try (Stream<Path> files = Files.list(resources)) {
+            berFiles =
+                    files.filter(file -> file.toString().endsWith(".ber"))
+                            .sorted()
+                            .collect(ImmutableList.toImmutableList());
+        }
+        assertFalse(berFiles.isEmpty());
+        for (final Path berFile : berFiles) {
+            final byte[] berData = Files.readAllBytes(berFile);
+            try {
+                AsnBerDataReader.read(berData, Parser.BOUNCY_CASTLE).forEach(pdu -> {});
+            } catch (final UncheckedIOException _) {
+                // some fixtures are not valid BER so cannot be compared
+                continue;
+            }
+            assertParsersMatch(berData);
+        }
+    }
+
+    @Test
+    public void testReadNative_MatchesBouncyCastleForAllUniversalTypes() throws Exception {
+        final ASN1Encodable[] elements = {
+            ASN1Boolean.TRUE,
+            new ASN1Integer(-129),
+            new DERBitString(new byte[] {0x0F, (byte) 0xF0}),
+            new DEROctetString(new byte[] {0x00, 0x01, (byte) 0xFF}),
+            DERNull.INSTANCE,
+            new ASN1ObjectIdentifier("1.2.840.113549.1"),
+            new ASN1Enumerated(7),
+            new DERUTF8String("h\u00e9llo \u2713"),
+            new DERNumericString("12345"),
+            new DERPrintableString("Printable"),
+            new DERT61String("T61 \u00e9"),
+            new DERIA5String("ia5"),
+            new ASN1UTCTime("260101120000Z"),
+            new ASN1GeneralizedTime("20260101120000Z"),
+            new DERVisibleString("visible"),
+            new DERGeneralString("general"),
+            new DERUniversalString(new byte[] {0x00, 0x00, 0x00, 0x41}),
+            new DERBMPString("\u03a9mega"),
+            new DERSequence(),
+            new DERSet(new ASN1Encodable[] {new ASN1Integer(2), new ASN1Integer(1)}),
+            new DERTaggedObject(true, 5, new ASN1Integer(1)),
+            new DERTaggedObject(false, BERTags.APPLICATION, 3, new DEROctetString(new byte[] {1})),
+            new DERTaggedObject(
+                    true, BERTags.PRIVATE, 40, new DERSequence(new DERIA5String("high tag"))),
+            new BEROctetString(hexEncoding.decode(HEXSTRING_1000_HYPHENS), 100),
+            new BERTaggedObject(true, 2, new BERSequence(new ASN1Integer(3))),
+        };
+
+        // definite length encoding
+        assertParsersMatch(new DERSequence(elements).getEncoded(ASN1Encoding.DER));
+        // indefinite length encoding
+        final byte[] berData = new BERSequence(elements).getEncoded(ASN1Encoding.BER);
+        assertParsersMatch(berData);
+        assertParsersMatch(MockAsnBerFile.createAsnBerData(3, berData));
+
+        final RawAsnData pdu = AsnBerDataReader.read(berData, Parser.NATIVE).findFirst().get();
+        assertArrayEquals(new byte[] {(byte) 0xFF}, pdu.getBytes("/0[UNIVERSAL 1]").get());
+        assertArrayEquals(
+                "h\u00e9llo \u2713".getBytes(Charsets.UTF_8),
+                pdu.getBytes("/7[UNIVERSAL 12]").get());
+        assertArrayEquals(new byte[0], pdu.getBytes("/18[UNIVERSAL 16]").get());
+        assertArrayEquals(
+                "high tag".getBytes(Charsets.UTF_8),
+                pdu.getBytes("/22[PRIVATE 40]/0[UNIVERSAL 16]/0[UNIVERSAL 22]").get());
+        assertArrayEquals(
+                hexEncoding.decode(HEXSTRING_1000_HYPHENS), pdu.getBytes("/23[UNIVERSAL 4]").get());
+        assertArrayEquals(
+                new byte[] {3}, pdu.getBytes("/24[2]/0[UNIVERSAL 16]/0[UNIVERSAL 2]").get());
+
+        // values are the contents octets, as for tagged primitives
+        assertArrayEquals(hexEncoding.decode("ff7f"), pdu.getBytes("/1[UNIVERSAL 2]").get());
+        assertArrayEquals(hexEncoding.decode("000ff0"), pdu.getBytes("/2[UNIVERSAL 3]").get());
+        assertArrayEquals(
+                hexEncoding.decode("2a864886f70d01"), pdu.getBytes("/5[UNIVERSAL 6]").get());
+        assertArrayEquals(
+                "T61 \u00e9".getBytes(Charsets.ISO_8859_1),
+                pdu.getBytes("/10[UNIVERSAL 20]").get());
+        assertArrayEquals(
+                "20260101120000Z".getBytes(Charsets.US_ASCII),
+                pdu.getBytes("/13[UNIVERSAL 24]").get());
+        assertArrayEquals(hexEncoding.decode("00000041"), pdu.getBytes("/16[UNIVERSAL 28]").get());
+        assertArrayEquals(
+                "\u03a9mega".getBytes(Charsets.UTF_16BE), pdu.getBytes("/17[UNIVERSAL 30]").get());
+
+        // non-canonical BOOLEAN values are not normalised
+        final byte[] nonCanonical = hexEncoding.decode("3003010101");
+        assertParsersMatch(nonCanonical);
+        assertArrayEquals(
+                new byte[] {1},
+                AsnBerDataReader.read(nonCanonical)
+                        .findFirst()
+                        .get()
+                        .getBytes("/0[UNIVERSAL 1]")
+                        .get());
+    }
+
+    @Test
+    public void testReadNative_InvalidData() throws Exception {
+        // end-of-contents marker at top level
+        assertInvalid(new byte[] {0x00, 0x00});
+        // truncated contents
+        assertInvalid(new byte[] {0x30, 0x05, 0x02, 0x01, 0x01});
+        // child extends beyond parent
+        assertInvalid(new byte[] {0x30, 0x03, 0x02, 0x02, 0x01, 0x01});
+        // missing end-of-contents marker
+        assertInvalid(new byte[] {0x30, (byte) 0x80, 0x02, 0x01, 0x01});
+        // indefinite length primitive
+        assertInvalid(new byte[] {0x04, (byte) 0x80, 0x00, 0x00});
+    }
+
+    @Test
+    public void testReadMapped() throws Exception {
+        final byte[] berData = MockAsnBerFile.createAsnBerDataContainingDocumentPdus(20);
+        final Path berFile = Files.createTempFile("asanti", ".ber");
+        try {
+            Files.write(berFile, berData);
+            final ImmutableList<RawAsnData> expected =
+                    AsnBerDataReader.read(berData).collect(ImmutableList.toImmutableList());
+
+            final ImmutableList<RawAsnData> actual;
+            try (Stream<RawAsnData> pdus = AsnBerDataReader.readMapped(berFile)) {
+                actual = pdus.collect(ImmutableList.toImmutableList());
+            }
+            // values must remain valid after the mapping is released
+            assertPdusEqual(expected, actual);
+
+            try (Stream<RawAsnData> pdus = AsnBerDataReader.read(berFile)) {
+                assertPdusEqual(expected, pdus.collect(ImmutableList.toImmutableList()));
+            }
+        } finally {
+            Files.delete(berFile);
+        }
+    }
+
+    @Test
+    public void testReadMapped_Closed() throws Exception {
+        final Path berFile = Files.createTempFile("asanti", ".ber");
+        try {
+            Files.write(berFile, MockAsnBerFile.createAsnBerDataContainingPeoplePdus(5));
+            final Stream<RawAsnData> pdus = AsnBerDataReader.readMapped(berFile);
+            final Iterator<RawAsnData> iterator = pdus.iterator();
+            pdus.close();
+            // the file is unmapped once the stream is closed
+            iterator.next();
+            fail("Unmapped file was read");
+        } catch (final IllegalStateException _) {
+            // expected
+        } finally {
+            Files.delete(berFile);
+        }
+    }
+
+    @Test
+    public void testReadParallel() throws Exception {
+        final byte[] berData = MockAsnBerFile.createAsnBerDataContainingDocumentPdus(2000);
+        final ImmutableList<RawAsnData> expected =
+                AsnBerDataReader.read(berData).collect(ImmutableList.toImmutableList());
+        assertEquals(2000, expected.size());
+        assertPdusEqual(
+                expected,
+                AsnBerDataReader.read(berData).parallel().collect(ImmutableList.toImmutableList()));
+    }
+
+    @Test
+    public void testReadSplit() throws Exception {
+        final byte[] berData = MockAsnBerFile.createAsnBerDataContainingDocumentPdus(2000);
+        final Spliterator<RawAsnData> suffix = AsnBerDataReader.read(berData).spliterator();
+        final Spliterator<RawAsnData> prefix = suffix.trySplit();
+        assertNotNull(prefix);
+
+        final List<RawAsnData> prefixPdus = Lists.newArrayList();
+        prefix.forEachRemaining(prefixPdus::add);
+        final List<RawAsnData> suffixPdus = Lists.newArrayList();
+        suffix.forEachRemaining(suffixPdus::add);
+        assertEquals(1000, prefixPdus.size(), 1);
+        assertEquals(2000, prefixPdus.size() + suffixPdus.size());
+
+        // small inputs are not split
+        assertNull(
+                AsnBerDataReader.read(MockAsnBerFile.createAsnBerDataContainingPeoplePdus(2))
+                        .spliterator()
+                        .trySplit());
+    }
+
+    @Test
+    public void testReadResynchronising() throws Exception {
+        final byte[] pdu = MockAsnBerFile.createAsnBerDataContainingDocumentPdus(1);
+        final int length = pdu.length;
+        final byte[] berData =
+                Bytes.concat(
+                        pdu,
+                        pdu,
+                        // tag number too large
+                        hexEncoding.decode("ffffffffff"),
+                        pdu,
+                        // unexpected end-of-contents
+                        hexEncoding.decode("0000"),
+                        pdu,
+                        // truncated
+                        Arrays.copyOf(pdu, 2));
+
+        final List<AsnBerDataReader.SkippedRange> skipped = Lists.newArrayList();
+        final ImmutableList<RawAsnData> pdus =
+                AsnBerDataReader.read(berData, skipped::add)
+                        .collect(ImmutableList.toImmutableList());
+        assertPdusEqual(
+                AsnBerDataReader.read(Bytes.concat(pdu, pdu, pdu, pdu))
+                        .collect(ImmutableList.toImmutableList()),
+                pdus);
+
+        assertEquals(3, skipped.size());
+        assertEquals(2L * length, skipped.get(0).offset());
+        assertEquals(5, skipped.get(0).length());
+        assertEquals(1, skipped.get(0).count());
+        assertEquals((3L * length) + 5, skipped.get(1).offset());
+        assertEquals(2, skipped.get(1).length());
+        assertEquals(2, skipped.get(1).count());
+        assertEquals((4L * length) + 7, skipped.get(2).offset());
+        assertEquals(2, skipped.get(2).length());
+        assertEquals(3, skipped.get(2).count());
+        assertNotNull(skipped.get(2).cause());
+
+        // without resynchronising the stream fails
+        try {
+            AsnBerDataReader.read(berData).toList();
+            fail("Corrupt data was read");
+        } catch (final UncheckedIOException _) {
+            // expected
+        }
+
+        // files are resynchronised the same way
+        final Path berFile = Files.createTempFile("asanti", ".ber");
+        try {
+            Files.write(berFile, berData);
+            skipped.clear();
+            try (Stream<RawAsnData> stream = AsnBerDataReader.read(berFile, skipped::add)) {
+                assertEquals(4, stream.count());
+            }
+            assertEquals(3, skipped.size());
+        } finally {
+            Files.delete(berFile);
+        }
+
+        // data which starts corrupt is resynchronised on the first constructed element
+        skipped.clear();
+        assertEquals(
+                1,
+                AsnBerDataReader.read(Bytes.concat(hexEncoding.decode("0000"), pdu), skipped::add)
+                        .count());
+        assertEquals(1, skipped.size());
+        assertEquals(2, skipped.get(0).length());
+
+        // corrupt PDUs whose framing is intact are skipped whole, rather than reading the elements
+        // within them as PDUs
+        final byte[] corrupt =
+                Bytes.concat(
+                        hexEncoding.decode("3081"),
+                        new byte[] {(byte) (length + 5)},
+                        pdu,
+                        hexEncoding.decode("ffffffffff"));
+        skipped.clear();
+        assertEquals(
+                2, AsnBerDataReader.read(Bytes.concat(pdu, corrupt, pdu), skipped::add).count());
+        assertEquals(1, skipped.size());
+        assertEquals(length, skipped.get(0).offset());
+        assertEquals(corrupt.length, skipped.get(0).length());
+
+        // a truncated PDU's length overruns the PDUs which follow it, so they are searched for
+        // rather than skipping to a fragment within one of them
+        skipped.clear();
+        assertPdusEqual(
+                AsnBerDataReader.read(
+                                hexEncoding.decode("3003800141300380014330038001443003800145"))
+                        .collect(ImmutableList.toImmutableList()),
+                AsnBerDataReader.read(
+                                hexEncoding.decode(
+                                        "3003800141"
+                                                + "300a800142"
+                                                + "3003800143"
+                                                + "3003800144"
+                                                + "3003800145"),
+                                skipped::add)
+                        .collect(ImmutableList.toImmutableList()));
+        assertEquals(1, skipped.size());
+        assertEquals(5, skipped.get(0).offset());
+        assertEquals(5, skipped.get(0).length());
+
+        // as are documents
+        final byte[] truncated = Arrays.copyOf(pdu, length / 2);
+        skipped.clear();
+        assertPdusEqual(
+                AsnBerDataReader.read(Bytes.concat(pdu, pdu, pdu, pdu))
+                        .collect(ImmutableList.toImmutableList()),
+                AsnBerDataReader.read(Bytes.concat(pdu, truncated, pdu, pdu, pdu), skipped::add)
+                        .collect(ImmutableList.toImmutableList()));
+        assertEquals(1, skipped.size());
+        assertEquals(truncated.length, skipped.get(0).length());
+    }
+
+    @Test
+    public void testReadSelected() throws Exception {
+        final byte[] documents = MockAsnBerFile.createAsnBerDataContainingDocumentPdus(5);
+        assertSelected(documents, AsnBerTagSelector.ofPrefixes("/0[1]/0[0]/0[1]"));
+        assertSelected(documents, AsnBerTagSelector.ofPrefixes("/1[2]/1[2]", "/2[3]/0[0]"));
+        assertSelected(documents, AsnBerTagSelector.ofPrefixes("/1[2]/0[0]/1[1]/1[2]/0[5]"));
+        assertSelected(documents, AsnBerTagSelector.ofPrefixes(""));
+        assertSelected(documents, AsnBerTagSelector.ofPrefixes());
+        assertSelected(
+                documents,
+                AsnBerTagSelector.builder()
+                        .addPrefix("/0[1]")
+                        .addPattern(
+                                Pattern.compile("/1\\[2\\]/1\\[2\\]/0\\[2\\]/[0-9]+.*/0\\[1\\]"))
+                        .build());
+        assertSelected(
+                MockAsnBerFile.createAsnBerDataContainingPeoplePdus(5),
+                AsnBerTagSelector.builder().addPattern(Pattern.compile(".*UNIVERSAL 4.*")).build());
+        assertSelected(
+                hexEncoding.decode("a1803080248004010104020203000000000000" + "020105"),
+                AsnBerTagSelector.ofPrefixes("/0[1]/0[UNIVERSAL 16]/0[UNIVERSAL 4]"));
+
+        final ImmutableList<RawAsnData> pdus =
+                AsnBerDataReader.read(documents, AsnBerTagSelector.ofPrefixes("/0[1]/0[0]/0[1]"))
+                        .collect(ImmutableList.toImmutableList());
+        assertEquals(5, pdus.size());
+        assertEquals(ImmutableList.of("/0[1]/0[0]/0[1]"), pdus.get(0).getRawTags().asList());
+
+        // the contents of skipped elements are never examined
+        // SEQUENCE { [0] 1, [1] { <tag number too large> } }
+        final byte[] corrupt = hexEncoding.decode("300a800101a1051fffffffff");
+        final RawAsnData pdu =
+                AsnBerDataReader.read(corrupt, AsnBerTagSelector.ofPrefixes("/0[0]"))
+                        .findFirst()
+                        .get();
+        assertArrayEquals(new byte[] {1}, pdu.getBytes("/0[0]").get());
+        try {
+            AsnBerDataReader.read(corrupt).toList();
+            fail("Corrupt data was read");
+        } catch (final UncheckedIOException _) {
+            // expected
+        }
+
+        // files are read the same way
+        final Path berFile = Files.createTempFile("asanti", ".ber");
+        try {
+            Files.write(berFile, documents);
+            try (Stream<RawAsnData> stream =
+                    AsnBerDataReader.read(
+                            berFile, AsnBerTagSelector.ofPrefixes("/0[1]/0[0]/0[1]"))) {
+                assertPdusEqual(pdus, stream.collect(ImmutableList.toImmutableList()));
+            }
+        } finally {
+            Files.delete(berFile);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // PRIVATE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Asserts that the native parser produces identical output to the BouncyCastle parser for the
+     * supplied data, when reading from both a byte array and a stream.
+     *
+     * @param berData data to parse
+     */
+    private static void assertParsersMatch(final byte[] berData) throws Exception {
+        final ImmutableList<RawAsnData> expected =
+                AsnBerDataReader.read(berData, Parser.BOUNCY_CASTLE)
+                        .collect(ImmutableList.toImmutableList());
+        assertFalse(expected.isEmpty());
+        assertPdusEqual(
+                expected,
+                AsnBerDataReader.read(berData, Parser.NATIVE)
+                        .collect(ImmutableList.toImmutableList()));
+        assertPdusEqual(
+                expected,
+                AsnBerDataReader.read(new ByteArrayInputStream(berData), Parser.NATIVE)
+                        .collect(ImmutableList.toImmutableList()));
+    }
+
+    /**
+     * Asserts that reading the supplied data with a selector produces the same tags and values as
+     * reading all of the data and discarding the tags which are not selected.
+     *
+     * @param berData data to parse
+     * @param selector selector to read with
+     */
+    private static void assertSelected(final byte[] berData, final AsnBerTagSelector selector)
+            throws Exception {
+        final ImmutableList<RawAsnData> all =
+                AsnBerDataReader.read(berData).collect(ImmutableList.toImmutableList());
+        final ImmutableList<RawAsnData> selected =
+                AsnBerDataReader.read(berData, selector).collect(ImmutableList.toImmutableList());
+        assertEquals(all.size(), selected.size());
+        for (int i = 0; i < all.size(); i++) {
+            final ImmutableList<String> expectedTags =
+                    all.get(i).getRawTags().stream()
+                            .filter(selector::matches)
+                            .collect(ImmutableList.toImmutableList());
+            assertEquals(expectedTags, selected.get(i).getRawTags().asList());
+            for (final String tag : expectedTags) {
+                assertArrayEquals(
+                        tag, all.get(i).getBytes(tag).get(), selected.get(i).getBytes(tag).get());
+            }
+        }
+    }
+
+    /**
+     * Asserts that two lists of PDUs contain the same tags (in the same order) and values.
+     *
+     * @param expected expected PDUs
+     * @param actual actual PDUs
+     */
+    private static void assertPdusEqual(
+            final ImmutableList<RawAsnData> expected, final ImmutableList<RawAsnData> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            final RawAsnData expectedPdu = expected.get(i);
+            final RawAsnData actualPdu = actual.get(i);
+            assertEquals(
+                    ImmutableList.copyOf(expectedPdu.getRawTags()),
+                    ImmutableList.copyOf(actualPdu.getRawTags()));
+            for (final String tag : expectedPdu.getRawTags()) {
+                assertArrayEquals(
+                        tag, expectedPdu.getBytes(tag).get(), actualPdu.getBytes(tag).get());
+            }
+        }
+    }
+
+    /**
+     * Asserts that the native parser rejects the supplied data.
+     *
+     * @param berData invalid data to parse
+     */
+    private static void assertInvalid(final byte[] berData) throws Exception {
+        try {
+            AsnBerDataReader.read(berData, Parser.NATIVE).forEach(pdu -> {});
+            fail("Invalid data was parsed: " + hexEncoding.encode(berData));
+        } catch (final UncheckedIOException _) {
+            // expected
+        }
+        try {
+            AsnBerDataReader.read(new ByteArrayInputStream(berData), Parser.NATIVE)
+                    .forEach(pdu -> {});
+            fail("Invalid data was parsed: " + hexEncoding.encode(berData));
+        } catch (final UncheckedIOException _) {
+            // expected
+        }
+    }
 }
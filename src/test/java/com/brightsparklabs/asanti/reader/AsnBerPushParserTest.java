@@ -0,0 +1,240 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.reader;
+
+import static org.junit.Assert.*;
+
+import com.brightsparklabs.asanti.mocks.MockAsnBerFile;
+import com.brightsparklabs.asanti.model.data.RawAsnData;
+import com.google.common.collect.Lists;
+import com.google.common.io.BaseEncoding;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link AsnBerPushParser}
+ *
+ * @author brightSPARK Labs
+ */
+public class AsnBerPushParserTest {
+    // -------------------------------------------------------------------------
+    // FIXTURES
+    // -------------------------------------------------------------------------
+
+    /** encoding for converting to/from hex */
+    private static final BaseEncoding hexEncoding = BaseEncoding.base16().lowerCase();
+
+    /** indefinite length PDUs: [1] { SEQUENCE { OCTET STRING (constructed) { ... } } }, INTEGER */
+    private static final byte[] indefiniteData =
+            hexEncoding.decode("a1803080248004010104020203000000000000" + "020105");
+
+    // -------------------------------------------------------------------------
+    // TESTS
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void testFeed() throws Exception {
+        final byte[] berData = MockAsnBerFile.createAsnBerDataContainingDocumentPdus(20);
+        assertChunkedParse(berData, berData.length);
+        assertChunkedParse(berData, 1);
+        assertChunkedParse(berData, 7);
+        assertChunkedParse(indefiniteData, 1);
+        assertChunkedParse(indefiniteData, 3);
+
+        // random chunk sizes
+        final Random random = new Random(42);
+        final List<RawAsnData> pdus = Lists.newArrayList();
+        final AsnBerPushParser parser = new AsnBerPushParser(pdus::add);
+        int offset = 0;
+        while (offset < berData.length) {
+            final int length = Math.min(random.nextInt(300), berData.length - offset);
+            parser.feed(ByteBuffer.wrap(berData, offset, length));
+            offset += length;
+        }
+        parser.finish();
+        assertPdusEqual(AsnBerDataReader.read(berData).toList(), pdus);
+    }
+
+    @Test
+    public void testFeed_PartialPdu() throws Exception {
+        final List<RawAsnData> pdus = Lists.newArrayList();
+        final AsnBerPushParser parser = new AsnBerPushParser(pdus::add);
+        assertFalse(parser.hasPartialPdu());
+
+        // a complete INTEGER followed by the first half of another
+        parser.feed(ByteBuffer.wrap(hexEncoding.decode("02010502")));
+        assertEquals(1, pdus.size());
+        assertTrue(parser.hasPartialPdu());
+
+        parser.feed(ByteBuffer.wrap(hexEncoding.decode("01")));
+        assertEquals(1, pdus.size());
+        parser.feed(ByteBuffer.wrap(hexEncoding.decode("06")));
+        assertEquals(2, pdus.size());
+        assertArrayEquals(new byte[] {6}, pdus.get(1).getBytes("").get());
+        assertFalse(parser.hasPartialPdu());
+
+        parser.feed(ByteBuffer.wrap(hexEncoding.decode("3080")));
+        try {
+            parser.finish();
+            fail("Partial PDU was not reported");
+        } catch (final EOFException _) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testFeed_Invalid() throws Exception {
+        assertFeedFails("0000");
+        assertFeedFails("3080020101" + "0001");
+        assertFeedFails("1fffffffffff01");
+        assertFeedFails("0480");
+        assertFeedFails("3085ffffffffff");
+        // invalid contents are found once the PDU is complete
+        assertFeedFails("3003" + "1f8001");
+
+        final AsnBerPushParser parser = new AsnBerPushParser(_ -> {});
+        assertFeedFails(parser, "0000");
+        try {
+            parser.feed(ByteBuffer.wrap(hexEncoding.decode("020101")));
+            fail("Failed parser was reused");
+        } catch (final IllegalStateException _) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testRead() throws Exception {
+        final byte[] berData = MockAsnBerFile.createAsnBerDataContainingPeoplePdus(10);
+        final List<RawAsnData> pdus = Lists.newArrayList();
+        final AsnBerPushParser parser = new AsnBerPushParser(pdus::add);
+        try (final ReadableByteChannel channel =
+                Channels.newChannel(new ByteArrayInputStream(berData))) {
+            while (parser.read(channel) >= 0) {
+                // read until end-of-stream
+            }
+        }
+        assertPdusEqual(AsnBerDataReader.read(berData).toList(), pdus);
+    }
+
+    @Test
+    public void testRead_NonBlocking() throws Exception {
+        final byte[] berData = MockAsnBerFile.createAsnBerDataContainingDocumentPdus(3);
+        final List<RawAsnData> pdus = Lists.newArrayList();
+        final AsnBerPushParser parser = new AsnBerPushParser(pdus::add);
+        final Pipe pipe = Pipe.open();
+        pipe.source().configureBlocking(false);
+
+        // no data available
+        assertEquals(0, parser.read(pipe.source()));
+
+        // first half of the data
+        final int half = berData.length / 2;
+        pipe.sink().write(ByteBuffer.wrap(berData, 0, half));
+        int read = 0;
+        while (read < half) {
+            read += parser.read(pipe.source());
+        }
+        assertTrue(parser.hasPartialPdu());
+        final int completed = pdus.size();
+
+        // remainder of the data
+        pipe.sink().write(ByteBuffer.wrap(berData, half, berData.length - half));
+        pipe.sink().close();
+        while (parser.read(pipe.source()) >= 0) {
+            // read until end-of-stream
+        }
+        assertTrue(completed < pdus.size());
+        assertPdusEqual(AsnBerDataReader.read(berData).toList(), pdus);
+
+        final AsnBerPushParser truncated = new AsnBerPushParser(_ -> {});
+        try (final ReadableByteChannel channel =
+                Channels.newChannel(
+                        new ByteArrayInputStream(Arrays.copyOf(berData, berData.length - 1)))) {
+            while (truncated.read(channel) >= 0) {
+                // read until end-of-stream
+            }
+            fail("Truncated PDU was not reported");
+        } catch (final EOFException _) {
+            // expected
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // PRIVATE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Asserts that feeding the supplied data in fixed size chunks produces the same PDUs as {@link
+     * AsnBerDataReader#read(byte[])}.
+     *
+     * @param berData data to feed
+     * @param chunkSize size of each chunk
+     */
+    private static void assertChunkedParse(final byte[] berData, final int chunkSize)
+            throws IOException {
+        final List<RawAsnData> pdus = Lists.newArrayList();
+        final AsnBerPushParser parser = new AsnBerPushParser(pdus::add);
+        for (int offset = 0; offset < berData.length; offset += chunkSize) {
+            parser.feed(
+                    ByteBuffer.wrap(berData, offset, Math.min(chunkSize, berData.length - offset)));
+        }
+        parser.finish();
+        assertPdusEqual(AsnBerDataReader.read(berData).toList(), pdus);
+    }
+
+    /**
+     * Asserts that two lists of PDUs contain the same tags and values.
+     *
+     * @param expected expected PDUs
+     * @param actual actual PDUs
+     */
+    private static void assertPdusEqual(
+            final List<RawAsnData> expected, final List<RawAsnData> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getRawTags(), actual.get(i).getRawTags());
+            for (final String tag : expected.get(i).getRawTags()) {
+                assertArrayEquals(
+                        expected.get(i).getBytes(tag).get(), actual.get(i).getBytes(tag).get());
+            }
+        }
+    }
+
+    /**
+     * Asserts that feeding the supplied data to a new parser fails.
+     *
+     * @param hex hex encoded data to feed
+     */
+    private static void assertFeedFails(final String hex) {
+        assertFeedFails(new AsnBerPushParser(_ -> {}), hex);
+    }
+
+    /**
+     * Asserts that feeding the supplied data to a parser fails.
+     *
+     * @param parser parser to feed
+     * @param hex hex encoded data to feed
+     */
+    private static void assertFeedFails(final AsnBerPushParser parser, final String hex) {
+        try {
+            parser.feed(ByteBuffer.wrap(hexEncoding.decode(hex)));
+            fail("Invalid data was parsed: " + hex);
+        } catch (final IOException _) {
+            // expected
+        }
+    }
+}
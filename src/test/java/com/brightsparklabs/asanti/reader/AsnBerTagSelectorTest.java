@@ -0,0 +1,124 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.reader;
+
+import static org.junit.Assert.*;
+
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link AsnBerTagSelector}
+ *
+ * @author brightSPARK Labs
+ */
+public class AsnBerTagSelectorTest {
+    // -------------------------------------------------------------------------
+    // FIXTURES
+    // -------------------------------------------------------------------------
+
+    /** selector using both prefixes and patterns */
+    private static final AsnBerTagSelector instance =
+            AsnBerTagSelector.builder()
+                    .addPrefix("/0[1]/2[UNIVERSAL 16]")
+                    .addPrefix("/1[APPLICATION 5]/0[PRIVATE 3]")
+                    .addPattern(Pattern.compile("/2\\[3\\]/[0-9]+\\[4\\]"))
+                    .build();
+
+    // -------------------------------------------------------------------------
+    // TESTS
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void testBuilder() throws Exception {
+        for (final String prefix :
+                new String[] {"0[1]", "/0[1]/", "/0[X]", "/0[UNIVERSAL]", "/0[1] ", "/a[1]"}) {
+            try {
+                AsnBerTagSelector.ofPrefixes(prefix);
+                fail("IllegalArgumentException not thrown for " + prefix);
+            } catch (final IllegalArgumentException ex) {
+            }
+        }
+
+        try {
+            AsnBerTagSelector.builder().addPrefix(null);
+            fail("NullPointerException not thrown");
+        } catch (final NullPointerException ex) {
+        }
+
+        try {
+            AsnBerTagSelector.builder().addPattern(null);
+            fail("NullPointerException not thrown");
+        } catch (final NullPointerException ex) {
+        }
+    }
+
+    @Test
+    public void testMatches() throws Exception {
+        assertTrue(instance.matches("/0[1]/2[UNIVERSAL 16]"));
+        assertTrue(instance.matches("/0[1]/2[UNIVERSAL 16]/0[0]"));
+        assertTrue(instance.matches("/1[APPLICATION 5]/0[PRIVATE 3]/1[UNIVERSAL 2]"));
+        assertTrue(instance.matches("/2[3]/12[4]"));
+        assertFalse(instance.matches("/0[1]"));
+        assertFalse(instance.matches("/0[1]/2[UNIVERSAL 160]"));
+        assertFalse(instance.matches("/0[1]/2[16]"));
+        assertFalse(instance.matches("/2[3]/12[4]/0[1]"));
+        assertFalse(instance.matches(""));
+
+        assertTrue(AsnBerTagSelector.ofPrefixes("").matches(""));
+        assertTrue(AsnBerTagSelector.ofPrefixes("").matches("/0[1]"));
+        assertFalse(AsnBerTagSelector.ofPrefixes().matches("/0[1]"));
+    }
+
+    @Test
+    public void testCursor() throws Exception {
+        final AsnBerTagSelector.Cursor cursor = instance.cursor();
+        assertFalse(cursor.isSelected());
+
+        // /0[1]/2[UNIVERSAL 16] and below are selected
+        assertTrue(cursor.enter(0, AsnBerTlvScanner.TAG_CLASS_CONTEXT_SPECIFIC, 1));
+        assertFalse(cursor.isSelected());
+        assertFalse(cursor.enter(0, AsnBerTlvScanner.TAG_CLASS_UNIVERSAL, 16));
+        cursor.exit();
+        assertTrue(cursor.enter(2, AsnBerTlvScanner.TAG_CLASS_UNIVERSAL, 16));
+        assertTrue(cursor.isSelected());
+        assertTrue(cursor.enter(0, AsnBerTlvScanner.TAG_CLASS_CONTEXT_SPECIFIC, 7));
+        assertTrue(cursor.isSelected());
+        cursor.exit();
+        cursor.exit();
+        assertFalse(cursor.isSelected());
+        assertFalse(cursor.enter(3, AsnBerTlvScanner.TAG_CLASS_UNIVERSAL, 16));
+        cursor.exit();
+        cursor.exit();
+
+        // only tags which may match the pattern are entered
+        assertFalse(cursor.enter(2, AsnBerTlvScanner.TAG_CLASS_CONTEXT_SPECIFIC, 30));
+        cursor.exit();
+        assertTrue(cursor.enter(2, AsnBerTlvScanner.TAG_CLASS_CONTEXT_SPECIFIC, 3));
+        assertFalse(cursor.isSelected());
+        assertFalse(cursor.enter(0, AsnBerTlvScanner.TAG_CLASS_CONTEXT_SPECIFIC, 5));
+        cursor.exit();
+        assertTrue(cursor.enter(1, AsnBerTlvScanner.TAG_CLASS_CONTEXT_SPECIFIC, 4));
+        assertTrue(cursor.isSelected());
+        assertFalse(cursor.enter(0, AsnBerTlvScanner.TAG_CLASS_CONTEXT_SPECIFIC, 1));
+        assertFalse(cursor.isSelected());
+        cursor.exit();
+        cursor.exit();
+        cursor.exit();
+
+        // prefixes are compared by segment
+        assertFalse(cursor.enter(1, AsnBerTlvScanner.TAG_CLASS_CONTEXT_SPECIFIC, 5));
+        cursor.exit();
+        assertTrue(cursor.enter(1, AsnBerTlvScanner.TAG_CLASS_APPLICATION, 5));
+        assertTrue(cursor.enter(0, AsnBerTlvScanner.TAG_CLASS_PRIVATE, 3));
+        assertTrue(cursor.isSelected());
+        cursor.exit();
+        cursor.exit();
+        assertFalse(cursor.isSelected());
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.reader;
+
+import static org.junit.Assert.*;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.io.BaseEncoding;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link AsnBerTlvScanner}
+ *
+ * @author brightSPARK Labs
+ */
+public class AsnBerTlvScannerTest {
+    // -------------------------------------------------------------------------
+    // FIXTURES
+    // -------------------------------------------------------------------------
+
+    /** encoding for converting to/from hex */
+    private static final BaseEncoding hexEncoding = BaseEncoding.base16().lowerCase();
+
+    // -------------------------------------------------------------------------
+    // TESTS
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void testScan() throws Exception {
+        // SEQUENCE { [0] 'AB'H, [APPLICATION 40] { INTEGER 5 }, SEQUENCE {} }
+        final byte[] berData = hexEncoding.decode("300b8001ab7f28030201053000");
+        final RecordingVisitor visitor = new RecordingVisitor();
+        final int end = AsnBerTlvScanner.scan(ByteBuffer.wrap(berData), 0, visitor);
+
+        assertEquals(berData.length, end);
+        assertEquals(
+                ImmutableList.of(
+                        "enter 0 128 0",
+                        "value 128 0 ab",
+                        "exit",
+                        "enter 1 64 40",
+                        "enter 0 0 2",
+                        "value 0 2 05",
+                        "exit",
+                        "exit",
+                        "enter 2 0 16",
+                        "empty",
+                        "exit"),
+                visitor.events);
+    }
+
+    @Test
+    public void testScan_IndefiniteLength() throws Exception {
+        // [1] { SEQUENCE { OCTET STRING (constructed) { '01'H, '0203'H } } }
+        final byte[] berData = hexEncoding.decode("a1803080248004010104020203000000000000");
+        final RecordingVisitor visitor = new RecordingVisitor();
+        final int end = AsnBerTlvScanner.scan(ByteBuffer.wrap(berData), 0, visitor);
+
+        assertEquals(berData.length, end);
+        assertEquals(
+                ImmutableList.of(
+                        "enter 0 128 1",
+                        "enter 0 0 16",
+                        "enter 0 0 4",
+                        "value 0 4 010203",
+                        "exit",
+                        "exit",
+                        "exit"),
+                visitor.events);
+    }
+
+    @Test
+    public void testScan_Skip() throws Exception {
+        // SEQUENCE { [0] 'AB'H, [APPLICATION 40] { INTEGER 5 }, SEQUENCE {} }
+        final byte[] berData = hexEncoding.decode("300b8001ab7f28030201053000");
+        RecordingVisitor visitor = new RecordingVisitor("enter 0 128 0", "enter 1 64 40");
+        int end = AsnBerTlvScanner.scan(ByteBuffer.wrap(berData), 0, visitor);
+
+        assertEquals(berData.length, end);
+        assertEquals(
+                ImmutableList.of(
+                        "enter 0 128 0",
+                        "exit",
+                        "enter 1 64 40",
+                        "exit",
+                        "enter 2 0 16",
+                        "empty",
+                        "exit"),
+                visitor.events);
+
+        // [1] { SEQUENCE (indefinite) { ... } }, INTEGER 2
+        final byte[] indefinite =
+                hexEncoding.decode("a1803080248004010104020203000000000000020102");
+        visitor = new RecordingVisitor("enter 0 0 16");
+        end = AsnBerTlvScanner.scan(ByteBuffer.wrap(indefinite), 0, visitor);
+        assertEquals(19, end);
+        assertEquals(
+                ImmutableList.of("enter 0 128 1", "enter 0 0 16", "exit", "exit"), visitor.events);
+
+        // the root element can be skipped too
+        visitor = new RecordingVisitor("enter 0 128 1");
+        end = AsnBerTlvScanner.scan(ByteBuffer.wrap(indefinite), 0, visitor);
+        assertEquals(19, end);
+        assertEquals(ImmutableList.of("enter 0 128 1", "exit"), visitor.events);
+
+        // skipped elements must still be well formed
+        try {
+            AsnBerTlvScanner.scan(
+                    ByteBuffer.wrap(hexEncoding.decode("a1803080020101")),
+                    0,
+                    new RecordingVisitor("enter 0 0 16"));
+            fail("Missing end-of-contents marker was skipped");
+        } catch (final IOException _) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testScan_Offset() throws Exception {
+        final byte[] berData = hexEncoding.decode("020101020102");
+        final RecordingVisitor visitor = new RecordingVisitor();
+        final int end = AsnBerTlvScanner.scan(ByteBuffer.wrap(berData), 3, visitor);
+
+        assertEquals(6, end);
+        assertEquals(ImmutableList.of("value 0 2 02"), visitor.events);
+    }
+
+    @Test
+    public void testScan_Invalid() throws Exception {
+        assertScanFails("0000");
+        assertScanFails("3005020101");
+        assertScanFails("0480");
+        assertScanFails("3085ffffffffff");
+        assertScanFails("1f");
+    }
+
+    @Test
+    public void testSkip() throws Exception {
+        final ByteBuffer berData =
+                ByteBuffer.wrap(
+                        hexEncoding.decode(
+                                "3003020101" + "3080a08002010100000201020000" + "5f81000100"));
+        assertEquals(5, AsnBerTlvScanner.skip(berData, 0));
+        assertEquals(19, AsnBerTlvScanner.skip(berData, 5));
+        assertEquals(24, AsnBerTlvScanner.skip(berData, 19));
+
+        try {
+            AsnBerTlvScanner.skip(ByteBuffer.wrap(hexEncoding.decode("3080020101")), 0);
+            fail("Missing end-of-contents marker was skipped");
+        } catch (final IOException _) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testReadTlv() throws Exception {
+        final byte[] definite = hexEncoding.decode("3003020101");
+        final byte[] indefinite = hexEncoding.decode("3080a0800201010000020102" + "0000");
+        final byte[] highTag = hexEncoding.decode("5f81000100");
+        final var inputStream =
+                new ByteArrayInputStream(
+                        hexEncoding.decode(
+                                "3003020101" + "3080a08002010100000201020000" + "5f81000100"));
+
+        assertArrayEquals(definite, AsnBerTlvScanner.readTlv(inputStream));
+        assertArrayEquals(indefinite, AsnBerTlvScanner.readTlv(inputStream));
+        assertArrayEquals(highTag, AsnBerTlvScanner.readTlv(inputStream));
+        assertNull(AsnBerTlvScanner.readTlv(inputStream));
+    }
+
+    @Test
+    public void testReadTlv_Invalid() throws Exception {
+        assertReadTlvFails("0000");
+        assertReadTlvFails("3005020101");
+        assertReadTlvFails("308002010100");
+    }
+
+    // -------------------------------------------------------------------------
+    // PRIVATE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Asserts that scanning the supplied data fails.
+     *
+     * @param hex hex encoded data to scan
+     */
+    private static void assertScanFails(final String hex) {
+        try {
+            AsnBerTlvScanner.scan(
+                    ByteBuffer.wrap(hexEncoding.decode(hex)), 0, new RecordingVisitor());
+            fail("Invalid data was scanned: " + hex);
+        } catch (final IOException _) {
+            // expected
+        }
+    }
+
+    /**
+     * Asserts that reading a TLV from the supplied data fails.
+     *
+     * @param hex hex encoded data to read
+     */
+    private static void assertReadTlvFails(final String hex) {
+        try {
+            AsnBerTlvScanner.readTlv(new ByteArrayInputStream(hexEncoding.decode(hex)));
+            fail("Invalid data was read: " + hex);
+        } catch (final IOException _) {
+            // expected
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // INTERNAL CLASS: RecordingVisitor
+    // -------------------------------------------------------------------------
+
+    /** Records the events raised by the scanner as strings. */
+    private static class RecordingVisitor implements AsnBerTlvScanner.Visitor {
+        /** events raised so far */
+        private final List<String> events = Lists.newArrayList();
+
+        /** enter events for which the element's contents should be skipped */
+        private final List<String> skipped;
+
+        /**
+         * Default constructor.
+         *
+         * @param skipped enter events for which the element's contents should be skipped
+         */
+        private RecordingVisitor(final String... skipped) {
+            this.skipped = ImmutableList.copyOf(skipped);
+        }
+
+        @Override
+        public boolean enter(final int index, final int tagClass, final int tagNumber) {
+            final String event = "enter " + index + " " + tagClass + " " + tagNumber;
+            events.add(event);
+            return !skipped.contains(event);
+        }
+
+        @Override
+        public void exit() {
+            events.add("exit");
+        }
+
+        @Override
+        public void value(
+                final int tagClass,
+                final int tagNumber,
+                final ByteBuffer source,
+                final int offset,
+                final int length) {
+            final byte[] bytes = new byte[length];
+            source.get(offset, bytes);
+            events.add("value " + tagClass + " " + tagNumber + " " + hexEncoding.encode(bytes));
+        }
+
+        @Override
+        public void empty() {
+            events.add("empty");
+        }
+    }
+}
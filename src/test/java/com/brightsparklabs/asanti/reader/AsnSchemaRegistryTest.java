@@ -0,0 +1,108 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.reader;
+
+import static org.junit.Assert.*;
+
+import com.brightsparklabs.asanti.model.schema.AsnSchema;
+import com.google.common.io.CharSource;
+import com.google.common.io.Resources;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link AsnSchemaRegistry}
+ *
+ * @author brightSPARK Labs
+ */
+public class AsnSchemaRegistryTest {
+    // -------------------------------------------------------------------------
+    // FIXTURES
+    // -------------------------------------------------------------------------
+
+    /** Source of the sample schema. */
+    private final CharSource sample =
+            Resources.asCharSource(
+                    Resources.getResource("AsantiSample.asn"), StandardCharsets.UTF_8);
+
+    @Before
+    public void setUp() {
+        AsnSchemaRegistry.clear();
+    }
+
+    // -------------------------------------------------------------------------
+    // TESTS
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void testGet() throws Exception {
+        final long hits = AsnSchemaRegistry.getStats().hitCount();
+        final long misses = AsnSchemaRegistry.getStats().missCount();
+
+        // schemas with the same text are shared, regardless of source
+        final AsnSchema schema = AsnSchemaRegistry.get(sample);
+        assertTrue(schema.getType("Document/header/published").isPresent());
+        assertSame(schema, AsnSchemaRegistry.get(sample));
+        assertSame(schema, AsnSchemaRegistry.get(CharSource.wrap(sample.read())));
+        assertEquals(hits + 2, AsnSchemaRegistry.getStats().hitCount());
+        assertEquals(misses + 1, AsnSchemaRegistry.getStats().missCount());
+
+        // different text is parsed again
+        final AsnSchema other = AsnSchemaRegistry.get(CharSource.wrap(sample.read() + "\n"));
+        assertNotSame(schema, other);
+        assertEquals(misses + 2, AsnSchemaRegistry.getStats().missCount());
+
+        // cleared schemas are parsed again
+        AsnSchemaRegistry.clear();
+        assertNotSame(schema, AsnSchemaRegistry.get(sample));
+    }
+
+    @Test
+    public void testGet_Concurrent() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final Callable<AsnSchema> task = () -> AsnSchemaRegistry.get(sample);
+            final var futures =
+                    executor.invokeAll(IntStream.range(0, 8).mapToObj(i -> task).toList());
+            final AsnSchema schema = futures.get(0).get();
+            for (final Future<AsnSchema> future : futures) {
+                assertSame(schema, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testGet_Errors() throws Exception {
+        try {
+            AsnSchemaRegistry.get(null);
+            fail("NullPointerException not thrown");
+        } catch (final NullPointerException ex) {
+        }
+
+        // schemas which fail to parse are not held
+        final long loadExceptions = AsnSchemaRegistry.getStats().loadExceptionCount();
+        final CharSource invalid = CharSource.wrap("Module DEFINITIONS ::= BEGIN");
+        for (int i = 0; i < 2; i++) {
+            try {
+                AsnSchemaRegistry.get(invalid);
+                fail("IOException not thrown");
+            } catch (final IOException ex) {
+            }
+        }
+        assertEquals(loadExceptions + 2, AsnSchemaRegistry.getStats().loadExceptionCount());
+    }
+}
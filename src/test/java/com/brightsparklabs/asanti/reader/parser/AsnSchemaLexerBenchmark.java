@@ -0,0 +1,103 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.reader.parser;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Resources;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Times splitting the EIF schemas into lines with {@link AsnSchemaLexer} against the regular
+ * expression pipeline it replaced (see {@link AsnSchemaLexerTest#getExpectedLines(String)}).
+ *
+ * <p>Run via {@code ./gradlew benchmarkLexer}, optionally passing the number of timed runs per
+ * schema via {@code --args=<runs>}. Each schema is first split by both and the lines compared, then
+ * split the same number of times again untimed to warm up.
+ *
+ * @author brightSPARK Labs
+ */
+public final class AsnSchemaLexerBenchmark {
+    // -------------------------------------------------------------------------
+    // CONSTANTS
+    // -------------------------------------------------------------------------
+
+    /** The schemas to split. */
+    private static final ImmutableList<String> SCHEMAS =
+            ImmutableList.of("EIFv122.asn", "EIFv202e.asn", "EIFv202eT.asn");
+
+    /** The default number of timed runs per schema. */
+    private static final int DEFAULT_RUNS = 500;
+
+    // -------------------------------------------------------------------------
+    // CONSTRUCTION
+    // -------------------------------------------------------------------------
+
+    /** Private constructor. Run via {@link #main(String[])}. */
+    private AsnSchemaLexerBenchmark() {}
+
+    // -------------------------------------------------------------------------
+    // PUBLIC METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Runs the benchmark, printing the average time taken per schema.
+     *
+     * @param args The number of timed runs per schema (optional).
+     * @throws IOException If a schema cannot be read.
+     */
+    public static void main(final String[] args) throws IOException {
+        final int runs = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RUNS;
+        final Function<String, List<String>> lexer =
+                text -> ImmutableList.copyOf(new AsnSchemaLexer(text));
+        final Function<String, List<String>> regex = AsnSchemaLexerTest::getExpectedLines;
+
+        for (final String schema : SCHEMAS) {
+            final String text =
+                    Resources.toString(Resources.getResource(schema), StandardCharsets.UTF_8);
+            if (!lexer.apply(text).equals(regex.apply(text))) {
+                throw new IllegalStateException("Lexer and regex lines differ for " + schema);
+            }
+
+            time(regex, text, runs);
+            time(lexer, text, runs);
+            System.out.printf(
+                    "%-14s (%4d KB): regex %6.2f ms, lexer %6.2f ms%n",
+                    schema, text.length() / 1024, time(regex, text, runs), time(lexer, text, runs));
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // PRIVATE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Splits schema text into lines repeatedly.
+     *
+     * @param splitter Splits the text into lines.
+     * @param text The schema text.
+     * @param runs The number of times to split the text.
+     * @return The average time taken (in milliseconds).
+     */
+    private static double time(
+            final Function<String, List<String>> splitter, final String text, final int runs) {
+        // sum the line counts so the work cannot be optimised away
+        long lines = 0;
+        final long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            lines += splitter.apply(text).size();
+        }
+        final long elapsed = System.nanoTime() - start;
+        if (lines < runs) {
+            throw new IllegalStateException("No lines produced");
+        }
+        return elapsed / 1e6 / runs;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Maintained by brightSPARK Labs.
+ * www.brightsparklabs.com
+ *
+ * Refer to LICENSE at repository root for license details.
+ */
+
+package com.brightsparklabs.asanti.reader.parser;
+
+import static org.junit.Assert.*;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Resources;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link AsnSchemaLexer}
+ *
+ * @author brightSPARK Labs
+ */
+public class AsnSchemaLexerTest {
+    // -------------------------------------------------------------------------
+    // FIXTURES
+    // -------------------------------------------------------------------------
+
+    /** Tokens used to generate random schema text. */
+    private static final ImmutableList<String> TOKENS =
+            ImmutableList.of(
+                    "-", "--", "/", "*", "/*", "*/", ",", ";", " ", "\t", "\n", "\r", "\r\n",
+                    "\u0085", "\u2028", "\u2029", "END", "BEGIN", "BENDER", "IMPORTS", "_", "a",
+                    "Z9", "::=", "{", "}", "é");
+
+    // -------------------------------------------------------------------------
+    // TESTS
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void testLines() throws Exception {
+        assertLines("");
+        assertLines("  \n\t\n");
+        assertLines("A ::= INTEGER\r\nB ::= BOOLEAN\r\n");
+        assertLines("A ::= INTEGER -- comment\nB ::= BOOLEAN -- comment");
+        assertLines("A ::= INTEGER/* block -- */ still a comment\n*/B ::= BOOLEAN");
+        assertLines("A ::= INTEGER /* unterminated\nB ::= BOOLEAN");
+        assertLines("A ::= INTEGER /* one */ /* unterminated\nB ::= BOOLEAN /* two */");
+        assertLines("A ::= SEQUENCE { a INTEGER, -- comment\nb BOOLEAN }");
+        assertLines("A ::= SEQUENCE { a INTEGER, \nb BOOLEAN,\n\nc BOOLEAN }");
+        assertLines("A ::= SEQUENCE {   a\t\t INTEGER }");
+        assertLines("Module DEFINITIONS ::= BEGIN IMPORTS A FROM B; BENDER ::= ENDER END");
+        assertLines("A-END-BEGIN_END END9 ENDé END");
+        assertLines("A ::= INTEGER -- inline -- \u2028B ::= BOOLEAN -- open \u2029C");
+        assertLines("A ::= INTEGER \u0085-- inline --/* block */ \u2028-");
+        assertLines("A ::= INTEGER -\r-\r comment\r\nB ::= BOOLEAN");
+    }
+
+    @Test
+    public void testLines_Resources() throws Exception {
+        final File[] files =
+                new File(Resources.getResource("AsantiSample.asn").toURI())
+                        .getParentFile()
+                        .listFiles((dir, name) -> name.endsWith(".asn"));
+        assertNotNull(files);
+        assertTrue(files.length > 3);
+        for (final File file : files) {
+            assertLines(Files.readString(file.toPath(), Charsets.ISO_8859_1));
+        }
+    }
+
+    @Test
+    public void testLines_Random() throws Exception {
+        final Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            final StringBuilder text = new StringBuilder();
+            final int length = random.nextInt(30);
+            for (int j = 0; j < length; j++) {
+                text.append(TOKENS.get(random.nextInt(TOKENS.size())));
+            }
+            assertLines(text.toString());
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // PACKAGE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the lines of schema text by applying the rules documented in {@link AsnSchemaLexer}
+     * one after the other (i.e. the regular expression pipeline the lexer replaced).
+     *
+     * @param text The schema text.
+     * @return The expected lines.
+     */
+    static List<String> getExpectedLines(String text) {
+        text = Pattern.compile("\\r").matcher(text).replaceAll("");
+        text = Pattern.compile("[\\t ]*--.*?(\\n|\\z)").matcher(text).replaceAll("\n");
+        text = Pattern.compile("[\\t ]*--.*?--").matcher(text).replaceAll("");
+        text = Pattern.compile("(?s)/\\*.*?\\*/").matcher(text).replaceAll("");
+        text = Pattern.compile(",\\n").matcher(text).replaceAll(", ");
+        text = Pattern.compile("\\n+").matcher(text).replaceAll("\n");
+        text = Pattern.compile("[\\t ]+").matcher(text).replaceAll(" ");
+        text =
+                Pattern.compile("\\b(DEFINITIONS|BEGIN|EXPORTS|IMPORTS|END)\\b")
+                        .matcher(text)
+                        .replaceAll("\n$1\n");
+        text = Pattern.compile(";").matcher(text).replaceAll("\n;\n");
+        return Splitter.on("\n").trimResults().omitEmptyStrings().splitToList(text);
+    }
+
+    // -------------------------------------------------------------------------
+    // PRIVATE METHODS
+    // -------------------------------------------------------------------------
+
+    /**
+     * Asserts that the lexer produces the same lines as applying the rules it implements one after
+     * the other.
+     *
+     * @param text The schema text.
+     */
+    private static void assertLines(final String text) {
+        final List<String> actual = ImmutableList.copyOf(new AsnSchemaLexer(text));
+        assertEquals("Lines of [" + text + "]", getExpectedLines(text), actual);
+    }
+}
@@ -7,7 +7,9 @@
 
 package com.brightsparklabs.asanti.reader.parser;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import com.brightsparklabs.asanti.model.schema.AsnSchema;
@@ -324,4 +326,43 @@ public class AsnSchemaParserTest {
             assertNotNull(actualSchema);
         }
     }
+
+    @Test
+    public void testParse_MultipleModules() throws Exception {
+        final String module =
+                """
+                        %s DEFINITIONS AUTOMATIC TAGS ::=
+                        BEGIN
+                        %s
+                        END
+                        """;
+        final String valid = "Type%d ::= SEQUENCE { value INTEGER }";
+        final String invalid = "this is not a type definition";
+
+        // all modules are parsed, and the first module is the primary module
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            text.append(module.formatted("Module" + i, valid.formatted(i)));
+        }
+        final AsnSchema schema = AsnSchemaParser.parse(text.toString());
+        assertTrue(schema.getType("Type0/value").isPresent());
+        assertFalse(schema.getType("Type1/value").isPresent());
+
+        // errors are raised regardless of which module they occur in
+        for (int i = 0; i < 3; i++) {
+            final String moduleWithError =
+                    module.formatted("Module0", valid.formatted(0))
+                            + module.formatted("Module1", i == 1 ? invalid : valid.formatted(1))
+                            + module.formatted("Module2", i == 2 ? invalid : valid.formatted(2))
+                            + (i == 0 ? "Module3 DEFINITIONS ::= BEGIN" : "");
+            try {
+                AsnSchemaParser.parse(moduleWithError);
+                fail("ParseException not thrown");
+            } catch (final ParseException ex) {
+                assertTrue(
+                        ex.getMessage()
+                                .startsWith(i == 0 ? "Schema is missing" : "Parser expected"));
+            }
+        }
+    }
 }